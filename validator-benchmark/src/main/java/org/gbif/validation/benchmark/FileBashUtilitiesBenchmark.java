@@ -0,0 +1,85 @@
+package org.gbif.validation.benchmark;
+
+import org.gbif.validation.util.FileBashUtilities;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to count the lines of a file, with a warm page cache.
+ * {@link Implementation#WC} is the shell command used before the lines were counted in process.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileBashUtilitiesBenchmark {
+
+  private static final String LINE = "1\tPuma concolor\tCA\t2018-01-01\t45.5\t-73.6\n";
+
+  public enum Implementation {
+    NIO, WC
+  }
+
+  @Param({"NIO", "WC"})
+  public Implementation implementation;
+
+  @Param({"64", "512", "4096"})
+  public int fileSizeInMb;
+
+  private Path file;
+
+  @Setup
+  public void setUp() throws IOException {
+    file = Files.createTempFile("benchmark", ".txt");
+    long fileSize = fileSizeInMb * 1024L * 1024L;
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      for (long written = 0; written < fileSize; written += LINE.length()) {
+        writer.write(LINE);
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Benchmark
+  public int countLines() throws IOException, InterruptedException {
+    if (implementation == Implementation.NIO) {
+      return FileBashUtilities.countLines(file.toString());
+    }
+
+    Process process = new ProcessBuilder("/bin/sh", "-c", String.format("wc -l %s | awk '{print $1;}'", file))
+            .redirectErrorStream(true)
+            .start();
+    try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+      int numberOfLines = Integer.parseInt(reader.readLine().trim());
+      process.waitFor();
+      return numberOfLines;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package org.gbif.validation.benchmark;
+
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.validation.api.model.EvaluationType;
+import org.gbif.validation.api.model.RecordEvaluationResult;
+import org.gbif.validation.collector.RecordEvaluationResultCollector;
+import org.gbif.validation.collector.SampleMemoryBudget;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to count and sample the issues of a record with 2 issues, once the samples are full.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordEvaluationResultCollectorBenchmark {
+
+  private static final int NUMBER_OF_RECORDS = 200_000;
+
+  private List<RecordEvaluationResult> results;
+
+  @Setup
+  public void setUp() {
+    results = new ArrayList<>(NUMBER_OF_RECORDS);
+    for (long lineNumber = 1; lineNumber <= NUMBER_OF_RECORDS; lineNumber++) {
+      String year = Long.toString(lineNumber);
+      Map<Term, String> verbatimRecord = new HashMap<>();
+      verbatimRecord.put(DwcTerm.countryCode, "CA");
+      verbatimRecord.put(DwcTerm.year, year);
+
+      Map<Term, String> dateFields = new HashMap<>();
+      dateFields.put(DwcTerm.year, year);
+      Map<Term, String> countryFields = new HashMap<>();
+      countryFields.put(DwcTerm.countryCode, "CA");
+
+      results.add(RecordEvaluationResult.Builder.of(DwcTerm.Occurrence, lineNumber)
+              .withVerbatimData(verbatimRecord)
+              .addInterpretationDetail(EvaluationType.RECORDED_DATE_INVALID, dateFields)
+              .addInterpretationDetail(EvaluationType.COUNTRY_COORDINATE_MISMATCH, countryFields)
+              .build());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_RECORDS)
+  public RecordEvaluationResultCollector collect() {
+    RecordEvaluationResultCollector collector = new RecordEvaluationResultCollector(
+            RecordEvaluationResultCollector.DEFAULT_MAX_NUMBER_OF_SAMPLE, SampleMemoryBudget.unlimited());
+    for (RecordEvaluationResult result : results) {
+      collector.collect(result);
+    }
+    return collector;
+  }
+}
@@ -0,0 +1,131 @@
+package org.gbif.validation.benchmark;
+
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.utils.file.tabular.TabularDataFileReader;
+import org.gbif.utils.file.tabular.TabularFiles;
+import org.gbif.validation.api.RecordSource;
+import org.gbif.validation.api.RowTypeKey;
+import org.gbif.validation.api.TabularDataFile;
+import org.gbif.validation.source.RecordSourceFactory;
+import org.gbif.validation.util.FileNormalizer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Strings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time to read a record from a normalized CSV file and access all its values.
+ * {@link Implementation#TABULAR_DATA_FILE_READER} is the gbif-common reader used before {@link RecordSource} had its
+ * own reader. Run with -prof gc to get the bytes allocated per record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TabularRecordSourceBenchmark {
+
+  private static final int NUMBER_OF_RECORDS = 100_000;
+
+  public enum Implementation {
+    RECORD_SOURCE, TABULAR_DATA_FILE_READER
+  }
+
+  @Param({"RECORD_SOURCE", "TABULAR_DATA_FILE_READER"})
+  public Implementation implementation;
+
+  @Param({"30", "200"})
+  public int numberOfColumns;
+
+  //approximate size of a record, the values are padded to reach it
+  @Param({"300", "3000"})
+  public int bytesPerRecord;
+
+  private Path csvFile;
+  private TabularDataFile dataFile;
+
+  @Setup
+  public void setUp() throws IOException {
+    //"value" followed by the column index and the padding, plus the delimiter
+    String padding = Strings.repeat("x", Math.max(0, bytesPerRecord / numberOfColumns - 9));
+    csvFile = Files.createTempFile("benchmark", ".csv");
+    try (BufferedWriter writer = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8)) {
+      for (int i = 0; i <= NUMBER_OF_RECORDS; i++) {
+        for (int j = 0; j < numberOfColumns; j++) {
+          if (j > 0) {
+            writer.write(',');
+          }
+          //some values are quoted, with a delimiter inside
+          writer.write(j % 5 == 0 ? "\"value, " + i + padding + "\"" : "value" + j + padding);
+        }
+        writer.write(FileNormalizer.END_LINE);
+      }
+    }
+
+    DwcTerm[] terms = DwcTerm.values();
+    Term[] columns = new Term[numberOfColumns];
+    for (int i = 0; i < numberOfColumns; i++) {
+      columns[i] = terms[i % terms.length];
+    }
+    dataFile = new TabularDataFile(csvFile, "benchmark.csv", RowTypeKey.forCore(DwcTerm.Occurrence), columns, null,
+            null, 0, true, StandardCharsets.UTF_8, ',', '"', NUMBER_OF_RECORDS + 1, NUMBER_OF_RECORDS);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(csvFile);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_RECORDS)
+  public void read(Blackhole blackhole) throws IOException, ParseException {
+    if (implementation == Implementation.RECORD_SOURCE) {
+      try (RecordSource recordSource = RecordSourceFactory.fromTabularDataFile(dataFile)) {
+        consumeAll(recordSource::read, blackhole);
+      }
+    } else {
+      try (TabularDataFileReader<List<String>> reader = TabularFiles.newTabularFileReader(
+              Files.newBufferedReader(csvFile, StandardCharsets.UTF_8), ',', FileNormalizer.END_LINE, '"', true)) {
+        consumeAll(reader::read, blackhole);
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface RecordReader {
+    List<String> read() throws IOException, ParseException;
+  }
+
+  private static void consumeAll(RecordReader reader, Blackhole blackhole) throws IOException, ParseException {
+    List<String> record;
+    while ((record = reader.read()) != null) {
+      for (String value : record) {
+        blackhole.consume(value);
+      }
+    }
+  }
+}
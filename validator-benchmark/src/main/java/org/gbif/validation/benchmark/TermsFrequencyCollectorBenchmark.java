@@ -0,0 +1,114 @@
+package org.gbif.validation.benchmark;
+
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.validation.api.RecordMetricsCollector;
+import org.gbif.validation.collector.CollectorUtils;
+import org.gbif.validation.collector.TermsFrequencyCollector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to count the terms frequency of a record, a third of the cells are blank.
+ * {@link Implementation#CONCURRENT_MAP} is the collector used before the counters per column position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TermsFrequencyCollectorBenchmark {
+
+  private static final int NUMBER_OF_RECORDS = 10_000;
+
+  public enum Implementation {
+    COLUMN_COUNTERS, CONCURRENT_MAP
+  }
+
+  @Param({"COLUMN_COUNTERS", "CONCURRENT_MAP"})
+  public Implementation implementation;
+
+  //200 columns is the width of a wide occurrence file
+  @Param({"20", "200"})
+  public int numberOfColumns;
+
+  private List<Term> columns;
+  private List<List<String>> records;
+
+  @Setup
+  public void setUp() {
+    DwcTerm[] terms = DwcTerm.values();
+    columns = new ArrayList<>(numberOfColumns);
+    for (int i = 0; i < numberOfColumns; i++) {
+      columns.add(terms[i % terms.length]);
+    }
+
+    records = new ArrayList<>(NUMBER_OF_RECORDS);
+    for (int i = 0; i < NUMBER_OF_RECORDS; i++) {
+      String[] record = new String[numberOfColumns];
+      for (int j = 0; j < numberOfColumns; j++) {
+        record[j] = (i + j) % 3 == 0 ? "" : "value" + j;
+      }
+      records.add(Arrays.asList(record));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_RECORDS)
+  public RecordMetricsCollector collect() {
+    RecordMetricsCollector collector = implementation == Implementation.COLUMN_COUNTERS ?
+            new TermsFrequencyCollector(columns) : new ConcurrentMapTermsFrequencyCollector(columns);
+    for (List<String> record : records) {
+      collector.collect(record);
+    }
+    return collector;
+  }
+
+  /**
+   * Terms frequency counted in a {@link java.util.concurrent.ConcurrentHashMap}, with a boxed {@link Long} per term.
+   */
+  private static class ConcurrentMapTermsFrequencyCollector implements RecordMetricsCollector {
+
+    private final Term[] columnHeaders;
+    private final Map<Term, Long> termFrequencyCounter;
+
+    ConcurrentMapTermsFrequencyCollector(List<Term> terms) {
+      columnHeaders = terms.toArray(new Term[terms.size()]);
+      termFrequencyCounter = CollectorUtils.getZeroTermFrequency(columnHeaders, true);
+    }
+
+    @Override
+    public void collect(List<String> recordData) {
+      int numberOfColumns = Math.min(recordData.size(), columnHeaders.length);
+      for (int i = 0; i < numberOfColumns; i++) {
+        if (columnHeaders[i] != null && StringUtils.isNotBlank(recordData.get(i))) {
+          termFrequencyCounter.compute(columnHeaders[i], (k, v) -> ++v);
+        }
+      }
+    }
+
+    @Override
+    public Map<Term, Long> getTermFrequency() {
+      return termFrequencyCounter;
+    }
+  }
+}
@@ -1,7 +1,9 @@
 package org.gbif.detect;
 
 import org.gbif.validation.api.vocabulary.FileFormat;
+import org.gbif.validation.util.ZippedArchive;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -63,7 +65,8 @@ public class MediaTypeAndFormatDetector {
    * Given a {@link Path} to a file (or folder) and a original contentType this function
    * will check to reevaluate the contentType and return the matching {@link FileFormat}.
    * If a more specific contentType can not be found the original one will be return with the matching {@link FileFormat}.
-   * @param dataFilePath shall point to data file or folder (not a zip file)
+   * @param dataFilePath shall point to data file, extracted folder or, if detectedContentType is a zip content type,
+   *                     to the ZIP file itself (see {@link ZippedArchive})
    * @param detectedContentType
    * @return
    */
@@ -71,7 +74,17 @@ public class MediaTypeAndFormatDetector {
     Objects.requireNonNull(dataFilePath, "dataFilePath shall be provided");
     String currentDetectedContentType = detectedContentType;
 
-    if (ZIP_CONTENT_TYPE.contains(detectedContentType)) {
+    if (ZIP_CONTENT_TYPE.contains(detectedContentType) && Files.isRegularFile(dataFilePath)) {
+      try (ZippedArchive archive = ZippedArchive.open(dataFilePath)) {
+        if (archive.getNumberOfRootElements() != 1 || archive.getFilePaths().size() != 1) {
+          return Optional.of(new MediaTypeAndFormat(currentDetectedContentType, FileFormat.DWCA));
+        }
+        Path filePath = archive.getFilePaths().iterator().next();
+        try (InputStream in = new BufferedInputStream(archive.getInputStream(filePath))) {
+          currentDetectedContentType = detectMediaType(in, filePath.getFileName().toString());
+        }
+      }
+    } else if (ZIP_CONTENT_TYPE.contains(detectedContentType)) {
       List<Path> content = Files.list(dataFilePath).collect(Collectors.toList());
       if (content.size() == 1) {
         currentDetectedContentType = MediaTypeAndFormatDetector.detectMediaType(content.get(0));
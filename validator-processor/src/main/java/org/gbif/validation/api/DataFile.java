@@ -4,6 +4,7 @@ import org.gbif.validation.api.vocabulary.FileFormat;
 
 import java.nio.file.Path;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import javax.annotation.Nullable;
 
@@ -19,6 +20,15 @@ public class DataFile {
   private final FileFormat fileFormat;
   private final String receivedAsMediaType;
   private final String mediaType;
+  private final TabularFileIndex index;
+
+  /**
+   * See {@link #DataFile(UUID, Path, String, FileFormat, String, String, TabularFileIndex)}
+   */
+  public DataFile(UUID key, Path filePath, String sourceFileName, FileFormat fileFormat, String receivedAsMediaType,
+                  String mediaType) {
+    this(key, filePath, sourceFileName, fileFormat, receivedAsMediaType, mediaType, null);
+  }
 
   /**
    * Complete constructor of {@link DataFile}
@@ -30,9 +40,11 @@ public class DataFile {
    * @param fileFormat
    * @param receivedAsMediaType as received by the "resource" layer
    * @param mediaType           as detected by the file transfer manager
+   * @param index               index of the file computed while it was received, only expected when the file is a
+   *                            single tabular file already normalized
    */
   public DataFile(UUID key, Path filePath, String sourceFileName, FileFormat fileFormat, String receivedAsMediaType,
-                  String mediaType) {
+                  String mediaType, @Nullable TabularFileIndex index) {
     Objects.requireNonNull(key, "key shall be provided");
 
     this.key = key;
@@ -41,6 +53,7 @@ public class DataFile {
     this.fileFormat = fileFormat;
     this.receivedAsMediaType = receivedAsMediaType;
     this.mediaType = mediaType;
+    this.index = index;
   }
 
   public UUID getKey() {
@@ -77,6 +90,15 @@ public class DataFile {
     return mediaType;
   }
 
+  /**
+   * Get the {@link TabularFileIndex} of the file computed while it was received, if available. When available, the
+   * file is already normalized.
+   * @return
+   */
+  public Optional<TabularFileIndex> getIndex() {
+    return Optional.ofNullable(index);
+  }
+
   @Override
   public String toString() {
     return "DataFile{" +
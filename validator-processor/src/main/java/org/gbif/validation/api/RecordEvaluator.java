@@ -2,6 +2,7 @@ package org.gbif.validation.api;
 
 import org.gbif.validation.api.model.RecordEvaluationResult;
 
+import java.io.IOException;
 import java.util.List;
 import javax.annotation.Nullable;
 
@@ -21,4 +22,16 @@ public interface RecordEvaluator {
   @Nullable
   RecordEvaluationResult evaluate(@Nullable Long lineNumber, @Nullable List<String> record);
 
+  /**
+   * Called before the records of a {@link TabularDataFile} are evaluated to give the evaluator a chance to prepare
+   * the evaluation (e.g. resolve lookups in bulk). Default implementation does nothing.
+   *
+   * @param dataFile records that will be evaluated
+   *
+   * @throws IOException
+   */
+  default void prepare(TabularDataFile dataFile) throws IOException {
+    //nothing to prepare by default
+  }
+
 }
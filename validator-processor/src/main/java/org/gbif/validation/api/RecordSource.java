@@ -19,6 +19,13 @@ public interface RecordSource extends Closeable {
   @Nullable
   Term[] getHeaders();
 
+  /**
+   * Read the next record.
+   * The returned list may be reused by the next call to read(), it shall be copied if it needs to be kept.
+   *
+   * @return the record or null if there is no more records
+   * @throws IOException
+   */
   @Nullable
   List<String> read() throws IOException;
 
@@ -14,9 +14,12 @@ import java.util.OptionalInt;
 import java.util.stream.IntStream;
 import javax.annotation.Nullable;
 
+import com.google.common.base.Preconditions;
+
 
 /**
  * Represents the workable unit for the validation. It can point to a file or a portion of a bigger file.
+ * A portion of a bigger file can be a physical copy or a byte range (see {@link #isByteRange()}) of the file.
  * It can also represent a tabular view of other formats (spreadsheet).
  *
  * Expected  LF (\n) end of line character.
@@ -36,6 +39,8 @@ public class TabularDataFile {
   private final Map<Term, String> defaultValues;
 
   private final Integer fileLineOffset;
+  private final Long fileByteOffsetStart;
+  private final Long fileByteOffsetEnd;
   private final boolean hasHeaders;
 
   private final Charset characterEncoding;
@@ -43,6 +48,24 @@ public class TabularDataFile {
   private final Character quoteChar;
   private final Integer numOfLines;
   private final Integer numOfLinesWithData;
+  private final TabularFileIndex index;
+
+  /**
+   * Constructor of {@link TabularDataFile} representing an entire file (or a file produced by a physical split).
+   *
+   * See {@link #TabularDataFile(Path, String, RowTypeKey, Term[], TermIndex, Map, Integer, Long, Long, boolean,
+   * Charset, Character, Character, Integer, Integer, TabularFileIndex)}
+   */
+  public TabularDataFile(Path filePath, String sourceFileName,
+                         RowTypeKey rowTypeKey, Term[] columns,
+                         @Nullable TermIndex recordIdentifier,
+                         @Nullable Map<Term, String> defaultValues,
+                         @Nullable Integer fileLineOffset, boolean hasHeaders,
+                         Charset characterEncoding,
+                         Character delimiterChar, Character quoteChar, Integer numOfLines, Integer numOfLinesWithData) {
+    this(filePath, sourceFileName, rowTypeKey, columns, recordIdentifier, defaultValues, fileLineOffset, null, null,
+            hasHeaders, characterEncoding, delimiterChar, quoteChar, numOfLines, numOfLinesWithData, null);
+  }
 
   /**
    * Complete constructor of {@link TabularDataFile}
@@ -54,21 +77,29 @@ public class TabularDataFile {
    * @param recordIdentifier {@link Term} and its index used to uniquely identifier a record within the file
    * @param defaultValues default values to use for specific {@Term}
    * @param fileLineOffset if the file represents a part of a bigger file, the offset (in line) relative to the parent file
+   * @param fileByteOffsetStart if the file represents a byte range of filePath, the offset of the first byte (inclusive)
+   * @param fileByteOffsetEnd if the file represents a byte range of filePath, the offset of the last byte (exclusive)
    * @param hasHeaders does the first line of this file represents the headers or no
    * @param characterEncoding
    * @param delimiterChar character used to delimit each value (cell) in the file
    * @param quoteChar
    * @param numOfLines
    * @param numOfLinesWithData
+   * @param index index of the file computed while it was normalized, only expected when representing an entire file
    */
   public TabularDataFile(Path filePath, String sourceFileName,
                          RowTypeKey rowTypeKey, Term[] columns,
                          @Nullable TermIndex recordIdentifier,
                          @Nullable Map<Term, String> defaultValues,
-                         @Nullable Integer fileLineOffset, boolean hasHeaders,
+                         @Nullable Integer fileLineOffset,
+                         @Nullable Long fileByteOffsetStart, @Nullable Long fileByteOffsetEnd,
+                         boolean hasHeaders,
                          Charset characterEncoding,
-                         Character delimiterChar, Character quoteChar, Integer numOfLines, Integer numOfLinesWithData) {
+                         Character delimiterChar, Character quoteChar, Integer numOfLines, Integer numOfLinesWithData,
+                         @Nullable TabularFileIndex index) {
     Objects.requireNonNull(rowTypeKey, "rowTypeKey shall be provided");
+    Preconditions.checkArgument((fileByteOffsetStart == null) == (fileByteOffsetEnd == null),
+            "fileByteOffsetStart and fileByteOffsetEnd shall be provided together");
 
     this.filePath = filePath;
     this.sourceFileName = sourceFileName;
@@ -77,12 +108,15 @@ public class TabularDataFile {
     this.recordIdentifier = recordIdentifier;
     this.defaultValues = (defaultValues != null) ? new HashMap<>(defaultValues) : null;
     this.fileLineOffset = fileLineOffset;
+    this.fileByteOffsetStart = fileByteOffsetStart;
+    this.fileByteOffsetEnd = fileByteOffsetEnd;
     this.hasHeaders = hasHeaders;
     this.characterEncoding = characterEncoding;
     this.delimiterChar = delimiterChar;
     this.quoteChar = quoteChar;
     this.numOfLines = numOfLines;
     this.numOfLinesWithData = numOfLinesWithData;
+    this.index = index;
   }
 
   /**
@@ -153,6 +187,32 @@ public class TabularDataFile {
     return Optional.ofNullable(fileLineOffset);
   }
 
+  /**
+   * If this {@link TabularDataFile} represents a byte range of the file located at {@link #getFilePath()}, the offset
+   * of the first byte of the range (inclusive).
+   * @return
+   */
+  public Optional<Long> getFileByteOffsetStart() {
+    return Optional.ofNullable(fileByteOffsetStart);
+  }
+
+  /**
+   * If this {@link TabularDataFile} represents a byte range of the file located at {@link #getFilePath()}, the offset
+   * of the last byte of the range (exclusive).
+   * @return
+   */
+  public Optional<Long> getFileByteOffsetEnd() {
+    return Optional.ofNullable(fileByteOffsetEnd);
+  }
+
+  /**
+   * Does this {@link TabularDataFile} only represent a byte range of the file located at {@link #getFilePath()}.
+   * @return
+   */
+  public boolean isByteRange() {
+    return fileByteOffsetStart != null;
+  }
+
   /**
    * Get the default value to use for some terms (if defined).
    * @return
@@ -165,6 +225,14 @@ public class TabularDataFile {
     return numOfLinesWithData;
   }
 
+  /**
+   * Get the {@link TabularFileIndex} of the file computed while it was normalized, if available.
+   * @return
+   */
+  public Optional<TabularFileIndex> getIndex() {
+    return Optional.ofNullable(index);
+  }
+
   /**
    * Get the index of a {@link Term} or OptionalInt.empty if the Term can not be found.
    *
@@ -198,7 +266,9 @@ public class TabularDataFile {
             Objects.equals(sourceFileName, dataFile.sourceFileName) &&
             Objects.equals(numOfLines, dataFile.numOfLines) &&
             Objects.equals(numOfLinesWithData, dataFile.numOfLinesWithData) &&
-            Objects.equals(fileLineOffset, dataFile.fileLineOffset);
+            Objects.equals(fileLineOffset, dataFile.fileLineOffset) &&
+            Objects.equals(fileByteOffsetStart, dataFile.fileByteOffsetStart) &&
+            Objects.equals(fileByteOffsetEnd, dataFile.fileByteOffsetEnd);
   }
 
   @Override
@@ -216,6 +286,8 @@ public class TabularDataFile {
             numOfLines,
             numOfLinesWithData,
             fileLineOffset,
+            fileByteOffsetStart,
+            fileByteOffsetEnd,
             hasHeaders);
   }
 
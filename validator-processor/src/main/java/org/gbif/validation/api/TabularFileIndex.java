@@ -0,0 +1,111 @@
+package org.gbif.validation.api;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Index of a normalized tabular file computed while the file is written, so later stages do not need to scan the file
+ * again.
+ *
+ * The index contains the byte offset of the beginning of every {@link #getCheckpointInterval()} records (checkpoints),
+ * and the number of records (taking quoted cells into account, the header line included). The records are delimited
+ * using the delimiter and quote characters the index was computed with.
+ *
+ * This class is thread-safe and immutable.
+ */
+public class TabularFileIndex {
+
+  private final long fileSize;
+  private final int numberOfLines;
+  private final int numberOfRecords;
+  private final int checkpointInterval;
+  private final long[] checkpointOffsets;
+  private final Character delimiterChar;
+  private final Character quoteChar;
+
+  /**
+   *
+   * @param fileSize             size of the indexed file, in bytes
+   * @param numberOfLines        number of end of line characters in the file
+   * @param numberOfRecords      number of records in the file, including the header line if any
+   * @param checkpointInterval   number of records between 2 checkpoints
+   * @param checkpointOffsets    byte offset of the records 0, checkpointInterval, 2 * checkpointInterval ...
+   * @param delimiterChar        delimiter of the cells, if any
+   * @param quoteChar            character used to quote cells, if any
+   */
+  public TabularFileIndex(long fileSize, int numberOfLines, int numberOfRecords, int checkpointInterval,
+                          long[] checkpointOffsets, @Nullable Character delimiterChar,
+                          @Nullable Character quoteChar) {
+    Preconditions.checkArgument(checkpointInterval > 0, "checkpointInterval shall be greater than 0");
+    Preconditions.checkArgument(checkpointOffsets.length == (numberOfRecords + checkpointInterval - 1) / checkpointInterval,
+            "a checkpoint is expected every checkpointInterval records");
+    this.fileSize = fileSize;
+    this.numberOfLines = numberOfLines;
+    this.numberOfRecords = numberOfRecords;
+    this.checkpointInterval = checkpointInterval;
+    this.checkpointOffsets = Arrays.copyOf(checkpointOffsets, checkpointOffsets.length);
+    this.delimiterChar = delimiterChar;
+    this.quoteChar = quoteChar;
+  }
+
+  public long getFileSize() {
+    return fileSize;
+  }
+
+  public int getNumberOfLines() {
+    return numberOfLines;
+  }
+
+  /**
+   * Number of records, including the header line if any. Different from {@link #getNumberOfLines()} when quoted cells
+   * contain end of line characters.
+   * @return
+   */
+  public int getNumberOfRecords() {
+    return numberOfRecords;
+  }
+
+  public int getCheckpointInterval() {
+    return checkpointInterval;
+  }
+
+  public int getNumberOfCheckpoints() {
+    return checkpointOffsets.length;
+  }
+
+  /**
+   * Get the byte offset of the first byte of the record checkpoint * {@link #getCheckpointInterval()}.
+   *
+   * @param checkpoint index of the checkpoint, from 0 to {@link #getNumberOfCheckpoints()} (exclusive)
+   *
+   * @return
+   */
+  public long getCheckpointOffset(int checkpoint) {
+    return checkpointOffsets[checkpoint];
+  }
+
+  @Nullable
+  public Character getDelimiterChar() {
+    return delimiterChar;
+  }
+
+  @Nullable
+  public Character getQuoteChar() {
+    return quoteChar;
+  }
+
+  @Override
+  public String toString() {
+    return "TabularFileIndex{" +
+            "fileSize=" + fileSize +
+            ", numberOfLines=" + numberOfLines +
+            ", numberOfRecords=" + numberOfRecords +
+            ", checkpointInterval=" + checkpointInterval +
+            ", numberOfCheckpoints=" + checkpointOffsets.length +
+            ", delimiterChar=" + delimiterChar +
+            ", quoteChar=" + quoteChar +
+            '}';
+  }
+}
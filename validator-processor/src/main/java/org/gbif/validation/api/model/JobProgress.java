@@ -0,0 +1,87 @@
+package org.gbif.validation.api.model;
+
+import org.codehaus.jackson.annotate.JsonCreator;
+import org.codehaus.jackson.annotate.JsonProperty;
+
+/**
+ * Progress of the record evaluation of a running job.
+ */
+public class JobProgress {
+
+  private final long numberOfRecords;
+  private final long numberOfRecordsProcessed;
+  private final int numberOfWorkUnits;
+  private final int numberOfWorkUnitsCompleted;
+  private final double recordsPerSecond;
+  private final Long estimatedSecondsRemaining;
+
+  /**
+   *
+   * @param numberOfRecords number of records (lines with data) of all the files of the job
+   * @param numberOfRecordsProcessed number of records evaluated so far
+   * @param numberOfWorkUnits number of work units (e.g. splits) of the job
+   * @param numberOfWorkUnitsCompleted number of work units completed so far
+   * @param recordsPerSecond number of records evaluated per second since the record evaluation started
+   * @param estimatedSecondsRemaining estimation based on recordsPerSecond, null if it can not be estimated yet
+   */
+  @JsonCreator
+  public JobProgress(@JsonProperty("numberOfRecords") long numberOfRecords,
+                     @JsonProperty("numberOfRecordsProcessed") long numberOfRecordsProcessed,
+                     @JsonProperty("numberOfWorkUnits") int numberOfWorkUnits,
+                     @JsonProperty("numberOfWorkUnitsCompleted") int numberOfWorkUnitsCompleted,
+                     @JsonProperty("recordsPerSecond") double recordsPerSecond,
+                     @JsonProperty("estimatedSecondsRemaining") Long estimatedSecondsRemaining) {
+    this.numberOfRecords = numberOfRecords;
+    this.numberOfRecordsProcessed = numberOfRecordsProcessed;
+    this.numberOfWorkUnits = numberOfWorkUnits;
+    this.numberOfWorkUnitsCompleted = numberOfWorkUnitsCompleted;
+    this.recordsPerSecond = recordsPerSecond;
+    this.estimatedSecondsRemaining = estimatedSecondsRemaining;
+  }
+
+  /**
+   * Build a {@link JobProgress} estimating the throughput and the remaining time from the elapsed time.
+   *
+   * @param numberOfRecords
+   * @param numberOfRecordsProcessed
+   * @param numberOfWorkUnits
+   * @param numberOfWorkUnitsCompleted
+   * @param elapsedMillis time elapsed since the record evaluation started
+   * @return
+   */
+  public static JobProgress of(long numberOfRecords, long numberOfRecordsProcessed, int numberOfWorkUnits,
+                               int numberOfWorkUnitsCompleted, long elapsedMillis) {
+    double recordsPerSecond = elapsedMillis > 0 ? numberOfRecordsProcessed * 1000d / elapsedMillis : 0;
+    Long estimatedSecondsRemaining = recordsPerSecond > 0 ?
+            (long) Math.ceil(Math.max(0, numberOfRecords - numberOfRecordsProcessed) / recordsPerSecond) : null;
+    return new JobProgress(numberOfRecords, numberOfRecordsProcessed, numberOfWorkUnits, numberOfWorkUnitsCompleted,
+            recordsPerSecond, estimatedSecondsRemaining);
+  }
+
+  public long getNumberOfRecords() {
+    return numberOfRecords;
+  }
+
+  public long getNumberOfRecordsProcessed() {
+    return numberOfRecordsProcessed;
+  }
+
+  public int getNumberOfWorkUnits() {
+    return numberOfWorkUnits;
+  }
+
+  public int getNumberOfWorkUnitsCompleted() {
+    return numberOfWorkUnitsCompleted;
+  }
+
+  public double getRecordsPerSecond() {
+    return recordsPerSecond;
+  }
+
+  /**
+   * Estimated number of seconds before all the records are evaluated, null if it can not be estimated yet.
+   */
+  public Long getEstimatedSecondsRemaining() {
+    return estimatedSecondsRemaining;
+  }
+}
@@ -16,7 +16,7 @@ public class JobStatusResponse<T> {
    * Enumerates the possible statuses of Job.
    */
   public enum JobStatus {
-    ACCEPTED(false), RUNNING(false),
+    ACCEPTED(false), QUEUED(false), RUNNING(false),
     FAILED(true), FINISHED(true), NOT_FOUND(true), KILLED(true);
 
     private boolean _final;
@@ -54,6 +54,14 @@ public class JobStatusResponse<T> {
   @JsonProperty
   private T result;
 
+  //only set when the status is QUEUED
+  @JsonProperty
+  private Integer queuePosition;
+
+  //only set when the status is RUNNING and the records are evaluated
+  @JsonProperty
+  private JobProgress progress;
+
 
   /**
    * Create a {@link JobStatusResponse} representing a jobId not found.
@@ -68,6 +76,18 @@ public class JobStatusResponse<T> {
     return new JobStatusResponse(JobStatus.ACCEPTED, jobId, startTimestamp, dataFileKey);
   }
 
+  /**
+   * Create a {@link JobStatusResponse} representing a job waiting to be started.
+   * @param jobId
+   * @param queuePosition position in the queue of jobs waiting to be started, starting at 1
+   * @return
+   */
+  public static JobStatusResponse ofQueued(long jobId, long startTimestamp, UUID dataFileKey, int queuePosition) {
+    JobStatusResponse response = new JobStatusResponse(JobStatus.QUEUED, jobId, startTimestamp, dataFileKey);
+    response.queuePosition = queuePosition;
+    return response;
+  }
+
   /**
    * Create a {@link JobStatusResponse} representing a running job.
    * @param jobId
@@ -77,6 +97,21 @@ public class JobStatusResponse<T> {
     return new JobStatusResponse(JobStatus.RUNNING, jobId, startTimestamp, dataFileKey);
   }
 
+  /**
+   * Create a {@link JobStatusResponse} representing a running job with its partial result and progress.
+   * @param jobId
+   * @param result partial result
+   * @param progress
+   * @return
+   */
+  public static <T> JobStatusResponse<T> ofRunning(long jobId, Long startTimestamp, UUID dataFileKey, T result,
+                                                   JobProgress progress) {
+    JobStatusResponse<T> response = new JobStatusResponse<>(JobStatus.RUNNING, jobId, startTimestamp, dataFileKey,
+            result);
+    response.progress = progress;
+    return response;
+  }
+
   /**
    * Create a {@link JobStatusResponse} representing a killed job.
    * @param jobId
@@ -141,4 +176,20 @@ public class JobStatusResponse<T> {
     return result;
   }
 
+  /**
+   * Position of the job in the queue of jobs waiting to be started (starting at 1).
+   * Only available when the status is {@link JobStatus#QUEUED}.
+   */
+  public Integer getQueuePosition() {
+    return queuePosition;
+  }
+
+  /**
+   * Progress of the record evaluation.
+   * Only available when the status is {@link JobStatus#RUNNING} and the records are evaluated.
+   */
+  public JobProgress getProgress() {
+    return progress;
+  }
+
 }
@@ -1,7 +1,9 @@
 package org.gbif.validation.api.model;
 
 import org.gbif.validation.api.RecordEvaluator;
+import org.gbif.validation.api.TabularDataFile;
 
+import java.io.IOException;
 import java.util.List;
 import javax.annotation.Nullable;
 
@@ -34,4 +36,11 @@ public class RecordEvaluatorChain implements RecordEvaluator {
     }
     return combinedResult;
   }
+
+  @Override
+  public void prepare(TabularDataFile dataFile) throws IOException {
+    for(RecordEvaluator evaluator : evaluators) {
+      evaluator.prepare(dataFile);
+    }
+  }
 }
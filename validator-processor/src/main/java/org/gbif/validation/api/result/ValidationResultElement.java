@@ -9,7 +9,6 @@ import org.gbif.validation.api.vocabulary.DwcFileType;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -116,6 +115,22 @@ public class ValidationResultElement implements Serializable {
     );
   }
 
+  /**
+   * Get a copy of a {@link ValidationResultElement} that can be merged (see
+   * {@link #mergeOnFilename(Collection, Collection)}) without modifying the provided one.
+   *
+   * @param element
+   * @return
+   */
+  public static ValidationResultElement copyOf(ValidationResultElement element) {
+    return new ValidationResultElement(element.fileName, element.numberOfLines, element.numberOfLinesWithData,
+            element.fileType, element.rowType, element.idTerm,
+            element.issues == null ? null : new ArrayList<>(element.issues),
+            element.termsFrequency, element.interpretedValueCounts,
+            element.dataOutput == null ? null : new ArrayList<>(element.dataOutput),
+            new ArrayList<>(element.availableDataOutput));
+  }
+
   public ValidationResultElement(String fileName, Long numberOfLines, Long numberOfLinesWithData, DwcFileType fileType,
                                  Term rowType, Term idTerm, List<ValidationIssue> issues, List<ValidationDataOutput> dataOutput){
     this(fileName, numberOfLines, numberOfLinesWithData, fileType, rowType, idTerm, issues, null, null, dataOutput);
@@ -164,6 +179,20 @@ public class ValidationResultElement implements Serializable {
                                  List<Map.Entry<Term, Integer>> termsFrequency,
                                  Map<Term, Long> interpretedValueCounts,
                                  List<ValidationDataOutput> dataOutput) {
+    this(fileName, numberOfLines, numberOfLinesWithData, fileType, rowType, idTerm, issues, termsFrequency,
+            interpretedValueCounts, dataOutput, dataOutput == null ? new ArrayList<>() :
+                    dataOutput.stream()
+                            .map(ValidationDataOutput::getType)
+                            .collect(Collectors.toList()));
+  }
+
+  private ValidationResultElement(String fileName, Long numberOfLines, Long numberOfLinesWithData,
+                                  DwcFileType fileType, Term rowType, Term idTerm,
+                                  List<ValidationIssue> issues,
+                                  List<Map.Entry<Term, Integer>> termsFrequency,
+                                  Map<Term, Long> interpretedValueCounts,
+                                  List<ValidationDataOutput> dataOutput,
+                                  List<ValidationDataOutput.Type> availableDataOutput) {
     this.fileName = fileName;
     this.numberOfLines = numberOfLines;
     this.numberOfLinesWithData = numberOfLinesWithData;
@@ -174,11 +203,7 @@ public class ValidationResultElement implements Serializable {
     this.termsFrequency = termsFrequency;
     this.interpretedValueCounts = interpretedValueCounts;
     this.dataOutput = dataOutput;
-
-    this.availableDataOutput = dataOutput == null ? Collections.emptyList() :
-            dataOutput.stream()
-                    .map(ValidationDataOutput::getType)
-                    .collect(Collectors.toList());
+    this.availableDataOutput = availableDataOutput;
   }
 
 
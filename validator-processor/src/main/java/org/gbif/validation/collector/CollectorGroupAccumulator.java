@@ -0,0 +1,254 @@
+package org.gbif.validation.collector;
+
+import org.gbif.dwc.terms.Term;
+import org.gbif.validation.api.TabularDataFile;
+import org.gbif.validation.api.TermIndex;
+import org.gbif.validation.api.model.EvaluationType;
+import org.gbif.validation.api.result.ValidationDataOutput;
+import org.gbif.validation.api.result.ValidationResultDetails;
+import org.gbif.validation.api.result.ValidationResultElement;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Accumulates the {@link CollectorGroup} of all the splits of a rowType as soon as they are available so they can
+ * be released immediately.
+ *
+ * Counts are summed, samples are merged by picking elements of each side proportionally to the number of issues
+ * they represent (the samples of a {@link CollectorGroup} are a reservoir sample of its split) and only the verbatim
+ * records of the retained samples are kept. The memory used is therefore bounded by the number of
+ * {@link EvaluationType} and the maximum number of samples, regardless of the number of splits.
+ * The retained samples are charged on the {@link SampleMemoryBudget} of the job, in place of the bytes released by
+ * the merged collectors.
+ *
+ * Not a Thread-Safe class.
+ */
+public class CollectorGroupAccumulator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CollectorGroupAccumulator.class);
+  //fixed seed so the same inputs always produce the same samples
+  private static final long SAMPLING_SEED = 0x5EED;
+
+  private static final Comparator<ValidationResultDetails> BY_LINE_NUMBER = Comparator.comparing(
+          ValidationResultDetails::getLineNumber, Comparator.nullsLast(Comparator.naturalOrder()));
+
+  private final int maxNumberOfSample;
+  private final SampleMemoryBudget memoryBudget;
+  private final Random random = new Random(SAMPLING_SEED);
+  private long reservedBytes;
+
+  private final Map<Term, Long> termFrequency = new HashMap<>();
+  private final Map<EvaluationType, Long> aggregatedCounts = new EnumMap<>(EvaluationType.class);
+  private final Map<EvaluationType, List<ValidationResultDetails>> samples = new EnumMap<>(EvaluationType.class);
+  private final Map<Term, Long> interpretedTermsCount = new HashMap<>();
+  private final Map<Long, Map<Term, String>> verbatimRecordSample = new HashMap<>();
+  private int numberOfMergedGroups;
+  private long numberOfRecords;
+
+  public CollectorGroupAccumulator() {
+    this(SampleMemoryBudget.unlimited());
+  }
+
+  /**
+   *
+   * @param memoryBudget budget on which the retained samples are charged
+   */
+  public CollectorGroupAccumulator(SampleMemoryBudget memoryBudget) {
+    this(RecordEvaluationResultCollector.DEFAULT_MAX_NUMBER_OF_SAMPLE, memoryBudget);
+  }
+
+  /**
+   *
+   * @param maxNumberOfSample maximum number of samples per {@link EvaluationType}
+   * @param memoryBudget budget on which the retained samples are charged
+   */
+  public CollectorGroupAccumulator(int maxNumberOfSample, SampleMemoryBudget memoryBudget) {
+    Objects.requireNonNull(memoryBudget, "memoryBudget shall be provided");
+    this.maxNumberOfSample = maxNumberOfSample;
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * Merge a {@link CollectorGroup} into this accumulator.
+   * The {@link CollectorGroup} shall not be used after this call, the memory reserved by its samples is released.
+   *
+   * @param collectors
+   */
+  public void merge(CollectorGroup collectors) {
+    Objects.requireNonNull(collectors, "collectors shall be provided");
+    RecordEvaluationResultCollector resultsCollector = collectors.getResultsCollector();
+
+    collectors.getMetricsCollector().getTermFrequency().forEach((k, v) -> termFrequency.merge(k, v, Long::sum));
+    if (collectors.getInterpretedTermsCountCollector() != null) {
+      collectors.getInterpretedTermsCountCollector().getInterpretedCounts()
+              .forEach((k, v) -> interpretedTermsCount.merge(k, v, Long::sum));
+    }
+
+    Map<EvaluationType, Long> counts = resultsCollector.getAggregatedCounts();
+    resultsCollector.getSamples().forEach((evaluationType, sample) ->
+            samples.put(evaluationType, mergeSamples(samples.getOrDefault(evaluationType, Collections.emptyList()),
+                    aggregatedCounts.getOrDefault(evaluationType, 0L), sample,
+                    counts.getOrDefault(evaluationType, 0L))));
+    counts.forEach((k, v) -> aggregatedCounts.merge(k, v, Long::sum));
+
+    verbatimRecordSample.putAll(resultsCollector.getFullRecordSamples());
+    retainSampledVerbatimRecords();
+
+    resultsCollector.releaseMemoryBudget();
+    chargeMemoryBudget();
+    numberOfMergedGroups++;
+    numberOfRecords += collectors.getNumberOfRecords();
+  }
+
+  /**
+   * @return number of bytes charged on the {@link SampleMemoryBudget} for the retained samples
+   */
+  public long getReservedBytes() {
+    return reservedBytes;
+  }
+
+  /**
+   * @return number of records of the merged {@link CollectorGroup}
+   */
+  public long getNumberOfRecords() {
+    return numberOfRecords;
+  }
+
+  /**
+   * Merge 2 samples into a sample of at most maxNumberOfSample elements. Each element is picked from one of the
+   * samples with a probability proportional to the number of issues (not yet picked) it was taken from.
+   */
+  private List<ValidationResultDetails> mergeSamples(List<ValidationResultDetails> sample, long population,
+                                                     List<ValidationResultDetails> otherSample,
+                                                     long otherPopulation) {
+    List<ValidationResultDetails> shuffledSample = new ArrayList<>(sample);
+    List<ValidationResultDetails> shuffledOtherSample = new ArrayList<>(otherSample);
+    Collections.shuffle(shuffledSample, random);
+    Collections.shuffle(shuffledOtherSample, random);
+
+    List<ValidationResultDetails> merged = new ArrayList<>(maxNumberOfSample);
+    int i = 0;
+    int j = 0;
+    while (merged.size() < maxNumberOfSample && (i < shuffledSample.size() || j < shuffledOtherSample.size())) {
+      boolean fromSample;
+      if (i == shuffledSample.size()) {
+        fromSample = false;
+      } else if (j == shuffledOtherSample.size()) {
+        fromSample = true;
+      } else {
+        fromSample = random.nextDouble() * (population + otherPopulation) < population;
+      }
+
+      if (fromSample) {
+        merged.add(shuffledSample.get(i++));
+        population = Math.max(0, population - 1);
+      } else {
+        merged.add(shuffledOtherSample.get(j++));
+        otherPopulation = Math.max(0, otherPopulation - 1);
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * Remove the verbatim records that are not referenced by the samples anymore.
+   */
+  private void retainSampledVerbatimRecords() {
+    Set<Long> sampledLineNumbers = new HashSet<>();
+    samples.values().forEach(sample -> sample.forEach(details -> sampledLineNumbers.add(details.getLineNumber())));
+    verbatimRecordSample.keySet().retainAll(sampledLineNumbers);
+  }
+
+  /**
+   * Charge the {@link SampleMemoryBudget} with the estimated size of the retained samples and verbatim records.
+   * They are charged even if the budget is exhausted since they are part of the result, the collectors of the job
+   * then retain fewer samples.
+   */
+  private void chargeMemoryBudget() {
+    long size = 0;
+    for (List<ValidationResultDetails> sample : samples.values()) {
+      for (ValidationResultDetails details : sample) {
+        size += SampleMemoryBudget.estimateSize(details);
+      }
+    }
+    for (Map<Term, String> verbatimRecord : verbatimRecordSample.values()) {
+      size += SampleMemoryBudget.estimateSize(verbatimRecord);
+    }
+
+    if (size > reservedBytes) {
+      memoryBudget.acquire(size - reservedBytes);
+    } else {
+      memoryBudget.release(reservedBytes - size);
+    }
+    reservedBytes = size;
+  }
+
+  /**
+   * Build a {@link ValidationResultElement} from the merged collectors.
+   *
+   * @param dataFile
+   * @param resultingFileName
+   * @return the {@link ValidationResultElement} or null if no {@link CollectorGroup} was merged
+   */
+  public ValidationResultElement getResult(TabularDataFile dataFile, String resultingFileName) {
+    if (numberOfMergedGroups == 0) {
+      return null;
+    }
+
+    // order the samples by line number
+    Map<EvaluationType, List<ValidationResultDetails>> orderedSamples = new EnumMap<>(EvaluationType.class);
+    samples.forEach((k, v) -> orderedSamples.put(k, v.stream().sorted(BY_LINE_NUMBER).collect(Collectors.toList())));
+
+    // transform the term frequency into an ordered list of key/value pairs
+    List<Map.Entry<Term, Integer>> orderedTermFrequency = Arrays.stream(dataFile.getColumns())
+            .filter(Objects::nonNull)
+            .map(t -> new AbstractMap.SimpleImmutableEntry<>(t, termFrequency.getOrDefault(t, -1L).intValue()))
+            .collect(Collectors.toList());
+    LOG.debug("dataFile.getColumns() -> {}", Arrays.toString(dataFile.getColumns()));
+
+    Map<Long, List<String>> orderedVerbatimRecords = new TreeMap<>();
+    verbatimRecordSample.forEach((lineNumber, verbatimRecord) ->
+            orderedVerbatimRecords.put(lineNumber, toOrderedVerbatimValues(dataFile.getColumns(), verbatimRecord)));
+    List<ValidationDataOutput> dataOutput =
+            Collections.singletonList(ValidationDataOutput.verbatimRecordSample(dataFile.getColumns(),
+                    orderedVerbatimRecords));
+
+    return new ValidationResultElement(resultingFileName,
+            dataFile.getNumOfLines().longValue(),
+            dataFile.getNumOfLinesWithData().longValue(),
+            dataFile.getDwcFileType(),
+            dataFile.getRowTypeKey().getRowType(),
+            dataFile.getRecordIdentifier().map(TermIndex::getTerm).orElse(null),
+            new EnumMap<>(aggregatedCounts), orderedSamples,
+            orderedTermFrequency,
+            new HashMap<>(interpretedTermsCount), dataOutput);
+  }
+
+  /**
+   * Get the list of verbatim values in the same order as the provided headers.
+   */
+  private static List<String> toOrderedVerbatimValues(Term[] headers, Map<Term, String> verbatimData) {
+    List<String> orderedValues = new ArrayList<>(headers.length);
+    Arrays.stream(headers)
+            .forEach(t -> orderedValues.add(verbatimData.get(t)));
+    return orderedValues;
+  }
+
+}
@@ -3,6 +3,8 @@ package org.gbif.validation.collector;
 import org.gbif.dwc.terms.Term;
 
 import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nullable;
 
 /**
  * A {@link CollectorGroupProvider} is used to create new collector instances based on configurations.
@@ -11,6 +13,8 @@ public class CollectorGroupProvider {
 
   private final Term rowType;
   private final List<Term> columns;
+  private final RecordIdentifierCollector recordIdentifierCollector;
+  private final SampleMemoryBudget sampleMemoryBudget;
 
   /**
    *
@@ -18,8 +22,24 @@ public class CollectorGroupProvider {
    * @param columns
    */
   public CollectorGroupProvider(Term rowType, List<Term> columns) {
+    this(rowType, columns, null, SampleMemoryBudget.unlimited());
+  }
+
+  /**
+   *
+   * @param rowType
+   * @param columns
+   * @param recordIdentifierCollector collector shared by all the {@link CollectorGroup} of the rowType, can be null
+   * @param sampleMemoryBudget budget shared by the samples of all the {@link CollectorGroup} of the job
+   */
+  public CollectorGroupProvider(Term rowType, List<Term> columns,
+                                @Nullable RecordIdentifierCollector recordIdentifierCollector,
+                                SampleMemoryBudget sampleMemoryBudget) {
+    Objects.requireNonNull(sampleMemoryBudget, "sampleMemoryBudget shall be provided");
     this.rowType = rowType;
     this.columns = columns;
+    this.recordIdentifierCollector = recordIdentifierCollector;
+    this.sampleMemoryBudget = sampleMemoryBudget;
   }
 
   /**
@@ -28,7 +48,17 @@ public class CollectorGroupProvider {
    */
   public CollectorGroup newCollectorGroup() {
     return new CollectorGroup(columns,
-            CollectorFactory.createInterpretedTermsCountCollector(rowType, true).orElse(null));
+            CollectorFactory.createInterpretedTermsCountCollector(rowType, true).orElse(null),
+            recordIdentifierCollector, sampleMemoryBudget);
+  }
+
+  /**
+   * Get the {@link RecordIdentifierCollector} shared by all the {@link CollectorGroup} of the rowType, if any.
+   * @return
+   */
+  @Nullable
+  public RecordIdentifierCollector getRecordIdentifierCollector() {
+    return recordIdentifierCollector;
   }
 
 }
@@ -9,16 +9,14 @@ import org.gbif.validation.api.result.ValidationResultDetails;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.LongAdder;
-import java.util.function.BiFunction;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
 
 /**
  * Basic implementation of a {@link ResultsCollector}.
@@ -28,233 +26,268 @@ import java.util.stream.Collectors;
  * The sampling is based on the key defined by {@link RecordEvaluationResultDetails#computeInputValuesKey()}.
  * We also keep a list of non-distinct sample in case we can not find enough distinct entries to match
  * the wanted size of the sample.
+ * Once the distinct (or non-distinct) sample of an {@link EvaluationType} is full, only the details drawn by reservoir
+ * sampling are considered so the sample represents all the records instead of the first ones. The key is only
+ * computed for the drawn details.
+ *
+ * Counts and samples are indexed by {@link EvaluationType#ordinal()}. This class is not thread-safe, an instance is
+ * expected to be confined to the thread evaluating a split (see {@link CollectorGroup}).
+ *
+ * Retained samples are truncated and reserved on a {@link SampleMemoryBudget} (usually shared by all the collectors
+ * of a job), samples are dropped once the budget is exhausted. A verbatim record sampled for multiple
+ * {@link EvaluationType} is only retained once.
  */
 public class RecordEvaluationResultCollector implements ResultsCollector, Serializable {
 
   public static final int DEFAULT_MAX_NUMBER_OF_SAMPLE = 10;
 
+  private static final EvaluationType[] EVALUATION_TYPES = EvaluationType.values();
+  //seed used when the first result has no line number
+  private static final long SAMPLING_SEED = 0x5EED;
+
   private final int maxNumberOfSample;
-  private final InnerRecordEvaluationResultCollector innerImpl;
+  private final long[] issueCounter = new long[EVALUATION_TYPES.length];
+  private final IssueSample[] issueSampling = new IssueSample[EVALUATION_TYPES.length];
+  //seeded from the line number of the first result so each split is sampled differently, but reproducibly
+  private Random random;
+
+  private final SampleMemoryBudget memoryBudget;
+  private long reservedBytes;
+  //verbatim records of the distinct samples, by line number
+  private final Map<Long, SampledRecord> sampledRecords = new HashMap<>();
+
+  /**
+   *
+   * @param maxNumberOfSample maximum number of samples per {@link EvaluationType}
+   */
+  public RecordEvaluationResultCollector(Integer maxNumberOfSample) {
+    this(maxNumberOfSample, SampleMemoryBudget.unlimited());
+  }
 
   /**
    *
-   * @param maxNumberOfSample
-   * @param useConcurrentMap if this {@link ResultsCollector} will be used in a concurrent context
+   * @param maxNumberOfSample maximum number of samples per {@link EvaluationType}
+   * @param memoryBudget budget on which retained samples are reserved
    */
-  public RecordEvaluationResultCollector(Integer maxNumberOfSample, boolean useConcurrentMap) {
+  public RecordEvaluationResultCollector(Integer maxNumberOfSample, SampleMemoryBudget memoryBudget) {
+    Objects.requireNonNull(memoryBudget, "memoryBudget shall be provided");
     this.maxNumberOfSample = maxNumberOfSample != null ? maxNumberOfSample : DEFAULT_MAX_NUMBER_OF_SAMPLE;
-    innerImpl = useConcurrentMap ? new RecordEvaluationResultCollectorConcurrent() :
-            new RecordEvaluationResultCollectorSingleThread();
+    this.memoryBudget = memoryBudget;
   }
 
   @Override
   public void collect(RecordEvaluationResult result) {
     if (result != null && result.getDetails() != null) {
-      result.getDetails().forEach(detail -> {
-        innerImpl.countAndPrepare(detail.getEvaluationType());
-        innerImpl.computeSampling(detail.getEvaluationType(), (type, currSample) -> {
-          if (currSample.size() < maxNumberOfSample) {
-            String key = detail.computeInputValuesKey();
-            if (!currSample.containsKey(key)) {
-              currSample.put(key, toValidationResultDetails(result, detail));
-              if(result.getLineNumber() != null && result.getVerbatimData() != null) {
-                innerImpl.putVerbatimRecord(result.getLineNumber(), result.getVerbatimData());
-              }
-            } else {
-              innerImpl.putNonDistinct(detail.getEvaluationType(), toValidationResultDetails(result, detail));
-            }
-          }
-          return currSample;
-        });
-      });
+      if (random == null) {
+        random = new Random(result.getLineNumber() != null ? result.getLineNumber() : SAMPLING_SEED);
+      }
+      for (RecordEvaluationResultDetails detail : result.getDetails()) {
+        int ordinal = detail.getEvaluationType().ordinal();
+        long count = ++issueCounter[ordinal];
+        if (issueSampling[ordinal] == null) {
+          issueSampling[ordinal] = new IssueSample();
+        }
+        sample(issueSampling[ordinal], count, result, detail);
+      }
     }
   }
 
   /**
-   * Internal interface that defined the behavior of an internal RecordEvaluationResultCollector.
+   * Sample a detail, count being the number of details of the same {@link EvaluationType} collected so far.
    */
-  private interface InnerRecordEvaluationResultCollector extends Serializable {
-    void countAndPrepare(EvaluationType type);
-    void computeSampling(EvaluationType type, BiFunction<EvaluationType, Map<String, ValidationResultDetails>,
-            Map<String, ValidationResultDetails>> samplingFunction);
-    void putNonDistinct(EvaluationType type, ValidationResultDetails validationResultDetails);
-    void putVerbatimRecord(Long recordNumber, Map<Term, String> verbatimRecord);
-
-    Map<EvaluationType, Collection<ValidationResultDetails>> getNonDistinct();
-    Map<EvaluationType, Long> getAggregatedCounts();
-    Map<EvaluationType, List<ValidationResultDetails>> getSamples();
-    Map<Long, Map<Term, String>> getFullRecordSample();
-  }
-
-  /**
-   * InnerRecordEvaluationResultCollector implementation with support for single-thread access.
-   */
-  private static class RecordEvaluationResultCollectorSingleThread implements InnerRecordEvaluationResultCollector {
-    private final Map<EvaluationType, Long> issueCounter;
-    private final Map<EvaluationType, Map<String, ValidationResultDetails>> issueSampling;
-    private final Map<EvaluationType, Collection<ValidationResultDetails>> nonDistinctSample;
-    private final Map<Long, Map<Term, String>> fullRecordSample;
-
-    RecordEvaluationResultCollectorSingleThread() {
-      issueCounter = new EnumMap<>(EvaluationType.class);
-      issueSampling = new EnumMap<>(EvaluationType.class);
-      nonDistinctSample = new EnumMap<>(EvaluationType.class);
-      fullRecordSample = new HashMap<>();
-    }
-
-    @Override
-    public void countAndPrepare(EvaluationType type) {
-      issueCounter.compute(type, (k, v) -> (v == null) ? 1 : ++v);
-      issueSampling.putIfAbsent(type, new HashMap<>());
-    }
-
-    @Override
-    public void computeSampling(EvaluationType type, BiFunction<EvaluationType, Map<String, ValidationResultDetails>,
-            Map<String, ValidationResultDetails>> samplingFunction) {
-      issueSampling.compute(type, samplingFunction);
-    }
-
-    @Override
-    public void putNonDistinct(EvaluationType type, ValidationResultDetails validationResultDetails) {
-      nonDistinctSample.putIfAbsent(type, new ArrayList<>());
-      nonDistinctSample.compute(type, (k, l) -> {
-        l.add(validationResultDetails);
-        return l;
-      });
-    }
-
-    @Override
-    public Map<EvaluationType, Collection<ValidationResultDetails>> getNonDistinct() {
-      return nonDistinctSample;
-    }
-
-    @Override
-    public Map<EvaluationType, List<ValidationResultDetails>> getSamples() {
-      return issueSampling.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
-              rec ->  new ArrayList<>(rec.getValue().values())));
+  private void sample(IssueSample sample, long count, RecordEvaluationResult result,
+                      RecordEvaluationResultDetails detail) {
+    boolean filling = sample.size() < maxNumberOfSample && sample.nonDistinct.size() < maxNumberOfSample;
+    long index = sample.size();
+    if (!filling) {
+      //reservoir sampling: the detail is drawn with a probability of maxNumberOfSample / count
+      index = (long) (random.nextDouble() * count);
+      if (index >= maxNumberOfSample) {
+        return;
+      }
     }
 
-    @Override
-    public Map<Long, Map<Term, String>> getFullRecordSample() {
-      return fullRecordSample;
+    String key = SampleMemoryBudget.truncateKey(detail.computeInputValuesKey());
+    if (sample.containsKey(key)) {
+      if (filling) {
+        ValidationResultDetails details = toValidationResultDetails(result, detail);
+        if (reserve(SampleMemoryBudget.estimateSize(details))) {
+          sample.nonDistinct.add(details);
+        }
+      }
+      return;
     }
 
-    @Override
-    public Map<EvaluationType, Long> getAggregatedCounts() {
-      return issueCounter.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
-              Map.Entry::getValue));
+    ValidationResultDetails details = toValidationResultDetails(result, detail);
+    long size = SampleMemoryBudget.estimateSize(key) + SampleMemoryBudget.estimateSize(details);
+    if (sample.size() < maxNumberOfSample) {
+      if (reserve(size)) {
+        sample.add(key, details, size);
+        retainVerbatimRecord(result);
+      }
+      return;
     }
 
-    /**
-     *
-     * @param recordNumber
-     * @param verbatimRecord
-     */
-    public void putVerbatimRecord(Long recordNumber, Map<Term, String> verbatimRecord) {
-      fullRecordSample.put(recordNumber, verbatimRecord);
+    //replace the drawn element, only the difference with the replaced element is reserved
+    int i = (int) index;
+    long replacedSize = sample.sizes.get(i);
+    if (size <= replacedSize || reserve(size - replacedSize)) {
+      if (size < replacedSize) {
+        unreserve(replacedSize - size);
+      }
+      releaseVerbatimRecord(sample.details.get(i).getLineNumber());
+      sample.set(i, key, details, size);
+      retainVerbatimRecord(result);
     }
   }
 
   /**
-   * InnerRecordEvaluationResultCollector implementation with support for concurrent access.
+   * Retain the (truncated) verbatim record of a result or increment its references if it is already retained.
    */
-  private static class RecordEvaluationResultCollectorConcurrent implements InnerRecordEvaluationResultCollector {
-    private final Map<EvaluationType, LongAdder> issueCounter;
-    private final Map<EvaluationType, Map<String, ValidationResultDetails>> issueSampling;
-    private final Map<EvaluationType, Collection<ValidationResultDetails>> nonDistinctSample;
-    private final Map<Long, Map<Term, String>> fullRecordSample;
-
-    RecordEvaluationResultCollectorConcurrent() {
-      issueCounter = new ConcurrentHashMap<>(EvaluationType.values().length);
-      issueSampling = new ConcurrentHashMap<>(EvaluationType.values().length);
-      nonDistinctSample = new ConcurrentHashMap<>(EvaluationType.values().length);
-      fullRecordSample = new ConcurrentHashMap<>();
-    }
-
-    @Override
-    public void countAndPrepare(EvaluationType type) {
-      issueCounter.computeIfAbsent(type, k -> new LongAdder()).increment();
-      issueSampling.putIfAbsent(type, new ConcurrentHashMap<>());
-    }
-
-    @Override
-    public void computeSampling(EvaluationType type, BiFunction<EvaluationType, Map<String,ValidationResultDetails>,
-            Map<String,ValidationResultDetails>> samplingFunction) {
-      issueSampling.compute(type, samplingFunction);
+  private void retainVerbatimRecord(RecordEvaluationResult result) {
+    Long lineNumber = result.getLineNumber();
+    if (lineNumber == null || result.getVerbatimData() == null) {
+      return;
     }
-
-    @Override
-    public void putNonDistinct(EvaluationType type, ValidationResultDetails validationResultDetails) {
-      nonDistinctSample.putIfAbsent(type, new ConcurrentLinkedQueue<>());
-      nonDistinctSample.compute(type, (k, l) -> {
-        l.add(validationResultDetails);
-        return l;
-      });
+    SampledRecord sampledRecord = sampledRecords.get(lineNumber);
+    if (sampledRecord != null) {
+      sampledRecord.references++;
+      return;
     }
-
-    @Override
-    public void putVerbatimRecord(Long recordNumber, Map<Term, String> verbatimRecord) {
-      fullRecordSample.put(recordNumber, verbatimRecord);
+    Map<Term, String> verbatimRecord = SampleMemoryBudget.truncate(result.getVerbatimData());
+    long size = SampleMemoryBudget.estimateSize(verbatimRecord);
+    if (reserve(size)) {
+      sampledRecords.put(lineNumber, new SampledRecord(verbatimRecord, size));
     }
+  }
 
-    @Override
-    public Map<EvaluationType, Collection<ValidationResultDetails>> getNonDistinct() {
-      return nonDistinctSample;
+  /**
+   * Decrement the references of a verbatim record and release it when it is not referenced anymore.
+   */
+  private void releaseVerbatimRecord(Long lineNumber) {
+    SampledRecord sampledRecord = lineNumber != null ? sampledRecords.get(lineNumber) : null;
+    if (sampledRecord != null && --sampledRecord.references == 0) {
+      sampledRecords.remove(lineNumber);
+      unreserve(sampledRecord.size);
     }
+  }
 
-    /**
-     * @return a copy of the inter aggregated counts.
-     */
-    @Override
-    public Map<EvaluationType, Long> getAggregatedCounts() {
-      return issueCounter.entrySet().stream()
-              .collect(Collectors.toMap(Map.Entry::getKey,
-              rec -> rec.getValue().longValue()));
+  private boolean reserve(long bytes) {
+    if (memoryBudget.tryAcquire(bytes)) {
+      reservedBytes += bytes;
+      return true;
     }
+    return false;
+  }
 
-    /**
-     *
-     * @return a copy of the internal evaluation samples.
-     */
-    @Override
-    public Map<EvaluationType, List<ValidationResultDetails>> getSamples() {
-      return issueSampling.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
-              rec ->  new ArrayList<>(rec.getValue().values())));
-    }
+  private void unreserve(long bytes) {
+    memoryBudget.release(bytes);
+    reservedBytes -= bytes;
+  }
 
-    @Override
-    public Map<Long, Map<Term, String>> getFullRecordSample() {
-      return fullRecordSample;
-    }
+  /**
+   * Give back to the {@link SampleMemoryBudget} all the bytes reserved by this collector so other collectors can use
+   * them. Shall be called once the samples of this collector are not retained anymore (e.g. merged).
+   */
+  public void releaseMemoryBudget() {
+    memoryBudget.release(reservedBytes);
+    reservedBytes = 0;
   }
 
   private static ValidationResultDetails toValidationResultDetails(RecordEvaluationResult result, RecordEvaluationResultDetails detail) {
-    return new ValidationResultDetails(result.getLineNumber(),
-            result.getRecordId(), detail.getExpected(), detail.getFound(), detail.getRelatedData());
+    return SampleMemoryBudget.truncate(new ValidationResultDetails(result.getLineNumber(),
+            result.getRecordId(), detail.getExpected(), detail.getFound(), detail.getRelatedData()));
   }
 
+  /**
+   * @return a copy of the samples, completed by non-distinct samples if there is not enough distinct ones.
+   */
   public Map<EvaluationType, List<ValidationResultDetails>> getSamples() {
-    Map<EvaluationType, List<ValidationResultDetails>> samplesCopy = innerImpl.getSamples();
-    Map<EvaluationType, Collection<ValidationResultDetails>> nonDistinctSample = innerImpl.getNonDistinct();
-    samplesCopy.forEach( (et, sample) -> {
-      if(sample.size() < maxNumberOfSample && nonDistinctSample.get(et) != null){
-        for(ValidationResultDetails nonDistinctElement : nonDistinctSample.get(et)){
-          sample.add(nonDistinctElement);
-          if(maxNumberOfSample - sample.size() == 0){
+    Map<EvaluationType, List<ValidationResultDetails>> samplesCopy = new EnumMap<>(EvaluationType.class);
+    for (int i = 0; i < issueSampling.length; i++) {
+      IssueSample sample = issueSampling[i];
+      if (sample != null) {
+        List<ValidationResultDetails> details = new ArrayList<>(sample.details);
+        for (ValidationResultDetails nonDistinctElement : sample.nonDistinct) {
+          if (details.size() == maxNumberOfSample) {
             break;
           }
+          details.add(nonDistinctElement);
         }
+        samplesCopy.put(EVALUATION_TYPES[i], details);
       }
-    });
+    }
     return samplesCopy;
   }
 
-  public Map<Long, Map<Term, String>> getFullRecordSamples(){
-    return innerImpl.getFullRecordSample();
+  /**
+   * @return the verbatim records of the distinct samples, by line number
+   */
+  public Map<Long, Map<Term, String>> getFullRecordSamples() {
+    Map<Long, Map<Term, String>> fullRecordSample = new HashMap<>(sampledRecords.size());
+    sampledRecords.forEach((lineNumber, sampledRecord) -> fullRecordSample.put(lineNumber, sampledRecord.record));
+    return fullRecordSample;
   }
 
+  /**
+   * @return a copy of the aggregated counts
+   */
   public Map<EvaluationType, Long> getAggregatedCounts() {
-    return innerImpl.getAggregatedCounts();
+    Map<EvaluationType, Long> counts = new EnumMap<>(EvaluationType.class);
+    for (int i = 0; i < issueCounter.length; i++) {
+      if (issueCounter[i] > 0) {
+        counts.put(EVALUATION_TYPES[i], issueCounter[i]);
+      }
+    }
+    return counts;
+  }
+
+  /**
+   * Distinct samples of an {@link EvaluationType}, with their key and reserved size, and the non-distinct ones.
+   * The keys are also kept in a {@link Set} for lookups.
+   */
+  private static class IssueSample implements Serializable {
+    private final List<String> keys = new ArrayList<>();
+    private final Set<String> keySet = new HashSet<>();
+    private final List<ValidationResultDetails> details = new ArrayList<>();
+    private final List<Long> sizes = new ArrayList<>();
+    private final List<ValidationResultDetails> nonDistinct = new ArrayList<>();
+
+    int size() {
+      return keys.size();
+    }
+
+    boolean containsKey(String key) {
+      return keySet.contains(key);
+    }
+
+    void add(String key, ValidationResultDetails detail, long size) {
+      keys.add(key);
+      keySet.add(key);
+      details.add(detail);
+      sizes.add(size);
+    }
+
+    void set(int index, String key, ValidationResultDetails detail, long size) {
+      keySet.remove(keys.set(index, key));
+      keySet.add(key);
+      details.set(index, detail);
+      sizes.set(index, size);
+    }
+  }
+
+  /**
+   * Verbatim record retained for the samples, with the number of samples referencing it.
+   */
+  private static class SampledRecord implements Serializable {
+    private final Map<Term, String> record;
+    private final long size;
+    private int references = 1;
+
+    SampledRecord(Map<Term, String> record, long size) {
+      this.record = record;
+      this.size = size;
+    }
   }
 
 }
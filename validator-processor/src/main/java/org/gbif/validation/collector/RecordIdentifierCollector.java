@@ -0,0 +1,134 @@
+package org.gbif.validation.collector;
+
+import org.gbif.dwc.terms.Term;
+import org.gbif.validation.api.ResultsCollector;
+import org.gbif.validation.api.model.EvaluationType;
+import org.gbif.validation.api.model.RecordEvaluationResult;
+import org.gbif.validation.api.model.RecordEvaluationResultDetails;
+import org.gbif.validation.util.LineValuePartitions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Collects the record identifiers of all the splits of a file, while the records are evaluated, to find the
+ * identifiers that are not unique without reading the file again.
+ *
+ * Identifiers are distributed by hash into {@link LineValuePartitions} so splits can be collected concurrently. If the
+ * expected number of records exceeds maxIdentifiersInMemory, the partitions are spilled to files. Once all the splits
+ * are collected ({@link #finish(ResultsCollector)}), the partitions are checked one at a time and the duplicates are
+ * sent to the {@link ResultsCollector} as soon as they are found.
+ * {@link #close()} shall be called if the job is stopped before, to release the spilled files.
+ *
+ * For an identifier found n times, a {@link EvaluationType#RECORD_NOT_UNIQUELY_IDENTIFIED} result is reported for
+ * each occurrence except the one with the lowest line number.
+ *
+ * This class is thread-safe.
+ */
+public class RecordIdentifierCollector implements Closeable {
+
+  private static final int MIN_NUMBER_OF_PARTITIONS = 64;
+
+  private final Term rowType;
+  private final int idColumnIndex;
+  private final LineValuePartitions partitions;
+
+  /**
+   *
+   * @param rowType                rowType of the file
+   * @param idColumnIndex          index of the record identifier column
+   * @param expectedNumberOfRecords expected number of records of the file (all splits)
+   * @param maxIdentifiersInMemory maximum number of identifiers kept in memory at the same time
+   * @param workingFolder          folder where the partitions are spilled, if required
+   */
+  public RecordIdentifierCollector(Term rowType, int idColumnIndex, int expectedNumberOfRecords,
+                                   int maxIdentifiersInMemory, Path workingFolder) {
+    Objects.requireNonNull(rowType, "rowType shall be provided");
+    Preconditions.checkArgument(maxIdentifiersInMemory > 0, "maxIdentifiersInMemory shall be greater than 0");
+    this.rowType = rowType;
+    this.idColumnIndex = idColumnIndex;
+
+    //at least MIN_NUMBER_OF_PARTITIONS partitions to limit the contention between splits
+    int numberOfPartitions = Math.max(MIN_NUMBER_OF_PARTITIONS,
+            LineValuePartitions.numberOfPartitions(expectedNumberOfRecords, maxIdentifiersInMemory));
+    partitions = new LineValuePartitions(numberOfPartitions, expectedNumberOfRecords > maxIdentifiersInMemory,
+            workingFolder);
+  }
+
+  /**
+   * Collect the identifier of a record.
+   *
+   * @param lineNumber line number of the record
+   * @param record
+   */
+  public void collect(long lineNumber, List<String> record) {
+    if (idColumnIndex >= record.size()) {
+      return;
+    }
+    try {
+      partitions.add(record.get(idColumnIndex), lineNumber);
+    } catch (IOException ioEx) {
+      throw new UncheckedIOException(ioEx);
+    }
+  }
+
+  /**
+   * Reports the identifiers that are not unique, one partition at a time.
+   * Shall be called once all the splits are collected, the collector is closed after.
+   *
+   * @param resultsCollector receives a result for each duplicated identifier
+   *
+   * @throws IOException
+   */
+  public void finish(ResultsCollector resultsCollector) throws IOException {
+    partitions.forEachPartition(new LineValuePartitions.PartitionConsumer() {
+      //lowest line number of each identifier of the partition
+      private final Map<String, Long> firstLineNumbers = new HashMap<>();
+
+      @Override
+      public void accept(String identifier, long lineNumber) {
+        Long firstLineNumber = firstLineNumbers.putIfAbsent(identifier, lineNumber);
+        if (firstLineNumber != null) {
+          //splits are collected concurrently so the first occurrence may be read after the others
+          if (lineNumber < firstLineNumber) {
+            firstLineNumbers.put(identifier, lineNumber);
+            resultsCollector.collect(buildResult(identifier, firstLineNumber));
+          } else {
+            resultsCollector.collect(buildResult(identifier, lineNumber));
+          }
+        }
+      }
+
+      @Override
+      public void endOfPartition() {
+        firstLineNumbers.clear();
+      }
+    });
+  }
+
+  /**
+   * Releases the identifiers collected so far and deletes the spilled files. Identifiers collected after this call
+   * are ignored.
+   *
+   * @throws IOException
+   */
+  @Override
+  public void close() throws IOException {
+    partitions.close();
+  }
+
+  private RecordEvaluationResult buildResult(String identifier, long lineNumber) {
+    List<RecordEvaluationResultDetails> resultDetails = Collections.singletonList(
+            new RecordEvaluationResultDetails(EvaluationType.RECORD_NOT_UNIQUELY_IDENTIFIED, null, null));
+    return new RecordEvaluationResult(rowType, lineNumber, identifier, resultDetails, null, null);
+  }
+}
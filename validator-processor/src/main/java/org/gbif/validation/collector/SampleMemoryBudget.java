@@ -0,0 +1,167 @@
+package org.gbif.validation.collector;
+
+import org.gbif.dwc.terms.Term;
+import org.gbif.validation.api.result.ValidationResultDetails;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Number of bytes the samples (issue samples and verbatim records) of all the collectors of a job can retain.
+ * An instance is shared by all the {@link CollectorGroup} of a job so this class is thread-safe.
+ *
+ * The size of a sample is estimated from the strings it retains, values longer than {@link #MAX_VALUE_LENGTH} are
+ * truncated before being retained (see {@link #truncate(String)}).
+ */
+public class SampleMemoryBudget implements Serializable {
+
+  public static final int MAX_VALUE_LENGTH = 256;
+
+  //estimations for a 64-bit JVM with compressed oops
+  private static final long STRING_OVERHEAD = 40;
+  private static final long MAP_ENTRY_OVERHEAD = 48;
+  private static final long OBJECT_OVERHEAD = 64;
+
+  private final long budget;
+  private final AtomicLong used = new AtomicLong();
+
+  /**
+   * @return a {@link SampleMemoryBudget} that can not be exhausted
+   */
+  public static SampleMemoryBudget unlimited() {
+    return new SampleMemoryBudget(Long.MAX_VALUE);
+  }
+
+  /**
+   *
+   * @param budget number of bytes
+   */
+  public SampleMemoryBudget(long budget) {
+    Preconditions.checkArgument(budget >= 0, "budget shall be positive");
+    this.budget = budget;
+  }
+
+  /**
+   * Reserve a number of bytes, if available.
+   *
+   * @param bytes
+   * @return the bytes were reserved
+   */
+  public boolean tryAcquire(long bytes) {
+    long current;
+    do {
+      current = used.get();
+      if (bytes > budget - current) {
+        return false;
+      }
+    } while (!used.compareAndSet(current, current + bytes));
+    return true;
+  }
+
+  /**
+   * Reserve a number of bytes even if they are not available, for samples that must be retained (e.g. merged
+   * samples). Once the budget is exceeded, {@link #tryAcquire(long)} fails until enough bytes are released.
+   *
+   * @param bytes
+   */
+  public void acquire(long bytes) {
+    used.addAndGet(bytes);
+  }
+
+  /**
+   * Release bytes previously reserved by {@link #tryAcquire(long)} or {@link #acquire(long)}.
+   *
+   * @param bytes
+   */
+  public void release(long bytes) {
+    used.addAndGet(-bytes);
+  }
+
+  /**
+   * @return number of bytes currently reserved
+   */
+  public long getUsed() {
+    return used.get();
+  }
+
+  public long getBudget() {
+    return budget;
+  }
+
+  /**
+   * Truncate a value to {@link #MAX_VALUE_LENGTH} characters (including an ellipsis).
+   * @param value
+   * @return
+   */
+  public static String truncate(String value) {
+    return StringUtils.abbreviate(value, MAX_VALUE_LENGTH);
+  }
+
+  /**
+   * Truncate a key to {@link #MAX_VALUE_LENGTH} characters, the hash code of the complete key is appended to
+   * truncated keys so they remain (mostly) distinct.
+   * @param key
+   * @return
+   */
+  public static String truncateKey(String key) {
+    if (key == null || key.length() <= MAX_VALUE_LENGTH) {
+      return key;
+    }
+    String hash = '#' + Integer.toHexString(key.hashCode());
+    return key.substring(0, MAX_VALUE_LENGTH - hash.length()) + hash;
+  }
+
+  /**
+   * Copy of a record where long values are truncated.
+   * @param record
+   * @return
+   */
+  public static Map<Term, String> truncate(Map<Term, String> record) {
+    if (record == null) {
+      return null;
+    }
+    Map<Term, String> truncated = new HashMap<>(record.size());
+    record.forEach((k, v) -> truncated.put(k, truncate(v)));
+    return truncated;
+  }
+
+  /**
+   * Copy of a {@link ValidationResultDetails} where long values are truncated.
+   * @param details
+   * @return
+   */
+  public static ValidationResultDetails truncate(ValidationResultDetails details) {
+    return new ValidationResultDetails(details.getLineNumber(), truncate(details.getRecordId()),
+            truncate(details.getExpected()), truncate(details.getFound()), truncate(details.getRelatedData()));
+  }
+
+  public static long estimateSize(String value) {
+    return value == null ? 0 : STRING_OVERHEAD + 2L * value.length();
+  }
+
+  public static long estimateSize(Map<Term, String> record) {
+    if (record == null) {
+      return 0;
+    }
+    long size = OBJECT_OVERHEAD;
+    for (String value : record.values()) {
+      size += MAP_ENTRY_OVERHEAD + estimateSize(value);
+    }
+    return size;
+  }
+
+  public static long estimateSize(ValidationResultDetails details) {
+    return OBJECT_OVERHEAD + estimateSize(details.getRecordId()) + estimateSize(details.getExpected())
+            + estimateSize(details.getFound()) + estimateSize(details.getRelatedData());
+  }
+
+  @Override
+  public String toString() {
+    return "SampleMemoryBudget{budget=" + budget + ", used=" + used.get() + '}';
+  }
+}
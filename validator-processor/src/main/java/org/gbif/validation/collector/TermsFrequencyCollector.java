@@ -2,44 +2,59 @@ package org.gbif.validation.collector;
 
 import org.gbif.dwc.terms.Term;
 import org.gbif.validation.api.RecordMetricsCollector;
-import org.gbif.validation.api.ResultsCollector;
 
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.IntStream;
 
 import org.apache.commons.lang3.StringUtils;
 
 /**
  * Simple collector for terms frequency based on raw data.
+ * The frequency is counted per column position, without boxing or hashing. An instance is not thread-safe, it is
+ * expected to be confined to the thread evaluating a split (see {@link CollectorGroup}), the results of the splits are
+ * merged at the end.
  */
 public class TermsFrequencyCollector implements RecordMetricsCollector, Serializable {
 
   private final Term[] columnHeaders;
-  private final Map<Term, Long> termFrequencyCounter;
+  private final long[] columnFrequency;
 
   /**
    *
    * @param terms columnHeaders
-   * @param useConcurrentMap if this {@link ResultsCollector} will be used in a concurrent context
    */
-  public TermsFrequencyCollector(List<Term> terms, boolean useConcurrentMap) {
+  public TermsFrequencyCollector(List<Term> terms) {
     Objects.requireNonNull(terms, "columnHeaders must not be null");
     columnHeaders = terms.toArray(new Term[terms.size()]);
-    termFrequencyCounter = CollectorUtils.getZeroTermFrequency(columnHeaders, useConcurrentMap);
+    columnFrequency = new long[columnHeaders.length];
   }
 
   @Override
   public void collect(List<String> recordData) {
-    IntStream.range(0, Math.min(recordData.size(), columnHeaders.length))
-      .filter(i -> columnHeaders[i] != null && StringUtils.isNotBlank(recordData.get(i)))
-      .forEach(i -> termFrequencyCounter.compute(columnHeaders[i], (k, v) -> ++v));
+    int numberOfColumns = Math.min(recordData.size(), columnHeaders.length);
+    for (int i = 0; i < numberOfColumns; i++) {
+      if (columnHeaders[i] != null && StringUtils.isNotBlank(recordData.get(i))) {
+        columnFrequency[i]++;
+      }
+    }
   }
 
+  /**
+   * Get the frequency by term, the frequency of a term used by multiple columns is the sum of the columns.
+   * A new {@link Map} is computed on each call.
+   *
+   * @return
+   */
   @Override
   public Map<Term, Long> getTermFrequency() {
-    return termFrequencyCounter;
+    Map<Term, Long> termFrequency = CollectorUtils.getZeroTermFrequency(columnHeaders, false);
+    for (int i = 0; i < columnHeaders.length; i++) {
+      if (columnHeaders[i] != null) {
+        termFrequency.merge(columnHeaders[i], columnFrequency[i], Long::sum);
+      }
+    }
+    return termFrequency;
   }
 }
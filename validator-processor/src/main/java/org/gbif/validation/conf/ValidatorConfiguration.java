@@ -3,6 +3,7 @@ package org.gbif.validation.conf;
 import org.gbif.checklistbank.cli.normalizer.NormalizerConfiguration;
 
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.Optional;
 
 /**
@@ -11,11 +12,22 @@ import java.util.Optional;
  */
 public class ValidatorConfiguration {
 
+  public static final long DEFAULT_CORE_IDENTIFIERS_MEMORY_BUDGET = 512L * 1024 * 1024;
+  public static final long DEFAULT_SAMPLES_MEMORY_BUDGET = 32L * 1024 * 1024;
+  public static final int DEFAULT_PROGRESS_REPORT_INTERVAL_IN_SECONDS = 10;
+
   private final String apiUrl;
   private final NormalizerConfiguration normalizerConfiguration;
   private final URL extensionListURL;
 
   private final boolean preserveTemporaryFiles;
+  private final boolean prefetchLookups;
+
+  private final Path nameMatchChecklist;
+  private final Path countryPolygons;
+  private final long coreIdentifiersMemoryBudget;
+  private final long samplesMemoryBudget;
+  private final int progressReportIntervalInSeconds;
 
   private final String gangliaHost;
   private final Integer gangliaPort;
@@ -28,6 +40,12 @@ public class ValidatorConfiguration {
     private NormalizerConfiguration normalizerConfiguration;
     private URL extensionListURL;
     private boolean preserveTemporaryFiles = false;
+    private boolean prefetchLookups = false;
+    private Path nameMatchChecklist;
+    private Path countryPolygons;
+    private long coreIdentifiersMemoryBudget = DEFAULT_CORE_IDENTIFIERS_MEMORY_BUDGET;
+    private long samplesMemoryBudget = DEFAULT_SAMPLES_MEMORY_BUDGET;
+    private int progressReportIntervalInSeconds = DEFAULT_PROGRESS_REPORT_INTERVAL_IN_SECONDS;
 
     private String gangliaHost;
     private Integer gangliaPort;
@@ -52,6 +70,36 @@ public class ValidatorConfiguration {
       return this;
     }
 
+    public Builder setPrefetchLookups(boolean prefetchLookups) {
+      this.prefetchLookups = prefetchLookups;
+      return this;
+    }
+
+    public Builder setNameMatchChecklist(Path nameMatchChecklist) {
+      this.nameMatchChecklist = nameMatchChecklist;
+      return this;
+    }
+
+    public Builder setCountryPolygons(Path countryPolygons) {
+      this.countryPolygons = countryPolygons;
+      return this;
+    }
+
+    public Builder setCoreIdentifiersMemoryBudget(long coreIdentifiersMemoryBudget) {
+      this.coreIdentifiersMemoryBudget = coreIdentifiersMemoryBudget;
+      return this;
+    }
+
+    public Builder setSamplesMemoryBudget(long samplesMemoryBudget) {
+      this.samplesMemoryBudget = samplesMemoryBudget;
+      return this;
+    }
+
+    public Builder setProgressReportIntervalInSeconds(int progressReportIntervalInSeconds) {
+      this.progressReportIntervalInSeconds = progressReportIntervalInSeconds;
+      return this;
+    }
+
     public Builder setGangliaHost(String gangliaHost) {
       this.gangliaHost = gangliaHost;
       return this;
@@ -64,7 +112,8 @@ public class ValidatorConfiguration {
 
     public ValidatorConfiguration build(){
       return new ValidatorConfiguration(apiUrl, normalizerConfiguration,
-              extensionListURL, preserveTemporaryFiles , gangliaHost, gangliaPort);
+              extensionListURL, preserveTemporaryFiles, prefetchLookups, nameMatchChecklist, countryPolygons,
+              coreIdentifiersMemoryBudget, samplesMemoryBudget, progressReportIntervalInSeconds, gangliaHost, gangliaPort);
     }
   }
 
@@ -75,10 +124,26 @@ public class ValidatorConfiguration {
   public ValidatorConfiguration(String apiUrl, NormalizerConfiguration normalizerConfiguration,
                                 URL extensionListURL,  boolean preserveTemporaryFiles,
                                 String gangliaHost, Integer gangliaPort){
+    this(apiUrl, normalizerConfiguration, extensionListURL, preserveTemporaryFiles, false, null, null,
+            DEFAULT_CORE_IDENTIFIERS_MEMORY_BUDGET, DEFAULT_SAMPLES_MEMORY_BUDGET,
+            DEFAULT_PROGRESS_REPORT_INTERVAL_IN_SECONDS, gangliaHost, gangliaPort);
+  }
+
+  public ValidatorConfiguration(String apiUrl, NormalizerConfiguration normalizerConfiguration,
+                                URL extensionListURL,  boolean preserveTemporaryFiles, boolean prefetchLookups,
+                                Path nameMatchChecklist, Path countryPolygons, long coreIdentifiersMemoryBudget,
+                                long samplesMemoryBudget, int progressReportIntervalInSeconds,
+                                String gangliaHost, Integer gangliaPort){
     this.apiUrl = apiUrl;
     this.normalizerConfiguration = normalizerConfiguration;
     this.extensionListURL = extensionListURL;
     this.preserveTemporaryFiles = preserveTemporaryFiles;
+    this.prefetchLookups = prefetchLookups;
+    this.nameMatchChecklist = nameMatchChecklist;
+    this.countryPolygons = countryPolygons;
+    this.coreIdentifiersMemoryBudget = coreIdentifiersMemoryBudget;
+    this.samplesMemoryBudget = samplesMemoryBudget;
+    this.progressReportIntervalInSeconds = progressReportIntervalInSeconds;
 
     this.gangliaHost = gangliaHost;
     this.gangliaPort = gangliaPort;
@@ -106,6 +171,60 @@ public class ValidatorConfiguration {
   }
 
 
+  /**
+   * Should the distinct names and coordinates of a file be resolved before the interpretation of its records.
+   * Mostly useful for large files where the same values are repeated many times.
+   * @return
+   */
+  public boolean isPrefetchLookups() {
+    return prefetchLookups;
+  }
+
+  /**
+   * Checklist (Darwin Core Archive) used to match names locally instead of using the GBIF API.
+   * @return
+   */
+  public Optional<Path> getNameMatchChecklist() {
+    return Optional.ofNullable(nameMatchChecklist);
+  }
+
+  /**
+   * Country polygons file (see {@link org.gbif.validation.evaluator.lookup.CountryPolygonIndex}) used to reverse
+   * geocode coordinates locally instead of using the GBIF API.
+   * @return
+   */
+  public Optional<Path> getCountryPolygons() {
+    return Optional.ofNullable(countryPolygons);
+  }
+
+  /**
+   * Number of bytes the identifiers of a core can use in memory (per job) for the referential integrity evaluation.
+   * Above this budget, a Bloom filter and external sorting are used instead.
+   * Default of all the jobs, a job can override it with
+   * {@link org.gbif.validation.evaluator.EvaluationChain.Builder#withCoreIdentifiersMemoryBudget(long)}.
+   * @return
+   */
+  public long getCoreIdentifiersMemoryBudget() {
+    return coreIdentifiersMemoryBudget;
+  }
+
+  /**
+   * Number of bytes the issue samples and verbatim record samples of a job can retain in memory. Once exhausted,
+   * new samples are dropped.
+   * @return
+   */
+  public long getSamplesMemoryBudget() {
+    return samplesMemoryBudget;
+  }
+
+  /**
+   * Interval at which a running job publishes its partial results and progress, 0 to disable.
+   * @return
+   */
+  public int getProgressReportIntervalInSeconds() {
+    return progressReportIntervalInSeconds;
+  }
+
   public boolean isRunOccurrenceInterpretation() {
     return runOccurrenceInterpretation;
   }
@@ -0,0 +1,43 @@
+package org.gbif.validation.evaluator;
+
+import org.gbif.validation.api.RecordSource;
+import org.gbif.validation.api.TabularDataFile;
+import org.gbif.validation.source.RecordSourceFactory;
+import org.gbif.validation.util.LineValueConsumer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Utility to stream the values of a column of a {@link TabularDataFile}.
+ */
+class ColumnValues {
+
+  /**
+   * Utility class
+   */
+  private ColumnValues() {
+  }
+
+  /**
+   * Reads the values of a column with the number of the line where they were found.
+   *
+   * @param dataFile
+   * @param columnIndex
+   * @param consumer
+   *
+   * @throws IOException
+   */
+  static void readValues(TabularDataFile dataFile, int columnIndex, LineValueConsumer consumer) throws IOException {
+    long lineNumber = dataFile.getFileLineOffset().orElse(0) + (dataFile.isHasHeaders() ? 1 : 0);
+    try (RecordSource recordSource = RecordSourceFactory.fromTabularDataFile(dataFile)) {
+      List<String> record;
+      while ((record = recordSource.read()) != null) {
+        lineNumber++;
+        if (columnIndex < record.size()) {
+          consumer.accept(record.get(columnIndex), lineNumber);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,306 @@
+package org.gbif.validation.evaluator;
+
+import org.gbif.validation.api.RecordSource;
+import org.gbif.validation.api.TabularDataFile;
+import org.gbif.validation.source.RecordSourceFactory;
+import org.gbif.validation.util.LineValueConsumer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * {@link CoreIdentifiers} implementation indexing the record identifiers of a core {@link TabularDataFile} in memory.
+ *
+ * The identifiers (UTF-8 encoded) and the open-addressing hash table are stored off-heap in direct buffers so large
+ * cores don't put pressure on the garbage collector.
+ *
+ * This class is thread-safe once built.
+ */
+class CoreIdentifierIndex implements CoreIdentifiers {
+
+  private static final int INITIAL_CAPACITY = 1 << 16;
+  private static final int INITIAL_KEYS_SIZE = 1 << 20;
+  private static final long OFFSET_MASK = 0xFFFFFFFFL;
+
+  //[length (int)][UTF-8 bytes] for each identifier
+  private ByteBuffer keys = ByteBuffer.allocateDirect(INITIAL_KEYS_SIZE);
+  //entry: hash (32 highest bits) and offset + 1 of the key (32 lowest bits), 0 means empty
+  private LongBuffer table = ByteBuffer.allocateDirect(INITIAL_CAPACITY * Long.BYTES).asLongBuffer();
+  private int mask = INITIAL_CAPACITY - 1;
+  private int size;
+
+  /**
+   * Holds the {@link CoreIdentifiers} of a single core so they are read only once, by the first evaluator requesting
+   * them, and shared with the others.
+   * A {@link CoreIdentifierIndex} is used if it fits in the memory budget, otherwise {@link SortedCoreIdentifiers}.
+   * The evaluators using the holder shall {@link #retain()} it when created and {@link #release()} it once done, the
+   * {@link CoreIdentifiers} are closed when the last one releases it.
+   * This class is thread-safe.
+   */
+  static class Holder {
+    private final long memoryBudget;
+    private final Path workingFolder;
+    private CoreIdentifiers coreIdentifiers;
+    private int numberOfUsers;
+
+    /**
+     * Holder without memory budget, a {@link CoreIdentifierIndex} is always used.
+     */
+    Holder() {
+      this(Long.MAX_VALUE, null);
+    }
+
+    /**
+     *
+     * @param memoryBudget  number of bytes the core identifiers can use in memory
+     * @param workingFolder folder where temporary files are created if the core identifiers don't fit in memory
+     */
+    Holder(long memoryBudget, Path workingFolder) {
+      Preconditions.checkArgument(memoryBudget > 1, "memoryBudget shall be greater than 1");
+      this.memoryBudget = memoryBudget;
+      this.workingFolder = workingFolder;
+    }
+
+    /**
+     * Get the identifiers of the core, read them if required.
+     *
+     * @param core
+     *
+     * @return
+     *
+     * @throws IOException
+     */
+    synchronized CoreIdentifiers get(TabularDataFile core) throws IOException {
+      if (coreIdentifiers == null) {
+        coreIdentifiers = build(core, memoryBudget, workingFolder);
+      }
+      return coreIdentifiers;
+    }
+
+    synchronized void retain() {
+      numberOfUsers++;
+    }
+
+    /**
+     * Closes the {@link CoreIdentifiers} if no evaluator uses them anymore.
+     *
+     * @throws IOException
+     */
+    synchronized void release() throws IOException {
+      Preconditions.checkState(numberOfUsers > 0, "release called more times than retain");
+      numberOfUsers--;
+      if (numberOfUsers == 0 && coreIdentifiers != null) {
+        try {
+          coreIdentifiers.close();
+        } finally {
+          coreIdentifiers = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads the record identifier column of the core once. The identifiers are indexed in a {@link CoreIdentifierIndex}
+   * until it exceeds the memory budget, they are then moved to a {@link SortedCoreIdentifiers} and the rest of the
+   * core is read into it.
+   *
+   * @param core          core {@link TabularDataFile}, shall have a record identifier
+   * @param memoryBudget  maximum number of bytes used in memory
+   * @param workingFolder folder where temporary files are created if the memory budget is exceeded
+   *
+   * @return
+   *
+   * @throws IOException
+   */
+  static CoreIdentifiers build(TabularDataFile core, long memoryBudget, Path workingFolder) throws IOException {
+    Preconditions.checkState(core.getRecordIdentifier().isPresent(), "core shall have a record identifier");
+    int idColumnIndex = core.getRecordIdentifier().get().getIndex();
+    CoreIdentifierIndex index = new CoreIdentifierIndex();
+    SortedCoreIdentifiers.Builder sortedBuilder = null;
+
+    try (RecordSource recordSource = RecordSourceFactory.fromTabularDataFile(core)) {
+      List<String> record;
+      while ((record = recordSource.read()) != null) {
+        if (idColumnIndex >= record.size()) {
+          continue;
+        }
+        if (sortedBuilder != null) {
+          sortedBuilder.add(record.get(idColumnIndex));
+        } else {
+          index.add(record.get(idColumnIndex));
+          if (index.memoryUsage() > memoryBudget) {
+            Objects.requireNonNull(workingFolder, "workingFolder is required for cores exceeding the memory budget");
+            sortedBuilder = new SortedCoreIdentifiers.Builder(core.getNumOfLines(), memoryBudget, workingFolder);
+            index.copyTo(sortedBuilder);
+            index = null;
+          }
+        }
+      }
+      return sortedBuilder != null ? sortedBuilder.build() : index;
+    } finally {
+      if (sortedBuilder != null) {
+        sortedBuilder.close();
+      }
+    }
+  }
+
+  private CoreIdentifierIndex() {
+    //use build
+  }
+
+  /**
+   * Is the identifier in the core.
+   *
+   * @param identifier
+   *
+   * @return
+   */
+  boolean contains(String identifier) {
+    byte[] key = identifier.getBytes(StandardCharsets.UTF_8);
+    return table.get(findSlot(key, hash(key))) != 0;
+  }
+
+  /**
+   * @return number of distinct identifiers
+   */
+  int size() {
+    return size;
+  }
+
+  @Override
+  public void findUnlinked(TabularDataFile dataFile, int columnIndex, LineValueConsumer consumer)
+          throws IOException {
+    ColumnValues.readValues(dataFile, columnIndex, (value, lineNumber) -> {
+      if (!contains(value)) {
+        consumer.accept(value, lineNumber);
+      }
+    });
+  }
+
+  /**
+   * Nothing to release, the direct buffers are freed with the index.
+   */
+  @Override
+  public void close() {
+  }
+
+  /**
+   * @return number of bytes used off-heap by the index
+   */
+  long memoryUsage() {
+    return keys.capacity() + (long) table.capacity() * Long.BYTES;
+  }
+
+  /**
+   * Adds all the identifiers of the index to a {@link SortedCoreIdentifiers.Builder}.
+   */
+  private void copyTo(SortedCoreIdentifiers.Builder sortedBuilder) throws IOException {
+    int offset = 0;
+    while (offset < keys.position()) {
+      byte[] key = new byte[keys.getInt(offset)];
+      for (int i = 0; i < key.length; i++) {
+        key[i] = keys.get(offset + Integer.BYTES + i);
+      }
+      sortedBuilder.add(new String(key, StandardCharsets.UTF_8));
+      offset += Integer.BYTES + key.length;
+    }
+  }
+
+  /**
+   * @return false if the identifier was already in the index
+   */
+  private boolean add(String identifier) {
+    byte[] key = identifier.getBytes(StandardCharsets.UTF_8);
+    int hash = hash(key);
+    int slot = findSlot(key, hash);
+    if (table.get(slot) != 0) {
+      return false;
+    }
+    long offset = appendKey(key);
+    Preconditions.checkState(offset < OFFSET_MASK, "Too many identifiers for the index");
+    table.put(slot, ((long) hash << 32) | (offset + 1));
+    size++;
+    if (size * 2 > mask) {
+      resize();
+    }
+    return true;
+  }
+
+  /**
+   * @return the slot of the key or the empty slot where it should be inserted
+   */
+  private int findSlot(byte[] key, int hash) {
+    int slot = hash & mask;
+    long entry;
+    while ((entry = table.get(slot)) != 0) {
+      if ((int) (entry >>> 32) == hash && keyEquals((int) ((entry & OFFSET_MASK) - 1), key)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private boolean keyEquals(int offset, byte[] key) {
+    if (keys.getInt(offset) != key.length) {
+      return false;
+    }
+    int start = offset + Integer.BYTES;
+    for (int i = 0; i < key.length; i++) {
+      if (keys.get(start + i) != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private long appendKey(byte[] key) {
+    int required = Integer.BYTES + key.length;
+    if (keys.remaining() < required) {
+      long newSize = Math.max((long) keys.capacity() * 2, (long) keys.position() + required);
+      Preconditions.checkState(newSize <= Integer.MAX_VALUE, "Too many identifiers for the index");
+      ByteBuffer newKeys = ByteBuffer.allocateDirect((int) newSize);
+      keys.flip();
+      newKeys.put(keys);
+      keys = newKeys;
+    }
+    int offset = keys.position();
+    keys.putInt(key.length);
+    keys.put(key);
+    return offset;
+  }
+
+  private void resize() {
+    int newCapacity = (mask + 1) * 2;
+    LongBuffer newTable = ByteBuffer.allocateDirect(newCapacity * Long.BYTES).asLongBuffer();
+    int newMask = newCapacity - 1;
+    for (int i = 0; i <= mask; i++) {
+      long entry = table.get(i);
+      if (entry != 0) {
+        int slot = ((int) (entry >>> 32)) & newMask;
+        while (newTable.get(slot) != 0) {
+          slot = (slot + 1) & newMask;
+        }
+        newTable.put(slot, entry);
+      }
+    }
+    table = newTable;
+    mask = newMask;
+  }
+
+  private static int hash(byte[] key) {
+    int h = 1;
+    for (byte b : key) {
+      h = 31 * h + b;
+    }
+    h *= 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
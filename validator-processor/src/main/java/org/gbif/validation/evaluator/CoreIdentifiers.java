@@ -0,0 +1,29 @@
+package org.gbif.validation.evaluator;
+
+import org.gbif.validation.api.TabularDataFile;
+import org.gbif.validation.util.LineValueConsumer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Record identifiers of a core {@link TabularDataFile}, read once and shared by the referential integrity evaluators
+ * of its extensions.
+ *
+ * Implementations shall be thread-safe, {@link #close()} releases the temporary files they may use.
+ */
+interface CoreIdentifiers extends Closeable {
+
+  /**
+   * Streams a column of a {@link TabularDataFile} and emits the values (with their line number) that are not
+   * identifiers of the core, ordered by line number.
+   *
+   * @param dataFile
+   * @param columnIndex index of the column referencing the core identifiers
+   * @param consumer    receives the values without matching core identifier
+   *
+   * @throws IOException
+   */
+  void findUnlinked(TabularDataFile dataFile, int columnIndex, LineValueConsumer consumer)
+          throws IOException;
+}
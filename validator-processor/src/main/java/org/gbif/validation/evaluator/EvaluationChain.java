@@ -71,7 +71,8 @@ public class EvaluationChain {
     private final List<Function<DwcDataFile, List<TargetedRecordEvaluator>>> recordEvaluatorFct = new ArrayList<>();
 
     private final EvaluatorFactory factory;
-
+    //core identifiers read once and shared by the referential integrity evaluations of the extensions
+    private CoreIdentifierIndex.Holder coreIdentifierIndexHolder;
 
     public static Builder using(DataFile dataFile, DwcDataFileSupplier dwcDataFileSupplier,
                                 EvaluatorFactory factory, Path workingFolder) {
@@ -83,6 +84,24 @@ public class EvaluationChain {
       this.dwcDataFileSupplier = dwcDataFileSupplier;
       this.factory = factory;
       this.workingFolder = workingFolder;
+      this.coreIdentifierIndexHolder = new CoreIdentifierIndex.Holder(factory.getCoreIdentifiersMemoryBudget(),
+              workingFolder);
+    }
+
+    /**
+     * Set the number of bytes the identifiers of the core can use in memory for this evaluation, overriding the
+     * default of the {@link EvaluatorFactory}. Above this budget, the referential integrity evaluation uses a Bloom
+     * filter and external sorting.
+     * Shall be called before {@link #evaluateReferentialIntegrity()}.
+     *
+     * @param coreIdentifiersMemoryBudget number of bytes
+     * @return the builder
+     */
+    public Builder withCoreIdentifiersMemoryBudget(long coreIdentifiersMemoryBudget) {
+      Preconditions.checkState(recordCollectionEvaluatorFct.isEmpty(),
+              "withCoreIdentifiersMemoryBudget shall be called before adding record collection evaluations");
+      coreIdentifierIndexHolder = new CoreIdentifierIndex.Holder(coreIdentifiersMemoryBudget, workingFolder);
+      return this;
     }
 
     /**
@@ -120,20 +139,13 @@ public class EvaluationChain {
       return this;
     }
 
-    public Builder evaluateCoreUniqueness() {
-      recordCollectionEvaluatorFct.add((dwcDataFile) ->
-              Collections.singletonList(
-                      new TargetedRecordCollectionEvaluator(dwcDataFile.getCore().getRowTypeKey(),
-                      EvaluatorFactory.createUniquenessEvaluator(dwcDataFile.getCore().getRowTypeKey(), true, workingFolder))));
-      return this;
-    }
-
     public Builder evaluateReferentialIntegrity() {
       recordCollectionEvaluatorFct.add((dwcDataFile) -> {
         if (dwcDataFile.getExtensions().isPresent()) {
           return dwcDataFile.getExtensions().get().stream()
                   .map(df -> new TargetedRecordCollectionEvaluator(df.getRowTypeKey(),
-                          EvaluatorFactory.createReferentialIntegrityEvaluator(df.getRowTypeKey().getRowType())))
+                          EvaluatorFactory.createReferentialIntegrityEvaluator(df.getRowTypeKey().getRowType(),
+                                  coreIdentifierIndexHolder)))
                   .collect(Collectors.toList());
         }
         return Collections.emptyList();
@@ -15,17 +15,22 @@ import org.gbif.validation.api.DwcDataFileEvaluator;
 import org.gbif.validation.api.RecordCollectionEvaluator;
 import org.gbif.validation.api.RecordEvaluator;
 import org.gbif.validation.api.ResourceStructureEvaluator;
-import org.gbif.validation.api.RowTypeKey;
 import org.gbif.validation.api.TermIndex;
 import org.gbif.validation.api.model.RecordEvaluatorChain;
 import org.gbif.validation.api.vocabulary.FileFormat;
 import org.gbif.validation.conf.ValidatorConfiguration;
+import org.gbif.validation.evaluator.lookup.CountryPolygonIndex;
+import org.gbif.validation.evaluator.lookup.LocalLookupFilter;
+import org.gbif.validation.evaluator.lookup.LookupCacheFilter;
+import org.gbif.validation.evaluator.lookup.NameMatchIndex;
 import org.gbif.validation.evaluator.record.OccurrenceInterpretationEvaluator;
 import org.gbif.validation.evaluator.record.RecordStructureEvaluator;
 import org.gbif.validation.xml.XMLSchemaValidatorProvider;
 import org.gbif.ws.json.JacksonJsonContextResolver;
 import org.gbif.ws.mixin.Mixins;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -33,7 +38,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
+import com.google.common.cache.CacheStats;
 import com.sun.jersey.api.client.WebResource;
 import com.sun.jersey.api.client.config.ClientConfig;
 import com.sun.jersey.api.client.config.DefaultClientConfig;
@@ -58,7 +65,16 @@ public class EvaluatorFactory {
   //FIXME we should refactor the ExtensionManager and reuse the ApacheHttpClient
   private static final HttpClient PLAIN_HTTP_CLIENT = createPlainHttpClient(10, 10);
 
-  private final String apiUrl;
+  private static final long LOOKUP_CACHE_MAX_SIZE = 100000;
+  private static final long LOOKUP_CACHE_EXPIRE_AFTER_WRITE_MIN = 60;
+
+  //shared by all the interpreters created by this factory
+  private final LookupCacheFilter lookupCacheFilter;
+  private final WebResource apiWebResource;
+  private final boolean prefetchLookups;
+  private final long coreIdentifiersMemoryBudget;
+  private final long samplesMemoryBudget;
+  private final int progressReportIntervalInSeconds;
   private final NormalizerConfiguration normalizerConfiguration;
   private final ExtensionManager extensionManager;
 
@@ -81,7 +97,18 @@ public class EvaluatorFactory {
   public EvaluatorFactory(ValidatorConfiguration config, ExtensionManager extensionManager) {
     Objects.requireNonNull(config, "ValidatorConfiguration shall be provided");
 
-    this.apiUrl = config.getApiUrl();
+    lookupCacheFilter = new LookupCacheFilter(HTTP_CLIENT.getMessageBodyWorkers(), LOOKUP_CACHE_MAX_SIZE,
+            LOOKUP_CACHE_EXPIRE_AFTER_WRITE_MIN, TimeUnit.MINUTES);
+    apiWebResource = HTTP_CLIENT.resource(config.getApiUrl());
+    apiWebResource.addFilter(lookupCacheFilter);
+    if (config.getNameMatchChecklist().isPresent() || config.getCountryPolygons().isPresent()) {
+      //added last so local lookups are answered before reaching the cache
+      apiWebResource.addFilter(createLocalLookupFilter(config));
+    }
+    prefetchLookups = config.isPrefetchLookups();
+    coreIdentifiersMemoryBudget = config.getCoreIdentifiersMemoryBudget();
+    samplesMemoryBudget = config.getSamplesMemoryBudget();
+    progressReportIntervalInSeconds = config.getProgressReportIntervalInSeconds();
     this.normalizerConfiguration = config.getNormalizerConfiguration();
     this.extensionManager = extensionManager;
   }
@@ -103,28 +130,30 @@ public class EvaluatorFactory {
   }
 
   /**
-   * Creates a {@link RecordCollectionEvaluator} that validates the uniqueness of the value on a specific column index.
+   * Creates a {@link RecordCollectionEvaluator} instance for a specific rowType.
+   * Given a {@link DataFile} that represents the entire Dwc-A, this {@link RecordCollectionEvaluator} instance
+   * will check for referential integrity issues between the given extension (rowType) and the core.
    *
-   * @param rowTypeKey rowTypeKey targeted by this uniqueness validation
-   * @param caseSensitive
-   * @param workingFolder folder specific to the rsource to evaluate where temporary files will be created
+   * @param rowType
    * @return
    */
-  public static RecordCollectionEvaluator createUniquenessEvaluator(RowTypeKey rowTypeKey, boolean caseSensitive, Path workingFolder) {
-    return new UniquenessEvaluator(rowTypeKey, caseSensitive, workingFolder);
+  public static RecordCollectionEvaluator createReferentialIntegrityEvaluator(Term rowType) {
+    Objects.requireNonNull(rowType, "rowType shall be provided");
+    return new ReferentialIntegrityEvaluator(rowType);
   }
 
   /**
-   * Creates a {@link RecordCollectionEvaluator} instance for a specific rowType.
-   * Given a {@link DataFile} that represents the entire Dwc-A, this {@link RecordCollectionEvaluator} instance
-   * will check for referential integrity issues between the given extension (rowType) and the core.
+   * Same as {@link #createReferentialIntegrityEvaluator(Term)} but the core identifiers are taken from a
+   * {@link CoreIdentifierIndex} shared with the other evaluators of the same job.
    *
    * @param rowType
+   * @param coreIdentifierIndexHolder holder of the shared {@link CoreIdentifierIndex}
    * @return
    */
-  public static RecordCollectionEvaluator createReferentialIntegrityEvaluator(Term rowType) {
+  static RecordCollectionEvaluator createReferentialIntegrityEvaluator(Term rowType,
+                                                                       CoreIdentifierIndex.Holder coreIdentifierIndexHolder) {
     Objects.requireNonNull(rowType, "rowType shall be provided");
-    return new ReferentialIntegrityEvaluator(rowType);
+    return new ReferentialIntegrityEvaluator(rowType, coreIdentifierIndexHolder);
   }
 
   /**
@@ -181,21 +210,68 @@ public class EvaluatorFactory {
 
     if (DwcTerm.Occurrence == rowType) {
       evaluators.add(new OccurrenceInterpretationEvaluator(buildOccurrenceInterpreter(),
-              columns.toArray(new Term[columns.size()]), defaultValues, recordIdentifier));
+              columns.toArray(new Term[columns.size()]), defaultValues, recordIdentifier, prefetchLookups));
     }
     return new RecordEvaluatorChain(evaluators);
   }
 
+  /**
+   * Default number of bytes the identifiers of a core can use in memory for a job.
+   * @return
+   */
+  public long getCoreIdentifiersMemoryBudget() {
+    return coreIdentifiersMemoryBudget;
+  }
+
+  /**
+   * Default number of bytes the samples of the collectors can retain in memory for a job.
+   * @return
+   */
+  public long getSamplesMemoryBudget() {
+    return samplesMemoryBudget;
+  }
+
+  /**
+   * Interval at which a running job publishes its partial results and progress, 0 if disabled.
+   * @return
+   */
+  public int getProgressReportIntervalInSeconds() {
+    return progressReportIntervalInSeconds;
+  }
+
+  /**
+   * Statistics of the cache used for the lookups (e.g. species match, reverse geocode) of the interpreters.
+   * @return
+   */
+  public CacheStats getLookupCacheStats() {
+    return lookupCacheFilter.getStats();
+  }
+
   /**
    * Builds an OccurrenceInterpreter using the current HttpClient instance.
+   * All lookups go through the {@link LookupCacheFilter} shared by all the interpreters of this factory.
    */
   private OccurrenceInterpreter buildOccurrenceInterpreter() {
-    WebResource webResource = HTTP_CLIENT.resource(apiUrl);
-    TaxonomyInterpreter taxonomyInterpreter = new TaxonomyInterpreter(webResource);
-    LocationInterpreter locationInterpreter = new LocationInterpreter(new CoordinateInterpreter(webResource));
+    TaxonomyInterpreter taxonomyInterpreter = new TaxonomyInterpreter(apiWebResource);
+    LocationInterpreter locationInterpreter = new LocationInterpreter(new CoordinateInterpreter(apiWebResource));
     return new OccurrenceInterpreter(taxonomyInterpreter, locationInterpreter);
   }
 
+  /**
+   * Creates a {@link LocalLookupFilter} using the local backends defined in the configuration.
+   */
+  private static LocalLookupFilter createLocalLookupFilter(ValidatorConfiguration config) {
+    try {
+      NameMatchIndex nameMatchIndex = config.getNameMatchChecklist().isPresent() ?
+              NameMatchIndex.fromChecklist(config.getNameMatchChecklist().get()) : null;
+      CountryPolygonIndex countryPolygonIndex = config.getCountryPolygons().isPresent() ?
+              CountryPolygonIndex.fromFile(config.getCountryPolygons().get()) : null;
+      return new LocalLookupFilter(HTTP_CLIENT.getMessageBodyWorkers(), nameMatchIndex, countryPolygonIndex);
+    } catch (IOException ioEx) {
+      throw new UncheckedIOException("Can not load the local lookup backends", ioEx);
+    }
+  }
+
   /**
    * Creates an HTTP client.
    */
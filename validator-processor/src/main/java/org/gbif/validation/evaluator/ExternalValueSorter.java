@@ -0,0 +1,235 @@
+package org.gbif.validation.evaluator;
+
+import org.gbif.validation.util.LineValueConsumer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Sorts values with their line number using a bounded amount of memory.
+ * Values are accumulated in memory until the memory budget is reached, then sorted and written to a run file.
+ * The runs are finally merged (k-way merge) to emit all the values ordered by value then line number or, using
+ * {@link Order#LINE_NUMBER}, by line number then value.
+ *
+ * This class is not thread-safe.
+ */
+class ExternalValueSorter implements Closeable {
+
+  private static final String RUN_FILE_PREFIX = "sorted_run_";
+  //estimated heap size of an entry, excluding the characters of the value
+  private static final int ENTRY_OVERHEAD = 80;
+  //maximum number of runs merged at once
+  private static final int MAX_MERGE_FAN_IN = 256;
+
+  /**
+   * Order in which the values are emitted.
+   */
+  enum Order {
+    VALUE(Comparator.comparing((Entry e) -> e.value).thenComparingLong(e -> e.lineNumber)),
+    LINE_NUMBER(Comparator.comparingLong((Entry e) -> e.lineNumber).thenComparing(e -> e.value));
+
+    private final Comparator<Entry> comparator;
+
+    Order(Comparator<Entry> comparator) {
+      this.comparator = comparator;
+    }
+  }
+
+  private final long memoryBudget;
+  private final Path workingFolder;
+  private final Comparator<Entry> entryOrder;
+
+  private final List<Entry> entries = new ArrayList<>();
+  private long entriesSize;
+  private List<Path> runs = new ArrayList<>();
+
+  private static class Entry {
+    private final String value;
+    private final long lineNumber;
+
+    Entry(String value, long lineNumber) {
+      this.value = value;
+      this.lineNumber = lineNumber;
+    }
+  }
+
+  /**
+   * Reader of a run file keeping the current entry.
+   */
+  private static class RunReader implements Closeable {
+    private final DataInputStream in;
+    private Entry current;
+
+    RunReader(Path run) throws IOException {
+      in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+    }
+
+    /**
+     * @return false if the end of the run was reached
+     */
+    boolean next() throws IOException {
+      current = readEntry(in);
+      return current != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
+  /**
+   *
+   * @param memoryBudget  estimated number of bytes the values can use in memory before being written to a run
+   * @param workingFolder folder where the run files are created
+   */
+  ExternalValueSorter(long memoryBudget, Path workingFolder) {
+    this(memoryBudget, workingFolder, Order.VALUE);
+  }
+
+  /**
+   *
+   * @param memoryBudget  estimated number of bytes the values can use in memory before being written to a run
+   * @param workingFolder folder where the run files are created
+   * @param order         order in which the values are emitted
+   */
+  ExternalValueSorter(long memoryBudget, Path workingFolder, Order order) {
+    Preconditions.checkArgument(memoryBudget > 0, "memoryBudget shall be greater than 0");
+    this.memoryBudget = memoryBudget;
+    this.workingFolder = workingFolder;
+    this.entryOrder = order.comparator;
+  }
+
+  void add(String value, long lineNumber) throws IOException {
+    entries.add(new Entry(value, lineNumber));
+    entriesSize += ENTRY_OVERHEAD + 2L * value.length();
+    if (entriesSize >= memoryBudget) {
+      spill();
+    }
+  }
+
+  /**
+   * Emits all the values added so far in the {@link Order} of this sorter.
+   * This method shall only be called once.
+   *
+   * @param consumer
+   *
+   * @throws IOException
+   */
+  void sorted(LineValueConsumer consumer) throws IOException {
+    if (runs.isEmpty()) {
+      entries.sort(entryOrder);
+      for (Entry entry : entries) {
+        consumer.accept(entry.value, entry.lineNumber);
+      }
+      entries.clear();
+      return;
+    }
+
+    if (!entries.isEmpty()) {
+      spill();
+    }
+
+    //reduce the number of runs to avoid opening too many files at once
+    while (runs.size() > MAX_MERGE_FAN_IN) {
+      List<Path> mergedRuns = new ArrayList<>();
+      for (int i = 0; i < runs.size(); i += MAX_MERGE_FAN_IN) {
+        List<Path> group = runs.subList(i, Math.min(i + MAX_MERGE_FAN_IN, runs.size()));
+        Path mergedRun = Files.createTempFile(workingFolder, RUN_FILE_PREFIX, "");
+        mergedRuns.add(mergedRun);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(mergedRun)))) {
+          merge(group, (value, lineNumber) -> writeEntry(out, value, lineNumber));
+        }
+        for (Path run : group) {
+          Files.deleteIfExists(run);
+        }
+      }
+      runs = mergedRuns;
+    }
+    merge(runs, consumer);
+  }
+
+  private void spill() throws IOException {
+    entries.sort(entryOrder);
+    Path run = Files.createTempFile(workingFolder, RUN_FILE_PREFIX, "");
+    runs.add(run);
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+      for (Entry entry : entries) {
+        writeEntry(out, entry.value, entry.lineNumber);
+      }
+    }
+    entries.clear();
+    entriesSize = 0;
+  }
+
+  private void merge(List<Path> runsToMerge, LineValueConsumer consumer) throws IOException {
+    PriorityQueue<RunReader> queue = new PriorityQueue<>(runsToMerge.size(),
+            (r1, r2) -> entryOrder.compare(r1.current, r2.current));
+    List<RunReader> readers = new ArrayList<>(runsToMerge.size());
+    try {
+      for (Path run : runsToMerge) {
+        RunReader reader = new RunReader(run);
+        readers.add(reader);
+        if (reader.next()) {
+          queue.add(reader);
+        }
+      }
+      RunReader reader;
+      while ((reader = queue.poll()) != null) {
+        consumer.accept(reader.current.value, reader.current.lineNumber);
+        if (reader.next()) {
+          queue.add(reader);
+        }
+      }
+    } finally {
+      for (RunReader r : readers) {
+        r.close();
+      }
+    }
+  }
+
+  private static void writeEntry(DataOutputStream out, String value, long lineNumber) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeLong(lineNumber);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static Entry readEntry(DataInputStream in) throws IOException {
+    long lineNumber;
+    try {
+      lineNumber = in.readLong();
+    } catch (EOFException eofEx) {
+      return null;
+    }
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new Entry(new String(bytes, StandardCharsets.UTF_8), lineNumber);
+  }
+
+  /**
+   * Deletes the run files.
+   */
+  @Override
+  public void close() throws IOException {
+    for (Path run : runs) {
+      Files.deleteIfExists(run);
+    }
+    runs.clear();
+    entries.clear();
+  }
+}
@@ -9,35 +9,43 @@ import org.gbif.validation.api.TabularDataFile;
 import org.gbif.validation.api.model.EvaluationType;
 import org.gbif.validation.api.model.RecordEvaluationResult;
 import org.gbif.validation.api.model.RecordEvaluationResultDetails;
-import org.gbif.validation.util.FileBashUtilities;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
 
 import com.google.common.base.Preconditions;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 
 /**
  * {@link RecordCollectionEvaluator} implementation to evaluate the referential integrity of one Darwin Core
  * extension.
- *
+ * The core identifiers are taken from {@link CoreIdentifiers} (read once per core and shared between the
+ * extensions) and the extension is streamed once, checking each core id against them.
+ * An instance shall only be evaluated once.
  */
 class ReferentialIntegrityEvaluator implements RecordCollectionEvaluator {
 
-  private static final Logger LOG = LoggerFactory.getLogger(ReferentialIntegrityEvaluator.class);
-  private static final int MAX_SAMPLE = 10;
-
   private final Term extensionRowType;
+  private final CoreIdentifierIndex.Holder coreIdentifierIndexHolder;
 
   ReferentialIntegrityEvaluator(Term extensionRowType) {
+    this(extensionRowType, new CoreIdentifierIndex.Holder());
+  }
+
+  /**
+   *
+   * @param extensionRowType
+   * @param coreIdentifierIndexHolder holder of the index shared with other evaluators of the same job
+   */
+  ReferentialIntegrityEvaluator(Term extensionRowType, CoreIdentifierIndex.Holder coreIdentifierIndexHolder) {
     Objects.requireNonNull(extensionRowType, "extensionRowType shall be provided");
+    Objects.requireNonNull(coreIdentifierIndexHolder, "coreIdentifierIndexHolder shall be provided");
     this.extensionRowType = extensionRowType;
+    this.coreIdentifierIndexHolder = coreIdentifierIndexHolder;
+    coreIdentifierIndexHolder.retain();
   }
 
   /**
@@ -50,31 +58,29 @@ class ReferentialIntegrityEvaluator implements RecordCollectionEvaluator {
   @Override
   public void evaluate(DwcDataFile dwcDataFile, Consumer<RecordEvaluationResult> resultConsumer) throws IOException {
 
-    TabularDataFile coreDf = dwcDataFile.getCore();
-    TabularDataFile extDf = dwcDataFile.getByRowTypeKey(RowTypeKey.forExtension(extensionRowType));
-
-    Preconditions.checkState(coreDf != null && coreDf.getRecordIdentifier().isPresent(),
-            "DwcDataFile core shall have a record identifier");
-    Preconditions.checkState(extDf != null && extDf.getRecordIdentifier().isPresent(),
-            "DwcDataFile extension shall have a record identifier");
-
-    String[] result = FileBashUtilities.diffOnColumns(
-            coreDf.getFilePath().toString(),
-            extDf.getFilePath().toString(),
-            coreDf.getRecordIdentifier().get().getIndex() + 1,
-            extDf.getRecordIdentifier().get().getIndex() + 1,
-            coreDf.getDelimiterChar().toString(),
-            coreDf.isHasHeaders());
-
-    Arrays.stream(result).forEach(rec -> resultConsumer.accept(buildResult(extensionRowType, rec)));
+    try {
+      TabularDataFile coreDf = dwcDataFile.getCore();
+      TabularDataFile extDf = dwcDataFile.getByRowTypeKey(RowTypeKey.forExtension(extensionRowType));
+
+      Preconditions.checkState(coreDf != null && coreDf.getRecordIdentifier().isPresent(),
+              "DwcDataFile core shall have a record identifier");
+      Preconditions.checkState(extDf != null && extDf.getRecordIdentifier().isPresent(),
+              "DwcDataFile extension shall have a record identifier");
+
+      coreIdentifierIndexHolder.get(coreDf).findUnlinked(extDf, extDf.getRecordIdentifier().get().getIndex(),
+              (unlinkedId, lineNumber) -> resultConsumer.accept(buildResult(extensionRowType, lineNumber, unlinkedId)));
+    } finally {
+      //the core identifiers are released once all the extensions are evaluated
+      coreIdentifierIndexHolder.release();
+    }
   }
 
-  private static RecordEvaluationResult buildResult(Term rowType, String unlinkedId){
+  private static RecordEvaluationResult buildResult(Term rowType, long lineNumber, String unlinkedId){
     List<RecordEvaluationResultDetails>resultDetails = new ArrayList<>(1);
     resultDetails.add(new RecordEvaluationResultDetails(EvaluationType.RECORD_REFERENTIAL_INTEGRITY_VIOLATION,
             null, null));
 
-    return new RecordEvaluationResult(rowType, null,  unlinkedId, resultDetails, null, null);
+    return new RecordEvaluationResult(rowType, lineNumber, unlinkedId, resultDetails, null, null);
   }
 
 }
@@ -0,0 +1,211 @@
+package org.gbif.validation.evaluator;
+
+import org.gbif.validation.api.TabularDataFile;
+import org.gbif.validation.util.LineValueConsumer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+/**
+ * {@link CoreIdentifiers} implementation using a bounded amount of memory, for cores too large for a
+ * {@link CoreIdentifierIndex}.
+ *
+ * While the core is read, its identifiers are added to a Bloom filter and externally sorted into a file of distinct
+ * identifiers (deleted by {@link #close()}). Values rejected by the Bloom filter are unlinked for sure; the others are
+ * externally sorted and checked with a merge join against the sorted core identifiers. The unlinked values are
+ * externally sorted again to be emitted by line number.
+ *
+ * This class is thread-safe.
+ */
+class SortedCoreIdentifiers implements CoreIdentifiers {
+
+  private static final String SORTED_IDENTIFIERS_FILE_PREFIX = "core_identifiers_";
+  private static final double MIN_FALSE_POSITIVE_PROBABILITY = 0.001;
+  private static final double MAX_FALSE_POSITIVE_PROBABILITY = 0.5;
+
+  private final BloomFilter<CharSequence> bloomFilter;
+  private final Path sortedIdentifiers;
+  private final long memoryBudget;
+  private final Path workingFolder;
+
+  /**
+   * Reads a file of sorted values forward.
+   */
+  private static class SortedValuesCursor implements Closeable {
+    private final DataInputStream in;
+    private String current;
+
+    SortedValuesCursor(Path sortedValues) throws IOException {
+      in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sortedValues)));
+      current = readValue(in);
+    }
+
+    /**
+     * Moves forward to the provided value. Values shall be provided in ascending order.
+     *
+     * @return is the value in the file
+     */
+    boolean advanceTo(String value) throws IOException {
+      while (current != null && current.compareTo(value) < 0) {
+        current = readValue(in);
+      }
+      return value.equals(current);
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
+  /**
+   * Builds a {@link SortedCoreIdentifiers} from the identifiers of the core, provided one by one while the core is
+   * read.
+   * This class is not thread-safe.
+   */
+  static class Builder implements Closeable {
+    private final BloomFilter<CharSequence> bloomFilter;
+    private final ExternalValueSorter sorter;
+    private final long memoryBudget;
+    private final Path workingFolder;
+    private long numberOfIdentifiers;
+
+    /**
+     *
+     * @param expectedNumberOfIdentifiers used to size the Bloom filter
+     * @param memoryBudget  number of bytes that can be used in memory, shared between the Bloom filter and the sorting
+     * @param workingFolder folder where the sorted identifiers and temporary files are created
+     */
+    Builder(int expectedNumberOfIdentifiers, long memoryBudget, Path workingFolder) {
+      Preconditions.checkArgument(memoryBudget > 1, "memoryBudget shall be greater than 1");
+      Objects.requireNonNull(workingFolder, "workingFolder shall be provided");
+      expectedNumberOfIdentifiers = Math.max(expectedNumberOfIdentifiers, 1);
+      this.bloomFilter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedNumberOfIdentifiers,
+              falsePositiveProbability(expectedNumberOfIdentifiers, memoryBudget / 2));
+      this.sorter = new ExternalValueSorter(memoryBudget / 2, workingFolder);
+      this.memoryBudget = memoryBudget;
+      this.workingFolder = workingFolder;
+    }
+
+    void add(String identifier) throws IOException {
+      bloomFilter.put(identifier);
+      sorter.add(identifier, numberOfIdentifiers++);
+    }
+
+    /**
+     * Sorts the identifiers added so far. The builder shall not be used after.
+     *
+     * @return
+     *
+     * @throws IOException
+     */
+    SortedCoreIdentifiers build() throws IOException {
+      Path sortedIdentifiers = Files.createTempFile(workingFolder, SORTED_IDENTIFIERS_FILE_PREFIX, "");
+      try (DataOutputStream out = new DataOutputStream(
+              new BufferedOutputStream(Files.newOutputStream(sortedIdentifiers)))) {
+        //only distinct identifiers are written
+        String[] previous = new String[1];
+        sorter.sorted((value, lineNumber) -> {
+          if (!value.equals(previous[0])) {
+            writeValue(out, value);
+            previous[0] = value;
+          }
+        });
+      } catch (IOException ioEx) {
+        Files.deleteIfExists(sortedIdentifiers);
+        throw ioEx;
+      } finally {
+        sorter.close();
+      }
+      return new SortedCoreIdentifiers(bloomFilter, sortedIdentifiers, memoryBudget, workingFolder);
+    }
+
+    @Override
+    public void close() throws IOException {
+      sorter.close();
+    }
+  }
+
+  private SortedCoreIdentifiers(BloomFilter<CharSequence> bloomFilter, Path sortedIdentifiers, long memoryBudget,
+                                Path workingFolder) {
+    this.bloomFilter = bloomFilter;
+    this.sortedIdentifiers = sortedIdentifiers;
+    this.memoryBudget = memoryBudget;
+    this.workingFolder = workingFolder;
+  }
+
+  @Override
+  public void findUnlinked(TabularDataFile dataFile, int columnIndex, LineValueConsumer consumer)
+          throws IOException {
+    //both sorters are in memory while the candidates are merged
+    try (ExternalValueSorter candidates = new ExternalValueSorter(memoryBudget / 2, workingFolder);
+         ExternalValueSorter unlinked = new ExternalValueSorter(memoryBudget / 2, workingFolder,
+                 ExternalValueSorter.Order.LINE_NUMBER)) {
+      ColumnValues.readValues(dataFile, columnIndex, (value, lineNumber) -> {
+        if (bloomFilter.mightContain(value)) {
+          candidates.add(value, lineNumber);
+        } else {
+          unlinked.add(value, lineNumber);
+        }
+      });
+
+      try (SortedValuesCursor cursor = new SortedValuesCursor(sortedIdentifiers)) {
+        candidates.sorted((value, lineNumber) -> {
+          if (!cursor.advanceTo(value)) {
+            unlinked.add(value, lineNumber);
+          }
+        });
+      }
+      unlinked.sorted(consumer);
+    }
+  }
+
+  /**
+   * Deletes the file of sorted identifiers.
+   */
+  @Override
+  public void close() throws IOException {
+    Files.deleteIfExists(sortedIdentifiers);
+  }
+
+  /**
+   * Computes the false positive probability of a Bloom filter holding the expected number of values in the provided
+   * number of bytes.
+   */
+  private static double falsePositiveProbability(int expectedNumberOfValues, long numberOfBytes) {
+    double bitsPerValue = numberOfBytes * 8d / expectedNumberOfValues;
+    double probability = Math.exp(-bitsPerValue * Math.log(2) * Math.log(2));
+    return Math.min(Math.max(probability, MIN_FALSE_POSITIVE_PROBABILITY), MAX_FALSE_POSITIVE_PROBABILITY);
+  }
+
+  private static void writeValue(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readValue(DataInputStream in) throws IOException {
+    int length;
+    try {
+      length = in.readInt();
+    } catch (EOFException eofEx) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
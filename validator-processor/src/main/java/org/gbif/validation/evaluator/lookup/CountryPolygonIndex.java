@@ -0,0 +1,137 @@
+package org.gbif.validation.evaluator.lookup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import com.vividsolutions.jts.index.strtree.STRtree;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory spatial index of country polygons used to answer reverse geocode lookups without the GBIF API.
+ *
+ * Polygons are loaded from a tab delimited UTF-8 file where each line contains the ISO 3166-1 alpha-2 country code,
+ * the name of the country and the geometry as WKT (WGS84, longitude first). Such file can be exported from a
+ * shapefile (e.g. ogr2ogr -f CSV -lco GEOMETRY=AS_WKT). Empty lines and lines starting with # are ignored.
+ *
+ * The results are returned as a list of maps following the JSON structure of the reverse geocode service.
+ * This class is thread-safe once loaded.
+ */
+public class CountryPolygonIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CountryPolygonIndex.class);
+
+  private static final String SOURCE = "local";
+  private static final String TYPE = "Political";
+
+  private final GeometryFactory geometryFactory = new GeometryFactory();
+  private final STRtree index = new STRtree();
+
+  /**
+   * Country polygon. This class is immutable.
+   */
+  private static class CountryPolygon {
+    private final String isoCode;
+    private final String title;
+    private final PreparedGeometry geometry;
+
+    CountryPolygon(String isoCode, String title, PreparedGeometry geometry) {
+      this.isoCode = isoCode;
+      this.title = title;
+      this.geometry = geometry;
+    }
+  }
+
+  /**
+   * Loads a {@link CountryPolygonIndex} from a tab delimited file.
+   *
+   * @param polygonsFile
+   *
+   * @return
+   *
+   * @throws IOException
+   */
+  public static CountryPolygonIndex fromFile(Path polygonsFile) throws IOException {
+    Objects.requireNonNull(polygonsFile, "polygonsFile shall be provided");
+
+    CountryPolygonIndex countryPolygonIndex = new CountryPolygonIndex();
+    WKTReader wktReader = new WKTReader();
+    int numberOfPolygons = 0;
+    int lineNumber = 0;
+    try (BufferedReader reader = Files.newBufferedReader(polygonsFile, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.trim().isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        String[] parts = line.split("\t", 3);
+        if (parts.length != 3) {
+          throw new IOException("Invalid line " + lineNumber + " in " + polygonsFile);
+        }
+        Geometry geometry;
+        try {
+          geometry = wktReader.read(parts[2]);
+        } catch (ParseException pEx) {
+          throw new IOException("Invalid WKT on line " + lineNumber + " in " + polygonsFile, pEx);
+        }
+        countryPolygonIndex.index.insert(geometry.getEnvelopeInternal(),
+                new CountryPolygon(parts[0].trim(), parts[1].trim(), PreparedGeometryFactory.prepare(geometry)));
+        numberOfPolygons++;
+      }
+    }
+    //build the tree now since it is not thread-safe on first query
+    countryPolygonIndex.index.build();
+    LOG.info("Country polygon index loaded from {} with {} polygon(s)", polygonsFile, numberOfPolygons);
+    return countryPolygonIndex;
+  }
+
+  private CountryPolygonIndex() {
+    //use fromFile
+  }
+
+  /**
+   * Finds the countries covering a coordinate.
+   *
+   * @param latitude
+   * @param longitude
+   *
+   * @return the countries following the structure of the reverse geocode response, empty list if there is none
+   */
+  public List<Map<String, Object>> lookup(double latitude, double longitude) {
+    Coordinate coordinate = new Coordinate(longitude, latitude);
+    Point point = geometryFactory.createPoint(coordinate);
+
+    List<Map<String, Object>> locations = new ArrayList<>();
+    for (Object candidate : index.query(new Envelope(coordinate))) {
+      CountryPolygon countryPolygon = (CountryPolygon) candidate;
+      if (countryPolygon.geometry.covers(point)) {
+        Map<String, Object> location = new LinkedHashMap<>();
+        location.put("id", countryPolygon.isoCode);
+        location.put("type", TYPE);
+        location.put("source", SOURCE);
+        location.put("title", countryPolygon.title);
+        location.put("isoCountryCode2Digit", countryPolygon.isoCode);
+        locations.add(location);
+      }
+    }
+    return locations;
+  }
+}
@@ -0,0 +1,103 @@
+package org.gbif.validation.evaluator.lookup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nullable;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+import com.sun.jersey.api.uri.UriComponent;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.MessageBodyWorkers;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.codehaus.jackson.map.ObjectMapper;
+
+/**
+ * Jersey {@link ClientFilter} answering the lookups of the interpreters from local backends instead of the GBIF API:
+ * <ul>
+ *   <li>species match using a {@link NameMatchIndex}</li>
+ *   <li>reverse geocode using a {@link CountryPolygonIndex}</li>
+ * </ul>
+ * Each backend is optional, lookups without a local backend (and all other requests) are passed to the next handler.
+ *
+ * This class is thread-safe.
+ */
+public class LocalLookupFilter extends ClientFilter {
+
+  static final String SPECIES_MATCH_PATH = "species/match";
+  static final String REVERSE_GEOCODE_PATH = "geocode/reverse";
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private final MessageBodyWorkers messageBodyWorkers;
+  private final Optional<NameMatchIndex> nameMatchIndex;
+  private final Optional<CountryPolygonIndex> countryPolygonIndex;
+
+  /**
+   *
+   * @param messageBodyWorkers  used to read the entity of the responses
+   * @param nameMatchIndex      backend of the species match lookups, null to use the GBIF API
+   * @param countryPolygonIndex backend of the reverse geocode lookups, null to use the GBIF API
+   */
+  public LocalLookupFilter(MessageBodyWorkers messageBodyWorkers, @Nullable NameMatchIndex nameMatchIndex,
+                           @Nullable CountryPolygonIndex countryPolygonIndex) {
+    this.messageBodyWorkers = messageBodyWorkers;
+    this.nameMatchIndex = Optional.ofNullable(nameMatchIndex);
+    this.countryPolygonIndex = Optional.ofNullable(countryPolygonIndex);
+  }
+
+  @Override
+  public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+    if (!HttpMethod.GET.equals(request.getMethod())) {
+      return getNext().handle(request);
+    }
+
+    String path = request.getURI().getPath();
+    try {
+      if (path.endsWith(SPECIES_MATCH_PATH) && nameMatchIndex.isPresent()) {
+        return toClientResponse(nameMatchIndex.get().match(getQueryParameters(request)));
+      }
+      if (path.endsWith(REVERSE_GEOCODE_PATH) && countryPolygonIndex.isPresent()) {
+        Map<String, String> params = getQueryParameters(request);
+        if (!NumberUtils.isNumber(params.get("lat")) || !NumberUtils.isNumber(params.get("lng"))) {
+          return new ClientResponse(400, new InBoundHeaders(), new ByteArrayInputStream(new byte[0]),
+                  messageBodyWorkers);
+        }
+        return toClientResponse(countryPolygonIndex.get().lookup(Double.parseDouble(params.get("lat")),
+                Double.parseDouble(params.get("lng"))));
+      }
+    } catch (IOException ioEx) {
+      throw new ClientHandlerException(ioEx);
+    }
+    return getNext().handle(request);
+  }
+
+  /**
+   * Get the first value of each query parameter.
+   */
+  private static Map<String, String> getQueryParameters(ClientRequest request) {
+    Map<String, String> params = new HashMap<>();
+    String rawQuery = request.getURI().getRawQuery();
+    if (rawQuery != null) {
+      MultivaluedMap<String, String> queryParameters = UriComponent.decodeQuery(rawQuery, true);
+      queryParameters.keySet().forEach(key -> params.put(key, queryParameters.getFirst(key)));
+    }
+    return params;
+  }
+
+  private ClientResponse toClientResponse(Object entity) throws IOException {
+    InBoundHeaders headers = new InBoundHeaders();
+    headers.putSingle(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+    return new ClientResponse(200, headers, new ByteArrayInputStream(OBJECT_MAPPER.writeValueAsBytes(entity)),
+            messageBodyWorkers);
+  }
+}
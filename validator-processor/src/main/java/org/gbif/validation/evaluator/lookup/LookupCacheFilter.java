@@ -0,0 +1,258 @@
+package org.gbif.validation.evaluator.lookup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.MultivaluedMap;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.io.ByteStreams;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+import com.sun.jersey.api.uri.UriComponent;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.MessageBodyWorkers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Jersey {@link ClientFilter} that memoizes the responses of lookups (e.g. species match, reverse geocode) made by the
+ * interpreters. The same scientific names and coordinates are usually repeated many times in a dataset (and between
+ * datasets) so most lookups can be answered without a network round trip.
+ *
+ * Only GET requests are cached. The key is the normalized URI of the request (query parameters sorted, trimmed and
+ * re-encoded, empty parameters ignored). The cache is bounded in size and entries expire after a fixed time.
+ *
+ * Concurrent identical lookups are coalesced: while a lookup is in flight, other requests with the same key wait for
+ * its response instead of issuing their own call. If the in flight lookup fails (including with an {@link Error}), its
+ * response can not be cached or it takes longer than inFlightLookupTimeoutMs, the waiting requests issue their own
+ * call.
+ *
+ * This class is thread-safe, a single instance is expected to be shared by all the jobs.
+ */
+public class LookupCacheFilter extends ClientFilter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LookupCacheFilter.class);
+
+  //log the statistics of the cache every X requests
+  private static final long LOG_STATS_INTERVAL = 10000;
+
+  private static final long DEFAULT_IN_FLIGHT_LOOKUP_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+
+  private final Cache<String, CachedResponse> cache;
+  private final MessageBodyWorkers messageBodyWorkers;
+  private final long inFlightLookupTimeoutMs;
+  private final AtomicLong numberOfRequests = new AtomicLong(0);
+  private final AtomicLong numberOfCoalescedRequests = new AtomicLong(0);
+
+  //lookups currently in flight, completed with null if the response is not cacheable
+  private final ConcurrentMap<String, CompletableFuture<CachedResponse>> inFlightLookups = new ConcurrentHashMap<>();
+
+  /**
+   * Response kept in the cache. The entity is fully buffered.
+   * This class is immutable.
+   */
+  private static class CachedResponse {
+    private final int status;
+    private final Map<String, List<String>> headers;
+    private final byte[] entity;
+
+    CachedResponse(int status, Map<String, List<String>> headers, byte[] entity) {
+      this.status = status;
+      this.headers = new HashMap<>();
+      headers.forEach((k, v) -> this.headers.put(k, new ArrayList<>(v)));
+      this.entity = entity;
+    }
+
+    ClientResponse toClientResponse(MessageBodyWorkers messageBodyWorkers) {
+      InBoundHeaders inBoundHeaders = new InBoundHeaders();
+      headers.forEach((k, v) -> inBoundHeaders.put(k, new ArrayList<>(v)));
+      return new ClientResponse(status, inBoundHeaders, new ByteArrayInputStream(entity), messageBodyWorkers);
+    }
+  }
+
+  /**
+   *
+   * @param messageBodyWorkers used to read the entity of the responses served from the cache
+   * @param maximumSize        maximum number of responses kept in the cache
+   * @param expireAfterWrite   time after which a response is removed from the cache
+   * @param timeUnit
+   */
+  public LookupCacheFilter(MessageBodyWorkers messageBodyWorkers, long maximumSize, long expireAfterWrite,
+                           TimeUnit timeUnit) {
+    this(messageBodyWorkers, maximumSize, expireAfterWrite, timeUnit, DEFAULT_IN_FLIGHT_LOOKUP_TIMEOUT_MS);
+  }
+
+  /**
+   *
+   * @param messageBodyWorkers      used to read the entity of the responses served from the cache
+   * @param maximumSize             maximum number of responses kept in the cache
+   * @param expireAfterWrite        time after which a response is removed from the cache
+   * @param timeUnit
+   * @param inFlightLookupTimeoutMs maximum time to wait for an identical lookup in flight before issuing the request
+   */
+  public LookupCacheFilter(MessageBodyWorkers messageBodyWorkers, long maximumSize, long expireAfterWrite,
+                           TimeUnit timeUnit, long inFlightLookupTimeoutMs) {
+    Objects.requireNonNull(messageBodyWorkers, "messageBodyWorkers shall be provided");
+    this.messageBodyWorkers = messageBodyWorkers;
+    this.inFlightLookupTimeoutMs = inFlightLookupTimeoutMs;
+    cache = CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite, timeUnit)
+            .recordStats()
+            .build();
+  }
+
+  @Override
+  public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+    if (!HttpMethod.GET.equals(request.getMethod())) {
+      return getNext().handle(request);
+    }
+
+    logStats(numberOfRequests.incrementAndGet());
+    String key = toCacheKey(request.getURI());
+    CachedResponse cachedResponse = cache.getIfPresent(key);
+    if (cachedResponse != null) {
+      return cachedResponse.toClientResponse(messageBodyWorkers);
+    }
+
+    CompletableFuture<CachedResponse> lookup = new CompletableFuture<>();
+    CompletableFuture<CachedResponse> inFlightLookup = inFlightLookups.putIfAbsent(key, lookup);
+    if (inFlightLookup != null) {
+      return awaitInFlightLookup(request, inFlightLookup);
+    }
+
+    try {
+      //the response could have been cached by a lookup completed after our first check (not recorded in the stats)
+      cachedResponse = cache.asMap().get(key);
+      if (cachedResponse != null) {
+        lookup.complete(cachedResponse);
+        return cachedResponse.toClientResponse(messageBodyWorkers);
+      }
+      ClientResponse response = getNext().handle(request);
+      if (isCacheable(response.getStatus())) {
+        byte[] entity = readEntity(response);
+        cachedResponse = new CachedResponse(response.getStatus(), response.getHeaders(), entity);
+        cache.put(key, cachedResponse);
+        response.setEntityInputStream(new ByteArrayInputStream(entity));
+      }
+      lookup.complete(cachedResponse);
+      return response;
+    } finally {
+      inFlightLookups.remove(key, lookup);
+      //no-op if completed above, otherwise the lookup failed and the waiting requests issue their own call
+      lookup.complete(null);
+    }
+  }
+
+  /**
+   * Number of requests answered by waiting for an identical lookup already in flight.
+   */
+  public long getNumberOfCoalescedRequests() {
+    return numberOfCoalescedRequests.get();
+  }
+
+  /**
+   * Wait for a lookup in flight and answer the request with its response.
+   * If the lookup failed, its response is not cacheable or it is not completed within inFlightLookupTimeoutMs, the
+   * request is issued.
+   */
+  private ClientResponse awaitInFlightLookup(ClientRequest request, CompletableFuture<CachedResponse> inFlightLookup) {
+    CachedResponse cachedResponse;
+    try {
+      cachedResponse = inFlightLookup.get(inFlightLookupTimeoutMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException iEx) {
+      Thread.currentThread().interrupt();
+      cachedResponse = null;
+    } catch (ExecutionException | TimeoutException ignore) {
+      cachedResponse = null;
+    }
+    if (cachedResponse == null) {
+      return getNext().handle(request);
+    }
+    numberOfCoalescedRequests.incrementAndGet();
+    return cachedResponse.toClientResponse(messageBodyWorkers);
+  }
+
+  /**
+   * Statistics (e.g. hit and miss count) of the cache.
+   */
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  /**
+   * Build the key of a request by normalizing its {@link URI}: query parameters are sorted and trimmed and empty ones
+   * are ignored.
+   *
+   * @param uri
+   *
+   * @return
+   */
+  static String toCacheKey(URI uri) {
+    StringBuilder key = new StringBuilder(uri.getScheme()).append("://").append(uri.getRawAuthority())
+            .append(uri.getRawPath());
+    if (uri.getRawQuery() == null) {
+      return key.toString();
+    }
+    MultivaluedMap<String, String> queryParameters = UriComponent.decodeQuery(uri.getRawQuery(), true);
+    char separator = '?';
+    for (Map.Entry<String, List<String>> param : new TreeMap<>(queryParameters).entrySet()) {
+      for (String value : param.getValue()) {
+        String trimmedValue = value == null ? "" : value.trim();
+        if (!trimmedValue.isEmpty()) {
+          //re-encoded so the '&' and '=' of the decoded names and values can not be confused with separators
+          key.append(separator).append(UriComponent.encode(param.getKey(), UriComponent.Type.QUERY_PARAM))
+                  .append('=').append(UriComponent.encode(trimmedValue, UriComponent.Type.QUERY_PARAM));
+          separator = '&';
+        }
+      }
+    }
+    return key.toString();
+  }
+
+  /**
+   * Successful responses and "not found" (e.g. unknown coordinates) are cached, errors are not.
+   */
+  private static boolean isCacheable(int status) {
+    return (status >= 200 && status < 300) || status == 404;
+  }
+
+  private static byte[] readEntity(ClientResponse response) {
+    if (!response.hasEntity()) {
+      return new byte[0];
+    }
+    try (InputStream entityStream = response.getEntityInputStream()) {
+      return ByteStreams.toByteArray(entityStream);
+    } catch (IOException ioEx) {
+      throw new ClientHandlerException(ioEx);
+    }
+  }
+
+  private void logStats(long requestCount) {
+    if (requestCount % LOG_STATS_INTERVAL == 0) {
+      LOG.info("Lookup cache after {} requests: {}, {} coalesced request(s)", requestCount, cache.stats(),
+              numberOfCoalescedRequests.get());
+    }
+  }
+
+}
@@ -0,0 +1,303 @@
+package org.gbif.validation.evaluator.lookup;
+
+import org.gbif.dwc.Archive;
+import org.gbif.dwc.ArchiveFile;
+import org.gbif.dwc.DwcFiles;
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.utils.file.ClosableIterator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory Lucene index of the names of a checklist used to answer species match lookups without the GBIF API.
+ *
+ * Names are matched exactly (case and whitespace insensitive) on the scientific name with or without authorship.
+ * When the name can not be matched, the lowest provided higher rank (genus, family ...) is tried.
+ * The results are returned as a map following the JSON structure of the species match service.
+ *
+ * The usageKey of a taxon is its taxonID when it is a positive integer, otherwise a negative key is generated.
+ *
+ * Since the index is kept in memory, this is intended for regional or thematic checklists.
+ * This class is thread-safe once built.
+ */
+public class NameMatchIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(NameMatchIndex.class);
+
+  private static final String NAME_FIELD = "name";
+  private static final String CANONICAL_FIELD = "canonical";
+  private static final String RANK_FIELD = "rank";
+  private static final int MAX_CANDIDATES = 10;
+
+  private static final String MATCH_TYPE_EXACT = "EXACT";
+  private static final String MATCH_TYPE_HIGHERRANK = "HIGHERRANK";
+  private static final String MATCH_TYPE_NONE = "NONE";
+
+  //higher ranks tried (from the lowest) when the name can not be matched: rank name -> classification field
+  private static final Map<String, DwcTerm> HIGHER_RANKS = new LinkedHashMap<>();
+  static {
+    HIGHER_RANKS.put("GENUS", DwcTerm.genus);
+    HIGHER_RANKS.put("FAMILY", DwcTerm.family);
+    HIGHER_RANKS.put("ORDER", DwcTerm.order);
+    HIGHER_RANKS.put("CLASS", DwcTerm.class_);
+    HIGHER_RANKS.put("PHYLUM", DwcTerm.phylum);
+    HIGHER_RANKS.put("KINGDOM", DwcTerm.kingdom);
+  }
+
+  //stored classification fields, with the name used in the species match response
+  private static final Map<DwcTerm, String> CLASSIFICATION = new EnumMap<>(DwcTerm.class);
+  static {
+    CLASSIFICATION.put(DwcTerm.kingdom, "kingdom");
+    CLASSIFICATION.put(DwcTerm.phylum, "phylum");
+    CLASSIFICATION.put(DwcTerm.class_, "class");
+    CLASSIFICATION.put(DwcTerm.order, "order");
+    CLASSIFICATION.put(DwcTerm.family, "family");
+    CLASSIFICATION.put(DwcTerm.genus, "genus");
+  }
+
+  private final IndexSearcher searcher;
+
+  /**
+   * Builds a {@link NameMatchIndex} from the core (Taxon) of a checklist Darwin Core Archive.
+   *
+   * @param checklistArchive path to the (extracted) archive
+   *
+   * @return
+   *
+   * @throws IOException
+   */
+  public static NameMatchIndex fromChecklist(Path checklistArchive) throws IOException {
+    Objects.requireNonNull(checklistArchive, "checklistArchive shall be provided");
+    Archive archive = DwcFiles.fromLocation(checklistArchive);
+    ArchiveFile core = archive.getCore();
+
+    Builder builder = new Builder();
+    try (ClosableIterator<Record> it = core.iterator()) {
+      while (it.hasNext()) {
+        Record record = it.next();
+        Map<Term, String> taxon = new LinkedHashMap<>();
+        for (Term term : record.terms()) {
+          taxon.put(term, record.value(term));
+        }
+        builder.addTaxon(taxon);
+      }
+    } catch (Exception ex) {
+      throw new IOException("Can not read checklist " + checklistArchive, ex);
+    }
+    NameMatchIndex index = builder.build();
+    LOG.info("Name match index built from {} with {} name(s)", checklistArchive, builder.numberOfTaxa);
+    return index;
+  }
+
+  /**
+   * Builder of {@link NameMatchIndex}, taxa are represented by their Darwin Core terms.
+   */
+  public static class Builder {
+    private final Directory directory = new RAMDirectory();
+    private final IndexWriter writer;
+    private int numberOfTaxa;
+
+    public Builder() throws IOException {
+      writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer()));
+    }
+
+    /**
+     * Adds a taxon to the index. The taxon is ignored if it has no scientificName.
+     *
+     * @param taxon
+     *
+     * @return
+     *
+     * @throws IOException
+     */
+    public Builder addTaxon(Map<Term, String> taxon) throws IOException {
+      String scientificName = StringUtils.trimToNull(taxon.get(DwcTerm.scientificName));
+      if (scientificName == null) {
+        return this;
+      }
+      numberOfTaxa++;
+
+      Document doc = new Document();
+      doc.add(new StringField(NAME_FIELD, normalize(scientificName), Field.Store.NO));
+      doc.add(new StringField(CANONICAL_FIELD,
+              normalize(toCanonicalName(scientificName, taxon.get(DwcTerm.scientificNameAuthorship))), Field.Store.NO));
+      doc.add(new StoredField(DwcTerm.scientificName.simpleName(), scientificName));
+      doc.add(new StoredField("usageKey", toUsageKey(taxon.get(DwcTerm.taxonID))));
+
+      String rank = StringUtils.trimToNull(taxon.get(DwcTerm.taxonRank));
+      if (rank != null) {
+        doc.add(new StringField(RANK_FIELD, rank.toUpperCase(Locale.ENGLISH), Field.Store.YES));
+      }
+      String status = StringUtils.trimToNull(taxon.get(DwcTerm.taxonomicStatus));
+      if (status != null) {
+        doc.add(new StoredField(DwcTerm.taxonomicStatus.simpleName(), status.toUpperCase(Locale.ENGLISH)));
+      }
+      for (DwcTerm classificationTerm : CLASSIFICATION.keySet()) {
+        String value = StringUtils.trimToNull(taxon.get(classificationTerm));
+        if (value != null) {
+          doc.add(new StoredField(classificationTerm.simpleName(), value));
+        }
+      }
+      writer.addDocument(doc);
+      return this;
+    }
+
+    public NameMatchIndex build() throws IOException {
+      writer.close();
+      return new NameMatchIndex(new IndexSearcher(DirectoryReader.open(directory)));
+    }
+
+    /**
+     * Use positive numerical taxonID as usageKey, otherwise a negative sequential key so the generated keys can not
+     * be the same as the key of another taxon.
+     */
+    private int toUsageKey(String taxonID) {
+      try {
+        int usageKey = Integer.parseInt(StringUtils.trimToEmpty(taxonID));
+        if (usageKey > 0) {
+          return usageKey;
+        }
+      } catch (NumberFormatException nfEx) {
+        //use a generated key
+      }
+      return -numberOfTaxa;
+    }
+  }
+
+  private NameMatchIndex(IndexSearcher searcher) {
+    this.searcher = searcher;
+  }
+
+  /**
+   * Match a name using the parameters of the species match service (name, rank, kingdom, phylum, class, order,
+   * family, genus).
+   *
+   * @param params
+   *
+   * @return the match following the structure of the species match response
+   *
+   * @throws IOException
+   */
+  public Map<String, Object> match(Map<String, String> params) throws IOException {
+    String kingdom = StringUtils.trimToNull(params.get("kingdom"));
+    String name = StringUtils.trimToNull(params.get("name"));
+    if (name != null) {
+      Optional<Map<String, Object>> match = search(nameQuery(normalize(name)), kingdom, MATCH_TYPE_EXACT);
+      if (match.isPresent()) {
+        return match.get();
+      }
+    }
+
+    for (Map.Entry<String, DwcTerm> higherRank : HIGHER_RANKS.entrySet()) {
+      String higherRankName = StringUtils.trimToNull(params.get(CLASSIFICATION.get(higherRank.getValue())));
+      if (higherRankName != null) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(nameQuery(normalize(higherRankName)), BooleanClause.Occur.MUST)
+                .add(new TermQuery(new org.apache.lucene.index.Term(RANK_FIELD, higherRank.getKey())),
+                        BooleanClause.Occur.MUST);
+        Optional<Map<String, Object>> match = search(query.build(), kingdom, MATCH_TYPE_HIGHERRANK);
+        if (match.isPresent()) {
+          return match.get();
+        }
+      }
+    }
+
+    Map<String, Object> noMatch = new LinkedHashMap<>();
+    noMatch.put("confidence", 100);
+    noMatch.put("matchType", MATCH_TYPE_NONE);
+    noMatch.put("synonym", false);
+    return noMatch;
+  }
+
+  private static Query nameQuery(String normalizedName) {
+    return new BooleanQuery.Builder()
+            .add(new TermQuery(new org.apache.lucene.index.Term(NAME_FIELD, normalizedName)), BooleanClause.Occur.SHOULD)
+            .add(new TermQuery(new org.apache.lucene.index.Term(CANONICAL_FIELD, normalizedName)),
+                    BooleanClause.Occur.SHOULD)
+            .build();
+  }
+
+  /**
+   * Runs the query and prefers the candidates from the provided kingdom, if any.
+   */
+  private Optional<Map<String, Object>> search(Query query, @Nullable String kingdom, String matchType)
+          throws IOException {
+    ScoreDoc[] scoreDocs = searcher.search(query, MAX_CANDIDATES).scoreDocs;
+    if (scoreDocs.length == 0) {
+      return Optional.empty();
+    }
+    if (kingdom != null) {
+      for (ScoreDoc scoreDoc : scoreDocs) {
+        Document doc = searcher.doc(scoreDoc.doc);
+        if (kingdom.equalsIgnoreCase(doc.get(DwcTerm.kingdom.simpleName()))) {
+          return Optional.of(toMatch(doc, matchType, 100));
+        }
+      }
+    }
+    return Optional.of(toMatch(searcher.doc(scoreDocs[0].doc), matchType, kingdom == null ? 100 : 80));
+  }
+
+  private static Map<String, Object> toMatch(Document doc, String matchType, int confidence) {
+    Map<String, Object> match = new LinkedHashMap<>();
+    String status = doc.get(DwcTerm.taxonomicStatus.simpleName());
+    match.put("usageKey", doc.getField("usageKey").numericValue().intValue());
+    match.put("scientificName", doc.get(DwcTerm.scientificName.simpleName()));
+    match.put("rank", doc.get(RANK_FIELD));
+    match.put("status", status);
+    match.put("confidence", confidence);
+    match.put("matchType", matchType);
+    match.put("synonym", status != null && status.contains("SYNONYM"));
+    CLASSIFICATION.forEach((term, fieldName) -> {
+      String value = doc.get(term.simpleName());
+      if (value != null) {
+        match.put(fieldName, value);
+      }
+    });
+    return match;
+  }
+
+  /**
+   * Removes the authorship from the scientific name, if it ends with it.
+   */
+  private static String toCanonicalName(String scientificName, @Nullable String authorship) {
+    String trimmedAuthorship = StringUtils.trimToNull(authorship);
+    if (trimmedAuthorship != null && scientificName.endsWith(trimmedAuthorship)) {
+      return scientificName.substring(0, scientificName.length() - trimmedAuthorship.length());
+    }
+    return scientificName;
+  }
+
+  private static String normalize(String value) {
+    return StringUtils.normalizeSpace(value).toLowerCase(Locale.ENGLISH);
+  }
+}
@@ -8,22 +8,36 @@ import org.gbif.dwc.terms.Term;
 import org.gbif.occurrence.processor.interpreting.OccurrenceInterpreter;
 import org.gbif.occurrence.processor.interpreting.result.OccurrenceInterpretationResult;
 import org.gbif.validation.api.RecordEvaluator;
+import org.gbif.validation.api.RecordSource;
+import org.gbif.validation.api.TabularDataFile;
 import org.gbif.validation.api.TermIndex;
 import org.gbif.validation.api.model.RecordEvaluationResult;
+import org.gbif.validation.source.RecordSourceFactory;
 import org.gbif.validation.util.OccurrenceToTermsHelper;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.validation.constraints.NotNull;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -33,16 +47,46 @@ import static org.gbif.validation.evaluator.InterpretationRemarkEvaluationTypeMa
 
 /**
  * Class to evaluate an occurrence record using an {@link OccurrenceInterpreter}.
+ *
+ * When prefetchLookups is enabled, {@link #prepare(TabularDataFile)} reads the file once to collect the distinct
+ * taxonomic and location values and resolves them in parallel before the records are evaluated. The interpreter
+ * lookups of the evaluation pass are then answered by the lookup cache (see
+ * {@link org.gbif.validation.evaluator.lookup.LookupCacheFilter}) instead of one remote call per record.
+ * The file is therefore read twice, the first read is cheap compared to the remote lookups it saves.
+ *
+ * The thread calling {@link #prepare(TabularDataFile)} waits for the lookups, which are run on a pool shared by all
+ * the instances. The wait is bounded by prefetchTimeout and the number of distinct values resolved by
+ * {@link #MAX_PREFETCHED_VALUES}, lookups not completed in time are cancelled and simply done during the evaluation.
  */
 @ThreadSafe
 public class OccurrenceInterpretationEvaluator implements RecordEvaluator {
 
   private static final Term OCC_ROW_TYPE = DwcTerm.Occurrence;
 
+  //terms used by the species match lookup
+  private static final Term[] TAXONOMY_TERMS = {DwcTerm.kingdom, DwcTerm.phylum, DwcTerm.class_, DwcTerm.order,
+          DwcTerm.family, DwcTerm.genus, DwcTerm.specificEpithet, DwcTerm.infraspecificEpithet,
+          DwcTerm.scientificName, DwcTerm.scientificNameAuthorship, DwcTerm.taxonRank, DwcTerm.verbatimTaxonRank};
+
+  //terms used by the coordinate (reverse geocode) lookup
+  private static final Term[] LOCATION_TERMS = {DwcTerm.decimalLatitude, DwcTerm.decimalLongitude,
+          DwcTerm.verbatimLatitude, DwcTerm.verbatimLongitude, DwcTerm.verbatimCoordinates, DwcTerm.geodeticDatum,
+          DwcTerm.country, DwcTerm.countryCode};
+
+  //maximum number of lookups running at the same time while prefetching, shared by all the instances
+  private static final int PREFETCH_PARALLELISM = 8;
+  //maximum number of distinct values of each group of terms (taxonomy, location) resolved for a file
+  static final int MAX_PREFETCHED_VALUES = 10000;
+  public static final long DEFAULT_PREFETCH_TIMEOUT_IN_SECONDS = 60;
+  private static final ExecutorService PREFETCH_EXECUTOR = Executors.newFixedThreadPool(PREFETCH_PARALLELISM,
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("lookup-prefetch-%d").build());
+
   private final OccurrenceInterpreter interpreter;
   private final Term[] columnMapping;
   private final Map<Term, String> defaultValues;
   private final TermIndex recordIdentifier;
+  private final boolean prefetchLookups;
+  private final long prefetchTimeoutInMillis;
 
   private static final Logger LOG = LoggerFactory.getLogger(OccurrenceInterpretationEvaluator.class);
 
@@ -59,13 +103,141 @@ public class OccurrenceInterpretationEvaluator implements RecordEvaluator {
   public OccurrenceInterpretationEvaluator(OccurrenceInterpreter interpreter,
                                            Term[] columnMapping, Map<Term, String> defaultValues,
                                            TermIndex recordIdentifier) {
+    this(interpreter, columnMapping, defaultValues, recordIdentifier, false);
+  }
+
+  /**
+   *
+   * @param interpreter occurrence interpreter
+   * @param columnMapping indices based column mapping. Unmapped column are expected to be represented by null
+   * @param defaultValues
+   * @param recordIdentifier
+   * @param prefetchLookups should the distinct names and coordinates be resolved in {@link #prepare(TabularDataFile)}
+   */
+  public OccurrenceInterpretationEvaluator(OccurrenceInterpreter interpreter,
+                                           Term[] columnMapping, Map<Term, String> defaultValues,
+                                           TermIndex recordIdentifier, boolean prefetchLookups) {
+    this(interpreter, columnMapping, defaultValues, recordIdentifier, prefetchLookups,
+            TimeUnit.SECONDS.toMillis(DEFAULT_PREFETCH_TIMEOUT_IN_SECONDS));
+  }
+
+  /**
+   *
+   * @param interpreter occurrence interpreter
+   * @param columnMapping indices based column mapping. Unmapped column are expected to be represented by null
+   * @param defaultValues
+   * @param recordIdentifier
+   * @param prefetchLookups should the distinct names and coordinates be resolved in {@link #prepare(TabularDataFile)}
+   * @param prefetchTimeoutInMillis maximum time {@link #prepare(TabularDataFile)} waits for the lookups
+   */
+  public OccurrenceInterpretationEvaluator(OccurrenceInterpreter interpreter,
+                                           Term[] columnMapping, Map<Term, String> defaultValues,
+                                           TermIndex recordIdentifier, boolean prefetchLookups,
+                                           long prefetchTimeoutInMillis) {
     Validate.notNull(interpreter, "OccurrenceInterpreter must not be null");
     Validate.notNull(columnMapping, "columnMapping must not be null");
+    Validate.isTrue(prefetchTimeoutInMillis >= 0, "prefetchTimeoutInMillis must be positive");
 
     this.interpreter = interpreter;
     this.columnMapping = columnMapping;
     this.defaultValues = defaultValues;
     this.recordIdentifier = recordIdentifier;
+    this.prefetchLookups = prefetchLookups;
+    this.prefetchTimeoutInMillis = prefetchTimeoutInMillis;
+  }
+
+  /**
+   * Resolves the distinct taxonomic and location values of the dataFile, if prefetchLookups is enabled.
+   * Blocks the calling thread until the lookups are completed or prefetchTimeout is reached.
+   * Errors on a lookup are ignored, the lookup will simply be tried again during the evaluation.
+   *
+   * @param dataFile
+   *
+   * @throws IOException
+   */
+  @Override
+  public void prepare(TabularDataFile dataFile) throws IOException {
+    if (!prefetchLookups) {
+      return;
+    }
+
+    Set<List<String>> distinctTaxonomy = new HashSet<>();
+    Set<List<String>> distinctLocations = new HashSet<>();
+    try (RecordSource recordSource = RecordSourceFactory.fromTabularDataFile(dataFile)) {
+      List<String> record;
+      while ((record = recordSource.read()) != null) {
+        VerbatimOccurrence verbatimOccurrence = toVerbatimOccurrence(record);
+        addProjection(verbatimOccurrence, TAXONOMY_TERMS, distinctTaxonomy);
+        addProjection(verbatimOccurrence, LOCATION_TERMS, distinctLocations);
+      }
+    }
+    LOG.info("Prefetching {} distinct taxonomy and {} distinct location value(s) of {}", distinctTaxonomy.size(),
+            distinctLocations.size(), dataFile.getFilePath());
+
+    List<CompletableFuture<Void>> lookups = new ArrayList<>(distinctTaxonomy.size() + distinctLocations.size());
+    prefetchAll(distinctTaxonomy, TAXONOMY_TERMS, lookups);
+    prefetchAll(distinctLocations, LOCATION_TERMS, lookups);
+    awaitLookups(lookups, dataFile);
+  }
+
+  /**
+   * Waits at most prefetchTimeout for the lookups to complete, the lookups not started in time are cancelled.
+   */
+  private void awaitLookups(List<CompletableFuture<Void>> lookups, TabularDataFile dataFile) {
+    try {
+      CompletableFuture.allOf(lookups.toArray(new CompletableFuture[lookups.size()]))
+              .get(prefetchTimeoutInMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException tEx) {
+      LOG.info("Prefetching of {} not completed after {} ms, remaining lookups will be done during the evaluation",
+              dataFile.getFilePath(), prefetchTimeoutInMillis);
+    } catch (InterruptedException iEx) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException eEx) {
+      //errors are handled by each lookup
+      LOG.debug("Error while prefetching lookups of {}", dataFile.getFilePath(), eEx);
+    } finally {
+      lookups.forEach(lookup -> lookup.cancel(false));
+    }
+  }
+
+  /**
+   * Adds the values of the provided terms to the projections set, unless they are all blank or the set already
+   * contains {@link #MAX_PREFETCHED_VALUES} elements.
+   */
+  private static void addProjection(VerbatimOccurrence verbatimOccurrence, Term[] terms,
+                                    Set<List<String>> projections) {
+    if (projections.size() >= MAX_PREFETCHED_VALUES) {
+      return;
+    }
+    String[] values = new String[terms.length];
+    boolean hasValue = false;
+    for (int i = 0; i < terms.length; i++) {
+      values[i] = StringUtils.trimToNull(verbatimOccurrence.getVerbatimField(terms[i]));
+      hasValue |= values[i] != null;
+    }
+    if (hasValue) {
+      projections.add(Arrays.asList(values));
+    }
+  }
+
+  /**
+   * Interprets a synthetic occurrence for each projection so the related lookups end up in the lookup cache.
+   */
+  private void prefetchAll(Set<List<String>> projections, Term[] terms, List<CompletableFuture<Void>> lookups) {
+    projections.forEach(projection ->
+            lookups.add(CompletableFuture.runAsync(() -> prefetch(projection, terms), PREFETCH_EXECUTOR)));
+  }
+
+  private void prefetch(List<String> projection, Term[] terms) {
+    VerbatimOccurrence verbatimOccurrence = new VerbatimOccurrence();
+    for (int i = 0; i < terms.length; i++) {
+      verbatimOccurrence.setVerbatimField(terms[i], projection.get(i));
+    }
+    try {
+      interpreter.interpret(verbatimOccurrence, null);
+    } catch (RuntimeException rEx) {
+      LOG.debug("Can not prefetch lookup for {}", projection, rEx);
+    }
   }
 
   @Override
@@ -92,9 +264,12 @@ public class OccurrenceInterpretationEvaluator implements RecordEvaluator {
   @VisibleForTesting
   protected VerbatimOccurrence toVerbatimOccurrence(@NotNull List<String> record) {
     VerbatimOccurrence verbatimOccurrence = new VerbatimOccurrence();
-    IntStream.range(0, Math.min(record.size(), columnMapping.length))
-            .filter(idx -> columnMapping[idx] != null)
-            .forEach(i -> verbatimOccurrence.setVerbatimField(columnMapping[i], record.get(i)));
+    int numberOfColumns = Math.min(record.size(), columnMapping.length);
+    for (int i = 0; i < numberOfColumns; i++) {
+      if (columnMapping[i] != null) {
+        verbatimOccurrence.setVerbatimField(columnMapping[i], record.get(i));
+      }
+    }
 
     //only set a default value if the field is currently empty (this matches the crawler behavior)
     if (defaultValues != null) {
@@ -145,6 +145,7 @@ public class LocalEvaluatorRunner {
     //add one if there is a header since the source will not send it
     long lineNumber = dataFile.getFileLineOffset().orElse(0) + (dataFile.isHasHeaders() ? + 1 : 0);
     //log().info("Starting to read: " + dataFile.getFilePath());
+    recordEvaluator.prepare(dataFile);
     try (RecordSource recordSource = RecordSourceFactory.fromTabularDataFile(dataFile)) {
       List<String> record;
       while ((record = recordSource.read()) != null) {
@@ -0,0 +1,241 @@
+package org.gbif.validation.jobserver;
+
+import org.gbif.validation.api.DataFile;
+import org.gbif.validation.jobserver.messages.DataJob;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Admission stage of the jobs: decides when a submitted job can be started.
+ * At most maxRunningJobs jobs are running at the same time, the others are waiting in a queue where the smallest jobs
+ * (estimated by the size of their files in bytes) are started first so small submissions get an answer quickly even
+ * when large archives are running. Jobs of the same size are started in order of submission.
+ * To avoid starving large jobs while small ones keep being submitted, a job waiting for more than maxQueueAgeMs is
+ * started before the smaller ones, the oldest first.
+ *
+ * This class is thread-safe.
+ */
+class JobAdmissionQueue {
+
+  private static final Logger LOG = LoggerFactory.getLogger(JobAdmissionQueue.class);
+
+  private static final Comparator<QueuedJob> SHORTEST_JOB_FIRST =
+          Comparator.<QueuedJob>comparingLong(queuedJob -> queuedJob.estimatedSize)
+                  .thenComparingLong(queuedJob -> queuedJob.dataJob.getJobId());
+
+  private static final long DEFAULT_MAX_QUEUE_AGE_MS = TimeUnit.MINUTES.toMillis(10);
+
+  private final int maxRunningJobs;
+  private final long maxQueueAgeMs;
+  private final LongSupplier clock;
+  private final PriorityQueue<QueuedJob> queuedJobs;
+  //same jobs, in order of submission
+  private final Deque<QueuedJob> queuedJobsBySubmission;
+  private final Set<Long> runningJobs;
+
+  /**
+   * Job waiting to be started with its estimated size and the time it was queued.
+   */
+  private static class QueuedJob {
+    private final DataJob<DataFile> dataJob;
+    private final long estimatedSize;
+    private final long queuedAt;
+
+    QueuedJob(DataJob<DataFile> dataJob, long estimatedSize, long queuedAt) {
+      this.dataJob = dataJob;
+      this.estimatedSize = estimatedSize;
+      this.queuedAt = queuedAt;
+    }
+  }
+
+  /**
+   * @param maxRunningJobs maximum number of jobs running at the same time
+   */
+  JobAdmissionQueue(int maxRunningJobs) {
+    this(maxRunningJobs, DEFAULT_MAX_QUEUE_AGE_MS, System::currentTimeMillis);
+  }
+
+  /**
+   * @param maxRunningJobs maximum number of jobs running at the same time
+   * @param maxQueueAgeMs  time after which a waiting job is started before the smaller ones
+   * @param clock          current time in milliseconds
+   */
+  JobAdmissionQueue(int maxRunningJobs, long maxQueueAgeMs, LongSupplier clock) {
+    Preconditions.checkArgument(maxRunningJobs > 0, "maxRunningJobs shall be greater than 0");
+    this.maxRunningJobs = maxRunningJobs;
+    this.maxQueueAgeMs = maxQueueAgeMs;
+    this.clock = clock;
+    queuedJobs = new PriorityQueue<>(SHORTEST_JOB_FIRST);
+    queuedJobsBySubmission = new ArrayDeque<>();
+    runningJobs = new HashSet<>();
+  }
+
+  /**
+   * Submits a new job.
+   *
+   * @param dataJob
+   *
+   * @return the jobs that can be started now, possibly empty
+   */
+  synchronized List<DataJob<DataFile>> submit(DataJob<DataFile> dataJob) {
+    //no need to estimate the size if the job doesn't have to wait
+    if (queuedJobs.isEmpty() && runningJobs.size() < maxRunningJobs) {
+      runningJobs.add(dataJob.getJobId());
+      return Collections.singletonList(dataJob);
+    }
+    QueuedJob queuedJob = new QueuedJob(dataJob, estimateSize(dataJob.getJobData()), clock.getAsLong());
+    queuedJobs.add(queuedJob);
+    queuedJobsBySubmission.add(queuedJob);
+    return admitJobs();
+  }
+
+  /**
+   * Notifies that a job is completed (or killed).
+   *
+   * @param jobId
+   *
+   * @return the jobs that can be started now, possibly empty
+   */
+  synchronized List<DataJob<DataFile>> onJobCompleted(long jobId) {
+    runningJobs.remove(jobId);
+    return admitJobs();
+  }
+
+  /**
+   * Removes a job waiting to be started.
+   *
+   * @param jobId
+   *
+   * @return the removed job, if the job was waiting
+   */
+  synchronized Optional<DataJob<DataFile>> remove(long jobId) {
+    Optional<QueuedJob> queuedJob = queuedJobs.stream()
+            .filter(qj -> qj.dataJob.getJobId() == jobId)
+            .findFirst();
+    queuedJob.ifPresent(this::removeQueuedJob);
+    return queuedJob.map(qj -> qj.dataJob);
+  }
+
+  /**
+   * Gets a job waiting to be started.
+   *
+   * @param jobId
+   *
+   * @return the job and its position in the queue (starting at 1), if the job is waiting
+   */
+  synchronized Optional<QueuedJobPosition> getQueuedJob(long jobId) {
+    //jobs waiting for too long first, then the smallest ones
+    long now = clock.getAsLong();
+    List<QueuedJob> orderedJobs = new ArrayList<>(queuedJobs.size());
+    List<QueuedJob> otherJobs = new ArrayList<>();
+    for (QueuedJob queuedJob : queuedJobsBySubmission) {
+      if (isTooOld(queuedJob, now)) {
+        orderedJobs.add(queuedJob);
+      } else {
+        otherJobs.add(queuedJob);
+      }
+    }
+    otherJobs.sort(SHORTEST_JOB_FIRST);
+    orderedJobs.addAll(otherJobs);
+    for (int i = 0; i < orderedJobs.size(); i++) {
+      if (orderedJobs.get(i).dataJob.getJobId() == jobId) {
+        return Optional.of(new QueuedJobPosition(orderedJobs.get(i).dataJob, i + 1));
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Job waiting to be started and its position in the queue.
+   */
+  static class QueuedJobPosition {
+    private final DataJob<DataFile> dataJob;
+    private final int position;
+
+    QueuedJobPosition(DataJob<DataFile> dataJob, int position) {
+      this.dataJob = dataJob;
+      this.position = position;
+    }
+
+    DataJob<DataFile> getDataJob() {
+      return dataJob;
+    }
+
+    int getPosition() {
+      return position;
+    }
+  }
+
+  private List<DataJob<DataFile>> admitJobs() {
+    List<DataJob<DataFile>> admittedJobs = new ArrayList<>();
+    while (runningJobs.size() < maxRunningJobs && !queuedJobs.isEmpty()) {
+      DataJob<DataFile> dataJob = pollNextJob().dataJob;
+      runningJobs.add(dataJob.getJobId());
+      admittedJobs.add(dataJob);
+    }
+    return admittedJobs;
+  }
+
+  /**
+   * Removes and returns the oldest job if it is waiting for too long, the smallest job otherwise.
+   */
+  private QueuedJob pollNextJob() {
+    QueuedJob oldestJob = queuedJobsBySubmission.peekFirst();
+    QueuedJob nextJob = isTooOld(oldestJob, clock.getAsLong()) ? oldestJob : queuedJobs.peek();
+    removeQueuedJob(nextJob);
+    return nextJob;
+  }
+
+  private void removeQueuedJob(QueuedJob queuedJob) {
+    queuedJobs.remove(queuedJob);
+    queuedJobsBySubmission.remove(queuedJob);
+  }
+
+  private boolean isTooOld(QueuedJob queuedJob, long now) {
+    return now - queuedJob.queuedAt >= maxQueueAgeMs;
+  }
+
+  /**
+   * Estimates the size of a {@link DataFile} using the size in bytes of its file(s).
+   * If the size can not be determined, Long.MAX_VALUE is returned so the job doesn't get ahead of the others.
+   */
+  static long estimateSize(DataFile dataFile) {
+    Path filePath = dataFile.getFilePath();
+    if (filePath == null || !Files.exists(filePath)) {
+      return Long.MAX_VALUE;
+    }
+    try (Stream<Path> files = Files.walk(filePath)) {
+      return files.filter(Files::isRegularFile)
+              .mapToLong(file -> {
+                try {
+                  return Files.size(file);
+                } catch (IOException ioEx) {
+                  throw new UncheckedIOException(ioEx);
+                }
+              }).sum();
+    } catch (IOException | UncheckedIOException ex) {
+      LOG.warn("Can not estimate the size of {}", filePath, ex);
+      return Long.MAX_VALUE;
+    }
+  }
+}
@@ -4,13 +4,18 @@ import org.gbif.validation.api.model.JobDataOutput;
 import org.gbif.validation.api.model.JobStatusResponse;
 import org.gbif.validation.jobserver.messages.DataJob;
 
+import java.util.Collections;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import akka.actor.AbstractLoggingActor;
 import akka.actor.ActorRef;
 import akka.actor.Props;
+import akka.actor.Terminated;
+import com.google.common.cache.CacheBuilder;
 
 import static akka.japi.pf.ReceiveBuilder.match;
 
@@ -20,23 +25,52 @@ import static akka.japi.pf.ReceiveBuilder.match;
  */
 public class JobMonitor extends AbstractLoggingActor {
 
+  //jobs that reached a final status, kept long enough to ignore the partial results still in flight
+  private final Set<Long> finalJobIds = Collections.newSetFromMap(CacheBuilder.newBuilder()
+          .maximumSize(1000)
+          .expireAfterWrite(1, TimeUnit.DAYS)
+          .<Long, Boolean>build().asMap());
+
   public JobMonitor(final Supplier<Props> propsSupplier, final JobStorage jobStorage, final Consumer<UUID> completionCallback) {
+    this(propsSupplier, jobStorage, completionCallback, jobId -> {});
+  }
+
+  /**
+   * @param jobCompletionListener notified with the jobId when a job reaches a final status or when its actor is
+   *                              terminated (e.g. killed). Can be notified more than once for the same job.
+   */
+  public JobMonitor(final Supplier<Props> propsSupplier, final JobStorage jobStorage, final Consumer<UUID> completionCallback,
+                    final Consumer<Long> jobCompletionListener) {
     receive(
             match(DataJob.class, dataJob -> {
               //creates a actor that is responsible to handle a this jobData
               ActorRef jobMaster = getContext().actorOf(propsSupplier.get(),
                       String.valueOf(dataJob.getJobId())); //the jobId used as Actor's name
+              getContext().watch(jobMaster);
               jobMaster.tell(dataJob, self());
             }).
-                    match(JobStatusResponse.class, response -> handleJobStatusResponse(response, jobStorage, completionCallback)).
-                    match(JobDataOutput.class, jobStorage::put)
+                    match(JobStatusResponse.class, response -> {
+                      handleJobStatusResponse(response, jobStorage, completionCallback);
+                      if (response.getStatus().isFinal()) {
+                        jobCompletionListener.accept(response.getJobId());
+                      }
+                    }).
+                    match(JobDataOutput.class, jobStorage::put).
+                    match(Terminated.class, terminated ->
+                            jobCompletionListener.accept(Long.valueOf(terminated.getActor().path().name())))
                     .matchAny(this::unhandled)
                     .build()
     );
   }
 
-  private static void handleJobStatusResponse(JobStatusResponse statusResponse, JobStorage jobStorage,
-                                              Consumer<UUID> completionCallback) {
+  private void handleJobStatusResponse(JobStatusResponse statusResponse, JobStorage jobStorage,
+                                       Consumer<UUID> completionCallback) {
+    if (statusResponse.getStatus().isFinal()) {
+      finalJobIds.add(statusResponse.getJobId());
+    } else if (finalJobIds.contains(statusResponse.getJobId())) {
+      //partial results (e.g. progress reports) can be received after the job was killed
+      return;
+    }
     jobStorage.put(statusResponse);
     if (statusResponse.getStatus().isFinal()) {
       completionCallback.accept(statusResponse.getDataFileKey());
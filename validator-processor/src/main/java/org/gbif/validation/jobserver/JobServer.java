@@ -11,6 +11,7 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Date;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,6 +20,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
@@ -45,6 +47,8 @@ public class JobServer<T> {
   private final AtomicLong jobIdSeed;
   private final JobStorage jobStorage;
   private final ActorRef jobMonitor;
+  private final JobAdmissionQueue admissionQueue;
+  private final Consumer<UUID> completionCallback;
 
   // only used to keep track of the DataJob while the job is running
   private final Cache<Long, DataJob<DataFile>> jobIdToDataJob = CacheBuilder.newBuilder()
@@ -54,21 +58,45 @@ public class JobServer<T> {
 
   /**
    * Creates a JobServer instance that will use the jobStore instance to store and retrieve job's data.
+   * A default {@link WorkScheduler} is started (see {@link WorkScheduler#createDefaultProps()}) and the number of
+   * running jobs is not bounded.
    * @param jobStorage
    * @param propsSupplier
    * @param completionCallback callback function to call on completion (doesn't imply success, only completion)
    */
   public JobServer(JobStorage jobStorage, Supplier<Props> propsSupplier, Consumer<UUID> completionCallback) {
+    this(jobStorage, propsSupplier, WorkScheduler.createDefaultProps(), Integer.MAX_VALUE, completionCallback);
+  }
+
+  /**
+   * Creates a JobServer instance that will use the jobStore instance to store and retrieve job's data.
+   * @param jobStorage
+   * @param propsSupplier
+   * @param workSchedulerProps {@link Props} of the {@link WorkScheduler} shared by all jobs, if null a default
+   *                           {@link WorkScheduler} is started (see {@link WorkScheduler#createDefaultProps()})
+   * @param maxRunningJobs maximum number of jobs running at the same time, other jobs are queued
+   * @param completionCallback callback function to call on completion (doesn't imply success, only completion)
+   */
+  public JobServer(JobStorage jobStorage, Supplier<Props> propsSupplier, @Nullable Props workSchedulerProps,
+                   int maxRunningJobs, Consumer<UUID> completionCallback) {
     system = ActorSystem.create("JobServerSystem");
     jobIdSeed = new AtomicLong(new Date().getTime());
     this.jobStorage = jobStorage;
-    jobMonitor = system.actorOf(Props.create(JobMonitor.class, propsSupplier, jobStorage, completionCallback), "JobMonitor");
+    this.completionCallback = completionCallback;
+    //the jobs always send their work to the WorkScheduler
+    system.actorOf(Optional.ofNullable(workSchedulerProps).orElseGet(WorkScheduler::createDefaultProps),
+            WorkScheduler.WORK_SCHEDULER_ACTOR_NAME);
+    admissionQueue = new JobAdmissionQueue(maxRunningJobs);
+    Consumer<Long> jobCompletionListener = jobId -> startJobs(admissionQueue.onJobCompleted(jobId));
+    jobMonitor = system.actorOf(Props.create(JobMonitor.class, propsSupplier, jobStorage, completionCallback,
+            jobCompletionListener), "JobMonitor");
     LOG.info("New jobServer instance created");
   }
 
   /**
    * Process the submission of a data validation job.
    * If the job is accepted the response contains the new jobId ACCEPTED as the job status.
+   * The job may not start immediately, in which case its status will be QUEUED.
    */
   public JobStatusResponse<?> submit(DataFile dataFile) {
     long newJobId = jobIdSeed.getAndIncrement();
@@ -77,7 +105,7 @@ public class JobServer<T> {
     LOG.info("Running actors:" + getJobServerChildren(system).stream().collect(Collectors.joining(",")));
     DataJob<DataFile> dataJob = new DataJob<>(newJobId, startTimestamp, dataFile);
     jobIdToDataJob.put(newJobId, dataJob);
-    jobMonitor.tell(dataJob, jobMonitor);
+    startJobs(admissionQueue.submit(dataJob));
     return JobStatusResponse.ofAccepted(newJobId, startTimestamp, dataFile.getKey());
   }
 
@@ -117,6 +145,16 @@ public class JobServer<T> {
    * Tries to kill a jobId.
    */
   public JobStatusResponse<?> kill(long jobId) {
+    Optional<DataJob<DataFile>> queuedDataJob = admissionQueue.remove(jobId);
+    if (queuedDataJob.isPresent()) {
+      JobStatusResponse<?> response = JobStatusResponse.ofKilled(jobId, queuedDataJob.get().getStartTimeStamp(),
+              queuedDataJob.get().getJobData().getKey());
+      jobStorage.put(response);
+      //the job was never started so the JobMonitor will not call the completionCallback
+      completionCallback.accept(response.getDataFileKey());
+      return response;
+    }
+
     Optional<ActorRef> actorOpt = getRunningActor(jobId, system);
     if (actorOpt.isPresent()) {
       Optional<DataJob<DataFile>> possibleDataJob = Optional.ofNullable(jobIdToDataJob.getIfPresent(jobId));
@@ -128,6 +166,8 @@ public class JobServer<T> {
       actorRef.tell(Kill.getInstance(), jobMonitor);
       system.stop(actorRef);
       jobStorage.put(response);   //stores a job result
+      //the JobMonitor ignores the partial results of the job still in flight and calls the completionCallback
+      jobMonitor.tell(response, ActorRef.noSender());
       return response;
     }
     return JobStatusResponse.ofNotFound(jobId);
@@ -152,9 +192,22 @@ public class JobServer<T> {
   }
 
   /**
-   * Tries to gets the status from the running instances.
+   * Sends the jobs to the {@link JobMonitor} to be started.
+   */
+  private void startJobs(List<DataJob<DataFile>> dataJobs) {
+    dataJobs.forEach(dataJob -> jobMonitor.tell(dataJob, jobMonitor));
+  }
+
+  /**
+   * Tries to gets the status from the queued or running instances.
    */
   private JobStatusResponse<?> getJobStatus(long jobId) {
+    Optional<JobAdmissionQueue.QueuedJobPosition> queuedJob = admissionQueue.getQueuedJob(jobId);
+    if (queuedJob.isPresent()) {
+      DataJob<DataFile> dataJob = queuedJob.get().getDataJob();
+      return JobStatusResponse.ofQueued(jobId, dataJob.getStartTimeStamp(), dataJob.getJobData().getKey(),
+              queuedJob.get().getPosition());
+    }
 
     try {
       //there's a running actor with that jobId name?
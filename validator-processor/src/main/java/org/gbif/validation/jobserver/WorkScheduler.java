@@ -0,0 +1,190 @@
+package org.gbif.validation.jobserver;
+
+import org.gbif.validation.jobserver.messages.ScheduleWork;
+import org.gbif.validation.jobserver.messages.WorkRequest;
+import org.gbif.validation.processor.DataFileProcessorMaster;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+
+import akka.actor.AbstractLoggingActor;
+import akka.actor.ActorRef;
+import akka.actor.Props;
+import akka.actor.Terminated;
+import com.google.common.base.Preconditions;
+
+import static akka.japi.pf.ReceiveBuilder.match;
+
+/**
+ * Actor that owns the pool of workers shared by all the jobs of a {@link JobServer}.
+ * The total number of workers is bounded so the concurrency of a node stays predictable regardless of the number of
+ * jobs running.
+ *
+ * Jobs submit their work using {@link ScheduleWork} messages and receive the results directly from the workers.
+ * Idle workers are given work from the jobs in turn (fair share) and a single job can never use more than
+ * maxWorkersPerJob workers, so a large job can not starve the small ones.
+ *
+ * Workers are expected to send a {@link WorkRequest} to their parent when they start and after each unit of work
+ * completed. A unit of work is sent to a worker with the job as sender.
+ */
+public class WorkScheduler extends AbstractLoggingActor {
+
+  public static final String WORK_SCHEDULER_ACTOR_NAME = "WorkScheduler";
+  public static final int DEFAULT_MAX_WORKERS = Runtime.getRuntime().availableProcessors();
+
+  private final int maxWorkersPerJob;
+
+  //jobs with pending or running work, in order of arrival
+  private final Map<ActorRef, JobWork> jobs = new LinkedHashMap<>();
+  private final Map<ActorRef, ActorRef> workerToJob = new HashMap<>();
+  private final Deque<ActorRef> idleWorkers = new ArrayDeque<>();
+  //number of units of work dispatched so far, used to serve the jobs in turn
+  private long dispatchCount;
+
+  /**
+   * Work of a single job.
+   */
+  private static class JobWork {
+    private final Queue<Object> pendingWorkUnits = new ArrayDeque<>();
+    private int runningWorkUnits;
+    //value of dispatchCount when this job was last served, 0 if never served
+    private long lastServed;
+
+    private boolean canStartWork(int maxWorkersPerJob) {
+      return !pendingWorkUnits.isEmpty() && runningWorkUnits < maxWorkersPerJob;
+    }
+
+    private boolean isCompleted() {
+      return pendingWorkUnits.isEmpty() && runningWorkUnits == 0;
+    }
+  }
+
+  /**
+   * Creates Actor {@link Props}.
+   *
+   * @param workerProps      {@link Props} used to create the workers
+   * @param maxWorkers       total number of workers
+   * @param maxWorkersPerJob maximum number of workers a single job can use at the same time
+   *
+   * @return
+   */
+  public static Props createProps(Props workerProps, int maxWorkers, int maxWorkersPerJob) {
+    return Props.create(WorkScheduler.class, workerProps, maxWorkers, maxWorkersPerJob);
+  }
+
+  /**
+   * Creates the {@link Props} of a WorkScheduler using the workers of {@link DataFileProcessorMaster}, the number of
+   * workers is bounded to the number of available processors.
+   *
+   * @return
+   */
+  public static Props createDefaultProps() {
+    return createProps(DataFileProcessorMaster.createWorkerProps(), DEFAULT_MAX_WORKERS, DEFAULT_MAX_WORKERS);
+  }
+
+  WorkScheduler(Props workerProps, int maxWorkers, int maxWorkersPerJob) {
+    Preconditions.checkArgument(maxWorkers > 0, "maxWorkers shall be greater than 0");
+    Preconditions.checkArgument(maxWorkersPerJob > 0, "maxWorkersPerJob shall be greater than 0");
+    this.maxWorkersPerJob = maxWorkersPerJob;
+
+    for (int i = 0; i < maxWorkers; i++) {
+      getContext().actorOf(workerProps, "worker_" + i);
+    }
+    log().info("WorkScheduler created with {} worker(s), {} maximum per job", maxWorkers, maxWorkersPerJob);
+
+    receive(
+            match(ScheduleWork.class, this::onScheduleWork)
+                    .match(WorkRequest.class, this::onWorkRequest)
+                    .match(Terminated.class, this::onJobTerminated)
+                    .matchAny(this::unhandled)
+                    .build()
+    );
+  }
+
+  private void onScheduleWork(ScheduleWork scheduleWork) {
+    ActorRef job = sender();
+    JobWork jobWork = jobs.get(job);
+    if (jobWork == null) {
+      jobWork = new JobWork();
+      jobs.put(job, jobWork);
+      getContext().watch(job);
+    }
+    jobWork.pendingWorkUnits.addAll(scheduleWork.getWorkUnits());
+    dispatch();
+  }
+
+  /**
+   * A worker is ready, it either just started or completed a unit of work.
+   */
+  private void onWorkRequest(WorkRequest ignore) {
+    ActorRef worker = sender();
+    ActorRef job = workerToJob.remove(worker);
+    if (job != null) {
+      JobWork jobWork = jobs.get(job);
+      //the job could have been terminated in the meantime
+      if (jobWork != null) {
+        jobWork.runningWorkUnits--;
+        if (jobWork.isCompleted()) {
+          removeJob(job);
+        }
+      }
+    }
+    idleWorkers.add(worker);
+    dispatch();
+  }
+
+  /**
+   * A job was stopped (e.g. killed), its pending work is discarded.
+   */
+  private void onJobTerminated(Terminated terminated) {
+    if (jobs.remove(terminated.getActor()) != null) {
+      log().info("Job {} terminated, pending work discarded", terminated.getActor().path().name());
+    }
+  }
+
+  /**
+   * Assign pending work to idle workers, serving jobs in turn.
+   */
+  private void dispatch() {
+    while (!idleWorkers.isEmpty()) {
+      ActorRef job = nextJob();
+      if (job == null) {
+        return;
+      }
+      JobWork jobWork = jobs.get(job);
+      jobWork.lastServed = ++dispatchCount;
+
+      ActorRef worker = idleWorkers.poll();
+      jobWork.runningWorkUnits++;
+      workerToJob.put(worker, job);
+      worker.tell(jobWork.pendingWorkUnits.poll(), job);
+    }
+  }
+
+  /**
+   * @return the job that can start a unit of work and was served the longest time ago (jobs never served first, in
+   * order of arrival) or null if there is none
+   */
+  private ActorRef nextJob() {
+    ActorRef nextJob = null;
+    long nextJobLastServed = Long.MAX_VALUE;
+    for (Map.Entry<ActorRef, JobWork> entry : jobs.entrySet()) {
+      JobWork jobWork = entry.getValue();
+      if (jobWork.canStartWork(maxWorkersPerJob) && jobWork.lastServed < nextJobLastServed) {
+        nextJob = entry.getKey();
+        nextJobLastServed = jobWork.lastServed;
+      }
+    }
+    return nextJob;
+  }
+
+  private void removeJob(ActorRef job) {
+    jobs.remove(job);
+    getContext().unwatch(job);
+  }
+
+}
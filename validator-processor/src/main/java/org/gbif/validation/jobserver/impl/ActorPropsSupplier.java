@@ -2,6 +2,7 @@ package org.gbif.validation.jobserver.impl;
 
 import org.gbif.validation.api.DataFile;
 import org.gbif.validation.evaluator.EvaluatorFactory;
+import org.gbif.validation.jobserver.WorkScheduler;
 import org.gbif.validation.processor.DataFileProcessorMaster;
 
 import java.util.function.Supplier;
@@ -14,13 +15,29 @@ import akka.actor.Props;
 public class ActorPropsSupplier implements Supplier<Props> {
 
   private final Props props;
+  private final Props workSchedulerProps;
 
   /**
    * Default constructor, the parameters received are used to build actor instances.
+   * The number of workers is bounded to the number of available processors.
    */
   public ActorPropsSupplier(EvaluatorFactory evaluatorFactory, Integer fileSplitSize, String workingDir,
                             boolean preserveTemporaryFiles) {
+    this(evaluatorFactory, fileSplitSize, workingDir, preserveTemporaryFiles, WorkScheduler.DEFAULT_MAX_WORKERS,
+            WorkScheduler.DEFAULT_MAX_WORKERS);
+  }
+
+  /**
+   * Full constructor, the parameters received are used to build actor instances.
+   *
+   * @param maxWorkers       total number of workers shared by all jobs
+   * @param maxWorkersPerJob maximum number of workers a single job can use at the same time
+   */
+  public ActorPropsSupplier(EvaluatorFactory evaluatorFactory, Integer fileSplitSize, String workingDir,
+                            boolean preserveTemporaryFiles, int maxWorkers, int maxWorkersPerJob) {
     props =  DataFileProcessorMaster.createProps(evaluatorFactory, fileSplitSize, workingDir, preserveTemporaryFiles);
+    workSchedulerProps = WorkScheduler.createProps(DataFileProcessorMaster.createWorkerProps(), maxWorkers,
+            maxWorkersPerJob);
   }
 
   /**
@@ -30,4 +47,11 @@ public class ActorPropsSupplier implements Supplier<Props> {
   public Props get() {
     return props;
   }
+
+  /**
+   * Gets the elements to build the {@link WorkScheduler} required by the actors built by this supplier.
+   */
+  public Props getWorkSchedulerProps() {
+    return workSchedulerProps;
+  }
 }
@@ -0,0 +1,31 @@
+package org.gbif.validation.jobserver.messages;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Units of work, of a single job, to be scheduled on the shared pool of workers.
+ * The sender of the message is considered as the job and will receive the results of the work.
+ */
+public class ScheduleWork {
+
+  private final List<Object> workUnits;
+
+  /**
+   * Full constructor.
+   */
+  public ScheduleWork(Collection<?> workUnits) {
+    Objects.requireNonNull(workUnits, "workUnits shall be provided");
+    this.workUnits = Collections.unmodifiableList(new ArrayList<>(workUnits));
+  }
+
+  /**
+   * Gets the units of work, in the order they should be processed.
+   */
+  public List<Object> getWorkUnits() {
+    return workUnits;
+  }
+}
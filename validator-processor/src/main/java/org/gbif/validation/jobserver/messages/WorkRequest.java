@@ -0,0 +1,9 @@
+package org.gbif.validation.jobserver.messages;
+
+/**
+ * Simple message sent by a worker to indicate it is ready to process its next unit of work.
+ */
+public class WorkRequest {
+  public static final WorkRequest INSTANCE = new WorkRequest();
+  private WorkRequest(){}
+}
@@ -6,10 +6,10 @@ import org.gbif.validation.api.DataFile;
 import org.gbif.validation.api.DwcDataFile;
 import org.gbif.validation.api.DwcDataFileEvaluator;
 import org.gbif.validation.api.RecordCollectionEvaluator;
-import org.gbif.validation.api.RecordEvaluator;
 import org.gbif.validation.api.RowTypeKey;
 import org.gbif.validation.api.TabularDataFile;
 import org.gbif.validation.api.model.JobDataOutput;
+import org.gbif.validation.api.model.JobProgress;
 import org.gbif.validation.api.model.JobStatusResponse;
 import org.gbif.validation.api.model.JobStatusResponse.JobStatus;
 import org.gbif.validation.api.model.ValidationErrorCode;
@@ -17,7 +17,10 @@ import org.gbif.validation.api.result.ValidationDataOutput;
 import org.gbif.validation.api.result.ValidationResult;
 import org.gbif.validation.api.result.ValidationResultElement;
 import org.gbif.validation.collector.CollectorGroup;
+import org.gbif.validation.collector.CollectorGroupAccumulator;
 import org.gbif.validation.collector.CollectorGroupProvider;
+import org.gbif.validation.collector.RecordIdentifierCollector;
+import org.gbif.validation.collector.SampleMemoryBudget;
 import org.gbif.validation.evaluator.DwcDataFileSupplier;
 import org.gbif.validation.evaluator.EvaluationChain;
 import org.gbif.validation.evaluator.EvaluatorFactory;
@@ -26,8 +29,11 @@ import org.gbif.validation.evaluator.ResourceConstitutionEvaluationChain;
 import org.gbif.validation.evaluator.runner.DwcDataFileEvaluatorRunner;
 import org.gbif.validation.evaluator.runner.RecordCollectionEvaluatorRunner;
 import org.gbif.validation.evaluator.runner.RecordEvaluatorRunner;
+import org.gbif.validation.jobserver.WorkScheduler;
 import org.gbif.validation.jobserver.messages.DataJob;
+import org.gbif.validation.jobserver.messages.ScheduleWork;
 import org.gbif.validation.source.DataFileFactory;
+import org.gbif.validation.source.UnsupportedDataFileException;
 
 import java.io.File;
 import java.io.IOException;
@@ -37,17 +43,21 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import akka.actor.AbstractLoggingActor;
 import akka.actor.ActorRef;
+import akka.actor.Cancellable;
 import akka.actor.Props;
-import akka.routing.RoundRobinPool;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
 
 import static org.gbif.validation.api.model.ValidationProfile.GBIF_INDEXING_PROFILE;
 
@@ -56,16 +66,25 @@ import static akka.japi.pf.ReceiveBuilder.match;
 /**
  * Akka actor that acts as the central coordinator of parallel data processing.
  * This class decides if the data input should be split into smaller pieces to be processed by worker actors.
+ *
+ * Records based work (all the splits of all row types) is sent to the {@link WorkScheduler} where it is processed by
+ * a pool of {@link DataFileRecordsActor} shared by all jobs. Results are sent back directly to this actor.
  */
 public class DataFileProcessorMaster extends AbstractLoggingActor {
 
-  private static final int MAX_WORKER = Runtime.getRuntime().availableProcessors() * 50;
+  private static final String WORK_SCHEDULER_PATH = "/user/" + WorkScheduler.WORK_SCHEDULER_ACTOR_NAME;
+  //estimated heap size of a record identifier collected in memory
+  private static final int ESTIMATED_RECORD_IDENTIFIER_SIZE = 128;
+  //folder of the working directory where the structure of a zipped archive is extracted
+  private static final String ARCHIVE_STRUCTURE_FOLDER = "archive_structure";
 
   private final Map<RowTypeKey, TabularDataFile> rowTypeDataFile;
   private final Map<RowTypeKey, CollectorGroupProvider> rowTypeCollectorProviders;
-  private final Map<RowTypeKey, List<CollectorGroup>> rowTypeCollectors;
+  //collectors of the splits are merged as soon as they are received
+  private final Map<RowTypeKey, CollectorGroupAccumulator> rowTypeCollectors;
   private final Collection<ValidationResultElement> validationResultElements;
   private final boolean preserveTemporaryFiles;
+  private final int progressReportIntervalInSeconds;
 
   private final AtomicInteger numOfWorkers;
   private final AtomicInteger workerCompleted;
@@ -76,6 +95,9 @@ public class DataFileProcessorMaster extends AbstractLoggingActor {
   //current working directory for the current validation
   private File workingDir;
 
+  private long recordEvaluationStartTime;
+  private Cancellable progressReport;
+
   /**
    * Full constructor.
    */
@@ -90,6 +112,7 @@ public class DataFileProcessorMaster extends AbstractLoggingActor {
     initCompleted = new AtomicBoolean(false);
     validationResultElements = new ConcurrentLinkedQueue<>();
     this.preserveTemporaryFiles = preserveTemporaryFiles;
+    progressReportIntervalInSeconds = factory.getProgressReportIntervalInSeconds();
 
     receive(
             //this should only be called once
@@ -101,7 +124,8 @@ public class DataFileProcessorMaster extends AbstractLoggingActor {
             })
                     .match(DataWorkResult.class, this::processRecordBasedResults)
                     .match(MetadataWorkResult.class, this::processMetadataBasedResults)
-                    .match(FinishedInit.class, this::onInitCompleted).build()
+                    .match(FinishedInit.class, this::onInitCompleted)
+                    .match(ReportProgress.class, this::reportProgress).build()
     );
   }
 
@@ -126,14 +150,33 @@ public class DataFileProcessorMaster extends AbstractLoggingActor {
    * @throws IOException
    */
   private void processDataFile(EvaluatorFactory factory, Integer fileSplitSize) throws Exception {
-    DataFile dataFile = dataJob.getJobData();
-    DwcDataFileSupplier transformer = () -> DataFileFactory.prepareDataFile(dataFile, workingDir.toPath());
+    DataFile receivedDataFile = dataJob.getJobData();
+    DataFile dataFile;
+    DwcDataFileSupplier transformer;
+    if (DataFileFactory.isZippedArchive(receivedDataFile)) {
+      //the structure is evaluated on an extract of the ZIP file, then the files are normalized directly from the
+      //ZIP file and the normalized folder is evaluated as the archive
+      File structureFolder = new File(workingDir, ARCHIVE_STRUCTURE_FOLDER);
+      try {
+        dataFile = DataFileFactory.extractArchiveStructure(receivedDataFile, structureFolder.toPath());
+      } catch (IOException ex) {
+        log().error(ex, "Can not read the zipped archive {}", receivedDataFile);
+        emitErrorAndStop(receivedDataFile, ValidationErrorCode.UNSUPPORTED_FILE_FORMAT, ex.getMessage());
+        return;
+      }
+      transformer = () -> {
+        FileUtils.deleteDirectoryRecursively(structureFolder);
+        return DataFileFactory.prepareDataFile(receivedDataFile, workingDir.toPath());
+      };
+    } else {
+      dataFile = receivedDataFile;
+      transformer = () -> DataFileFactory.prepareDataFile(receivedDataFile, workingDir.toPath());
+    }
 
    // final MutableInt numOfWorkers = new MutableInt(0);
     EvaluationChain.Builder evaluationChainBuilder =
             EvaluationChain.Builder.using(dataFile, transformer, factory, workingDir.toPath())
                     .evaluateMetadataContent()
-                    .evaluateCoreUniqueness()
                     .evaluateReferentialIntegrity()
                     .evaluateRecords(df -> handleSplit(df, fileSplitSize))
                     .evaluateChecklist();
@@ -158,7 +201,7 @@ public class DataFileProcessorMaster extends AbstractLoggingActor {
             .tell(buildJobStatusResponse(null, JobStatus.RUNNING, dataFile, new ArrayList<>(validationResultElements)), self());
     DwcDataFile dwcDataFile = resourceConstitutionResults.getTransformedDataFile();
 
-    init(dwcDataFile.getTabularDataFiles());
+    init(dwcDataFile, factory.getCoreIdentifiersMemoryBudget(), factory.getSamplesMemoryBudget());
 
     //numOfWorkers.add(evaluationChain.getNumberOfRowTypeEvaluationUnits());
     //numOfWorkers.add(evaluationChain.getNumberOfDwcDataFileEvaluationUnits());
@@ -175,20 +218,40 @@ public class DataFileProcessorMaster extends AbstractLoggingActor {
   }
 
   /**
-   * Initialize all member variables based on the list of {@link DataFile}.
-   * @param dataFiles
+   * Initialize all member variables based on the {@link DwcDataFile}.
+   * The uniqueness of the core record identifiers is checked while the records are evaluated using a
+   * {@link RecordIdentifierCollector} so the core is not read again.
+   *
+   * @param dwcDataFile
+   * @param coreIdentifiersMemoryBudget number of bytes the core identifiers can use in memory
+   * @param samplesMemoryBudget number of bytes the samples of all the collectors can use in memory
    */
-  private void init(Iterable<TabularDataFile> dataFiles){
-    dataFiles.forEach(df -> {
-      rowTypeCollectors.putIfAbsent(df.getRowTypeKey(), new ArrayList<>());
+  private void init(DwcDataFile dwcDataFile, long coreIdentifiersMemoryBudget, long samplesMemoryBudget) {
+    TabularDataFile core = dwcDataFile.getCore();
+    //shared by all the rowTypes of the job
+    SampleMemoryBudget sampleMemoryBudget = new SampleMemoryBudget(samplesMemoryBudget);
+    dwcDataFile.getTabularDataFiles().forEach(df -> {
+      rowTypeCollectors.putIfAbsent(df.getRowTypeKey(), new CollectorGroupAccumulator(sampleMemoryBudget));
       rowTypeDataFile.put(df.getRowTypeKey(), df);
       List<Term> columns = Arrays.asList(df.getColumns());
-      rowTypeCollectorProviders.put(df.getRowTypeKey(), new CollectorGroupProvider(df.getRowTypeKey().getRowType(), columns));
+
+      RecordIdentifierCollector recordIdentifierCollector = null;
+      if (core != null && df.getRowTypeKey().equals(core.getRowTypeKey()) && df.getRecordIdentifier().isPresent()) {
+        int maxIdentifiersInMemory = (int) Math.max(1, Math.min(
+                coreIdentifiersMemoryBudget / ESTIMATED_RECORD_IDENTIFIER_SIZE, Integer.MAX_VALUE));
+        recordIdentifierCollector = new RecordIdentifierCollector(df.getRowTypeKey().getRowType(),
+                df.getRecordIdentifier().get().getIndex(), df.getNumOfLines(), maxIdentifiersInMemory,
+                workingDir.toPath());
+      }
+      rowTypeCollectorProviders.put(df.getRowTypeKey(),
+              new CollectorGroupProvider(df.getRowTypeKey().getRowType(), columns, recordIdentifierCollector,
+                      sampleMemoryBudget));
     });
   }
 
   /**
    * Handle splits to process all the {@link DataFile} (if required).
+   * Splits are byte ranges of the {@link TabularDataFile} so no data is copied.
    *
    * @param tabularDataFile
    * @param fileSplitSize
@@ -198,7 +261,7 @@ public class DataFileProcessorMaster extends AbstractLoggingActor {
   private List<TabularDataFile> handleSplit(final TabularDataFile tabularDataFile, final Integer fileSplitSize) throws IOException {
     List<TabularDataFile> splitDataFile;
     try {
-      splitDataFile = DataFileSplitter.splitDataFile(tabularDataFile, fileSplitSize, workingDir.toPath());
+      splitDataFile = DataFileSplitter.splitDataFileByByteRange(tabularDataFile, fileSplitSize);
     } catch (IOException ioEx) {
       log().error("Failed to split data", ioEx);
       throw ioEx;
@@ -226,12 +289,12 @@ public class DataFileProcessorMaster extends AbstractLoggingActor {
     };
     evaluationChain.runRecordCollectionEvaluation(runner);
 
+    List<DataWorkUnit> workUnits = new ArrayList<>();
     RecordEvaluatorRunner recordEvaluatorRunner = (dataFiles, rowTypeKey, recordEvaluator) -> {
       log().info("RecordEvaluatorRunner got {} dataFiles", dataFiles.size());
       numOfWorkers.addAndGet(dataFiles.size());
-      ActorRef workerRouter = createWorkerRoutes(Math.min(dataFiles.size(), MAX_WORKER),
-              rowTypeKey, recordEvaluator);
-      dataFiles.forEach(dataFile -> workerRouter.tell(dataFile, self()));
+      CollectorGroupProvider collectorsProvider = rowTypeCollectorProviders.get(rowTypeKey);
+      dataFiles.forEach(dataFile -> workUnits.add(new DataWorkUnit(dataFile, recordEvaluator, collectorsProvider)));
     };
 
     try {
@@ -240,21 +303,20 @@ public class DataFileProcessorMaster extends AbstractLoggingActor {
       emitErrorAndStop(evaluationChain.getDataFile(), ValidationErrorCode.IO_ERROR, ioEx.getMessage());
       return;
     }
+    if (!workUnits.isEmpty()) {
+      getContext().actorSelection(WORK_SCHEDULER_PATH).tell(new ScheduleWork(workUnits), self());
+    }
+    scheduleProgressReport();
     log().info("Expected {} worker response(s)", numOfWorkers.get());
     this.self().tell(FinishedInit.INSTANCE, self());
   }
 
   /**
-   * Creates the worker router using the calculated number of workers.
-   *
+   * Creates the {@link Props} of the workers to use in the {@link WorkScheduler}.
+   * @return
    */
-  private ActorRef createWorkerRoutes(int poolSize, RowTypeKey rowTypeKey, RecordEvaluator recordEvaluator) {
-    log().info("Created routes for " + rowTypeKey);
-    String actorName = "dataFileRouter_" + UUID.randomUUID();
-    return getContext().actorOf(
-            new RoundRobinPool(poolSize).props(Props.create(DataFileRecordsActor.class,
-                    recordEvaluator, rowTypeCollectorProviders.get(rowTypeKey))),
-            actorName);
+  public static Props createWorkerProps() {
+    return Props.create(DataFileRecordsActor.class);
   }
 
   /**
@@ -324,6 +386,13 @@ public class DataFileProcessorMaster extends AbstractLoggingActor {
   private void checkCompleteness(int numberOfWorkersCompleted) {
     // in theory, this method is only called by actors so thread safety should be included
     if (numberOfWorkersCompleted == numOfWorkers.get() && initCompleted.get()) {
+      try {
+        collectRecordIdentifierResults();
+      } catch (IOException ioEx) {
+        log().error(ioEx, "Error while checking the uniqueness of the record identifiers");
+        emitErrorAndStop(dataJob.getJobData(), ValidationErrorCode.IO_ERROR, ioEx.getMessage());
+        return;
+      }
       ValidationResult validationResult = buildResult();
       emitDataOutput(buildJobDataOutput(validationResult));
       emitResponseAndStop(new JobStatusResponse<>(JobStatus.FINISHED, dataJob.getJobId(),
@@ -332,35 +401,125 @@ public class DataFileProcessorMaster extends AbstractLoggingActor {
   }
 
   /**
-   * Collects individual results and aggregates them in the internal data structures.
+   * Collects individual results and merges them in the internal data structures, the {@link CollectorGroup} of the
+   * result is not retained.
    */
   private void collectResult(DataWorkResult result) {
-    rowTypeCollectors.compute(result.getRowTypeKey(), (key, val) -> {
-        val.add(result.getCollectors());
-      return val;
+    rowTypeCollectors.computeIfPresent(result.getRowTypeKey(), (key, accumulator) -> {
+      accumulator.merge(result.getCollectors());
+      return accumulator;
     });
   }
 
   /**
-   * Builds and merges the ValidationResult from the aggregated data.
+   * Reports the non unique record identifiers collected while the records were evaluated.
+   * Shall only be called once all the records are evaluated.
+   *
+   * @throws IOException if the spilled identifiers can not be read back
    */
-  private ValidationResult buildResult() {
-    List<ValidationResultElement> resultElements = new ArrayList<>();
-    rowTypeCollectors.forEach((rowTypeKey, collectorList) -> resultElements.add(
-                                                            CollectorGroup.mergeAndGetResult(
-                                                            rowTypeDataFile.get(rowTypeKey),
-                                                            rowTypeDataFile.get(rowTypeKey).getSourceFileName(),
-                                                            collectorList)
-    ));
+  private void collectRecordIdentifierResults() throws IOException {
+    for (Map.Entry<RowTypeKey, CollectorGroupProvider> entry : rowTypeCollectorProviders.entrySet()) {
+      RecordIdentifierCollector recordIdentifierCollector = entry.getValue().getRecordIdentifierCollector();
+      if (recordIdentifierCollector != null) {
+        CollectorGroup collectors = entry.getValue().newCollectorGroup();
+        recordIdentifierCollector.finish(collectors::collectResult);
+        rowTypeCollectors.get(entry.getKey()).merge(collectors);
+      }
+    }
+  }
 
-    //merge all ValidationResultElement into those collected by rowType
-    ValidationResultElement.mergeOnFilename(validationResultElements, resultElements);
+  /**
+   * Closes the {@link RecordIdentifierCollector} so their spilled files are deleted even if the job is stopped
+   * before all the records are evaluated.
+   */
+  private void closeRecordIdentifierCollectors() {
+    rowTypeCollectorProviders.values().stream()
+            .map(CollectorGroupProvider::getRecordIdentifierCollector)
+            .filter(Objects::nonNull)
+            .forEach(recordIdentifierCollector -> {
+              try {
+                recordIdentifierCollector.close();
+              } catch (IOException ioEx) {
+                log().warning("Can not delete the spilled record identifiers: {}", ioEx.getMessage());
+              }
+            });
+  }
 
+  /**
+   * Builds and merges the ValidationResult from the aggregated data.
+   */
+  private ValidationResult buildResult() {
+    List<ValidationResultElement> resultElements = buildResultElements();
     return new ValidationResult(IndexableRules.isIndexable(resultElements), dataJob.getJobData().getSourceFileName(),
             dataJob.getJobData().getFileFormat(),
             dataJob.getJobData().getReceivedAsMediaType(), GBIF_INDEXING_PROFILE, resultElements);
   }
 
+  /**
+   * Builds the ValidationResultElement of all rowTypes from the data aggregated so far and merges them with the
+   * other ValidationResultElement.
+   */
+  private List<ValidationResultElement> buildResultElements() {
+    List<ValidationResultElement> resultElements = new ArrayList<>();
+    rowTypeCollectors.forEach((rowTypeKey, accumulator) -> {
+      //null until the first result of the rowType is merged
+      ValidationResultElement resultElement = accumulator.getResult(rowTypeDataFile.get(rowTypeKey),
+              rowTypeDataFile.get(rowTypeKey).getSourceFileName());
+      if (resultElement != null) {
+        resultElements.add(resultElement);
+      }
+    });
+
+    //merge copies of all ValidationResultElement into those collected by rowType since this can be called more than
+    //once (progress reports)
+    ValidationResultElement.mergeOnFilename(validationResultElements.stream()
+            .map(ValidationResultElement::copyOf)
+            .collect(Collectors.toList()), resultElements);
+    return resultElements;
+  }
+
+  /**
+   * Schedules the periodic publication of the partial results and progress of the record evaluation, if enabled.
+   */
+  private void scheduleProgressReport() {
+    recordEvaluationStartTime = System.currentTimeMillis();
+    if (progressReportIntervalInSeconds > 0) {
+      FiniteDuration interval = Duration.create(progressReportIntervalInSeconds, TimeUnit.SECONDS);
+      progressReport = context().system().scheduler().schedule(interval, interval, self(), ReportProgress.INSTANCE,
+              context().dispatcher(), self());
+    }
+  }
+
+  /**
+   * Notify the parent with the results merged so far and the progress of the record evaluation.
+   * Results received after the last report are not included, only the merged results are reported (see
+   * {@link CollectorGroupAccumulator}).
+   */
+  private void reportProgress(ReportProgress ignore) {
+    long numberOfRecords = rowTypeDataFile.values().stream()
+            .mapToLong(df -> Optional.ofNullable(df.getNumOfLinesWithData()).orElse(0)).sum();
+    long numberOfRecordsProcessed = rowTypeCollectors.values().stream()
+            .mapToLong(CollectorGroupAccumulator::getNumberOfRecords).sum();
+    JobProgress progress = JobProgress.of(numberOfRecords, numberOfRecordsProcessed, numOfWorkers.get(),
+            workerCompleted.get(), System.currentTimeMillis() - recordEvaluationStartTime);
+    log().info("Job {}: {}/{} records evaluated, {} work unit(s) completed", dataJob.getJobId(),
+            numberOfRecordsProcessed, numberOfRecords, progress.getNumberOfWorkUnitsCompleted());
+
+    DataFile dataFile = dataJob.getJobData();
+    context().parent().tell(JobStatusResponse.ofRunning(dataJob.getJobId(), dataJob.getStartTimeStamp(),
+            dataFile.getKey(), new ValidationResult(null, dataFile.getSourceFileName(), dataFile.getFileFormat(),
+                    dataFile.getReceivedAsMediaType(), GBIF_INDEXING_PROFILE, buildResultElements()), progress),
+            self());
+  }
+
+  @Override
+  public void postStop() {
+    if (progressReport != null) {
+      progressReport.cancel();
+    }
+    closeRecordIdentifierCollectors();
+  }
+
   /**
    * Build a new {@link JobStatusResponse} based on the provided data.
    * @param indexable
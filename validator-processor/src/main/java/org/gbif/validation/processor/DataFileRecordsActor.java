@@ -7,12 +7,16 @@ import org.gbif.validation.api.TabularDataFile;
 import org.gbif.validation.api.model.EvaluationType;
 import org.gbif.validation.api.model.RecordEvaluationResult;
 import org.gbif.validation.collector.CollectorGroup;
-import org.gbif.validation.collector.CollectorGroupProvider;
+import org.gbif.validation.jobserver.WorkScheduler;
+import org.gbif.validation.jobserver.messages.WorkRequest;
 import org.gbif.validation.source.RecordSourceFactory;
 
+import java.util.Arrays;
 import java.util.List;
 
 import akka.actor.AbstractLoggingActor;
+import akka.actor.ActorRef;
+import akka.actor.Status;
 
 import static akka.dispatch.Futures.future;
 import static akka.japi.pf.ReceiveBuilder.match;
@@ -22,30 +26,62 @@ import static akka.pattern.Patterns.pipe;
  * Akka actor that processes a single {@link DataFile} (representing a fragment or a complete set of records)
  * at the record level.
  *
+ * Workers are pull-based: a worker asks its parent (the {@link WorkScheduler}) for work when it starts and after each
+ * {@link DataWorkUnit} it completed by sending a {@link WorkRequest}.
+ * The {@link DataWorkResult} is sent to the sender of the {@link DataWorkUnit} (the job).
  */
 class DataFileRecordsActor extends AbstractLoggingActor {
 
+  //a worker processes a single DataWorkUnit at the time
+  private ActorRef currentRequester;
+  private DataWorkUnit currentWorkUnit;
+
   /**
-   * Creates a new instance of {@link DataFileRecordsActor} that can receive {@link DataFile} messages.
-   *
-   * @param recordEvaluator    {@link RecordEvaluator} to use on each record of the {@link DataFile}
-   * @param collectorsProvider provider of {@link CollectorGroup} to get an new instance for each {@link DataFile}
-   *                           messages.
+   * Creates a new instance of {@link DataFileRecordsActor} that can receive {@link DataWorkUnit} messages.
    */
-  DataFileRecordsActor(RecordEvaluator recordEvaluator, CollectorGroupProvider collectorsProvider) {
+  DataFileRecordsActor() {
     receive(
-            match(TabularDataFile.class, dataFile -> {
+            match(DataWorkUnit.class, workUnit -> {
+              currentRequester = sender();
+              currentWorkUnit = workUnit;
               pipe(
-                      future(() -> processDataFile(dataFile, recordEvaluator, collectorsProvider.newCollectorGroup()),
-                              getContext().dispatcher()),
+                      future(() -> processDataFile(workUnit.getDataFile(), workUnit.getRecordEvaluator(),
+                              workUnit.getCollectorsProvider().newCollectorGroup()), getContext().dispatcher()),
                       getContext().dispatcher()
-              ).to(sender());
+              ).to(self());
             })
+                    .match(DataWorkResult.class, this::replyAndRequestWork)
+                    //the future failed outside of the evaluation of the records (e.g. the collectors can not be created)
+                    .match(Status.Failure.class, failure -> {
+                      TabularDataFile dataFile = currentWorkUnit.getDataFile();
+                      log().error(failure.cause(), "Error while processing {}", describe(dataFile));
+                      CollectorGroup collectors = CollectorGroup.withoutSharedCollectors(
+                              Arrays.asList(dataFile.getColumns()));
+                      collectUnreadableSection(collectors, dataFile, getInitialLineNumber(dataFile));
+                      replyAndRequestWork(new DataWorkResult(dataFile.getRowTypeKey(), dataFile.getSourceFileName(),
+                              DataWorkResult.Result.FAILED, collectors));
+                    })
                     .matchAny(this::unhandled)
                     .build()
     );
   }
 
+  /**
+   * Sends the result to the requester of the current {@link DataWorkUnit} and asks the {@link WorkScheduler} for more
+   * work.
+   */
+  private void replyAndRequestWork(DataWorkResult result) {
+    currentRequester.tell(result, self());
+    currentRequester = null;
+    currentWorkUnit = null;
+    context().parent().tell(WorkRequest.INSTANCE, self());
+  }
+
+  @Override
+  public void preStart() throws Exception {
+    context().parent().tell(WorkRequest.INSTANCE, self());
+  }
+
   /**
    * Process a {@link DataFile} by opening a {@link RecordSource} and evaluating all records
    * using a {@link RecordEvaluator}. All records and evaluation results are also sent to the {@link CollectorGroup}.
@@ -56,9 +92,14 @@ class DataFileRecordsActor extends AbstractLoggingActor {
    * @return
    */
   private DataWorkResult processDataFile(TabularDataFile dataFile, RecordEvaluator recordEvaluator, CollectorGroup collectors) {
-    //add one if there is a header since the source will not send it
-    long lineNumber = dataFile.getFileLineOffset().orElse(0) + (dataFile.isHasHeaders() ? + 1 : 0);
-    log().info("Starting to read: " + dataFile.getFilePath());
+    long lineNumber = getInitialLineNumber(dataFile);
+    log().info("Starting to read: " + describe(dataFile));
+    try {
+      recordEvaluator.prepare(dataFile);
+    } catch (Exception ex) {
+      //the evaluation can still be done without preparation
+      log().warning("Error while preparing the evaluation of {}: {}", describe(dataFile), ex.getMessage());
+    }
     try (RecordSource recordSource = RecordSourceFactory.fromTabularDataFile(dataFile)) {
       List<String> record;
       while ((record = recordSource.read()) != null) {
@@ -66,18 +107,42 @@ class DataFileRecordsActor extends AbstractLoggingActor {
         //the counter before reporting the line number
         lineNumber++;
         collectors.collectMetrics(record);
+        collectors.collectRecordIdentifier(lineNumber, record);
         collectors.collectResult(recordEvaluator.evaluate(lineNumber, record));
       }
-      log().info("Done reading: " + dataFile.getFilePath() + " finished at line " + lineNumber + " (including offset)");
+      log().info("Done reading: " + describe(dataFile) + " finished at line " + lineNumber + " (including offset)");
       return new DataWorkResult(dataFile.getRowTypeKey(), dataFile.getSourceFileName(), DataWorkResult.Result.SUCCESS, collectors);
 
       //TODO
     } catch (Exception ex) {
-      log().error("Error while evaluating line {} of {}: {} : {}", lineNumber, dataFile.getFilePath(), ex.getClass(), ex.getMessage());
-      collectors.collectResult(RecordEvaluationResult.Builder.of(dataFile.getRowTypeKey().getRowType(), lineNumber)
-              .addBaseDetail(EvaluationType.UNREADABLE_SECTION_ERROR, "", "").build());
+      log().error("Error while evaluating line {} of {}: {} : {}", lineNumber, describe(dataFile), ex.getClass(), ex.getMessage());
+      collectUnreadableSection(collectors, dataFile, lineNumber);
       return new DataWorkResult(dataFile.getRowTypeKey(), dataFile.getSourceFileName(), DataWorkResult.Result.FAILED, collectors);
     }
   }
 
+  /**
+   * Line number preceding the first record of the {@link TabularDataFile}.
+   */
+  private static long getInitialLineNumber(TabularDataFile dataFile) {
+    //add one if there is a header since the source will not send it
+    return dataFile.getFileLineOffset().orElse(0) + (dataFile.isHasHeaders() ? + 1 : 0);
+  }
+
+  private static void collectUnreadableSection(CollectorGroup collectors, TabularDataFile dataFile, long lineNumber) {
+    collectors.collectResult(RecordEvaluationResult.Builder.of(dataFile.getRowTypeKey().getRowType(), lineNumber)
+            .addBaseDetail(EvaluationType.UNREADABLE_SECTION_ERROR, "", "").build());
+  }
+
+  /**
+   * Describe the part of the file read by this actor for logging purpose.
+   */
+  private static String describe(TabularDataFile dataFile) {
+    if (dataFile.isByteRange()) {
+      return dataFile.getFilePath() + " [" + dataFile.getFileByteOffsetStart().get() + ", " +
+              dataFile.getFileByteOffsetEnd().get() + ")";
+    }
+    return dataFile.getFilePath().toString();
+  }
+
 }
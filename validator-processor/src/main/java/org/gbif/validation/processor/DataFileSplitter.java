@@ -2,8 +2,10 @@ package org.gbif.validation.processor;
 
 import org.gbif.validation.api.DataFile;
 import org.gbif.validation.api.TabularDataFile;
+import org.gbif.validation.api.TabularFileIndex;
 import org.gbif.validation.source.DataFileFactory;
 import org.gbif.validation.util.FileBashUtilities;
+import org.gbif.validation.util.RecordBoundaryScanner;
 
 import java.io.File;
 import java.io.IOException;
@@ -12,10 +14,17 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.IntStream;
 
 /**
  * Class responsible to handle the logic related to the file splitting strategy.
+ *
+ * Two strategies are available:
+ * <ul>
+ *   <li>physical split: the file is rewritten into multiple smaller files (see {@link #splitDataFile})</li>
+ *   <li>byte range split: splits are byte ranges of the original file (see {@link #splitDataFileByByteRange})</li>
+ * </ul>
  */
 class DataFileSplitter {
 
@@ -76,4 +85,55 @@ class DataFileSplitter {
     return DataFileFactory.newTabularDataFileSplit(dataFile, Paths.get(splitFile.getAbsolutePath()),
             offset, numberOfLines, numberOfLines - (withHeader ? 1 : 0) , withHeader);
   }
+
+  /**
+   * Split the provided {@link TabularDataFile} into multiple {@link TabularDataFile} representing byte ranges of the
+   * same file. Contrary to {@link #splitDataFile(TabularDataFile, Integer, Path)} no data is written.
+   * If no split is required the returning list will contain the provided {@link TabularDataFile}.
+   *
+   * The file is divided in ranges of (roughly) the same size in bytes and each range boundary is placed at the end of a
+   * record using {@link RecordBoundaryScanner}. Since quoted cells can contain end of line characters, the line offset
+   * and number of lines of each split are expressed in records.
+   * If the {@link TabularFileIndex} of the file is available (and its checkpoints are not farther apart than
+   * fileSplitSize), the ranges are taken from the index without reading the file.
+   *
+   * @param dataFile expected to have at least the followings: rowType, filePath, numOfLines, hasHeaders
+   * @param fileSplitSize expected number of lines per split, used to determine the number of splits
+   *
+   * @return
+   *
+   * @throws IOException
+   */
+  static List<TabularDataFile> splitDataFileByByteRange(TabularDataFile dataFile, Integer fileSplitSize) throws IOException {
+    Objects.requireNonNull(dataFile.getRowTypeKey(), "DataFile getRowTypeKey shall be provided");
+    Objects.requireNonNull(dataFile.getFilePath(), "DataFile filePath shall be provided");
+
+    List<TabularDataFile> splitDataFiles = new ArrayList<>();
+    if (dataFile.getNumOfLines() <= fileSplitSize) {
+      splitDataFiles.add(dataFile);
+      return splitDataFiles;
+    }
+
+    Optional<TabularFileIndex> index = dataFile.getIndex()
+            .filter(idx -> idx.getCheckpointInterval() <= fileSplitSize);
+    List<RecordBoundaryScanner.RecordRange> ranges;
+    if (index.isPresent()) {
+      ranges = RecordBoundaryScanner.computeRecordRanges(index.get(), fileSplitSize);
+    } else {
+      int expectedNumberOfSplits = (dataFile.getNumOfLines() + fileSplitSize - 1) / fileSplitSize;
+      ranges = RecordBoundaryScanner.computeRecordRanges(dataFile.getFilePath(), expectedNumberOfSplits,
+              dataFile.getDelimiterChar(), dataFile.getQuoteChar());
+    }
+
+    boolean inputHasHeaders = dataFile.isHasHeaders();
+    int lineOffset = 0;
+    for (int idx = 0; idx < ranges.size(); idx++) {
+      RecordBoundaryScanner.RecordRange range = ranges.get(idx);
+      boolean withHeader = inputHasHeaders && (idx == 0);
+      splitDataFiles.add(DataFileFactory.newTabularDataFileByteRangeSplit(dataFile, range.getStart(), range.getEnd(),
+              lineOffset, range.getNumberOfRecords(), range.getNumberOfRecords() - (withHeader ? 1 : 0), withHeader));
+      lineOffset += range.getNumberOfRecords();
+    }
+    return splitDataFiles;
+  }
 }
@@ -0,0 +1,41 @@
+package org.gbif.validation.processor;
+
+import org.gbif.validation.api.RecordEvaluator;
+import org.gbif.validation.api.TabularDataFile;
+import org.gbif.validation.collector.CollectorGroupProvider;
+
+import java.util.Objects;
+
+/**
+ * Unit of work sent to a {@link DataFileRecordsActor}: a {@link TabularDataFile} (representing a fragment or a complete
+ * set of records) and what is required to evaluate its records.
+ * Since it carries its own {@link RecordEvaluator}, workers are not bound to a specific row type.
+ * This class is immutable.
+ */
+class DataWorkUnit {
+
+  private final TabularDataFile dataFile;
+  private final RecordEvaluator recordEvaluator;
+  private final CollectorGroupProvider collectorsProvider;
+
+  DataWorkUnit(TabularDataFile dataFile, RecordEvaluator recordEvaluator, CollectorGroupProvider collectorsProvider) {
+    Objects.requireNonNull(dataFile, "dataFile shall be provided");
+    Objects.requireNonNull(recordEvaluator, "recordEvaluator shall be provided");
+    Objects.requireNonNull(collectorsProvider, "collectorsProvider shall be provided");
+    this.dataFile = dataFile;
+    this.recordEvaluator = recordEvaluator;
+    this.collectorsProvider = collectorsProvider;
+  }
+
+  TabularDataFile getDataFile() {
+    return dataFile;
+  }
+
+  RecordEvaluator getRecordEvaluator() {
+    return recordEvaluator;
+  }
+
+  CollectorGroupProvider getCollectorsProvider() {
+    return collectorsProvider;
+  }
+}
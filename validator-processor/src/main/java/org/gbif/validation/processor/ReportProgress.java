@@ -0,0 +1,9 @@
+package org.gbif.validation.processor;
+
+/**
+ * Simple message sent periodically to a job to publish its partial results and progress.
+ */
+class ReportProgress {
+  static ReportProgress INSTANCE = new ReportProgress();
+  private ReportProgress(){}
+}
@@ -10,20 +10,25 @@ import org.gbif.validation.api.DataFile;
 import org.gbif.validation.api.DwcDataFile;
 import org.gbif.validation.api.RowTypeKey;
 import org.gbif.validation.api.TabularDataFile;
+import org.gbif.validation.api.TabularFileIndex;
 import org.gbif.validation.api.TermIndex;
 import org.gbif.validation.api.vocabulary.DwcFileType;
 import org.gbif.validation.api.vocabulary.FileFormat;
 import org.gbif.validation.util.FileNormalizer;
+import org.gbif.validation.util.ZippedArchive;
 import org.gbif.ws.util.ExtraMediaTypes;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +36,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
 import org.apache.commons.lang3.StringUtils;
@@ -47,6 +53,10 @@ public class DataFileFactory {
 
   private static final String CSV_EXT = ".csv";
 
+  //part of the files of a zipped archive extracted to evaluate its structure, see extractArchiveStructure
+  private static final int STRUCTURE_MAX_NUMBER_OF_LINES = 10;
+  private static final long STRUCTURE_MAX_NUMBER_OF_BYTES = 1024 * 1024;
+
   /**
    * Private constructor.
    */
@@ -82,7 +92,24 @@ public class DataFileFactory {
    */
   public static DataFile newDataFile(UUID key, Path filePath, String sourceFileName, FileFormat fileFormat,
                                      String receivedAsMediaType, String mediaType) {
-    return new DataFile(key, filePath, sourceFileName, fileFormat, receivedAsMediaType, mediaType);
+    return newDataFile(key, filePath, sourceFileName, fileFormat, receivedAsMediaType, mediaType, null);
+  }
+
+  /**
+   * Creates a new {@link DataFile} with a specific key for a file indexed while it was received.
+   * @param key
+   * @param filePath
+   * @param sourceFileName
+   * @param fileFormat
+   * @param receivedAsMediaType
+   * @param mediaType
+   * @param index {@link TabularFileIndex} of the file, only if the file is already normalized
+   * @return
+   */
+  public static DataFile newDataFile(UUID key, Path filePath, String sourceFileName, FileFormat fileFormat,
+                                     String receivedAsMediaType, String mediaType,
+                                     @Nullable TabularFileIndex index) {
+    return new DataFile(key, filePath, sourceFileName, fileFormat, receivedAsMediaType, mediaType, index);
   }
 
   /**
@@ -106,11 +133,41 @@ public class DataFileFactory {
             tabDatafile.getQuoteChar(), numberOfLines, numberOfLinesWithData);
   }
 
+  /**
+   * Used to create a new {@link TabularDataFile} representing a byte range of a larger {@link TabularDataFile}
+   * after a virtual split. The resulting {@link TabularDataFile} points to the same file as tabDatafile.
+   * @param tabDatafile normalized {@link TabularDataFile}
+   * @param byteOffsetStart offset of the first byte of the range (inclusive)
+   * @param byteOffsetEnd offset of the last byte of the range (exclusive)
+   * @param lineOffset
+   * @param numberOfLines
+   * @param numberOfLinesWithData
+   * @param withHeader
+   * @return
+   */
+  public static TabularDataFile newTabularDataFileByteRangeSplit(TabularDataFile tabDatafile,
+                                                                 long byteOffsetStart, long byteOffsetEnd,
+                                                                 Integer lineOffset, Integer numberOfLines,
+                                                                 Integer numberOfLinesWithData, boolean withHeader) {
+    return new TabularDataFile(tabDatafile.getFilePath(),
+            tabDatafile.getSourceFileName(),
+            tabDatafile.getRowTypeKey(), tabDatafile.getColumns(),
+            tabDatafile.getRecordIdentifier().orElse(null), tabDatafile.getDefaultValues().orElse(null),
+            lineOffset, byteOffsetStart, byteOffsetEnd, withHeader, tabDatafile.getCharacterEncoding(),
+            tabDatafile.getDelimiterChar(), tabDatafile.getQuoteChar(), numberOfLines, numberOfLinesWithData, null);
+  }
+
   /**
    * Prepare the {@link DataFile} for evaluation.
    * This step includes reading the headers from the file and generating a list of {@link TabularDataFile}.
    * The resulting {@link DwcDataFile} is not guarantee to be valid.
    *
+   * A {@link FileFormat#DWCA} {@link DataFile} can point to the ZIP file itself (see {@link #isZippedArchive(DataFile)}),
+   * in which case the files are normalized directly from the ZIP file and the {@link DataFile} of the resulting
+   * {@link DwcDataFile} points to destinationFolder.
+   * A {@link FileFormat#TABULAR} {@link DataFile} indexed while it was received (see {@link DataFile#getIndex()}) is
+   * used as is when the index matches the format of the file.
+   *
    * @param dataFile
    * @param destinationFolder Preparing {@link DataFile} includes rewriting them in a normalized format. This {@link Path}
    *                          represents the destination of normalized files.
@@ -125,9 +182,99 @@ public class DataFileFactory {
     Objects.requireNonNull(destinationFolder, "destinationFolder shall be provided");
     Preconditions.checkState(Files.isDirectory(destinationFolder), "destinationFolder should point to a folder");
 
+    if (isZippedArchive(dataFile)) {
+      return prepareZippedArchive(dataFile, destinationFolder);
+    }
+
     DataFilePreview dataFilePreview = DataFilePreview.extractFrom(dataFile);
     List<TabularDataFile> dataFileList = normalizeAndPrepare(dataFile, destinationFolder, dataFilePreview);
+    return toDwcDataFile(dataFile, dataFileList, dataFilePreview.getMetadataFilePath().orElse(null));
+  }
+
+  /**
+   * Is the {@link DataFile} a DarwinCore Archive kept as a ZIP file instead of being extracted.
+   *
+   * @param dataFile
+   *
+   * @return
+   */
+  public static boolean isZippedArchive(DataFile dataFile) {
+    return FileFormat.DWCA == dataFile.getFileFormat() && ZippedArchive.isZipFile(dataFile.getFilePath());
+  }
+
+  /**
+   * Extracts from a zipped DarwinCore Archive (see {@link #isZippedArchive(DataFile)}) what is read to evaluate its
+   * structure: the meta descriptor and the first lines of the other files. Nothing is normalized so the structure can
+   * be evaluated before {@link #prepareDataFile(DataFile, Path)}.
+   *
+   * @param dataFile
+   * @param destinationFolder folder where the files are extracted, created if required
+   *
+   * @return {@link DataFile} pointing to destinationFolder
+   *
+   * @throws IOException
+   */
+  public static DataFile extractArchiveStructure(DataFile dataFile, Path destinationFolder) throws IOException {
+    Preconditions.checkArgument(isZippedArchive(dataFile), "dataFile shall be a zipped archive");
+    Files.createDirectories(destinationFolder);
+
+    try (ZippedArchive archive = ZippedArchive.open(dataFile.getFilePath())) {
+      for (Path filePath : archive.getFilePaths()) {
+        Path destinationFile = destinationFolder.resolve(filePath.toString());
+        Files.createDirectories(destinationFile.getParent());
+        if (Archive.META_FN.equals(filePath.toString())) {
+          try (InputStream in = archive.getInputStream(filePath)) {
+            Files.copy(in, destinationFile, StandardCopyOption.REPLACE_EXISTING);
+          }
+        } else {
+          archive.extractBeginning(filePath, destinationFile, STRUCTURE_MAX_NUMBER_OF_LINES,
+                  STRUCTURE_MAX_NUMBER_OF_BYTES);
+        }
+      }
+    }
+    return newDataFile(dataFile.getKey(), destinationFolder, dataFile.getSourceFileName(), dataFile.getFileFormat(),
+            dataFile.getReceivedAsMediaType(), dataFile.getMediaType());
+  }
 
+  /**
+   * Normalizes the files of a DarwinCore Archive directly from the ZIP file: the destinationFolder becomes the only
+   * extracted copy of the archive.
+   * The charset and format of the files are read from the meta descriptor (if any) before the other files.
+   */
+  private static DwcDataFile prepareZippedArchive(DataFile dataFile, Path destinationFolder)
+          throws IOException, UnsupportedDataFileException {
+    DataFilePreview dataFilePreview;
+    try (ZippedArchive archive = ZippedArchive.open(dataFile.getFilePath())) {
+      Path metaDescriptor = Paths.get(Archive.META_FN);
+      if (archive.getFilePaths().contains(metaDescriptor)) {
+        try (InputStream in = archive.getInputStream(metaDescriptor)) {
+          Files.copy(in, destinationFolder.resolve(Archive.META_FN), StandardCopyOption.REPLACE_EXISTING);
+        }
+        dataFilePreview = DataFilePreview.extractFromMetaDescriptor(destinationFolder);
+      } else {
+        dataFilePreview = DataFilePreview.empty();
+      }
+    }
+
+    Map<Path, TabularFileIndex> normalizedFiles = FileNormalizer.normalizeAndIndexArchive(dataFile.getFilePath(),
+            destinationFolder, dataFilePreview.getCharsetsByPath(), dataFilePreview.getDelimitersByPath(),
+            dataFilePreview.getQuotesByPath());
+    Map<Path, Integer> pathAndRecords = normalizedFiles.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getNumberOfRecords()));
+
+    DataFile extractedDataFile = newDataFile(dataFile.getKey(), destinationFolder, dataFile.getSourceFileName(),
+            dataFile.getFileFormat(), dataFile.getReceivedAsMediaType(), dataFile.getMediaType());
+    List<TabularDataFile> dataFileList = prepareDwcBased(destinationFolder, extractedDataFile, pathAndRecords,
+            normalizedFiles);
+    return toDwcDataFile(extractedDataFile, dataFileList,
+            DataFilePreview.extractFrom(extractedDataFile).getMetadataFilePath().orElse(null));
+  }
+
+  /**
+   * Groups the prepared {@link TabularDataFile} by {@link DwcFileType}.
+   */
+  private static DwcDataFile toDwcDataFile(DataFile dataFile, List<TabularDataFile> dataFileList,
+                                           @Nullable Path metadataFilePath) throws UnsupportedDataFileException {
     Map<DwcFileType, List<TabularDataFile>> dfPerDwcFileType = dataFileList.stream()
             .collect(Collectors.groupingBy( df -> df.getRowTypeKey().getDwcFileType()));
     List<TabularDataFile> coreTabularDataFile =
@@ -141,8 +288,7 @@ public class DataFileFactory {
 
     Optional<TabularDataFile> coreDf = coreTabularDataFile.stream().findFirst();
     return new DwcDataFile(dataFile, coreDf.orElse(null),
-            dfPerDwcFileType.get(DwcFileType.EXTENSION),
-            dataFilePreview.getMetadataFilePath().orElse(null));
+            dfPerDwcFileType.get(DwcFileType.EXTENSION), metadataFilePath);
   }
 
   /**
@@ -159,14 +305,51 @@ public class DataFileFactory {
       SpreadsheetConversionResult conversionResult = handleSpreadsheetConversion(dataFile, destinationFolder);
       Map<Path, Integer> pathAndLines = new HashMap<>();
       pathAndLines.put(conversionResult.getResultPath().getFileName(), conversionResult.getNumOfLines());
-      return prepareDwcBased(conversionResult.getResultPath(), dataFile, pathAndLines);
+      return prepareDwcBased(conversionResult.getResultPath(), dataFile, pathAndLines, new HashMap<>());
+    } else if (isIndexedWhileReceived(dataFile, dataFilePreview)) {
+      //the file is already normalized, it is used as is
+      Path fileName = dataFile.getFilePath().getFileName();
+      TabularFileIndex index = dataFile.getIndex().get();
+      LOG.info("Using {} as normalized, indexed while received: {}", fileName, index);
+      return prepareDwcBased(dataFile.getFilePath(), dataFile,
+              Collections.singletonMap(fileName, index.getNumberOfRecords()), Collections.singletonMap(fileName, index));
     } else {
-      Map<Path, Integer> normalizedFiles = FileNormalizer.normalizeTarget(dataFile.getFilePath(),
-              destinationFolder, dataFilePreview.getCharsetsByPath());
-      return prepareDwcBased(destinationFolder, dataFile, normalizedFiles);
+      Map<Path, TabularFileIndex> normalizedFiles = FileNormalizer.normalizeAndIndexTarget(dataFile.getFilePath(),
+              destinationFolder, dataFilePreview.getCharsetsByPath(), dataFilePreview.getDelimitersByPath(),
+              dataFilePreview.getQuotesByPath());
+      //use the number of records since a record can span multiple lines
+      Map<Path, Integer> pathAndRecords = normalizedFiles.entrySet().stream()
+              .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getNumberOfRecords()));
+      return prepareDwcBased(destinationFolder, dataFile, pathAndRecords, normalizedFiles);
     }
   }
 
+  /**
+   * VISIBLE-FOR-TESTING
+   */
+  static boolean isIndexedWhileReceived(DataFile dataFile) throws IOException {
+    return isIndexedWhileReceived(dataFile, DataFilePreview.extractFrom(dataFile));
+  }
+
+  /**
+   * Can the {@link TabularFileIndex} computed while a single tabular file was received be used: the file is still the
+   * same and it was indexed in UTF-8 using the delimiter and quote characters of the file.
+   */
+  private static boolean isIndexedWhileReceived(DataFile dataFile, DataFilePreview dataFilePreview)
+          throws IOException {
+    if (FileFormat.TABULAR != dataFile.getFileFormat() || !dataFile.getIndex().isPresent() ||
+            !Files.isRegularFile(dataFile.getFilePath())) {
+      return false;
+    }
+    Path fileName = dataFile.getFilePath().getFileName();
+    TabularFileIndex index = dataFile.getIndex().get();
+    return FileNormalizer.OUTPUT_FILE_CHARSET.equals(
+            dataFilePreview.getCharsetsByPath().getOrDefault(fileName, FileNormalizer.DEFAULT_CHARSET)) &&
+            Objects.equals(index.getDelimiterChar(), dataFilePreview.getDelimitersByPath().get(fileName)) &&
+            Objects.equals(index.getQuoteChar(), dataFilePreview.getQuotesByPath().get(fileName)) &&
+            index.getFileSize() == Files.size(dataFile.getFilePath());
+  }
+
   /**
    * Given a {@link DataFile} pointing to folder containing the extracted DarwinCore archive or a single file,
    * this method creates a list of {@link TabularDataFile} for each of the data component (core + extensions).
@@ -174,11 +357,13 @@ public class DataFileFactory {
    * @param pathToOpen       folder of an extracted DarwinCore Archive or a single tabular file
    * @param originalDataFile
    * @param pathAndLines     mapping between all {@link Path} and their number of lines
+   * @param pathAndIndex     mapping between {@link Path} and their {@link TabularFileIndex}, if available
    *
    * @return
    */
   private static List<TabularDataFile> prepareDwcBased(Path pathToOpen, DataFile originalDataFile,
-                                                       Map<Path, Integer> pathAndLines)
+                                                       Map<Path, Integer> pathAndLines,
+                                                       Map<Path, TabularFileIndex> pathAndIndex)
           throws IOException, UnsupportedDataFileException {
 
     List<TabularDataFile> dataFileList = new ArrayList<>();
@@ -188,14 +373,16 @@ public class DataFileFactory {
       //add the core first, if there is no core the exception must be handled by the caller
       ArchiveFile core = archive.getCore();
       if (core != null) {
+        Path coreLocation = Paths.get(safeGetCoreLocation(archive));
         dataFileList.add(createDwcBasedTabularDataFile(core,
                 determineSourceFilename(originalDataFile, core),
-                DwcFileType.CORE, pathAndLines.get(Paths.get(safeGetCoreLocation(archive)))));
+                DwcFileType.CORE, pathAndLines.get(coreLocation), pathAndIndex.get(coreLocation)));
       }
       for (ArchiveFile ext : archive.getExtensions()) {
+        Path extLocation = Paths.get(ext.getLocation());
         dataFileList.add(createDwcBasedTabularDataFile(ext,
                 ext.getLocationFile().getName(), DwcFileType.EXTENSION,
-                pathAndLines.get(Paths.get(ext.getLocation()))));
+                pathAndLines.get(extLocation), pathAndIndex.get(extLocation)));
       }
     } catch (UnknownDelimitersException | UnsupportedArchiveException ex) {
       //re-throw the exception as UnsupportedDataFileException
@@ -211,13 +398,15 @@ public class DataFileFactory {
    * @param sourceFileName
    * @param type
    * @param numberOfLines
+   * @param index optional {@link TabularFileIndex} computed while the file was normalized
    * @return
    * @throws IOException
    */
   private static TabularDataFile createDwcBasedTabularDataFile(ArchiveFile archiveFile,
                                                                String sourceFileName,
                                                                DwcFileType type,
-                                                               Integer numberOfLines) throws IOException {
+                                                               Integer numberOfLines,
+                                                               @Nullable TabularFileIndex index) throws IOException {
     //make sure the file really exists
     if(!archiveFile.getLocationFile().exists()) {
       throw new FileNotFoundException(archiveFile.getLocation());
@@ -241,10 +430,11 @@ public class DataFileFactory {
             sourceFileName, RowTypeKey.get(archiveFile.getRowType(), type),
             headers.toArray(new Term[0]), recordIdentifier, defaultValues,
             null, //no line offset
+            null, null, //entire file
             ignoreHeaderLines > 0,
             Charset.forName(archiveFile.getEncoding()),
             archiveFile.getFieldsTerminatedBy().charAt(0),
-            archiveFile.getFieldsEnclosedBy(), numberOfLines, numberOfLines - ignoreHeaderLines);
+            archiveFile.getFieldsEnclosedBy(), numberOfLines, numberOfLines - ignoreHeaderLines, index);
   }
 
   /**
@@ -331,11 +521,16 @@ public class DataFileFactory {
   private static class DataFilePreview {
 
     private final Map<Path, Charset> charsetsByPath;
+    private final Map<Path, Character> delimitersByPath;
+    private final Map<Path, Character> quotesByPath;
     private final Path metadataFilePath;
 
-    private DataFilePreview(Path metadataFilePath, Map<Path, Charset> charsetsByPath) {
+    private DataFilePreview(Path metadataFilePath, Map<Path, Charset> charsetsByPath,
+                            Map<Path, Character> delimitersByPath, Map<Path, Character> quotesByPath) {
       this.metadataFilePath = metadataFilePath;
       this.charsetsByPath = charsetsByPath;
+      this.delimitersByPath = delimitersByPath;
+      this.quotesByPath = quotesByPath;
     }
 
     /**
@@ -347,29 +542,72 @@ public class DataFileFactory {
      * @throws UnsupportedArchiveException
      */
     static DataFilePreview extractFrom(DataFile dataFile) throws IOException, UnsupportedCharsetException, UnsupportedArchiveException {
+      if (!dataFile.getFileFormat().isTabularBased()) {
+        return empty();
+      }
+      return extractFrom(dataFile.getFilePath(), false);
+    }
+
+    /**
+     * Extracts the {@link DataFilePreview} from a folder only containing the meta descriptor of an archive.
+     * @param folder
+     * @return
+     * @throws IOException
+     * @throws UnsupportedCharsetException
+     * @throws UnsupportedArchiveException
+     */
+    static DataFilePreview extractFromMetaDescriptor(Path folder) throws IOException, UnsupportedCharsetException,
+            UnsupportedArchiveException {
+      return extractFrom(folder, true);
+    }
+
+    static DataFilePreview empty() {
+      return new DataFilePreview(null, new HashMap<>(), new HashMap<>(), new HashMap<>());
+    }
+
+    private static DataFilePreview extractFrom(Path location, boolean skipValidation) throws IOException,
+            UnsupportedCharsetException, UnsupportedArchiveException {
       Map<Path, Charset> charsetsByPath = new HashMap<>();
+      Map<Path, Character> delimitersByPath = new HashMap<>();
+      Map<Path, Character> quotesByPath = new HashMap<>();
       Path metadataFilePath = null;
 
-      if(dataFile.getFileFormat().isTabularBased()) {
-        try {
-          Archive archive = DwcFiles.fromLocation(dataFile.getFilePath());
-          if (archive.getMetadataLocationFile() != null) {
-            metadataFilePath = archive.getMetadataLocationFile().toPath();
-          }
+      try {
+        Archive archive = skipValidation ? DwcFiles.fromLocationSkipValidation(location) :
+                DwcFiles.fromLocation(location);
+        if (archive.getMetadataLocationFile() != null) {
+          metadataFilePath = archive.getMetadataLocationFile().toPath();
+        }
 
-          ArchiveFile core = archive.getCore();
-          if (core != null) {
-            extractCharset(core.getEncoding()).ifPresent(cs -> charsetsByPath.put(Paths.get(safeGetCoreLocation(archive)), cs));
-          }
-          for (ArchiveFile ext : archive.getExtensions()) {
-            extractCharset(ext.getEncoding()).ifPresent(cs -> charsetsByPath.put(Paths.get(safeGetCoreLocation(archive)), cs));
-          }
-        } catch (UnknownDelimitersException ignore) {
-          //ignore, it is not the purpose of this function
+        ArchiveFile core = archive.getCore();
+        if (core != null) {
+          Path coreLocation = Paths.get(safeGetCoreLocation(archive));
+          extractCharset(core.getEncoding()).ifPresent(cs -> charsetsByPath.put(coreLocation, cs));
+          extractFormat(core, coreLocation, delimitersByPath, quotesByPath);
+        }
+        for (ArchiveFile ext : archive.getExtensions()) {
+          Path extLocation = Paths.get(ext.getLocation());
+          extractCharset(ext.getEncoding()).ifPresent(cs -> charsetsByPath.put(extLocation, cs));
+          extractFormat(ext, extLocation, delimitersByPath, quotesByPath);
         }
+      } catch (UnknownDelimitersException ignore) {
+        //ignore, it is not the purpose of this function
       }
 
-      return new DataFilePreview(metadataFilePath, charsetsByPath);
+      return new DataFilePreview(metadataFilePath, charsetsByPath, delimitersByPath, quotesByPath);
+    }
+
+    /**
+     * Extracts the delimiter and quote characters of an {@link ArchiveFile}, if defined.
+     */
+    private static void extractFormat(ArchiveFile archiveFile, Path location, Map<Path, Character> delimitersByPath,
+                                      Map<Path, Character> quotesByPath) {
+      if (StringUtils.isNotEmpty(archiveFile.getFieldsTerminatedBy())) {
+        delimitersByPath.put(location, archiveFile.getFieldsTerminatedBy().charAt(0));
+      }
+      if (archiveFile.getFieldsEnclosedBy() != null) {
+        quotesByPath.put(location, archiveFile.getFieldsEnclosedBy());
+      }
     }
 
     /**
@@ -386,6 +624,14 @@ public class DataFileFactory {
       return charsetsByPath;
     }
 
+    public Map<Path, Character> getDelimitersByPath() {
+      return delimitersByPath;
+    }
+
+    public Map<Path, Character> getQuotesByPath() {
+      return quotesByPath;
+    }
+
     public Optional<Path> getMetadataFilePath() {
       return Optional.ofNullable(metadataFilePath);
     }
@@ -0,0 +1,78 @@
+package org.gbif.validation.source;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Reusable view over the values of a record read by {@link TabularRecordReader}.
+ * The characters of all the values are kept in a single growing buffer and a value is only materialized as a
+ * {@link String} the first time it is requested. The buffers are reused for the next record so the view is only valid
+ * until the next read.
+ *
+ * This class is not thread-safe.
+ */
+final class RecordView extends AbstractList<String> implements RandomAccess {
+
+  private static final int INITIAL_CHARS_CAPACITY = 1024;
+  private static final int INITIAL_FIELDS_CAPACITY = 64;
+
+  private char[] chars = new char[INITIAL_CHARS_CAPACITY];
+  private int length;
+
+  //end (exclusive) of each field in chars, a field starts where the previous one ends
+  private int[] fieldEnds = new int[INITIAL_FIELDS_CAPACITY];
+  //values already materialized
+  private String[] values = new String[INITIAL_FIELDS_CAPACITY];
+  private int size;
+
+  @Override
+  public String get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    String value = values[index];
+    if (value == null) {
+      int start = index == 0 ? 0 : fieldEnds[index - 1];
+      int end = fieldEnds[index];
+      value = start == end ? "" : new String(chars, start, end - start);
+      values[index] = value;
+    }
+    return value;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Resets the view to hold a new record.
+   */
+  void reset() {
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+    length = 0;
+  }
+
+  /**
+   * Appends a character to the current field.
+   */
+  void append(char c) {
+    if (length == chars.length) {
+      chars = Arrays.copyOf(chars, chars.length * 2);
+    }
+    chars[length++] = c;
+  }
+
+  /**
+   * Ends the current field, the next characters will be appended to a new field.
+   */
+  void endField() {
+    if (size == fieldEnds.length) {
+      fieldEnds = Arrays.copyOf(fieldEnds, fieldEnds.length * 2);
+      values = Arrays.copyOf(values, values.length * 2);
+    }
+    fieldEnds[size++] = length;
+  }
+}
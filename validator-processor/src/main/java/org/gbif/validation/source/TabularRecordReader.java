@@ -0,0 +1,178 @@
+package org.gbif.validation.source;
+
+import org.gbif.validation.util.FileNormalizer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Objects;
+import javax.annotation.Nullable;
+
+/**
+ * Reader of delimited records (CSV, TSV ...) tokenizing the characters of a {@link Reader} from a reusable buffer into
+ * a reusable {@link RecordView}, so reading a record does not allocate.
+ *
+ * Parsing rules:
+ * <ul>
+ *   <li>records end with {@link FileNormalizer#END_LINE}, except inside a quoted value</li>
+ *   <li>a value is quoted only if it starts with the quote character, a doubled quote character inside a quoted
+ *   value represents a single quote character</li>
+ *   <li>empty lines are skipped</li>
+ *   <li>a quoted value still open at the end of the {@link Reader} (e.g. the end of a byte range) is an error, as it
+ *   is for the reader used by GBIF crawling</li>
+ * </ul>
+ *
+ * This class is not thread-safe.
+ */
+class TabularRecordReader implements Closeable {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int EOF = -1;
+  private static final int NO_QUOTE = -2;
+  private static final char END_LINE = FileNormalizer.END_LINE.charAt(0);
+
+  private final Reader reader;
+  private final char delimiter;
+  private final int quote;
+
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int position;
+  private int limit;
+  //number of the line of the next character
+  private long lineNumber;
+
+  private final RecordView recordView = new RecordView();
+
+  /**
+   *
+   * @param reader    reader to read from, closed by {@link #close()}
+   * @param delimiter
+   * @param quote     quote character or null if values are not quoted
+   * @param skipHeader should the first record be skipped
+   *
+   * @throws IOException
+   */
+  TabularRecordReader(Reader reader, char delimiter, @Nullable Character quote, boolean skipHeader)
+          throws IOException {
+    this(reader, delimiter, quote, skipHeader, 1);
+  }
+
+  /**
+   *
+   * @param reader    reader to read from, closed by {@link #close()}
+   * @param delimiter
+   * @param quote     quote character or null if values are not quoted
+   * @param skipHeader should the first record be skipped
+   * @param firstLineNumber number of the first line of the reader (e.g. in the file of a byte range), used to report
+   *                        errors
+   *
+   * @throws IOException
+   */
+  TabularRecordReader(Reader reader, char delimiter, @Nullable Character quote, boolean skipHeader,
+                      long firstLineNumber) throws IOException {
+    Objects.requireNonNull(reader, "reader shall be provided");
+    this.reader = reader;
+    this.delimiter = delimiter;
+    this.quote = quote == null ? NO_QUOTE : quote;
+    lineNumber = firstLineNumber;
+    if (skipHeader) {
+      read();
+    }
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return the record or null if there is no more records. The returned view is reused by the next call.
+   *
+   * @throws IOException if the reader can not be read or if a quoted value is not closed
+   */
+  @Nullable
+  RecordView read() throws IOException {
+    recordView.reset();
+    boolean lineStarted = false;
+    boolean fieldStart = true;
+    boolean inQuotes = false;
+    long quoteLineNumber = 0;
+
+    int c;
+    while ((c = nextChar()) != EOF) {
+      if (inQuotes) {
+        if (c == quote) {
+          if (peekChar() == quote) {
+            recordView.append((char) nextChar());
+          } else {
+            inQuotes = false;
+          }
+        } else {
+          recordView.append((char) c);
+        }
+      } else if (c == delimiter) {
+        recordView.endField();
+        lineStarted = true;
+        fieldStart = true;
+      } else if (c == END_LINE) {
+        if (lineStarted) {
+          recordView.endField();
+          return recordView;
+        }
+        //empty line
+      } else if (c == quote && fieldStart) {
+        inQuotes = true;
+        quoteLineNumber = lineNumber;
+        lineStarted = true;
+        fieldStart = false;
+      } else {
+        recordView.append((char) c);
+        lineStarted = true;
+        fieldStart = false;
+      }
+    }
+
+    if (inQuotes) {
+      throw new IOException("Quoted value starting at line " + quoteLineNumber + " is not closed");
+    }
+    //last record without end of line
+    if (lineStarted) {
+      recordView.endField();
+      return recordView;
+    }
+    return null;
+  }
+
+  private int nextChar() throws IOException {
+    if (position == limit && !fill()) {
+      return EOF;
+    }
+    char c = buffer[position++];
+    if (c == END_LINE) {
+      lineNumber++;
+    }
+    return c;
+  }
+
+  private int peekChar() throws IOException {
+    if (position == limit && !fill()) {
+      return EOF;
+    }
+    return buffer[position];
+  }
+
+  /**
+   * @return false if the end of the stream was reached
+   */
+  private boolean fill() throws IOException {
+    int read = reader.read(buffer, 0, buffer.length);
+    if (read <= 0) {
+      return false;
+    }
+    position = 0;
+    limit = read;
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
@@ -1,38 +1,76 @@
 package org.gbif.validation.source;
 
 import org.gbif.dwc.terms.Term;
-import org.gbif.utils.file.tabular.TabularDataFileReader;
-import org.gbif.utils.file.tabular.TabularFiles;
 import org.gbif.validation.api.RecordSource;
 import org.gbif.validation.api.TabularDataFile;
 import org.gbif.validation.util.FileNormalizer;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
-import java.text.ParseException;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Objects;
 import javax.annotation.Nullable;
 
+import com.google.common.io.ByteStreams;
+
 /**
  * TabularRecordSource allows to expose the content of a {@link TabularDataFile} as {@link RecordSource}.
  * Warning: this class assumes {@link FileNormalizer#END_LINE} is used as end of line character.
- * Internally it wraps {@link TabularDataFileReader} to ensure compatibility with GBIF crawling.
+ * Internally it uses a {@link TabularRecordReader} so the records returned by {@link #read()} are views reused
+ * between calls and values are only materialized when requested.
+ *
+ * If the {@link TabularDataFile} represents a byte range ({@link TabularDataFile#isByteRange()}), only the bytes
+ * within the range are read.
  */
 class TabularRecordSource implements RecordSource {
 
   private final TabularDataFile tabularDataFile;
-  private final TabularDataFileReader<List<String>> tabularReader;
+  private final TabularRecordReader tabularReader;
 
   TabularRecordSource(TabularDataFile tabularDataFile) throws IOException {
     Objects.requireNonNull(tabularDataFile, "tabularDataFile shall be provided");
     this.tabularDataFile = tabularDataFile;
-    tabularReader = TabularFiles.newTabularFileReader(
-            Files.newBufferedReader(tabularDataFile.getFilePath(), tabularDataFile.getCharacterEncoding()),
-            tabularDataFile.getDelimiterChar(),
-            FileNormalizer.END_LINE,
-            tabularDataFile.getQuoteChar(),
-            tabularDataFile.isHasHeaders());
+    Reader reader = openReader(tabularDataFile);
+    try {
+      tabularReader = new TabularRecordReader(reader, tabularDataFile.getDelimiterChar(),
+              tabularDataFile.getQuoteChar(), tabularDataFile.isHasHeaders(),
+              tabularDataFile.getFileLineOffset().orElse(0) + 1L);
+    } catch (IOException ioEx) {
+      reader.close();
+      throw ioEx;
+    }
+  }
+
+  /**
+   * Open a {@link Reader} on the entire file or, if the {@link TabularDataFile} represents a byte range, on the
+   * bytes of the range only.
+   *
+   * @param tabularDataFile
+   * @return
+   * @throws IOException
+   */
+  private static Reader openReader(TabularDataFile tabularDataFile) throws IOException {
+    if (!tabularDataFile.isByteRange()) {
+      return new InputStreamReader(Files.newInputStream(tabularDataFile.getFilePath()),
+              tabularDataFile.getCharacterEncoding());
+    }
+
+    long start = tabularDataFile.getFileByteOffsetStart().get();
+    long end = tabularDataFile.getFileByteOffsetEnd().get();
+    FileChannel channel = FileChannel.open(tabularDataFile.getFilePath(), StandardOpenOption.READ);
+    try {
+      channel.position(start);
+      return new InputStreamReader(ByteStreams.limit(Channels.newInputStream(channel), end - start),
+              tabularDataFile.getCharacterEncoding());
+    } catch (IOException ioEx) {
+      channel.close();
+      throw ioEx;
+    }
   }
 
   @Nullable
@@ -41,14 +79,13 @@ class TabularRecordSource implements RecordSource {
     return tabularDataFile.getColumns();
   }
 
+  /**
+   * Read the next record. The returned list is reused by the next call.
+   */
   @Nullable
   @Override
   public List<String> read() throws IOException {
-    try {
-      return tabularReader.read();
-    } catch (ParseException e) {
-      throw new IOException("Error reading tabular data", e);
-    }
+    return tabularReader.read();
   }
 
   @Override
@@ -4,19 +4,29 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 /**
  * This class contains functions that encapsulate Linux commands.
+ * Line counting and newline handling are implemented in process (NIO) without spawning a shell.
  */
 public class FileBashUtilities {
 
-  //command that appends a newline at the end of the file if not already there
-  private static final String ENSURE_FILE_ENDS_NEWLINE_CMD = "sed -i '' -e '$a\\' %s";
+  private static final byte LINE_FEED = '\n';
+  private static final long LINE_FEEDS = 0x0A0A0A0A0A0A0A0AL;
+  private static final long LOW_7_BITS = 0x7F7F7F7F7F7F7F7FL;
+  //size of the chunks of a file mapped in memory and counted in parallel
+  private static final long COUNT_LINES_CHUNK_SIZE = 64L * 1024 * 1024;
 
   //command to find content in a specific column of a file
   //private static final String FIND_FILE_CMD = "awk -v column=%d -v value='%s' -F'%s' '$column == value {print FNR}' %s";
@@ -51,20 +61,71 @@ public class FileBashUtilities {
     File inFile = new File(filePath);
     checkArgument(inFile.exists(), "Input file doesn't exist");
 
-    executeSimpleCmd(String.format(ENSURE_FILE_ENDS_NEWLINE_CMD, filePath));
+    try (FileChannel channel = FileChannel.open(inFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      long size = channel.size();
+      //like sed, an empty file is left untouched
+      if (size == 0) {
+        return;
+      }
+      ByteBuffer lastByte = ByteBuffer.allocate(1);
+      channel.read(lastByte, size - 1);
+      if (lastByte.get(0) != LINE_FEED) {
+        channel.write(ByteBuffer.wrap(new byte[]{LINE_FEED}), size);
+      }
+    }
   }
 
   /**
    * Counts the number of lines in a text file.
-   * Note: the last line will not be counted if it doesn't end with a newline. Use {@link #ensureEndsWithNewline(String)}
+   * The file is mapped in memory by chunks that are counted in parallel.
+   * Note: like wc, the last line will not be counted if it doesn't end with a newline.
+   * Use {@link #ensureEndsWithNewline(String)}
    */
   public static int countLines(String filePath) throws IOException {
     File inFile = new File(filePath);
     checkArgument(inFile.exists(), "Input file doesn't exist");
 
-    //wc will not count the last line if it doesn't end with an endline
-    String[] out = executeSimpleCmd(String.format("wc -l %s | awk '{print $1;}'", filePath));
-    return Integer.parseInt(out[0]);
+    try (FileChannel channel = FileChannel.open(inFile.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      int numberOfChunks = (int) ((size + COUNT_LINES_CHUNK_SIZE - 1) / COUNT_LINES_CHUNK_SIZE);
+      long numberOfLines = IntStream.range(0, numberOfChunks)
+              .parallel()
+              .mapToLong(chunk -> {
+                long position = chunk * COUNT_LINES_CHUNK_SIZE;
+                return countLineFeeds(channel, position, Math.min(COUNT_LINES_CHUNK_SIZE, size - position));
+              })
+              .sum();
+      return Math.toIntExact(numberOfLines);
+    } catch (UncheckedIOException ioEx) {
+      throw ioEx.getCause();
+    }
+  }
+
+  /**
+   * Counts the line feeds of a region of a file, 8 bytes at the time.
+   */
+  private static long countLineFeeds(FileChannel channel, long position, long size) {
+    MappedByteBuffer buffer;
+    try {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    } catch (IOException ioEx) {
+      throw new UncheckedIOException(ioEx);
+    }
+    long count = 0;
+    int limit = buffer.limit();
+    int i = 0;
+    for (int wordsLimit = limit - Long.BYTES; i <= wordsLimit; i += Long.BYTES) {
+      //bytes equal to LINE_FEED become 0, then only the high bit of the bytes equal to 0 is set
+      long word = buffer.getLong(i) ^ LINE_FEEDS;
+      long zeroBytes = ~(((word & LOW_7_BITS) + LOW_7_BITS) | word | LOW_7_BITS);
+      count += Long.bitCount(zeroBytes);
+    }
+    for (; i < limit; i++) {
+      if (buffer.get(i) == LINE_FEED) {
+        count++;
+      }
+    }
+    return count;
   }
 
   /**
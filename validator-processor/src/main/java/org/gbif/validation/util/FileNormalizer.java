@@ -1,25 +1,56 @@
 package org.gbif.validation.util;
 
+import org.gbif.validation.api.TabularFileIndex;
+
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Method(s) to normalize files to ensure compatibility with other components.
+ * While a file is normalized, its {@link TabularFileIndex} is computed in the same pass.
+ * Files already in UTF-8 with LF end of line characters are copied without being decoded.
+ * The files of a target are normalized concurrently, they can also be read directly from a ZIP file.
+ * A file can also be checked and indexed while it is received, see {@link IndexingOutputStream}.
  */
 public class FileNormalizer {
 
@@ -28,6 +59,27 @@ public class FileNormalizer {
   public static final String END_LINE = "\n";
   public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
   public static final Charset OUTPUT_FILE_CHARSET = StandardCharsets.UTF_8;
+  private static final byte END_LINE_BYTE = '\n';
+  private static final byte CARRIAGE_RETURN_BYTE = '\r';
+  private static final int COPY_BUFFER_SIZE = 1024 * 1024;
+  private static final int SNIFF_SIZE = 64 * 1024;
+
+  //maximum number of files normalized at the same time, shared by all the instances
+  private static final int NORMALIZATION_PARALLELISM = Runtime.getRuntime().availableProcessors();
+  private static final ExecutorService NORMALIZATION_EXECUTOR = Executors.newFixedThreadPool(NORMALIZATION_PARALLELISM,
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("file-normalizer-%d").build());
+
+  //files copied in parallel ranges, see copyIfNormalized. Ranges only pay off when more than one processor is available
+  private static final long PARALLEL_COPY_MIN_SIZE = NORMALIZATION_PARALLELISM > 1 ? 128L * 1024 * 1024 : Long.MAX_VALUE;
+  private static final long PARALLEL_COPY_RANGE_SIZE = 32L * 1024 * 1024;
+  private static final int PARALLEL_COPY_MIN_RANGES = Runtime.getRuntime().availableProcessors();
+
+  //number of records between 2 checkpoints of the TabularFileIndex
+  private static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+
+  //delimiters guessed by IndexingOutputStream, by order of preference when they appear the same number of times
+  private static final byte[] DELIMITER_CANDIDATES = {'\t', ',', ';', '|'};
+  private static final Character DEFAULT_QUOTE_CHAR = '"';
 
   /**
    * Write a new file after applying transformations on the source file.
@@ -43,32 +95,289 @@ public class FileNormalizer {
    */
   public static int normalizeFile(Path sourceFilePath, Path normalizedFilePath,
                                   Charset sourceFilePathCharset) {
+    return normalizeFile(sourceFilePath, normalizedFilePath, sourceFilePathCharset, null, null)
+            .getNumberOfLines();
+  }
+
+  /**
+   * Same as {@link #normalizeFile(Path, Path, Charset)} but also computes, in the same pass, the
+   * {@link TabularFileIndex} of the normalized file.
+   *
+   * @param sourceFilePath
+   * @param normalizedFilePath
+   * @param sourceFilePathCharset optionally, the charset of the source file, otherwise UTF-8 will be used
+   * @param delimiterChar optionally, the delimiter of the cells
+   * @param quoteChar optionally, the character used to quote cells. If not provided each line is a record.
+   *
+   * @return index of the normalized file, an empty index is returned if the source file can not be normalized
+   */
+  public static TabularFileIndex normalizeFile(Path sourceFilePath, Path normalizedFilePath,
+                                               @Nullable Charset sourceFilePathCharset,
+                                               @Nullable Character delimiterChar, @Nullable Character quoteChar) {
+    return normalizeFile(sourceFilePath, normalizedFilePath, sourceFilePathCharset, delimiterChar, quoteChar,
+            DEFAULT_CHECKPOINT_INTERVAL);
+  }
+
+  static TabularFileIndex normalizeFile(Path sourceFilePath, Path normalizedFilePath,
+                                        @Nullable Charset sourceFilePathCharset,
+                                        @Nullable Character delimiterChar, @Nullable Character quoteChar,
+                                        int checkpointInterval) {
+    return normalizeFile(sourceFilePath, normalizedFilePath, sourceFilePathCharset, delimiterChar, quoteChar,
+            checkpointInterval, PARALLEL_COPY_MIN_SIZE, PARALLEL_COPY_MIN_RANGES);
+  }
+
+  /**
+   * @param parallelCopyMinSize  files of at least this number of bytes are copied in parallel ranges
+   * @param parallelCopyMinRanges minimum number of ranges of a file copied in parallel
+   */
+  static TabularFileIndex normalizeFile(Path sourceFilePath, Path normalizedFilePath,
+                                        @Nullable Charset sourceFilePathCharset,
+                                        @Nullable Character delimiterChar, @Nullable Character quoteChar,
+                                        int checkpointInterval, long parallelCopyMinSize,
+                                        int parallelCopyMinRanges) {
     Preconditions.checkArgument(!Files.isDirectory(sourceFilePath), "sourceFilePath must represent a file");
     Preconditions.checkArgument(!Files.isDirectory(normalizedFilePath), "normalizedFilePath must represent a file");
 
-    final AtomicInteger numberOfLine = new AtomicInteger(0);
-    try (Stream<String> lines = Files.lines(sourceFilePath,
-            Optional.ofNullable(sourceFilePathCharset).orElse(DEFAULT_CHARSET));
+    Charset charset = Optional.ofNullable(sourceFilePathCharset).orElse(DEFAULT_CHARSET);
+    if (OUTPUT_FILE_CHARSET.equals(charset)) {
+      try {
+        Optional<TabularFileIndex> index = copyIfNormalized(sourceFilePath, normalizedFilePath, delimiterChar,
+                quoteChar, checkpointInterval, parallelCopyMinSize, parallelCopyMinRanges);
+        if (index.isPresent()) {
+          return index.get();
+        }
+      } catch (IOException ioEx) {
+        LOG.debug("Can not copy " + sourceFilePath.toString() + ", the file will be transcoded", ioEx);
+      }
+    }
+    return transcodeFile(sourceFilePath, normalizedFilePath, charset, delimiterChar, quoteChar, checkpointInterval);
+  }
+
+  /**
+   * Copy the source file if it is already normalized: valid UTF-8 without carriage return. The bytes are validated,
+   * indexed and written in a single pass without decoding the lines.
+   * An end of line character is appended if the last line doesn't have one.
+   *
+   * Files of at least parallelCopyMinSize bytes are divided in (at least parallelCopyMinRanges) ranges of complete
+   * records (see
+   * {@link RecordBoundaryScanner}) that are copied and indexed in parallel, then the index of each range is appended
+   * to the previous one.
+   *
+   * @return the index of the copied file or empty if the file is not normalized, in which case the content of
+   * normalizedFilePath shall be discarded.
+   */
+  private static Optional<TabularFileIndex> copyIfNormalized(Path sourceFilePath, Path normalizedFilePath,
+                                                             @Nullable Character delimiterChar,
+                                                             @Nullable Character quoteChar, int checkpointInterval,
+                                                             long parallelCopyMinSize, int parallelCopyMinRanges)
+          throws IOException {
+    try (FileChannel in = FileChannel.open(sourceFilePath, StandardOpenOption.READ)) {
+      long size = in.size();
+      List<RecordBoundaryScanner.RecordRange> ranges;
+      if (size < parallelCopyMinSize) {
+        ranges = Collections.singletonList(new RecordBoundaryScanner.RecordRange(0, size, 0));
+      } else if (startsNormalized(in)) {
+        int numberOfRanges = (int) Math.min(Math.max(parallelCopyMinRanges, size / PARALLEL_COPY_RANGE_SIZE),
+                Integer.MAX_VALUE);
+        ranges = RecordBoundaryScanner.computeRecordRanges(sourceFilePath, numberOfRanges, delimiterChar, quoteChar);
+      } else {
+        return Optional.empty();
+      }
+      return copyIfNormalized(in, 0, size, ranges, normalizedFilePath, delimiterChar, quoteChar, checkpointInterval);
+    }
+  }
+
+  /**
+   * Copy size bytes of a channel, starting at sourceOffset, if they are normalized.
+   *
+   * @param ranges ranges of complete records covering the bytes to copy, relative to sourceOffset
+   *
+   * @return the index of the copied file or empty if the bytes are not normalized
+   */
+  private static Optional<TabularFileIndex> copyIfNormalized(FileChannel in, long sourceOffset, long size,
+                                                             List<RecordBoundaryScanner.RecordRange> ranges,
+                                                             Path normalizedFilePath,
+                                                             @Nullable Character delimiterChar,
+                                                             @Nullable Character quoteChar, int checkpointInterval)
+          throws IOException {
+    try (FileChannel out = FileChannel.open(normalizedFilePath, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      //ranges end at the end of a record so the state of the parser is known at the beginning of each range
+      int[] recordOffsets = new int[ranges.size()];
+      for (int idx = 1; idx < ranges.size(); idx++) {
+        recordOffsets[idx] = recordOffsets[idx - 1] + ranges.get(idx - 1).getNumberOfRecords();
+      }
+      List<Optional<IndexBuilder>> rangeIndexBuilders;
+      try {
+        //FileChannel positional reads and writes are safe to use concurrently
+        rangeIndexBuilders = IntStream.range(0, ranges.size())
+                .parallel()
+                .mapToObj(idx -> copyRange(in, sourceOffset, out, ranges.get(idx), new IndexBuilder(delimiterChar,
+                        quoteChar, checkpointInterval, ranges.get(idx).getStart(), recordOffsets[idx])))
+                .collect(Collectors.toList());
+      } catch (UncheckedIOException ioEx) {
+        throw ioEx.getCause();
+      }
+      if (rangeIndexBuilders.stream().anyMatch(builder -> !builder.isPresent())) {
+        return Optional.empty();
+      }
+
+      IndexBuilder indexBuilder = rangeIndexBuilders.get(0).get();
+      rangeIndexBuilders.stream().skip(1).forEach(builder -> indexBuilder.append(builder.get()));
+      if (size > 0 && !endsWithEndLine(in, sourceOffset + size)) {
+        out.write(ByteBuffer.wrap(new byte[]{END_LINE_BYTE}), size);
+        indexBuilder.add(END_LINE_BYTE, 1);
+      }
+      return Optional.of(indexBuilder.build());
+    }
+  }
+
+  /**
+   * Copy a range of bytes, read at sourceOffset + the position of the range, at the position of the range if the
+   * range is normalized.
+   * The range shall not start or end within a UTF-8 sequence.
+   *
+   * @return indexBuilder after indexing the range or empty if the range is not normalized
+   */
+  private static Optional<IndexBuilder> copyRange(FileChannel in, long sourceOffset, FileChannel out,
+                                                  RecordBoundaryScanner.RecordRange range, IndexBuilder indexBuilder) {
+    Utf8Validator validator = new Utf8Validator();
+    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(COPY_BUFFER_SIZE, range.getEnd() - range.getStart() + 1));
+    byte[] bytes = buffer.array();
+    long position = range.getStart();
+    try {
+      while (position < range.getEnd()) {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), range.getEnd() - position));
+        if (in.read(buffer, sourceOffset + position) <= 0) {
+          break;
+        }
+        buffer.flip();
+        int limit = buffer.limit();
+        if (!isNormalized(bytes, 0, limit, validator)) {
+          return Optional.empty();
+        }
+        indexBuilder.add(bytes, 0, limit);
+        long writePosition = position;
+        while (buffer.hasRemaining()) {
+          writePosition += out.write(buffer, writePosition);
+        }
+        position += limit;
+      }
+    } catch (IOException ioEx) {
+      throw new UncheckedIOException(ioEx);
+    }
+    return validator.isComplete() ? Optional.of(indexBuilder) : Optional.empty();
+  }
+
+  /**
+   * Same as {@link #copyIfNormalized(Path, Path, Character, Character, int, long)} for content that can only be read
+   * as a stream.
+   */
+  private static Optional<TabularFileIndex> copyIfNormalized(InputStream in, Path normalizedFilePath,
+                                                             @Nullable Character delimiterChar,
+                                                             @Nullable Character quoteChar, int checkpointInterval)
+          throws IOException {
+    IndexBuilder indexBuilder = new IndexBuilder(delimiterChar, quoteChar, checkpointInterval);
+    Utf8Validator validator = new Utf8Validator();
+    byte[] bytes = new byte[COPY_BUFFER_SIZE];
+    //an empty content is left empty
+    byte lastByte = END_LINE_BYTE;
+    try (OutputStream out = Files.newOutputStream(normalizedFilePath)) {
+      int length;
+      while ((length = in.read(bytes)) != -1) {
+        if (!isNormalized(bytes, 0, length, validator)) {
+          return Optional.empty();
+        }
+        if (length > 0) {
+          indexBuilder.add(bytes, 0, length);
+          out.write(bytes, 0, length);
+          lastByte = bytes[length - 1];
+        }
+      }
+      if (!validator.isComplete()) {
+        return Optional.empty();
+      }
+      if (lastByte != END_LINE_BYTE) {
+        out.write(END_LINE_BYTE);
+        indexBuilder.add(END_LINE_BYTE, 1);
+      }
+    }
+    return Optional.of(indexBuilder.build());
+  }
+
+  /**
+   * Checks the beginning of a file so files that are not normalized are rejected before being scanned.
+   */
+  private static boolean startsNormalized(FileChannel in) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(SNIFF_SIZE);
+    in.read(buffer, 0);
+    return isNormalized(buffer.array(), 0, buffer.position(), new Utf8Validator());
+  }
+
+  /**
+   * @return no carriage return and no invalid UTF-8 sequence is found from the byte from (inclusive) to the byte to
+   * (exclusive). The last sequence can be incomplete.
+   */
+  private static boolean isNormalized(byte[] bytes, int from, int to, Utf8Validator validator) {
+    for (int i = from; i < to; i++) {
+      byte b = bytes[i];
+      //ASCII bytes outside of a multi-bytes sequence are always valid
+      if (b == CARRIAGE_RETURN_BYTE || ((b < 0 || !validator.isComplete()) && !validator.accept(b & 0xFF))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean endsWithEndLine(FileChannel channel, long size) throws IOException {
+    ByteBuffer lastByte = ByteBuffer.allocate(1);
+    channel.read(lastByte, size - 1);
+    return lastByte.get(0) == END_LINE_BYTE;
+  }
+
+  /**
+   * Write the normalized file by decoding the source file line by line.
+   */
+  private static TabularFileIndex transcodeFile(Path sourceFilePath, Path normalizedFilePath, Charset charset,
+                                                @Nullable Character delimiterChar, @Nullable Character quoteChar,
+                                                int checkpointInterval) {
+    return transcode(sourceFilePath.toString(), () -> Files.newBufferedReader(sourceFilePath, charset),
+            normalizedFilePath, delimiterChar, quoteChar, checkpointInterval);
+  }
+
+  /**
+   * Write the normalized file by decoding line by line the content provided by the reader.
+   *
+   * @param sourceName name of the source, for logging
+   * @param readerSupplier provides a reader that reports malformed input
+   */
+  private static TabularFileIndex transcode(String sourceName, ReaderSupplier readerSupplier,
+                                            Path normalizedFilePath, @Nullable Character delimiterChar,
+                                            @Nullable Character quoteChar, int checkpointInterval) {
+    IndexBuilder indexBuilder = new IndexBuilder(delimiterChar, quoteChar, checkpointInterval);
+    try (BufferedReader reader = readerSupplier.open();
+         Stream<String> lines = reader.lines();
          BufferedWriter writer = Files.newBufferedWriter(normalizedFilePath, OUTPUT_FILE_CHARSET)) {
       lines.forEach(line -> {
         try {
           writer.append(line);
           writer.append(END_LINE);
-          numberOfLine.incrementAndGet();
+          indexBuilder.addLine(line);
         } catch (IOException ioEx) {
           LOG.error("Issue while writing to normalized file", ioEx);
         }
       });
     } catch (UncheckedIOException | IOException ioEx) {
-      LOG.warn("Issue while reading " + sourceFilePath.toString(), ioEx);
-      numberOfLine.set(0);
+      LOG.warn("Issue while reading " + sourceName, ioEx);
       try {
         Files.deleteIfExists(normalizedFilePath);
       } catch (IOException e) {
         LOG.warn("Issue while deleting incomplete file " + normalizedFilePath.toString(), e);
       }
+      return new IndexBuilder(delimiterChar, quoteChar, checkpointInterval).build();
     }
-    return numberOfLine.get();
+    return indexBuilder.build();
   }
 
   /**
@@ -77,7 +386,8 @@ public class FileNormalizer {
    * This function "walks" inside the folder recursively.
    * See {@link #normalizeFile(Path, Path, Charset)}
    *
-   * TODO this function doesn't handle quoted cells which means the numberOfLines may not be equals to the number of records.
+   * Note: the number of lines may not be equals to the number of records since quoted cells are not handled, see
+   * {@link #normalizeAndIndexTarget(Path, Path, Map, Map, Map)}.
    *
    * @param sourceTargetPath
    * @param destinationFolderPath
@@ -90,24 +400,522 @@ public class FileNormalizer {
   public static Map<Path, Integer> normalizeTarget(Path sourceTargetPath, Path destinationFolderPath,
                                                    Map<Path, Charset> sourceTargetCharset)
           throws IOException {
+    return normalizeAndIndexTarget(sourceTargetPath, destinationFolderPath, sourceTargetCharset, null, null)
+            .entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getNumberOfLines()));
+  }
+
+  /**
+   * Same as {@link #normalizeTarget(Path, Path, Map)} but returns the {@link TabularFileIndex} of each normalized file.
+   * See {@link #normalizeFile(Path, Path, Charset, Character, Character)}
+   * Files are normalized concurrently on a pool shared by all the calls, the time taken by each file is logged.
+   *
+   * @param sourceTargetPath
+   * @param destinationFolderPath
+   * @param sourceTargetCharset   path should be relative to sourceTargetPath
+   * @param sourceTargetDelimiter path should be relative to sourceTargetPath
+   * @param sourceTargetQuote     path should be relative to sourceTargetPath
+   *
+   * @return Map linking path to their index. Paths are relative to sourceTargetPath.
+   *
+   * @throws IOException
+   */
+  public static Map<Path, TabularFileIndex> normalizeAndIndexTarget(Path sourceTargetPath, Path destinationFolderPath,
+                                                                    @Nullable Map<Path, Charset> sourceTargetCharset,
+                                                                    @Nullable Map<Path, Character> sourceTargetDelimiter,
+                                                                    @Nullable Map<Path, Character> sourceTargetQuote)
+          throws IOException {
     Path sourceFolderPath = Files.isDirectory(sourceTargetPath) ? sourceTargetPath : sourceTargetPath.getParent();
     Preconditions.checkArgument(sourceFolderPath != destinationFolderPath, "sourceFolderPath can NOT be the same as destinationFolderPath");
     Preconditions.checkArgument(Files.isDirectory(destinationFolderPath), "destinationFolderPath must represent a folder");
 
-    Map<Path, Integer> linesPerFile = new HashMap<>();
+    //files are grouped by destination, files with the same destination are normalized sequentially (the last wins)
+    Map<Path, List<Path>> filesPerDestination;
     try (Stream<Path> paths = Files.isDirectory(sourceTargetPath) ? Files.walk(sourceFolderPath) :
             Arrays.asList(sourceTargetPath).stream()) {
-      paths.forEach(filePath -> {
-        if (Files.isRegularFile(filePath)) {
-          Path destinationFile = destinationFolderPath.resolve(filePath.getFileName());
-          Path relativePath = sourceFolderPath.relativize(filePath);
-          int numberOfLines = FileNormalizer.normalizeFile(filePath, destinationFile,
-                  Optional.ofNullable(sourceTargetCharset).map(charsetMap -> charsetMap.get(relativePath)).orElse(null));
-          linesPerFile.put(relativePath, numberOfLines);
+      filesPerDestination = paths
+              .filter(Files::isRegularFile)
+              .collect(Collectors.groupingBy(filePath -> destinationFolderPath.resolve(filePath.getFileName()),
+                      LinkedHashMap::new, Collectors.toList()));
+    }
+
+    return normalizeConcurrently(filesPerDestination, sourceFolderPath::relativize,
+            (filePath, relativePath, destinationFilePath) -> FileNormalizer.normalizeFile(filePath,
+                    destinationFilePath, getForPath(sourceTargetCharset, relativePath),
+                    getForPath(sourceTargetDelimiter, relativePath), getForPath(sourceTargetQuote, relativePath)));
+  }
+
+  /**
+   * Same as {@link #normalizeAndIndexTarget(Path, Path, Map, Map, Map)} but the files are read from a ZIP file instead
+   * of being extracted first. Files stored without compression are read by byte range from the ZIP file.
+   * See {@link ZippedArchive} for the paths of the files within the ZIP file.
+   *
+   * @param zipFilePath
+   * @param destinationFolderPath
+   * @param sourceTargetCharset   path should be relative to the root of the archive
+   * @param sourceTargetDelimiter path should be relative to the root of the archive
+   * @param sourceTargetQuote     path should be relative to the root of the archive
+   *
+   * @return Map linking path to their index. Paths are relative to the root of the archive.
+   *
+   * @throws IOException
+   */
+  public static Map<Path, TabularFileIndex> normalizeAndIndexArchive(Path zipFilePath, Path destinationFolderPath,
+                                                                     @Nullable Map<Path, Charset> sourceTargetCharset,
+                                                                     @Nullable Map<Path, Character> sourceTargetDelimiter,
+                                                                     @Nullable Map<Path, Character> sourceTargetQuote)
+          throws IOException {
+    Preconditions.checkArgument(Files.isDirectory(destinationFolderPath), "destinationFolderPath must represent a folder");
+
+    try (ZippedArchive archive = ZippedArchive.open(zipFilePath)) {
+      Map<Path, List<Path>> filesPerDestination = archive.getFilePaths().stream()
+              .collect(Collectors.groupingBy(filePath -> destinationFolderPath.resolve(filePath.getFileName()),
+                      LinkedHashMap::new, Collectors.toList()));
+      return normalizeConcurrently(filesPerDestination, filePath -> filePath,
+              (filePath, relativePath, destinationFilePath) -> normalizeArchiveFile(archive, filePath,
+                      destinationFilePath, getForPath(sourceTargetCharset, relativePath),
+                      getForPath(sourceTargetDelimiter, relativePath), getForPath(sourceTargetQuote, relativePath),
+                      DEFAULT_CHECKPOINT_INTERVAL));
+    }
+  }
+
+  /**
+   * Same as {@link #normalizeFile(Path, Path, Charset, Character, Character)} for a file of a {@link ZippedArchive}.
+   */
+  static TabularFileIndex normalizeArchiveFile(ZippedArchive archive, Path filePath, Path normalizedFilePath,
+                                               @Nullable Charset sourceFilePathCharset,
+                                               @Nullable Character delimiterChar, @Nullable Character quoteChar,
+                                               int checkpointInterval) {
+    Charset charset = Optional.ofNullable(sourceFilePathCharset).orElse(DEFAULT_CHARSET);
+    if (OUTPUT_FILE_CHARSET.equals(charset)) {
+      try {
+        OptionalLong dataOffset = archive.getStoredDataOffset(filePath);
+        Optional<TabularFileIndex> index;
+        if (dataOffset.isPresent()) {
+          long size = archive.getSize(filePath);
+          try (FileChannel in = FileChannel.open(archive.getZipFilePath(), StandardOpenOption.READ)) {
+            index = copyIfNormalized(in, dataOffset.getAsLong(), size,
+                    Collections.singletonList(new RecordBoundaryScanner.RecordRange(0, size, 0)), normalizedFilePath,
+                    delimiterChar, quoteChar, checkpointInterval);
+          }
+        } else {
+          try (InputStream in = archive.getInputStream(filePath)) {
+            index = copyIfNormalized(in, normalizedFilePath, delimiterChar, quoteChar, checkpointInterval);
+          }
         }
-      });
+        if (index.isPresent()) {
+          return index.get();
+        }
+      } catch (IOException ioEx) {
+        LOG.debug("Can not copy " + filePath.toString() + ", the file will be transcoded", ioEx);
+      }
+    }
+    //the stream is opened again, ZipFile gives random access to its entries
+    return transcode(filePath.toString(),
+            () -> new BufferedReader(new InputStreamReader(archive.getInputStream(filePath), charset.newDecoder())),
+            normalizedFilePath, delimiterChar, quoteChar, checkpointInterval);
+  }
+
+  /**
+   * Creates an {@link IndexingOutputStream} writing to out.
+   *
+   * @param out where the content is written, closed with the returned stream
+   *
+   * @return
+   */
+  public static IndexingOutputStream newIndexingOutputStream(OutputStream out) {
+    return new IndexingOutputStream(out, DEFAULT_CHECKPOINT_INTERVAL);
+  }
+
+  /**
+   * Normalizes files concurrently on NORMALIZATION_EXECUTOR. Files with the same destination are normalized
+   * sequentially (the last wins).
+   *
+   * @param filesPerDestination files to normalize grouped by destination
+   * @param relativePathFunction gives the path, used as key of the result, of a file to normalize
+   * @param normalizer normalizes a file
+   *
+   * @return Map linking the relative path of the files to their index
+   */
+  private static Map<Path, TabularFileIndex> normalizeConcurrently(Map<Path, List<Path>> filesPerDestination,
+                                                                   Function<Path, Path> relativePathFunction,
+                                                                   FileNormalizerFunction normalizer) {
+    Map<Path, TabularFileIndex> indexPerFile = new ConcurrentHashMap<>();
+    CompletableFuture<?>[] normalizations = filesPerDestination.entrySet().stream()
+            .map(destination -> CompletableFuture.runAsync(() -> destination.getValue().forEach(filePath -> {
+              Path relativePath = relativePathFunction.apply(filePath);
+              Stopwatch stopwatch = Stopwatch.createStarted();
+              TabularFileIndex index = normalizer.normalize(filePath, relativePath, destination.getKey());
+              LOG.info("Normalized {} in {} ms: {}", relativePath, stopwatch.elapsed(TimeUnit.MILLISECONDS), index);
+              indexPerFile.put(relativePath, index);
+            }), NORMALIZATION_EXECUTOR))
+            .toArray(CompletableFuture[]::new);
+
+    try {
+      CompletableFuture.allOf(normalizations).join();
+    } catch (CompletionException ex) {
+      Throwables.propagateIfPossible(ex.getCause());
+      throw ex;
+    }
+    return new HashMap<>(indexPerFile);
+  }
+
+  @FunctionalInterface
+  private interface FileNormalizerFunction {
+    TabularFileIndex normalize(Path filePath, Path relativePath, Path destinationFilePath);
+  }
+
+  @FunctionalInterface
+  private interface ReaderSupplier {
+    BufferedReader open() throws IOException;
+  }
+
+  private static <T> T getForPath(@Nullable Map<Path, T> valuePerPath, Path path) {
+    return Optional.ofNullable(valuePerPath).map(map -> map.get(path)).orElse(null);
+  }
+
+  /**
+   * {@link OutputStream} checking if the content of a tabular file is normalized while it is written (e.g. while the
+   * file is received) and computing, in the same pass, the {@link TabularFileIndex} of the content.
+   * The content is always written as is.
+   *
+   * The delimiter is guessed from the first line and the cells are expected to be quoted with a double quote. The
+   * index shall not be used if the file turns out to have another format, see {@link TabularFileIndex#getDelimiterChar()}.
+   * When closed, an end of line character is appended if the content is normalized and its last line doesn't have one.
+   */
+  public static class IndexingOutputStream extends FilterOutputStream {
+
+    private final int checkpointInterval;
+    private final Utf8Validator validator = new Utf8Validator();
+
+    //beginning of the content, kept until the delimiter can be guessed
+    private ByteArrayOutputStream firstLine = new ByteArrayOutputStream();
+    private IndexBuilder indexBuilder;
+    private boolean normalized = true;
+    //an empty content is left empty
+    private byte lastByte = END_LINE_BYTE;
+    private TabularFileIndex index;
+    private boolean closed;
+
+    private IndexingOutputStream(OutputStream out, int checkpointInterval) {
+      super(out);
+      this.checkpointInterval = checkpointInterval;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+      out.write(bytes, off, len);
+      if (len > 0) {
+        lastByte = bytes[off + len - 1];
+        index(bytes, off, off + len);
+      }
+    }
+
+    private void index(byte[] bytes, int from, int to) {
+      if (!normalized) {
+        return;
+      }
+      if (!isNormalized(bytes, from, to, validator)) {
+        //nothing more to index, the file will be normalized later
+        normalized = false;
+        firstLine = null;
+        indexBuilder = null;
+        return;
+      }
+
+      if (indexBuilder != null) {
+        indexBuilder.add(bytes, from, to);
+        return;
+      }
+      firstLine.write(bytes, from, to - from);
+      if (firstLine.size() >= SNIFF_SIZE || indexOf(bytes, from, to, END_LINE_BYTE) >= 0) {
+        startIndex();
+      }
+    }
+
+    /**
+     * Guess the delimiter from the beginning of the content and index it.
+     */
+    private void startIndex() {
+      byte[] beginning = firstLine.toByteArray();
+      firstLine = null;
+      indexBuilder = new IndexBuilder(guessDelimiter(beginning), DEFAULT_QUOTE_CHAR, checkpointInterval);
+      indexBuilder.add(beginning, 0, beginning.length);
+    }
+
+    /**
+     * @return the candidate found the most in the first line or null if none of them is found
+     */
+    private static Character guessDelimiter(byte[] beginning) {
+      int endOfFirstLine = indexOf(beginning, 0, beginning.length, END_LINE_BYTE);
+      int to = endOfFirstLine < 0 ? beginning.length : endOfFirstLine;
+      Character delimiter = null;
+      int maxCount = 0;
+      for (byte candidate : DELIMITER_CANDIDATES) {
+        int count = 0;
+        for (int i = 0; i < to; i++) {
+          if (beginning[i] == candidate) {
+            count++;
+          }
+        }
+        if (count > maxCount) {
+          delimiter = (char) candidate;
+          maxCount = count;
+        }
+      }
+      return delimiter;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte b) {
+      for (int i = from; i < to; i++) {
+        if (bytes[i] == b) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        if (normalized && validator.isComplete()) {
+          if (lastByte != END_LINE_BYTE) {
+            write(END_LINE_BYTE);
+          }
+          if (indexBuilder == null) {
+            startIndex();
+          }
+          index = indexBuilder.build();
+        }
+      } finally {
+        super.close();
+      }
+    }
+
+    /**
+     * Get the {@link TabularFileIndex} of the content, available once the stream is closed.
+     *
+     * @return the index or empty if the content is not normalized
+     */
+    public Optional<TabularFileIndex> getIndex() {
+      Preconditions.checkState(closed, "the index is only available once the stream is closed");
+      return Optional.ofNullable(index);
+    }
+  }
+
+  /**
+   * Builds a {@link TabularFileIndex} from the content written in the normalized file.
+   * Records are tracked using the same state machine as {@link RecordBoundaryScanner} so checkpoints are always placed
+   * at the beginning of a record.
+   */
+  private static class IndexBuilder {
+    private static final int NON_ASCII = 0x80;
+
+    private final byte[] transitions;
+    private final Character delimiterChar;
+    private final Character quoteChar;
+    private final int checkpointInterval;
+
+    //the first checkpoint is always at the beginning of the file
+    private long[] checkpointOffsets = new long[16];
+    private int numberOfCheckpoints;
+
+    private int state = RecordBoundaryScanner.FIELD_START;
+    private long position;
+    private int numberOfLines;
+    private int numberOfRecords;
+
+    IndexBuilder(@Nullable Character delimiterChar, @Nullable Character quoteChar, int checkpointInterval) {
+      this(delimiterChar, quoteChar, checkpointInterval, 0, 0);
+    }
+
+    /**
+     * Builder for the part of a file starting at the beginning of a record.
+     *
+     * @param position byte offset of the first byte of the part
+     * @param numberOfRecords number of records before the part
+     */
+    IndexBuilder(@Nullable Character delimiterChar, @Nullable Character quoteChar, int checkpointInterval,
+                 long position, int numberOfRecords) {
+      this.transitions = RecordBoundaryScanner.buildTransitionTable(delimiterChar, quoteChar);
+      this.delimiterChar = delimiterChar;
+      this.quoteChar = quoteChar;
+      this.checkpointInterval = checkpointInterval;
+      this.position = position;
+      this.numberOfRecords = numberOfRecords;
+      //the checkpoint at the beginning of a part, if any, is added by the builder of the previous part
+      this.numberOfCheckpoints = position == 0 ? 1 : 0;
+    }
+
+    /**
+     * Add a line written with its end of line character.
+     */
+    void addLine(String line) {
+      for (int i = 0; i < line.length(); i++) {
+        char c = line.charAt(i);
+        add(Math.min(c, NON_ASCII), utf8Length(c));
+      }
+      add(END_LINE_BYTE, 1);
+    }
+
+    /**
+     * Add a character written in the normalized file.
+     *
+     * @param c character, or a byte of a character, where all values from {@link #NON_ASCII} are equivalent
+     * @param numberOfBytes number of bytes written
+     */
+    void add(int c, int numberOfBytes) {
+      int transition = transitions[(state << 8) | c];
+      state = transition & RecordBoundaryScanner.STATE_MASK;
+      position += numberOfBytes;
+      if (c == END_LINE_BYTE) {
+        numberOfLines++;
+      }
+      if ((transition & RecordBoundaryScanner.RECORD_END_FLAG) != 0) {
+        endRecord();
+      }
+    }
+
+    /**
+     * Add bytes written in the normalized file.
+     * Equivalent to calling {@link #add(int, int)} for each byte, with the state kept in local variables.
+     */
+    void add(byte[] bytes, int from, int to) {
+      long startPosition = position;
+      int currentState = state;
+      int lines = 0;
+      for (int i = from; i < to; i++) {
+        int b = bytes[i] & 0xFF;
+        int transition = transitions[(currentState << 8) | b];
+        currentState = transition & RecordBoundaryScanner.STATE_MASK;
+        if (b == END_LINE_BYTE) {
+          lines++;
+        }
+        if ((transition & RecordBoundaryScanner.RECORD_END_FLAG) != 0) {
+          position = startPosition + i - from + 1;
+          endRecord();
+        }
+      }
+      position = startPosition + to - from;
+      state = currentState;
+      numberOfLines += lines;
+    }
+
+    private void endRecord() {
+      numberOfRecords++;
+      if (numberOfRecords % checkpointInterval == 0) {
+        addCheckpoint(position);
+      }
+    }
+
+    /**
+     * Append the index of the following part of the file, starting where this part ends.
+     */
+    void append(IndexBuilder next) {
+      Preconditions.checkArgument(next.position >= position, "the next part shall start where this part ends");
+      for (int i = 0; i < next.numberOfCheckpoints; i++) {
+        addCheckpoint(next.checkpointOffsets[i]);
+      }
+      state = next.state;
+      position = next.position;
+      numberOfLines += next.numberOfLines;
+      numberOfRecords = next.numberOfRecords;
+    }
+
+    private void addCheckpoint(long offset) {
+      if (numberOfCheckpoints == checkpointOffsets.length) {
+        checkpointOffsets = Arrays.copyOf(checkpointOffsets, numberOfCheckpoints * 2);
+      }
+      checkpointOffsets[numberOfCheckpoints++] = offset;
+    }
+
+    /**
+     * Number of bytes used to encode the char in UTF-8, surrogates are counted as half of a 4 bytes code point.
+     */
+    private static int utf8Length(char c) {
+      if (c < 0x80) {
+        return 1;
+      }
+      if (c < 0x800 || Character.isSurrogate(c)) {
+        return 2;
+      }
+      return 3;
+    }
+
+    TabularFileIndex build() {
+      //the last checkpoint may point to the end of the file
+      int checkpoints = (numberOfRecords + checkpointInterval - 1) / checkpointInterval;
+      return new TabularFileIndex(position, numberOfLines, numberOfRecords, checkpointInterval,
+              Arrays.copyOf(checkpointOffsets, checkpoints), delimiterChar, quoteChar);
+    }
+  }
+
+  /**
+   * Validates UTF-8 byte by byte, rejecting the same sequences as the JDK decoder (overlong forms, surrogates and
+   * code points above U+10FFFF).
+   */
+  private static class Utf8Validator {
+    private int expectedContinuations;
+    private int nextMin = 0x80;
+    private int nextMax = 0xBF;
+
+    /**
+     * @param b unsigned value of the next byte
+     * @return the byte is valid in its position
+     */
+    boolean accept(int b) {
+      if (expectedContinuations > 0) {
+        if (b < nextMin || b > nextMax) {
+          return false;
+        }
+        expectedContinuations--;
+        nextMin = 0x80;
+        nextMax = 0xBF;
+        return true;
+      }
+      if (b < 0x80) {
+        return true;
+      }
+      if (b < 0xC2) {
+        return false;
+      }
+      if (b < 0xE0) {
+        expectedContinuations = 1;
+      } else if (b < 0xF0) {
+        expectedContinuations = 2;
+        if (b == 0xE0) {
+          nextMin = 0xA0;
+        } else if (b == 0xED) {
+          nextMax = 0x9F;
+        }
+      } else if (b < 0xF5) {
+        expectedContinuations = 3;
+        if (b == 0xF0) {
+          nextMin = 0x90;
+        } else if (b == 0xF4) {
+          nextMax = 0x8F;
+        }
+      } else {
+        return false;
+      }
+      return true;
+    }
+
+    /**
+     * @return the last sequence is complete
+     */
+    boolean isComplete() {
+      return expectedContinuations == 0;
     }
-    return linesPerFile;
   }
 
 }
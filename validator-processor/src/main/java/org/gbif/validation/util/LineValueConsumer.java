@@ -0,0 +1,12 @@
+package org.gbif.validation.util;
+
+import java.io.IOException;
+
+/**
+ * Consumer of values with the number of the line where they were found.
+ */
+@FunctionalInterface
+public interface LineValueConsumer {
+
+  void accept(String value, long lineNumber) throws IOException;
+}
@@ -0,0 +1,232 @@
+package org.gbif.validation.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Partitions values, with the number of the line where they were found, by hash so all the occurrences of a value end
+ * up in the same partition. The partitions are then read back one at a time ({@link #forEachPartition}), e.g. to find
+ * the duplicated values with only one partition in memory.
+ *
+ * Values are kept in memory or, if they are not expected to fit, spilled to one file per partition.
+ * Each partition has its own lock so values can be added concurrently. {@link #close()} releases the values and
+ * deletes the spilled files.
+ *
+ * This class is thread-safe.
+ */
+public class LineValuePartitions implements Closeable {
+
+  private static final String PARTITION_FILE_PREFIX = "partition_";
+
+  private final Partition[] partitions;
+  private final boolean spill;
+  private final Path workingFolder;
+  private volatile boolean closed;
+
+  /**
+   * Receives the values of each partition.
+   */
+  public interface PartitionConsumer extends LineValueConsumer {
+
+    /**
+     * Called once all the values of a partition were accepted.
+     */
+    void endOfPartition() throws IOException;
+  }
+
+  /**
+   * Values of a partition, either in memory or spilled to a file.
+   */
+  private static class Partition {
+    private String[] values = new String[0];
+    private long[] lineNumbers = new long[0];
+    private int size;
+
+    private Path file;
+    private DataOutputStream out;
+
+    void add(String value, long lineNumber) {
+      if (size == values.length) {
+        int capacity = Math.max(16, size * 2);
+        values = Arrays.copyOf(values, capacity);
+        lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+      }
+      values[size] = value;
+      lineNumbers[size++] = lineNumber;
+    }
+
+    void write(String value, long lineNumber) throws IOException {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeLong(lineNumber);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+
+    void read(LineValueConsumer consumer) throws IOException {
+      for (int i = 0; i < size; i++) {
+        consumer.accept(values[i], lineNumbers[i]);
+      }
+      if (out == null) {
+        return;
+      }
+      out.close();
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+        while (true) {
+          long lineNumber;
+          try {
+            lineNumber = in.readLong();
+          } catch (EOFException eofEx) {
+            return;
+          }
+          byte[] bytes = new byte[in.readInt()];
+          in.readFully(bytes);
+          consumer.accept(new String(bytes, StandardCharsets.UTF_8), lineNumber);
+        }
+      }
+    }
+
+    /**
+     * Releases the values and deletes the spilled file, if any.
+     */
+    void release() throws IOException {
+      values = new String[0];
+      lineNumbers = new long[0];
+      size = 0;
+      if (out != null) {
+        try {
+          out.close();
+        } finally {
+          out = null;
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+  }
+
+  /**
+   *
+   * @param numberOfPartitions
+   * @param spill         should the values be spilled to files instead of being kept in memory
+   * @param workingFolder folder where the partitions are spilled, required if spill is true
+   */
+  public LineValuePartitions(int numberOfPartitions, boolean spill, @Nullable Path workingFolder) {
+    Preconditions.checkArgument(numberOfPartitions > 0, "numberOfPartitions shall be greater than 0");
+    Preconditions.checkArgument(!spill || workingFolder != null, "workingFolder is required to spill values");
+    this.spill = spill;
+    this.workingFolder = workingFolder;
+    partitions = new Partition[numberOfPartitions];
+    for (int i = 0; i < numberOfPartitions; i++) {
+      partitions[i] = new Partition();
+    }
+  }
+
+  /**
+   * Get the number of partitions required to keep at most maxValuesInMemory values per partition.
+   *
+   * @param expectedNumberOfValues
+   * @param maxValuesInMemory
+   * @return
+   */
+  public static int numberOfPartitions(long expectedNumberOfValues, int maxValuesInMemory) {
+    Preconditions.checkArgument(maxValuesInMemory > 0, "maxValuesInMemory shall be greater than 0");
+    return (int) Math.max(1, Math.min((expectedNumberOfValues + maxValuesInMemory - 1) / maxValuesInMemory,
+            Integer.MAX_VALUE));
+  }
+
+  /**
+   * Adds a value to its partition. Values added after {@link #close()} are ignored.
+   *
+   * @param value
+   * @param lineNumber
+   *
+   * @throws IOException if the value can not be spilled
+   */
+  public void add(String value, long lineNumber) throws IOException {
+    Objects.requireNonNull(value, "value shall be provided");
+    Partition partition = partitions[toPartition(value.hashCode())];
+    synchronized (partition) {
+      if (closed) {
+        return;
+      }
+      if (spill) {
+        if (partition.out == null) {
+          partition.file = Files.createTempFile(workingFolder, PARTITION_FILE_PREFIX, "");
+          partition.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partition.file)));
+        }
+        partition.write(value, lineNumber);
+      } else {
+        partition.add(value, lineNumber);
+      }
+    }
+  }
+
+  /**
+   * Reads back the partitions one at a time, each partition is released once read.
+   * Shall be called once all the values are added, the partitions are closed after.
+   *
+   * @param consumer
+   *
+   * @throws IOException
+   */
+  public void forEachPartition(PartitionConsumer consumer) throws IOException {
+    try {
+      for (Partition partition : partitions) {
+        synchronized (partition) {
+          try {
+            partition.read(consumer);
+          } finally {
+            partition.release();
+          }
+          consumer.endOfPartition();
+        }
+      }
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Releases the values added so far and deletes the spilled files.
+   *
+   * @throws IOException
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    IOException exception = null;
+    for (Partition partition : partitions) {
+      synchronized (partition) {
+        try {
+          partition.release();
+        } catch (IOException ioEx) {
+          exception = ioEx;
+        }
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  /**
+   * Selects a partition using the highest bits of the spread hash code.
+   */
+  private int toPartition(int hashCode) {
+    int h = hashCode * 0x9E3779B9;
+    h ^= h >>> 16;
+    return (int) (((h & 0xFFFFFFFFL) * partitions.length) >>> 32);
+  }
+}
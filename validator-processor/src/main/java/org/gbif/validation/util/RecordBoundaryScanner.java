@@ -0,0 +1,325 @@
+package org.gbif.validation.util;
+
+import org.gbif.validation.api.TabularFileIndex;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
+
+/**
+ * Scans a tabular file (expected to be normalized, see {@link FileNormalizer}) to find where records end.
+ * Contrary to a simple search for end of line characters, the scanner takes quoted cells into account so a quoted cell
+ * containing an end of line character is not considered as the end of a record.
+ *
+ * The file is divided in chunks that are scanned in parallel. Since the state of the parser (e.g. inside a quoted cell)
+ * at the beginning of a chunk is only known once the previous chunks are scanned, each chunk is scanned speculatively
+ * for all possible states. In practice, the different states converge quickly (usually at the first end of record) so
+ * only a single state is tracked for most of the chunk.
+ * Then, a sequential pass over the results of all chunks (not the data) resolves the real state of each chunk.
+ *
+ * Limitation: delimiter and quote characters outside of the ASCII range are ignored.
+ */
+public class RecordBoundaryScanner {
+
+  private static final byte END_LINE_BYTE = '\n';
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+  // parser states, also used by FileNormalizer
+  static final int FIELD_START = 0;
+  private static final int UNQUOTED = 1;
+  static final int QUOTED = 2;
+  private static final int QUOTED_QUOTE = 3;
+  private static final int NUMBER_OF_STATES = 4;
+
+  // flag set on a transition that ends a record
+  static final int RECORD_END_FLAG = 4;
+  static final int STATE_MASK = 3;
+
+  /**
+   * Private constructor.
+   */
+  private RecordBoundaryScanner() {
+    //empty constructor
+  }
+
+  /**
+   * Represents a range of bytes within a file that contains complete records.
+   * This class is immutable.
+   */
+  public static class RecordRange {
+    private final long start;
+    private final long end;
+    private final int numberOfRecords;
+
+    RecordRange(long start, long end, int numberOfRecords) {
+      this.start = start;
+      this.end = end;
+      this.numberOfRecords = numberOfRecords;
+    }
+
+    /**
+     * @return offset of the first byte of the range (inclusive)
+     */
+    public long getStart() {
+      return start;
+    }
+
+    /**
+     * @return offset of the last byte of the range (exclusive)
+     */
+    public long getEnd() {
+      return end;
+    }
+
+    /**
+     * @return number of records in the range, including the header line if any.
+     */
+    public int getNumberOfRecords() {
+      return numberOfRecords;
+    }
+
+    @Override
+    public String toString() {
+      return "[" + start + ", " + end + ") " + numberOfRecords + " record(s)";
+    }
+  }
+
+  /**
+   * Divides a file in (at most) numberOfRanges ranges of roughly the same size in bytes where each range only contains
+   * complete records.
+   *
+   * @param filePath
+   * @param numberOfRanges wanted number of ranges. Less ranges can be returned (e.g. multi-lines records, small file).
+   * @param delimiterChar delimiter of the cells, optional
+   * @param quoteChar character used to quote cells, optional
+   *
+   * @return ranges, in order, covering the entire file. Never empty, a single range is returned for an empty file.
+   *
+   * @throws IOException
+   */
+  public static List<RecordRange> computeRecordRanges(Path filePath, int numberOfRanges,
+                                                      @Nullable Character delimiterChar,
+                                                      @Nullable Character quoteChar) throws IOException {
+    Objects.requireNonNull(filePath, "filePath shall be provided");
+    if (numberOfRanges < 1) {
+      throw new IllegalArgumentException("numberOfRanges shall be greater than 0");
+    }
+
+    byte[] transitions = buildTransitionTable(delimiterChar, quoteChar);
+    try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+      long fileSize = channel.size();
+      if (fileSize == 0) {
+        return Collections.singletonList(new RecordRange(0, 0, 0));
+      }
+
+      int numberOfChunks = (int) Math.min(numberOfRanges, fileSize);
+      ChunkScanResult[] chunkResults;
+      try {
+        //FileChannel positional reads are safe to use concurrently
+        chunkResults = IntStream.range(0, numberOfChunks)
+                .parallel()
+                .mapToObj(idx -> scanChunk(channel, transitions, fileSize * idx / numberOfChunks,
+                        fileSize * (idx + 1) / numberOfChunks))
+                .toArray(ChunkScanResult[]::new);
+      } catch (UncheckedIOException ioEx) {
+        throw ioEx.getCause();
+      }
+      return resolveRanges(chunkResults, fileSize, endsWithEndLine(channel, fileSize));
+    }
+  }
+
+  /**
+   * Divides a file in ranges of (at most) numberOfRecordsPerRange records using the checkpoints of its
+   * {@link TabularFileIndex}, without reading the file.
+   * Range boundaries are placed on checkpoints so numberOfRecordsPerRange is rounded down to a multiple of
+   * {@link TabularFileIndex#getCheckpointInterval()} (at least 1 checkpoint).
+   *
+   * @param index index of the file, see {@link FileNormalizer}
+   * @param numberOfRecordsPerRange wanted number of records per range
+   *
+   * @return ranges, in order, covering the entire file. Never empty, a single range is returned for an empty file.
+   */
+  public static List<RecordRange> computeRecordRanges(TabularFileIndex index, int numberOfRecordsPerRange) {
+    Objects.requireNonNull(index, "index shall be provided");
+    if (numberOfRecordsPerRange < 1) {
+      throw new IllegalArgumentException("numberOfRecordsPerRange shall be greater than 0");
+    }
+
+    int checkpointsPerRange = Math.max(1, numberOfRecordsPerRange / index.getCheckpointInterval());
+    List<RecordRange> ranges = new ArrayList<>(index.getNumberOfCheckpoints() / checkpointsPerRange + 1);
+    long rangeStart = 0;
+    int rangeFirstRecord = 0;
+    for (int checkpoint = checkpointsPerRange; checkpoint < index.getNumberOfCheckpoints();
+         checkpoint += checkpointsPerRange) {
+      int firstRecord = checkpoint * index.getCheckpointInterval();
+      ranges.add(new RecordRange(rangeStart, index.getCheckpointOffset(checkpoint), firstRecord - rangeFirstRecord));
+      rangeStart = index.getCheckpointOffset(checkpoint);
+      rangeFirstRecord = firstRecord;
+    }
+    ranges.add(new RecordRange(rangeStart, index.getFileSize(), index.getNumberOfRecords() - rangeFirstRecord));
+    return ranges;
+  }
+
+  /**
+   * Sequentially resolve the state at the beginning of each chunk and build the final ranges.
+   * Each chunk (except the first one) can start a new range at its first end of record.
+   */
+  private static List<RecordRange> resolveRanges(ChunkScanResult[] chunkResults, long fileSize,
+                                                 boolean endsWithEndLine) {
+    List<RecordRange> ranges = new ArrayList<>(chunkResults.length);
+    int state = FIELD_START;
+    long rangeStart = 0;
+    int recordsBeforeRangeStart = 0;
+    int records = 0;
+    for (int idx = 0; idx < chunkResults.length; idx++) {
+      ChunkScanResult chunkResult = chunkResults[idx];
+      long firstRecordEnd = chunkResult.firstRecordEnd[state];
+      if (idx > 0 && firstRecordEnd > 0 && firstRecordEnd < fileSize) {
+        // the first record of the chunk belongs to the previous range
+        ranges.add(new RecordRange(rangeStart, firstRecordEnd, records + 1 - recordsBeforeRangeStart));
+        rangeStart = firstRecordEnd;
+        recordsBeforeRangeStart = records + 1;
+      }
+      records += chunkResult.recordEnds[state];
+      state = chunkResult.endState[state];
+    }
+    // a last record without end of line character
+    if (!endsWithEndLine) {
+      records++;
+    }
+    ranges.add(new RecordRange(rangeStart, fileSize, records - recordsBeforeRangeStart));
+    return ranges;
+  }
+
+  /**
+   * Scan the bytes between start (inclusive) and end (exclusive) for all possible initial states.
+   */
+  private static ChunkScanResult scanChunk(FileChannel channel, byte[] transitions, long start, long end) {
+    ChunkScanResult result = new ChunkScanResult();
+    int[] states = new int[NUMBER_OF_STATES];
+    for (int s = 0; s < NUMBER_OF_STATES; s++) {
+      states[s] = s;
+    }
+    boolean converged = false;
+    int sharedState = -1;
+    int sharedRecordEnds = 0;
+    long sharedFirstRecordEnd = -1;
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    long position = start;
+    try {
+      while (position < end) {
+        buffer.clear();
+        buffer.limit((int) Math.min(READ_BUFFER_SIZE, end - position));
+        int read = channel.read(buffer, position);
+        if (read <= 0) {
+          break;
+        }
+        for (int i = 0; i < read; i++) {
+          int b = buffer.get(i) & 0xFF;
+          if (converged) {
+            int transition = transitions[(sharedState << 8) | b];
+            sharedState = transition & STATE_MASK;
+            if ((transition & RECORD_END_FLAG) != 0) {
+              sharedRecordEnds++;
+              if (sharedFirstRecordEnd < 0) {
+                sharedFirstRecordEnd = position + i + 1;
+              }
+            }
+          } else {
+            for (int s = 0; s < NUMBER_OF_STATES; s++) {
+              int transition = transitions[(states[s] << 8) | b];
+              states[s] = transition & STATE_MASK;
+              if ((transition & RECORD_END_FLAG) != 0) {
+                result.recordEnds[s]++;
+                if (result.firstRecordEnd[s] < 0) {
+                  result.firstRecordEnd[s] = position + i + 1;
+                }
+              }
+            }
+            if (states[0] == states[1] && states[0] == states[2] && states[0] == states[3]) {
+              converged = true;
+              sharedState = states[0];
+            }
+          }
+        }
+        position += read;
+      }
+    } catch (IOException ioEx) {
+      throw new UncheckedIOException(ioEx);
+    }
+
+    for (int s = 0; s < NUMBER_OF_STATES; s++) {
+      if (converged) {
+        result.recordEnds[s] += sharedRecordEnds;
+        if (result.firstRecordEnd[s] < 0) {
+          result.firstRecordEnd[s] = sharedFirstRecordEnd;
+        }
+        result.endState[s] = sharedState;
+      } else {
+        result.endState[s] = states[s];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Build the transition table of the parser. The table is indexed by (state << 8 | byte) and each value contains the
+   * next state and, optionally, the {@link #RECORD_END_FLAG}.
+   */
+  static byte[] buildTransitionTable(@Nullable Character delimiterChar, @Nullable Character quoteChar) {
+    int delimiter = toAsciiByte(delimiterChar);
+    int quote = toAsciiByte(quoteChar);
+    byte[] transitions = new byte[NUMBER_OF_STATES << 8];
+    for (int b = 0; b < 256; b++) {
+      boolean isEndLine = b == END_LINE_BYTE;
+      boolean isDelimiter = b == delimiter;
+      boolean isQuote = b == quote;
+
+      int afterUnquoted = isEndLine ? FIELD_START | RECORD_END_FLAG : isDelimiter ? FIELD_START : UNQUOTED;
+      transitions[(FIELD_START << 8) | b] = (byte) (isQuote ? QUOTED : afterUnquoted);
+      transitions[(UNQUOTED << 8) | b] = (byte) afterUnquoted;
+      transitions[(QUOTED << 8) | b] = (byte) (isQuote ? QUOTED_QUOTE : QUOTED);
+      // a quote following a quote inside a quoted cell is an escaped quote, anything else closes the quoted cell
+      transitions[(QUOTED_QUOTE << 8) | b] = (byte) (isQuote ? QUOTED : afterUnquoted);
+    }
+    return transitions;
+  }
+
+  /**
+   * @return the byte value of the character or -1 if null or outside of the ASCII range
+   */
+  private static int toAsciiByte(@Nullable Character c) {
+    return c != null && c < 0x80 ? c : -1;
+  }
+
+  private static boolean endsWithEndLine(FileChannel channel, long fileSize) throws IOException {
+    ByteBuffer lastByte = ByteBuffer.allocate(1);
+    channel.read(lastByte, fileSize - 1);
+    return lastByte.get(0) == END_LINE_BYTE;
+  }
+
+  /**
+   * Result of the scan of a chunk for all possible initial states (arrays are indexed by initial state).
+   */
+  private static class ChunkScanResult {
+    private final long[] firstRecordEnd = new long[NUMBER_OF_STATES];
+    private final int[] recordEnds = new int[NUMBER_OF_STATES];
+    private final int[] endState = new int[NUMBER_OF_STATES];
+
+    ChunkScanResult() {
+      Arrays.fill(firstRecordEnd, -1);
+    }
+  }
+
+}
@@ -0,0 +1,309 @@
+package org.gbif.validation.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Gives access to the files of a ZIP archive without extracting them.
+ *
+ * Like an extracted archive: excluded files and folders are ignored and, if the archive contains a single folder at its
+ * root, this folder is not part of the path of the files.
+ *
+ * Files stored without compression can be read by byte range directly from the ZIP file, see
+ * {@link #getStoredDataOffset(Path)}.
+ *
+ * The files can be read concurrently.
+ */
+public class ZippedArchive implements Closeable {
+
+  //Files with name in the list will be ignored from a zip file
+  public static final List<String> FILE_EXCLUSION_LIST = Collections.singletonList(".DS_Store");
+  //Folders with name in the list (from the root, not recursively) will be ignored from a zip file
+  public static final List<String> FOLDER_EXCLUSION_LIST = Collections.singletonList("__MACOSX");
+
+  private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+  private static final int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
+  private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+  private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+  private static final int LOCAL_FILE_HEADER_SIZE = 30;
+  private static final int MAX_COMMENT_SIZE = 0xFFFF;
+  //value of 32 bits fields stored in the ZIP64 extra field instead
+  private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+  private static final int ENCRYPTED_FLAG = 1;
+
+  private final Path zipFilePath;
+  private final ZipFile zipFile;
+  private final Map<Path, ZipEntry> entries;
+  private final Map<String, Long> storedDataOffsets;
+
+  private ZippedArchive(Path zipFilePath, ZipFile zipFile, Map<Path, ZipEntry> entries,
+                        Map<String, Long> storedDataOffsets) {
+    this.zipFilePath = zipFilePath;
+    this.zipFile = zipFile;
+    this.entries = entries;
+    this.storedDataOffsets = storedDataOffsets;
+  }
+
+  /**
+   * Opens a ZIP file. The returned {@link ZippedArchive} shall be closed.
+   *
+   * @param zipFilePath
+   *
+   * @return
+   *
+   * @throws IOException if the file is not a ZIP file or can not be read
+   */
+  public static ZippedArchive open(Path zipFilePath) throws IOException {
+    Objects.requireNonNull(zipFilePath, "zipFilePath shall be provided");
+    ZipFile zipFile = new ZipFile(zipFilePath.toFile());
+    try {
+      return new ZippedArchive(zipFilePath, zipFile, readEntries(zipFile), readStoredDataOffsets(zipFilePath));
+    } catch (IOException | RuntimeException ex) {
+      zipFile.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Lists the files of the archive, skipping the excluded ones and the folder at the root (if it's the only entry at
+   * the root).
+   */
+  private static Map<Path, ZipEntry> readEntries(ZipFile zipFile) throws ZipException {
+    Map<String, ZipEntry> files = new LinkedHashMap<>();
+    Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+    while (zipEntries.hasMoreElements()) {
+      ZipEntry entry = zipEntries.nextElement();
+      String entryName = entry.getName();
+      if (!entry.isDirectory() && !FOLDER_EXCLUSION_LIST.contains(StringUtils.substringBefore(entryName, "/")) &&
+              !FILE_EXCLUSION_LIST.contains(Paths.get(entryName).getFileName().toString())) {
+        files.put(entryName, entry);
+      }
+    }
+
+    String rootFolder = files.keySet().stream()
+            .map(entryName -> entryName.contains("/") ? StringUtils.substringBefore(entryName, "/") + "/" : entryName)
+            .distinct()
+            .reduce((first, second) -> "")
+            .filter(root -> root.endsWith("/"))
+            .orElse("");
+
+    Map<Path, ZipEntry> entries = new LinkedHashMap<>();
+    for (Map.Entry<String, ZipEntry> file : files.entrySet()) {
+      Path entryPath = Paths.get(file.getKey().substring(rootFolder.length())).normalize();
+      if (entryPath.isAbsolute() || entryPath.startsWith("..")) {
+        throw new ZipException("Unsupported entry. Entry is pointing to a path higher than allowed.");
+      }
+      entries.put(entryPath, file.getValue());
+    }
+    return entries;
+  }
+
+  /**
+   * Reads the central directory and the local file headers to locate the data of the entries stored without
+   * compression. ZIP64 and encrypted entries are not located, they can only be read as stream.
+   *
+   * @return offset of the data of each entry stored without compression, by entry name
+   */
+  private static Map<String, Long> readStoredDataOffsets(Path zipFilePath) throws IOException {
+    Map<String, Long> dataOffsets = new HashMap<>();
+    try (FileChannel channel = FileChannel.open(zipFilePath, StandardOpenOption.READ)) {
+      long size = channel.size();
+      int tailSize = (int) Math.min(size, END_OF_CENTRAL_DIRECTORY_SIZE + MAX_COMMENT_SIZE);
+      ByteBuffer tail = read(channel, size - tailSize, tailSize);
+      int endOfCentralDirectory = tailSize - END_OF_CENTRAL_DIRECTORY_SIZE;
+      while (endOfCentralDirectory >= 0 && tail.getInt(endOfCentralDirectory) != END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+        endOfCentralDirectory--;
+      }
+      if (endOfCentralDirectory < 0) {
+        return dataOffsets;
+      }
+      long centralDirectorySize = Integer.toUnsignedLong(tail.getInt(endOfCentralDirectory + 12));
+      long centralDirectoryOffset = Integer.toUnsignedLong(tail.getInt(endOfCentralDirectory + 16));
+      if (centralDirectoryOffset == ZIP64_MAGIC || centralDirectoryOffset + centralDirectorySize > size) {
+        return dataOffsets;
+      }
+
+      ByteBuffer centralDirectory = read(channel, centralDirectoryOffset, (int) centralDirectorySize);
+      int position = 0;
+      while (position + CENTRAL_DIRECTORY_HEADER_SIZE <= centralDirectorySize &&
+              centralDirectory.getInt(position) == CENTRAL_DIRECTORY_HEADER_SIGNATURE) {
+        int flags = Short.toUnsignedInt(centralDirectory.getShort(position + 8));
+        int method = Short.toUnsignedInt(centralDirectory.getShort(position + 10));
+        long compressedSize = Integer.toUnsignedLong(centralDirectory.getInt(position + 20));
+        int nameLength = Short.toUnsignedInt(centralDirectory.getShort(position + 28));
+        int extraLength = Short.toUnsignedInt(centralDirectory.getShort(position + 30));
+        int commentLength = Short.toUnsignedInt(centralDirectory.getShort(position + 32));
+        long localHeaderOffset = Integer.toUnsignedLong(centralDirectory.getInt(position + 42));
+        byte[] name = new byte[nameLength];
+        centralDirectory.position(position + CENTRAL_DIRECTORY_HEADER_SIZE);
+        centralDirectory.get(name);
+
+        if (method == ZipEntry.STORED && (flags & ENCRYPTED_FLAG) == 0 && compressedSize != ZIP64_MAGIC &&
+                localHeaderOffset != ZIP64_MAGIC) {
+          ByteBuffer localHeader = read(channel, localHeaderOffset, LOCAL_FILE_HEADER_SIZE);
+          if (localHeader.getInt(0) == LOCAL_FILE_HEADER_SIGNATURE) {
+            dataOffsets.put(new String(name, StandardCharsets.UTF_8), localHeaderOffset + LOCAL_FILE_HEADER_SIZE +
+                    Short.toUnsignedInt(localHeader.getShort(26)) + Short.toUnsignedInt(localHeader.getShort(28)));
+          }
+        }
+        position += CENTRAL_DIRECTORY_HEADER_SIZE + nameLength + extraLength + commentLength;
+      }
+    }
+    return dataOffsets;
+  }
+
+  private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+      //read until the buffer is full or the end of the file
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Checks if a file is a ZIP file.
+   *
+   * @param filePath
+   *
+   * @return
+   */
+  public static boolean isZipFile(Path filePath) {
+    if (!Files.isRegularFile(filePath)) {
+      return false;
+    }
+    try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+      return channel.size() >= LOCAL_FILE_HEADER_SIZE &&
+              read(channel, 0, Integer.BYTES).getInt(0) == LOCAL_FILE_HEADER_SIGNATURE;
+    } catch (IOException ioEx) {
+      return false;
+    }
+  }
+
+  public Path getZipFilePath() {
+    return zipFilePath;
+  }
+
+  /**
+   * Paths of the files of the archive, relative to the root of the archive.
+   *
+   * @return
+   */
+  public Set<Path> getFilePaths() {
+    return Collections.unmodifiableSet(entries.keySet());
+  }
+
+  /**
+   * Number of files and folders at the root of the archive.
+   *
+   * @return
+   */
+  public long getNumberOfRootElements() {
+    return entries.keySet().stream().map(filePath -> filePath.getName(0)).distinct().count();
+  }
+
+  /**
+   * Uncompressed size of a file of the archive.
+   *
+   * @param filePath path relative to the root of the archive
+   *
+   * @return size in bytes or -1 if unknown
+   */
+  public long getSize(Path filePath) {
+    return getEntry(filePath).getSize();
+  }
+
+  /**
+   * Opens a stream on the uncompressed content of a file of the archive.
+   *
+   * @param filePath path relative to the root of the archive
+   *
+   * @return
+   *
+   * @throws IOException
+   */
+  public InputStream getInputStream(Path filePath) throws IOException {
+    return zipFile.getInputStream(getEntry(filePath));
+  }
+
+  /**
+   * Extracts the beginning of a file of the archive, up to maxNumberOfLines lines (end of line characters included) or
+   * maxNumberOfBytes bytes, whichever comes first. The bytes are copied as is.
+   *
+   * @param filePath         path relative to the root of the archive
+   * @param destinationFile  file to write, replaced if it exists
+   * @param maxNumberOfLines
+   * @param maxNumberOfBytes
+   *
+   * @throws IOException
+   */
+  public void extractBeginning(Path filePath, Path destinationFile, int maxNumberOfLines, long maxNumberOfBytes)
+          throws IOException {
+    try (InputStream in = new BufferedInputStream(getInputStream(filePath));
+         OutputStream out = new BufferedOutputStream(Files.newOutputStream(destinationFile))) {
+      int numberOfLines = 0;
+      long numberOfBytes = 0;
+      int b;
+      while (numberOfLines < maxNumberOfLines && numberOfBytes < maxNumberOfBytes && (b = in.read()) != -1) {
+        out.write(b);
+        numberOfBytes++;
+        if (b == '\n') {
+          numberOfLines++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Offset of the content of a file, if the file is stored without compression. The content can then be read directly
+   * from the ZIP file, from this offset to this offset + {@link #getSize(Path)}.
+   *
+   * @param filePath path relative to the root of the archive
+   *
+   * @return offset in the ZIP file or empty if the file is compressed (or can not be located)
+   */
+  public OptionalLong getStoredDataOffset(Path filePath) {
+    Long dataOffset = storedDataOffsets.get(getEntry(filePath).getName());
+    return dataOffset == null ? OptionalLong.empty() : OptionalLong.of(dataOffset);
+  }
+
+  private ZipEntry getEntry(Path filePath) {
+    ZipEntry entry = entries.get(filePath);
+    if (entry == null) {
+      throw new IllegalArgumentException(filePath + " is not a file of " + zipFilePath);
+    }
+    return entry;
+  }
+
+  @Override
+  public void close() throws IOException {
+    zipFile.close();
+  }
+}
@@ -49,18 +49,21 @@ public class TestUtils {
 
   private static ValidatorConfiguration loadValidatorConfiguration() {
     try {
-      Properties p = PropertiesUtil.readFromFile(FileUtils.getClasspathFile(APP_CONF_FILE).getAbsolutePath());
-      return ValidatorConfiguration.builder()
-              .setApiUrl(p.getProperty("validation.apiUrl"))
-              .setNormalizerConfiguration(loadNormalizerConfiguration())
-              .setExtensionListURL(new URL(p.getProperty("validation.extensionDiscoveryUrl")))
-              .build();
+      return loadValidatorConfigurationBuilder().build();
     } catch (IOException e) {
       e.printStackTrace();
     }
     return null;
   }
 
+  private static ValidatorConfiguration.Builder loadValidatorConfigurationBuilder() throws IOException {
+    Properties p = PropertiesUtil.readFromFile(FileUtils.getClasspathFile(APP_CONF_FILE).getAbsolutePath());
+    return ValidatorConfiguration.builder()
+            .setApiUrl(p.getProperty("validation.apiUrl"))
+            .setNormalizerConfiguration(loadNormalizerConfiguration())
+            .setExtensionListURL(new URL(p.getProperty("validation.extensionDiscoveryUrl")));
+  }
+
   private static NormalizerConfiguration loadNormalizerConfiguration() {
     try {
       ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
@@ -79,6 +82,18 @@ public class TestUtils {
     return new EvaluatorFactory(TestUtils.getValidatorConfiguration(), EXTENSION_MANAGER);
   }
 
+  /**
+   * Get an {@link EvaluatorFactory} for jobs reporting their progress at the provided interval.
+   *
+   * @param progressReportIntervalInSeconds
+   * @return
+   */
+  public static EvaluatorFactory getEvaluatorFactory(int progressReportIntervalInSeconds) throws IOException {
+    return new EvaluatorFactory(loadValidatorConfigurationBuilder()
+            .setProgressReportIntervalInSeconds(progressReportIntervalInSeconds)
+            .build(), EXTENSION_MANAGER);
+  }
+
 
   /**
    * Get a DataFile instance for a file in the classpath.
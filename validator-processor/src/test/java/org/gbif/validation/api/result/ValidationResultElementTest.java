@@ -47,4 +47,22 @@ public class ValidationResultElementTest {
             .findFirst()
             .isPresent());
   }
+
+  @Test
+  public void testMergeCopyOf() {
+    ValidationResultElement element = ValidationResultElement.forMetadata("test.txt", Lists.newArrayList(
+            ValidationIssues.withEvaluationTypeOnly(EvaluationType.LICENSE_MISSING_OR_UNKNOWN)), null);
+
+    //merging copies more than once doesn't modify the original element
+    for (int i = 0; i < 2; i++) {
+      List<ValidationResultElement> mergeInto = new ArrayList<>();
+      mergeInto.add(new ValidationResultElement("test.txt", 18L, 18L, DwcFileType.CORE, DwcTerm.Occurrence,
+              DwcTerm.occurrenceID, Lists.newArrayList(ValidationIssues.withSample(EvaluationType.INDIVIDUAL_COUNT_INVALID,
+              1, Collections.emptyList())), null));
+      ValidationResultElement.mergeOnFilename(Collections.singletonList(ValidationResultElement.copyOf(element)),
+              mergeInto);
+      assertEquals(2, mergeInto.get(0).getIssues().size());
+    }
+    assertEquals(1, element.getIssues().size());
+  }
 }
@@ -0,0 +1,76 @@
+package org.gbif.validation.collector;
+
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.validation.api.RowTypeKey;
+import org.gbif.validation.api.TabularDataFile;
+import org.gbif.validation.api.model.EvaluationType;
+import org.gbif.validation.api.result.ValidationDataOutput;
+import org.gbif.validation.api.result.ValidationResultElement;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.gbif.validation.collector.RecordEvaluationResultCollectorTest.buildRecordEvaluationInterpretationResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests related to {@link CollectorGroupAccumulator}.
+ */
+public class CollectorGroupAccumulatorTest {
+
+  private static final Term[] COLUMNS = new Term[]{DwcTerm.countryCode, DwcTerm.year};
+  private static final int NUMBER_OF_SPLITS = 100;
+  private static final int RECORDS_PER_SPLIT = 100;
+
+  @Test
+  public void testMergeSplits() {
+    SampleMemoryBudget memoryBudget = new SampleMemoryBudget(1024 * 1024);
+    CollectorGroupProvider provider = new CollectorGroupProvider(DwcTerm.Occurrence, Arrays.asList(COLUMNS), null,
+            memoryBudget);
+    CollectorGroupAccumulator accumulator = new CollectorGroupAccumulator(memoryBudget);
+
+    long lineNumber = 1;
+    for (int split = 0; split < NUMBER_OF_SPLITS; split++) {
+      CollectorGroup collectors = provider.newCollectorGroup();
+      for (int i = 0; i < RECORDS_PER_SPLIT; i++, lineNumber++) {
+        collectors.collectMetrics(Arrays.asList("CA", Long.toString(lineNumber)));
+        collectors.collectResult(buildRecordEvaluationInterpretationResult(lineNumber, Long.toString(lineNumber)));
+      }
+      accumulator.merge(collectors);
+      //the merged collectors do not hold any reserved memory, only the samples retained by the accumulator
+      assertTrue(accumulator.getReservedBytes() > 0);
+      assertEquals(accumulator.getReservedBytes(), memoryBudget.getUsed());
+    }
+
+    ValidationResultElement result = accumulator.getResult(newTabularDataFile(), "occurrence.txt");
+    assertEquals(1, result.getIssues().size());
+    assertEquals(EvaluationType.RECORDED_DATE_INVALID, result.getIssues().get(0).getIssue());
+    assertEquals(NUMBER_OF_SPLITS * RECORDS_PER_SPLIT, result.getTermsFrequency().get(1).getValue().intValue());
+
+    Map<Long, ?> records = ((ValidationDataOutput.VerbatimRecordSampleDataOutput) result.getDataOutput().get(0)
+            .getContent()).getRecords();
+    assertEquals(RecordEvaluationResultCollector.DEFAULT_MAX_NUMBER_OF_SAMPLE, records.size());
+    //the sample is not made of the first split only
+    assertTrue(records.keySet().stream().anyMatch(l -> l > RECORDS_PER_SPLIT));
+  }
+
+  @Test
+  public void testNothingMerged() {
+    assertNull(new CollectorGroupAccumulator().getResult(newTabularDataFile(), "occurrence.txt"));
+  }
+
+  private static TabularDataFile newTabularDataFile() {
+    int numOfLines = NUMBER_OF_SPLITS * RECORDS_PER_SPLIT;
+    return new TabularDataFile(Paths.get("occurrence.txt"), "occurrence.txt", RowTypeKey.forCore(DwcTerm.Occurrence),
+            COLUMNS, null, null, 0, false, StandardCharsets.UTF_8, '\t', '"', numOfLines, numOfLines);
+  }
+
+}
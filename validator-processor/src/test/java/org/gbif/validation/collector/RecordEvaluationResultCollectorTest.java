@@ -4,14 +4,21 @@ import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.dwc.terms.Term;
 import org.gbif.validation.api.model.EvaluationType;
 import org.gbif.validation.api.model.RecordEvaluationResult;
+import org.gbif.validation.api.model.RecordEvaluationResultDetails;
 import org.gbif.validation.api.result.ValidationResultDetails;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Unit tests related to {@link RecordEvaluationResultCollector}.
@@ -20,7 +27,7 @@ public class RecordEvaluationResultCollectorTest {
 
   @Test
   public void testCollector() {
-    RecordEvaluationResultCollector collector = new RecordEvaluationResultCollector(10, false);
+    RecordEvaluationResultCollector collector = new RecordEvaluationResultCollector(10);
     RecordEvaluationResult.Builder bldr = RecordEvaluationResult.Builder.of(DwcTerm.Occurrence, 1L);
     bldr.addBaseDetail(EvaluationType.COLUMN_MISMATCH, "2", "3");
     collector.collect(bldr.build());
@@ -29,28 +36,134 @@ public class RecordEvaluationResultCollectorTest {
 
   @Test
   public void testCollectorFillRecordSampling() {
-    RecordEvaluationResultCollector collector = new RecordEvaluationResultCollector(10, false);
+    RecordEvaluationResultCollector collector = new RecordEvaluationResultCollector(10);
     collector.collect(buildRecordEvaluationInterpretationResult(18));
     assertEquals("CA", collector.getFullRecordSamples().get(18L).get(DwcTerm.countryCode));
   }
 
   @Test
   public void testCollectorSamplingLimit() {
-    testCollectorSamplingLimit(new RecordEvaluationResultCollector(1, false), 1L);
-    testCollectorSamplingLimit(new RecordEvaluationResultCollector(1, true), 1L);
+    testCollectorSamplingLimit(new RecordEvaluationResultCollector(1), 1L);
 
     // expecting 2 as sample size even if the input data is the same.
-    testCollectorSamplingLimit(new RecordEvaluationResultCollector(2, false), 2L);
-    testCollectorSamplingLimit(new RecordEvaluationResultCollector(2, true), 2L);
+    testCollectorSamplingLimit(new RecordEvaluationResultCollector(2), 2L);
   }
 
   @Test
   public void testCollectorSamplingContent() {
-    testCollectorSamplingContent(new RecordEvaluationResultCollector(1, false), 1L);
-    testCollectorSamplingContent(new RecordEvaluationResultCollector(1, true), 1L);
+    //the third record is not drawn to replace the first one, the draws are reproducible since they are seeded from
+    //the first line number
+    testCollectorSamplingContent(new RecordEvaluationResultCollector(1), 1L);
+    testCollectorSamplingContent(new RecordEvaluationResultCollector(2), 1L, 3L);
+  }
+
+  @Test
+  public void testCollectorReservoirSampling() {
+    RecordEvaluationResultCollector collector = new RecordEvaluationResultCollector(10);
+    for (long i = 1; i <= 10000; i++) {
+      collector.collect(buildRecordEvaluationInterpretationResult(i, Long.toString(i)));
+    }
+    assertEquals(10000L, collector.getAggregatedCounts().get(EvaluationType.RECORDED_DATE_INVALID).longValue());
 
-    testCollectorSamplingContent(new RecordEvaluationResultCollector(2, false), 1L, 3L);
-    testCollectorSamplingContent(new RecordEvaluationResultCollector(2, true), 1L, 3L);
+    List<ValidationResultDetails> sample = collector.getSamples().get(EvaluationType.RECORDED_DATE_INVALID);
+    assertEquals(10, sample.size());
+    //the sample is not made of the first records
+    assertTrue(sample.stream().anyMatch(details -> details.getLineNumber() > 5000));
+
+    //only the verbatim records of the sample are kept
+    assertEquals(sample.stream().map(ValidationResultDetails::getLineNumber).collect(Collectors.toSet()),
+            collector.getFullRecordSamples().keySet());
+  }
+
+  @Test
+  public void testCollectorKeyOnlyComputedForDrawnDetails() {
+    //the same value for all the records, the distinct sample is never full
+    AtomicInteger numberOfKeys = new AtomicInteger(0);
+    RecordEvaluationResultDetails detail = new RecordEvaluationResultDetails(EvaluationType.COLUMN_MISMATCH, "2", "3") {
+      @Override
+      public String computeInputValuesKey() {
+        numberOfKeys.incrementAndGet();
+        return super.computeInputValuesKey();
+      }
+    };
+    RecordEvaluationResultCollector collector = new RecordEvaluationResultCollector(10);
+    for (long i = 1; i <= 100000; i++) {
+      collector.collect(new RecordEvaluationResult(DwcTerm.Occurrence, i, null, Collections.singletonList(detail),
+              null, null));
+    }
+    assertEquals(10, collector.getSamples().get(EvaluationType.COLUMN_MISMATCH).size());
+    //about 10 * ln(100000 / 11) draws after the first 11 details
+    assertTrue(numberOfKeys.get() < 1000);
+  }
+
+  @Test
+  public void testCollectorMemoryBudget() {
+    //replaced samples release their bytes so the memory used does not grow with the number of records
+    SampleMemoryBudget memoryBudget = SampleMemoryBudget.unlimited();
+    RecordEvaluationResultCollector collector = new RecordEvaluationResultCollector(10, memoryBudget);
+    for (long i = 1; i <= 10; i++) {
+      collector.collect(buildRecordEvaluationInterpretationResult(i, Long.toString(i + 10000)));
+    }
+    long usedForFullSample = memoryBudget.getUsed();
+    for (long i = 11; i <= 10000; i++) {
+      collector.collect(buildRecordEvaluationInterpretationResult(i, Long.toString(i + 10000)));
+    }
+    assertEquals(usedForFullSample, memoryBudget.getUsed());
+
+    //a budget exhausted by the full sample does not prevent replacements by elements of the same size
+    memoryBudget = new SampleMemoryBudget(usedForFullSample);
+    collector = new RecordEvaluationResultCollector(10, memoryBudget);
+    for (long i = 1; i <= 10000; i++) {
+      collector.collect(buildRecordEvaluationInterpretationResult(i, Long.toString(i + 10000)));
+    }
+    assertEquals(usedForFullSample, memoryBudget.getUsed());
+    assertTrue(collector.getSamples().get(EvaluationType.RECORDED_DATE_INVALID).stream()
+            .anyMatch(details -> details.getLineNumber() > 10));
+
+    //budget shared by 2 collectors and exhausted before their samples are full
+    memoryBudget = new SampleMemoryBudget(4096);
+    RecordEvaluationResultCollector collector1 = new RecordEvaluationResultCollector(10, memoryBudget);
+    RecordEvaluationResultCollector collector2 = new RecordEvaluationResultCollector(10, memoryBudget);
+    for (long i = 1; i <= 1000; i++) {
+      collector1.collect(buildRecordEvaluationInterpretationResult(i, Long.toString(i)));
+      collector2.collect(buildRecordEvaluationInterpretationResult(i, Long.toString(i)));
+    }
+    assertTrue(memoryBudget.getUsed() <= 4096);
+    assertEquals(1000L, collector2.getAggregatedCounts().get(EvaluationType.RECORDED_DATE_INVALID).longValue());
+    assertTrue(collector2.getSamples().get(EvaluationType.RECORDED_DATE_INVALID).size() < 10);
+  }
+
+  @Test
+  public void testCollectorTruncateAndShareRecords() {
+    String longValue = StringUtils.repeat('x', 10000);
+    Map<Term, String> verbatimRecord = Collections.singletonMap(DwcTerm.year, longValue);
+
+    SampleMemoryBudget memoryBudget = SampleMemoryBudget.unlimited();
+    RecordEvaluationResultCollector collector = new RecordEvaluationResultCollector(10, memoryBudget);
+    collector.collect(buildRecordEvaluationResult(verbatimRecord, EvaluationType.RECORDED_DATE_INVALID));
+    long usedForOneSample = memoryBudget.getUsed();
+
+    assertEquals(SampleMemoryBudget.MAX_VALUE_LENGTH, collector.getFullRecordSamples().get(1L).get(DwcTerm.year).length());
+    assertEquals(SampleMemoryBudget.MAX_VALUE_LENGTH, collector.getSamples().get(EvaluationType.RECORDED_DATE_INVALID)
+            .get(0).getRelatedData().get(DwcTerm.year).length());
+
+    //the verbatim record is only retained once for the 2 samples
+    memoryBudget = SampleMemoryBudget.unlimited();
+    collector = new RecordEvaluationResultCollector(10, memoryBudget);
+    collector.collect(buildRecordEvaluationResult(verbatimRecord, EvaluationType.RECORDED_DATE_INVALID,
+            EvaluationType.RECORDED_DATE_MISMATCH));
+    assertEquals(2 * usedForOneSample - SampleMemoryBudget.estimateSize(SampleMemoryBudget.truncate(verbatimRecord)),
+            memoryBudget.getUsed());
+  }
+
+  private static RecordEvaluationResult buildRecordEvaluationResult(Map<Term, String> verbatimRecord,
+                                                                    EvaluationType ... evaluationTypes) {
+    RecordEvaluationResult.Builder bldr = RecordEvaluationResult.Builder.of(DwcTerm.Occurrence, 1L);
+    bldr.withVerbatimData(verbatimRecord);
+    for (EvaluationType evaluationType : evaluationTypes) {
+      bldr.addInterpretationDetail(evaluationType, verbatimRecord);
+    }
+    return bldr.build();
   }
 
   public static RecordEvaluationResult buildRecordEvaluationResult(long id, String expected, String found) {
@@ -60,13 +173,17 @@ public class RecordEvaluationResultCollectorTest {
   }
 
   public static RecordEvaluationResult buildRecordEvaluationInterpretationResult(long id) {
+    return buildRecordEvaluationInterpretationResult(id, "20017");
+  }
+
+  public static RecordEvaluationResult buildRecordEvaluationInterpretationResult(long id, String year) {
     RecordEvaluationResult.Builder bldr = RecordEvaluationResult.Builder.of(DwcTerm.Occurrence, id);
     Map<Term, String> verbatimRecord = new HashMap<>();
     verbatimRecord.put(DwcTerm.countryCode, "CA");
-    verbatimRecord.put(DwcTerm.year, "20017");
+    verbatimRecord.put(DwcTerm.year, year);
 
     Map<Term, String> relatedFields = new HashMap<>();
-    relatedFields.put(DwcTerm.year, "20017");
+    relatedFields.put(DwcTerm.year, year);
 
     bldr.withVerbatimData(verbatimRecord);
     bldr.addInterpretationDetail(EvaluationType.RECORDED_DATE_INVALID, relatedFields);
@@ -0,0 +1,89 @@
+package org.gbif.validation.collector;
+
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.validation.api.model.EvaluationType;
+import org.gbif.validation.api.model.RecordEvaluationResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Basic unit tests for {@link RecordIdentifierCollector}.
+ */
+public class RecordIdentifierCollectorTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testInMemory() throws IOException {
+    testRecordIdentifierCollector(new RecordIdentifierCollector(DwcTerm.Occurrence, 0, 6, 100,
+            folder.newFolder().toPath()));
+  }
+
+  @Test
+  public void testSpilled() throws IOException {
+    Path workingFolder = folder.newFolder().toPath();
+    testRecordIdentifierCollector(new RecordIdentifierCollector(DwcTerm.Occurrence, 0, 6, 2, workingFolder));
+    //spill files are removed
+    assertEquals(0, workingFolder.toFile().list().length);
+  }
+
+  @Test
+  public void testClose() throws IOException {
+    Path workingFolder = folder.newFolder().toPath();
+    RecordIdentifierCollector collector = new RecordIdentifierCollector(DwcTerm.Occurrence, 0, 6, 2, workingFolder);
+    collector.collect(1, Arrays.asList("a", "x"));
+    collector.collect(2, Arrays.asList("a", "x"));
+    assertTrue(workingFolder.toFile().list().length > 0);
+
+    //e.g. the job is killed before all the splits are evaluated
+    collector.close();
+    assertEquals(0, workingFolder.toFile().list().length);
+
+    //identifiers collected after are ignored
+    collector.collect(3, Arrays.asList("a", "x"));
+    assertEquals(0, workingFolder.toFile().list().length);
+    List<RecordEvaluationResult> results = new ArrayList<>();
+    collector.finish(results::add);
+    assertTrue(results.isEmpty());
+  }
+
+  /**
+   * Identifiers collected out of order, like splits evaluated concurrently.
+   */
+  private static void testRecordIdentifierCollector(RecordIdentifierCollector collector) throws IOException {
+    collector.collect(5, Arrays.asList("b", "x"));
+    collector.collect(6, Arrays.asList("a", "x"));
+    collector.collect(2, Arrays.asList("a", "x"));
+    collector.collect(3, Arrays.asList("c", "x"));
+    collector.collect(1, Arrays.asList("a", "x"));
+    collector.collect(4, Arrays.asList("b", "x"));
+
+    List<RecordEvaluationResult> results = new ArrayList<>();
+    collector.finish(results::add);
+    //results are reported one partition at a time
+    results.sort(Comparator.comparing(RecordEvaluationResult::getLineNumber));
+
+    assertEquals(3, results.size());
+    assertEquals("a", results.get(0).getRecordId());
+    assertEquals(2, results.get(0).getLineNumber().longValue());
+    assertEquals("b", results.get(1).getRecordId());
+    assertEquals(5, results.get(1).getLineNumber().longValue());
+    assertEquals("a", results.get(2).getRecordId());
+    assertEquals(6, results.get(2).getLineNumber().longValue());
+    assertEquals(EvaluationType.RECORD_NOT_UNIQUELY_IDENTIFIED,
+            results.get(0).getDetails().get(0).getEvaluationType());
+  }
+}
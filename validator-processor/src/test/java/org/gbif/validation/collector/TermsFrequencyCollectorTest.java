@@ -18,9 +18,20 @@ public class TermsFrequencyCollectorTest {
   @Test
   public void baseTest() {
     List<Term> columnHeaders = Arrays.asList(new Term[]{DwcTerm.occurrenceID, DwcTerm.eventDate, DwcTerm.scientificName});
-    testTermsFrequencyCollector(new TermsFrequencyCollector(columnHeaders, false));
-    //just make sure the useConcurrentMap works even if this test do no test concurrency
-    testTermsFrequencyCollector(new TermsFrequencyCollector(columnHeaders, true));
+    testTermsFrequencyCollector(new TermsFrequencyCollector(columnHeaders));
+  }
+
+  @Test
+  public void testRepeatedAndUnknownColumns() {
+    List<Term> columnHeaders = Arrays.asList(new Term[]{DwcTerm.occurrenceID, null, DwcTerm.eventDate, DwcTerm.eventDate});
+    TermsFrequencyCollector tfc = new TermsFrequencyCollector(columnHeaders);
+    tfc.collect(Arrays.asList("1", "x", "2000-01-01", "2000-01-02"));
+    tfc.collect(Arrays.asList("2", "x", "", "2000-01-02"));
+    tfc.collect(Arrays.asList("3"));
+
+    assertEquals(2, tfc.getTermFrequency().size());
+    assertEquals(3, tfc.getTermFrequency().get(DwcTerm.occurrenceID).intValue());
+    assertEquals(3, tfc.getTermFrequency().get(DwcTerm.eventDate).intValue());
   }
 
   /**
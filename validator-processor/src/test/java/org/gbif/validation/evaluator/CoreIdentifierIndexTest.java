@@ -0,0 +1,123 @@
+package org.gbif.validation.evaluator;
+
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.utils.file.FileUtils;
+import org.gbif.validation.api.DataFile;
+import org.gbif.validation.api.DwcDataFile;
+import org.gbif.validation.api.RowTypeKey;
+import org.gbif.validation.api.TabularDataFile;
+import org.gbif.validation.api.vocabulary.FileFormat;
+import org.gbif.validation.source.DataFileFactory;
+import org.gbif.validation.source.UnsupportedDataFileException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Unit tests related to {@link CoreIdentifierIndex}
+ */
+public class CoreIdentifierIndexTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static final File DWC_ARCHIVE = FileUtils.getClasspathFile("dwc-data-integrity/dwca");
+
+  @Test
+  public void testBuildIndex() throws IOException, UnsupportedDataFileException {
+    DataFile df = DataFileFactory.newDataFile(DWC_ARCHIVE.toPath(), "dwc-data-integrity-dwca",
+            FileFormat.DWCA, "", "");
+    DwcDataFile dwcaContent = DataFileFactory.prepareDataFile(df, folder.newFolder().toPath());
+
+    CoreIdentifierIndex.Holder holder = new CoreIdentifierIndex.Holder();
+    CoreIdentifiers coreIdentifiers = holder.get(dwcaContent.getCore());
+    //built only once
+    assertSame(coreIdentifiers, holder.get(dwcaContent.getCore()));
+    assertTrue(coreIdentifiers instanceof CoreIdentifierIndex);
+    CoreIdentifierIndex index = (CoreIdentifierIndex) coreIdentifiers;
+
+    assertEquals(19, index.size());
+    assertTrue(index.contains("1"));
+    assertTrue(index.contains("19"));
+    assertFalse(index.contains("ZZ"));
+  }
+
+  @Test
+  public void testExceededMemoryBudget() throws IOException, UnsupportedDataFileException {
+    DataFile df = DataFileFactory.newDataFile(DWC_ARCHIVE.toPath(), "dwc-data-integrity-dwca",
+            FileFormat.DWCA, "", "");
+    Path testFolder = folder.newFolder().toPath();
+    DwcDataFile dwcaContent = DataFileFactory.prepareDataFile(df, testFolder);
+
+    //force the use of the Bloom filter and external sorting (with multiple runs)
+    Path workingFolder = folder.newFolder().toPath();
+    CoreIdentifierIndex.Holder holder = new CoreIdentifierIndex.Holder(512, workingFolder);
+    holder.retain();
+    CoreIdentifiers coreIdentifiers = holder.get(dwcaContent.getCore());
+    assertTrue(coreIdentifiers instanceof SortedCoreIdentifiers);
+    //only the sorted identifiers are left
+    assertEquals(1, workingFolder.toFile().list().length);
+
+    TabularDataFile identification = dwcaContent.getByRowTypeKey(RowTypeKey.forExtension(DwcTerm.Identification));
+    List<String> unlinked = new ArrayList<>();
+    coreIdentifiers.findUnlinked(identification, identification.getRecordIdentifier().get().getIndex(),
+            (value, lineNumber) -> unlinked.add(value + "@" + lineNumber));
+    assertEquals(Collections.singletonList("ZZ@39"), unlinked);
+
+    //the sorted identifiers are deleted once released by all the evaluators
+    holder.release();
+    assertEquals(0, workingFolder.toFile().list().length);
+  }
+
+  @Test
+  public void testUnlinkedOrderedByLineNumber() throws IOException {
+    Path workingFolder = folder.newFolder().toPath();
+    SortedCoreIdentifiers coreIdentifiers;
+    //a tiny memory budget so many unlinked values are false positives of the Bloom filter, checked by the merge join
+    try (SortedCoreIdentifiers.Builder builder = new SortedCoreIdentifiers.Builder(1000, 4, workingFolder)) {
+      for (int i = 0; i < 1000; i++) {
+        builder.add(String.format("c%04d", i));
+      }
+      coreIdentifiers = builder.build();
+    }
+
+    //unlinked values in descending order
+    List<String> lines = new ArrayList<>();
+    lines.add("id");
+    for (int i = 99; i >= 0; i--) {
+      lines.add(String.format("v%03d", i));
+    }
+    Path extension = folder.newFile().toPath();
+    Files.write(extension, lines, StandardCharsets.UTF_8);
+    TabularDataFile extensionDataFile = new TabularDataFile(extension, "extension.txt",
+            RowTypeKey.forExtension(DwcTerm.Identification), new Term[]{DwcTerm.occurrenceID}, null, null, null, true,
+            StandardCharsets.UTF_8, '\t', '"', lines.size(), lines.size() - 1);
+
+    List<Long> lineNumbers = new ArrayList<>();
+    try {
+      coreIdentifiers.findUnlinked(extensionDataFile, 0, (value, lineNumber) -> lineNumbers.add(lineNumber));
+    } finally {
+      coreIdentifiers.close();
+    }
+    assertEquals(100, lineNumbers.size());
+    List<Long> sortedLineNumbers = new ArrayList<>(lineNumbers);
+    Collections.sort(sortedLineNumbers);
+    assertEquals(sortedLineNumbers, lineNumbers);
+  }
+}
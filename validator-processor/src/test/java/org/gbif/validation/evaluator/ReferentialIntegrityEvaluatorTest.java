@@ -44,6 +44,7 @@ public class ReferentialIntegrityEvaluatorTest {
       RecordEvaluationResultDetails recordEvaluationResultDetails = recordEvaluationResult.getDetails().get(0);
       assertEquals(EvaluationType.RECORD_REFERENTIAL_INTEGRITY_VIOLATION, recordEvaluationResultDetails.getEvaluationType());
       assertEquals("ZZ", recordEvaluationResult.getRecordId());
+      assertEquals(39, recordEvaluationResult.getLineNumber().longValue());
     } catch (IOException e) {
       fail(e.getMessage());
     }
@@ -0,0 +1,44 @@
+package org.gbif.validation.evaluator.lookup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Unit tests for {@link CountryPolygonIndex}.
+ */
+public class CountryPolygonIndexTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testLookup() throws IOException {
+    Path polygons = folder.newFile().toPath();
+    Files.write(polygons, Arrays.asList(
+            "#isoCode\ttitle\twkt",
+            "DK\tDenmark\tPOLYGON ((8 54, 13 54, 13 58, 8 58, 8 54))",
+            "SE\tSweden\tPOLYGON ((13 55, 24 55, 24 69, 13 69, 13 55))"), StandardCharsets.UTF_8);
+    CountryPolygonIndex index = CountryPolygonIndex.fromFile(polygons);
+
+    List<Map<String, Object>> locations = index.lookup(56, 10);
+    assertEquals(1, locations.size());
+    assertEquals("DK", locations.get(0).get("isoCountryCode2Digit"));
+    assertEquals("Denmark", locations.get(0).get("title"));
+
+    //on the border
+    assertEquals(2, index.lookup(56, 13).size());
+    assertTrue(index.lookup(0, 0).isEmpty());
+  }
+}
@@ -0,0 +1,200 @@
+package org.gbif.validation.evaluator.lookup;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.core.header.InBoundHeaders;
+import org.junit.Test;
+
+import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link LookupCacheFilter}.
+ */
+public class LookupCacheFilterTest {
+
+  @Test
+  public void testCacheKey() {
+    assertEquals("http://api.gbif.org/v1/species/match?kingdom=Animalia&name=Puma+concolor",
+            LookupCacheFilter.toCacheKey(
+                    URI.create("http://api.gbif.org/v1/species/match?name=Puma%20concolor%20&rank=&kingdom=Animalia")));
+    assertEquals("http://api.gbif.org/v1/geocode/reverse",
+            LookupCacheFilter.toCacheKey(URI.create("http://api.gbif.org/v1/geocode/reverse")));
+    //encoded separators in a value are not confused with the separators of the parameters
+    assertNotEquals(LookupCacheFilter.toCacheKey(URI.create("http://api.gbif.org/v1/species/match?name=a%26b%3Dc")),
+            LookupCacheFilter.toCacheKey(URI.create("http://api.gbif.org/v1/species/match?name=a&b=c")));
+  }
+
+  @Test
+  public void testCachedLookup() {
+    AtomicInteger numberOfCalls = new AtomicInteger(0);
+    Client[] client = new Client[1];
+    client[0] = new Client(request -> {
+      numberOfCalls.incrementAndGet();
+      return new ClientResponse(200, new InBoundHeaders(),
+              new ByteArrayInputStream(request.getURI().getQuery().getBytes(StandardCharsets.UTF_8)),
+              client[0].getMessageBodyWorkers());
+    });
+    LookupCacheFilter lookupCacheFilter = new LookupCacheFilter(client[0].getMessageBodyWorkers(), 10, 1,
+            TimeUnit.MINUTES);
+    client[0].addFilter(lookupCacheFilter);
+
+    assertEquals("name=Puma", client[0].resource("http://localhost/match?name=Puma").get(String.class));
+    assertEquals("name=Puma", client[0].resource("http://localhost/match?name=Puma").get(String.class));
+    //normalized to the same lookup
+    assertEquals("name=Puma", client[0].resource("http://localhost/match?name=Puma%20").get(String.class));
+    assertEquals("name=Felis", client[0].resource("http://localhost/match?name=Felis").get(String.class));
+
+    assertEquals(2, numberOfCalls.get());
+    assertEquals(2, lookupCacheFilter.getStats().hitCount());
+    assertEquals(2, lookupCacheFilter.getStats().missCount());
+  }
+
+  @Test
+  public void testCoalescedLookup() throws Exception {
+    AtomicInteger numberOfCalls = new AtomicInteger(0);
+    CountDownLatch lookupStarted = new CountDownLatch(1);
+    CountDownLatch releaseLookup = new CountDownLatch(1);
+    Client[] client = new Client[1];
+    client[0] = new Client(request -> {
+      numberOfCalls.incrementAndGet();
+      lookupStarted.countDown();
+      try {
+        releaseLookup.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return new ClientResponse(200, new InBoundHeaders(),
+              new ByteArrayInputStream(request.getURI().getQuery().getBytes(StandardCharsets.UTF_8)),
+              client[0].getMessageBodyWorkers());
+    });
+    LookupCacheFilter lookupCacheFilter = new LookupCacheFilter(client[0].getMessageBodyWorkers(), 10, 1,
+            TimeUnit.MINUTES);
+    client[0].addFilter(lookupCacheFilter);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first = executor.submit(() -> client[0].resource("http://localhost/match?name=Puma").get(String.class));
+      lookupStarted.await(10, TimeUnit.SECONDS);
+      Future<String> second = executor.submit(() -> client[0].resource("http://localhost/match?name=Puma").get(String.class));
+
+      //give the second request the time to join the lookup in flight
+      while (lookupCacheFilter.getStats().missCount() < 2) {
+        Thread.sleep(10);
+      }
+      releaseLookup.countDown();
+
+      assertEquals("name=Puma", first.get(10, TimeUnit.SECONDS));
+      assertEquals("name=Puma", second.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, numberOfCalls.get());
+    assertEquals(1, lookupCacheFilter.getNumberOfCoalescedRequests());
+  }
+
+  /**
+   * A request waiting for a lookup in flight issues its own call if the lookup fails with an {@link Error}.
+   */
+  @Test
+  public void testFailedLookupInFlight() throws Exception {
+    AtomicInteger numberOfCalls = new AtomicInteger(0);
+    CountDownLatch lookupStarted = new CountDownLatch(1);
+    CountDownLatch releaseLookup = new CountDownLatch(1);
+    Client[] client = new Client[1];
+    client[0] = new Client(request -> {
+      if (numberOfCalls.incrementAndGet() == 1) {
+        lookupStarted.countDown();
+        try {
+          releaseLookup.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        throw new AssertionError("lookup failed");
+      }
+      return new ClientResponse(200, new InBoundHeaders(),
+              new ByteArrayInputStream(request.getURI().getQuery().getBytes(StandardCharsets.UTF_8)),
+              client[0].getMessageBodyWorkers());
+    });
+    LookupCacheFilter lookupCacheFilter = new LookupCacheFilter(client[0].getMessageBodyWorkers(), 10, 1,
+            TimeUnit.MINUTES);
+    client[0].addFilter(lookupCacheFilter);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first = executor.submit(() -> client[0].resource("http://localhost/match?name=Puma").get(String.class));
+      lookupStarted.await(10, TimeUnit.SECONDS);
+      Future<String> second = executor.submit(() -> client[0].resource("http://localhost/match?name=Puma").get(String.class));
+
+      while (lookupCacheFilter.getStats().missCount() < 2) {
+        Thread.sleep(10);
+      }
+      releaseLookup.countDown();
+
+      try {
+        first.get(10, TimeUnit.SECONDS);
+        fail("The first lookup is expected to fail");
+      } catch (ExecutionException expected) {
+        assertEquals(AssertionError.class, expected.getCause().getClass());
+      }
+      assertEquals("name=Puma", second.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(2, numberOfCalls.get());
+    assertEquals(0, lookupCacheFilter.getNumberOfCoalescedRequests());
+  }
+
+  /**
+   * A request waiting for a lookup in flight issues its own call once the timeout is reached.
+   */
+  @Test
+  public void testLookupInFlightTimeout() throws Exception {
+    AtomicInteger numberOfCalls = new AtomicInteger(0);
+    CountDownLatch lookupStarted = new CountDownLatch(1);
+    CountDownLatch releaseLookup = new CountDownLatch(1);
+    Client[] client = new Client[1];
+    client[0] = new Client(request -> {
+      if (numberOfCalls.incrementAndGet() == 1) {
+        lookupStarted.countDown();
+        try {
+          releaseLookup.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return new ClientResponse(200, new InBoundHeaders(),
+              new ByteArrayInputStream(request.getURI().getQuery().getBytes(StandardCharsets.UTF_8)),
+              client[0].getMessageBodyWorkers());
+    });
+    LookupCacheFilter lookupCacheFilter = new LookupCacheFilter(client[0].getMessageBodyWorkers(), 10, 1,
+            TimeUnit.MINUTES, 100);
+    client[0].addFilter(lookupCacheFilter);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first = executor.submit(() -> client[0].resource("http://localhost/match?name=Puma").get(String.class));
+      lookupStarted.await(10, TimeUnit.SECONDS);
+      //answered while the first lookup is still in flight
+      assertEquals("name=Puma", executor.submit(
+              () -> client[0].resource("http://localhost/match?name=Puma").get(String.class)).get(10, TimeUnit.SECONDS));
+      releaseLookup.countDown();
+      assertEquals("name=Puma", first.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(2, numberOfCalls.get());
+  }
+}
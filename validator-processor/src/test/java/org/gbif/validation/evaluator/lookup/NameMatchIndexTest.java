@@ -0,0 +1,90 @@
+package org.gbif.validation.evaluator.lookup;
+
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static junit.framework.TestCase.assertEquals;
+
+/**
+ * Unit tests for {@link NameMatchIndex}.
+ */
+public class NameMatchIndexTest {
+
+  private static NameMatchIndex index;
+
+  @BeforeClass
+  public static void buildIndex() throws IOException {
+    index = new NameMatchIndex.Builder()
+            .addTaxon(taxon("1", "Animalia", null, null, "Animalia", null, "KINGDOM"))
+            .addTaxon(taxon("2", "Animalia", "Felidae", "Puma", "Puma Jardine, 1834", "Jardine, 1834", "GENUS"))
+            .addTaxon(taxon("3", "Animalia", "Felidae", "Puma", "Puma concolor (Linnaeus, 1771)", "(Linnaeus, 1771)",
+                    "SPECIES"))
+            .addTaxon(taxon("4", "Plantae", "Rosaceae", "Puma", "Puma concolor", null, "SPECIES"))
+            .build();
+  }
+
+  @Test
+  public void testExactMatch() throws IOException {
+    Map<String, String> params = new HashMap<>();
+    params.put("name", "puma  concolor");
+    params.put("kingdom", "Animalia");
+    Map<String, Object> match = index.match(params);
+    assertEquals("EXACT", match.get("matchType"));
+    assertEquals(3, match.get("usageKey"));
+    assertEquals("Felidae", match.get("family"));
+    assertEquals(100, match.get("confidence"));
+
+    params.put("kingdom", "Plantae");
+    assertEquals(4, index.match(params).get("usageKey"));
+  }
+
+  @Test
+  public void testHigherRankMatch() throws IOException {
+    Map<String, String> params = new HashMap<>();
+    params.put("name", "Puma yagouaroundi");
+    params.put("genus", "Puma");
+    params.put("kingdom", "Animalia");
+    Map<String, Object> match = index.match(params);
+    assertEquals("HIGHERRANK", match.get("matchType"));
+    assertEquals(2, match.get("usageKey"));
+
+    params.clear();
+    params.put("name", "Unknown name");
+    assertEquals("NONE", index.match(params).get("matchType"));
+  }
+
+  @Test
+  public void testGeneratedUsageKey() throws IOException {
+    //the first taxon would get the key 1 if the generated keys were sequential
+    NameMatchIndex nonNumericIndex = new NameMatchIndex.Builder()
+            .addTaxon(taxon("urn:lsid:1", "Animalia", "Felidae", "Puma", "Puma concolor", null, "SPECIES"))
+            .addTaxon(taxon("1", "Animalia", "Felidae", "Lynx", "Lynx lynx", null, "SPECIES"))
+            .build();
+    Map<String, String> params = new HashMap<>();
+    params.put("name", "Puma concolor");
+    assertEquals(-1, nonNumericIndex.match(params).get("usageKey"));
+    params.put("name", "Lynx lynx");
+    assertEquals(1, nonNumericIndex.match(params).get("usageKey"));
+  }
+
+  private static Map<Term, String> taxon(String taxonID, String kingdom, String family, String genus,
+                                         String scientificName, String authorship, String rank) {
+    Map<Term, String> taxon = new HashMap<>();
+    taxon.put(DwcTerm.taxonID, taxonID);
+    taxon.put(DwcTerm.kingdom, kingdom);
+    taxon.put(DwcTerm.family, family);
+    taxon.put(DwcTerm.genus, genus);
+    taxon.put(DwcTerm.scientificName, scientificName);
+    taxon.put(DwcTerm.scientificNameAuthorship, authorship);
+    taxon.put(DwcTerm.taxonRank, rank);
+    taxon.put(DwcTerm.taxonomicStatus, "ACCEPTED");
+    return taxon;
+  }
+}
@@ -8,21 +8,35 @@ import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.dwc.terms.Term;
 import org.gbif.occurrence.processor.interpreting.OccurrenceInterpreter;
 import org.gbif.occurrence.processor.interpreting.result.OccurrenceInterpretationResult;
+import org.gbif.validation.api.RowTypeKey;
+import org.gbif.validation.api.TabularDataFile;
 import org.gbif.validation.api.TermIndex;
 import org.gbif.validation.api.model.RecordEvaluationResult;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -36,6 +50,11 @@ public class OccurrenceInterpretationEvaluatorTest {
   }
   private static final Term[] COLUMN_MAPPING = new Term[]{DwcTerm.occurrenceID, DwcTerm.eventDate, DcTerm.modified};
   private static final TermIndex OCC_ID_TERM_INDEX = new TermIndex(0, DwcTerm.occurrenceID);
+  private static final Term[] PREFETCH_COLUMN_MAPPING = new Term[]{DwcTerm.occurrenceID, DwcTerm.scientificName,
+          DwcTerm.decimalLatitude, DwcTerm.decimalLongitude};
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
 
   @Test
   public void testToVerbatimOccurrence(){
@@ -100,6 +119,59 @@ public class OccurrenceInterpretationEvaluatorTest {
     assertEquals(BasisOfRecord.FOSSIL_SPECIMEN.name(), occ.getVerbatimField(DwcTerm.basisOfRecord));
   }
 
+  @Test
+  public void testPrepareResolvesDistinctValues() throws IOException {
+    OccurrenceInterpreter occurrenceInterpreter = mock(OccurrenceInterpreter.class);
+    OccurrenceInterpretationEvaluator evaluator = new OccurrenceInterpretationEvaluator(occurrenceInterpreter,
+            PREFETCH_COLUMN_MAPPING, null, OCC_ID_TERM_INDEX, true);
+
+    evaluator.prepare(writePrefetchDataFile());
+    //2 distinct scientific names and 1 distinct coordinate
+    verify(occurrenceInterpreter, times(3)).interpret(any(), any());
+  }
+
+  @Test
+  public void testPrepareDisabled() throws IOException {
+    OccurrenceInterpreter occurrenceInterpreter = mock(OccurrenceInterpreter.class);
+    OccurrenceInterpretationEvaluator evaluator = new OccurrenceInterpretationEvaluator(occurrenceInterpreter,
+            PREFETCH_COLUMN_MAPPING, null, OCC_ID_TERM_INDEX, false);
+
+    evaluator.prepare(writePrefetchDataFile());
+    verify(occurrenceInterpreter, never()).interpret(any(), any());
+  }
+
+  @Test
+  public void testPrepareTimeout() throws IOException {
+    CountDownLatch release = new CountDownLatch(1);
+    OccurrenceInterpreter occurrenceInterpreter = mock(OccurrenceInterpreter.class);
+    when(occurrenceInterpreter.interpret(any(), any())).thenAnswer(i -> {
+      release.await();
+      return null;
+    });
+    OccurrenceInterpretationEvaluator evaluator = new OccurrenceInterpretationEvaluator(occurrenceInterpreter,
+            PREFETCH_COLUMN_MAPPING, null, OCC_ID_TERM_INDEX, true, 100);
+
+    long start = System.currentTimeMillis();
+    try {
+      evaluator.prepare(writePrefetchDataFile());
+      //prepare returns even if the lookups are not completed
+      assertTrue(System.currentTimeMillis() - start < TimeUnit.SECONDS.toMillis(10));
+    } finally {
+      release.countDown();
+    }
+  }
+
+  private TabularDataFile writePrefetchDataFile() throws IOException {
+    Path file = folder.newFile().toPath();
+    Files.write(file, Arrays.asList(
+            "occurrenceID\tscientificName\tdecimalLatitude\tdecimalLongitude",
+            "1\tPuma concolor\t10.5\t-20.5",
+            "2\tPuma concolor\t10.5\t-20.5",
+            "3\tAbies alba\t\t"), StandardCharsets.UTF_8);
+    return new TabularDataFile(file, "occurrence.txt", RowTypeKey.forCore(DwcTerm.Occurrence),
+            PREFETCH_COLUMN_MAPPING, OCC_ID_TERM_INDEX, null, 0, true, StandardCharsets.UTF_8, '\t', '"', 4, 3);
+  }
+
   /**
    * The mock OccurrenceInterpreter will take a an occurrence and return it in OccurrenceInterpretationResult.
    * @param columnMapping
@@ -0,0 +1,92 @@
+package org.gbif.validation.jobserver;
+
+import org.gbif.validation.api.DataFile;
+import org.gbif.validation.api.vocabulary.FileFormat;
+import org.gbif.validation.jobserver.messages.DataJob;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Unit tests for {@link JobAdmissionQueue}.
+ */
+public class JobAdmissionQueueTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testShortestJobFirst() throws IOException {
+    JobAdmissionQueue admissionQueue = new JobAdmissionQueue(1);
+
+    DataJob<DataFile> runningJob = newDataJob(1, 10);
+    assertEquals(1, admissionQueue.submit(runningJob).size());
+
+    DataJob<DataFile> largeJob = newDataJob(2, 1000);
+    DataJob<DataFile> smallJob = newDataJob(3, 10);
+    assertTrue(admissionQueue.submit(largeJob).isEmpty());
+    assertTrue(admissionQueue.submit(smallJob).isEmpty());
+
+    assertEquals(1, admissionQueue.getQueuedJob(3).get().getPosition());
+    assertEquals(2, admissionQueue.getQueuedJob(2).get().getPosition());
+    assertFalse(admissionQueue.getQueuedJob(1).isPresent());
+
+    List<DataJob<DataFile>> startedJobs = admissionQueue.onJobCompleted(1);
+    assertEquals(1, startedJobs.size());
+    assertEquals(3, startedJobs.get(0).getJobId());
+
+    //notifying the same job twice shall not start more jobs
+    assertTrue(admissionQueue.onJobCompleted(1).isEmpty());
+    assertEquals(2, admissionQueue.onJobCompleted(3).get(0).getJobId());
+  }
+
+  @Test
+  public void testLargeJobEventuallyAdmitted() throws IOException {
+    AtomicLong clock = new AtomicLong(0);
+    JobAdmissionQueue admissionQueue = new JobAdmissionQueue(1, 1000, clock::get);
+    admissionQueue.submit(newDataJob(1, 10));
+    admissionQueue.submit(newDataJob(2, 1000));
+
+    //smaller jobs keep being submitted and are started first
+    admissionQueue.submit(newDataJob(3, 10));
+    assertEquals(3, admissionQueue.onJobCompleted(1).get(0).getJobId());
+
+    //once the large job waited for too long, it is started before the smaller ones
+    clock.set(1000);
+    admissionQueue.submit(newDataJob(4, 10));
+    assertEquals(1, admissionQueue.getQueuedJob(2).get().getPosition());
+    assertEquals(2, admissionQueue.getQueuedJob(4).get().getPosition());
+    assertEquals(2, admissionQueue.onJobCompleted(3).get(0).getJobId());
+    assertEquals(4, admissionQueue.onJobCompleted(2).get(0).getJobId());
+  }
+
+  @Test
+  public void testRemove() throws IOException {
+    JobAdmissionQueue admissionQueue = new JobAdmissionQueue(1);
+    admissionQueue.submit(newDataJob(1, 10));
+    admissionQueue.submit(newDataJob(2, 10));
+
+    assertTrue(admissionQueue.remove(2).isPresent());
+    assertFalse(admissionQueue.remove(2).isPresent());
+    assertTrue(admissionQueue.onJobCompleted(1).isEmpty());
+  }
+
+  private DataJob<DataFile> newDataJob(long jobId, int sizeInBytes) throws IOException {
+    Path file = folder.newFile().toPath();
+    Files.write(file, new byte[sizeInBytes]);
+    return new DataJob<>(jobId, System.currentTimeMillis(),
+            new DataFile(UUID.randomUUID(), file, file.getFileName().toString(), FileFormat.TABULAR, "", ""));
+  }
+}
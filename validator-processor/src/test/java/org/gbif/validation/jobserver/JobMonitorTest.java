@@ -0,0 +1,113 @@
+package org.gbif.validation.jobserver;
+
+import org.gbif.validation.api.model.JobDataOutput;
+import org.gbif.validation.api.model.JobStatusResponse;
+import org.gbif.validation.api.model.JobStatusResponse.JobStatus;
+import org.gbif.validation.api.result.ValidationDataOutput;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests related to {@link JobMonitor}.
+ */
+public class JobMonitorTest {
+
+  private static final long TIMEOUT_SECONDS = 5;
+
+  private ActorSystem system;
+  private RecordingJobStorage jobStorage;
+  private BlockingQueue<UUID> completedKeys;
+  private ActorRef jobMonitor;
+
+  /**
+   * {@link JobStorage} that only records the stored {@link JobStatusResponse}.
+   */
+  private static class RecordingJobStorage implements JobStorage {
+
+    private final List<JobStatusResponse<?>> responses = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Optional<JobStatusResponse<?>> getStatus(long jobId) {
+      return Optional.empty();
+    }
+
+    @Override
+    public Optional<JobDataOutput> getDataOutput(long jobId, ValidationDataOutput.Type type) {
+      return Optional.empty();
+    }
+
+    @Override
+    public void put(JobStatusResponse<?> response) {
+      responses.add(response);
+    }
+
+    @Override
+    public void put(JobDataOutput dataOutput) {
+    }
+  }
+
+  @Before
+  public void setUp() {
+    system = ActorSystem.create("JobMonitorTestSystem");
+    jobStorage = new RecordingJobStorage();
+    completedKeys = new LinkedBlockingQueue<>();
+    Supplier<Props> propsSupplier = () -> Props.create(MockActor.class, 0L);
+    Consumer<UUID> completionCallback = completedKeys::add;
+    jobMonitor = system.actorOf(Props.create(JobMonitor.class, propsSupplier, jobStorage, completionCallback));
+  }
+
+  @After
+  public void tearDown() {
+    system.shutdown();
+    system.awaitTermination();
+  }
+
+  /**
+   * Partial results received after the final status of a job shall not replace it.
+   */
+  @Test
+  public void testPartialResultsAfterFinalStatusAreIgnored() throws InterruptedException {
+    UUID finishedKey = UUID.randomUUID();
+    UUID killedKey = UUID.randomUUID();
+    jobMonitor.tell(response(JobStatus.FINISHED, 1L, finishedKey), ActorRef.noSender());
+    jobMonitor.tell(response(JobStatus.RUNNING, 1L, finishedKey), ActorRef.noSender());
+    jobMonitor.tell(response(JobStatus.RUNNING, 2L, killedKey), ActorRef.noSender());
+    jobMonitor.tell(response(JobStatus.KILLED, 2L, killedKey), ActorRef.noSender());
+    jobMonitor.tell(response(JobStatus.RUNNING, 2L, killedKey), ActorRef.noSender());
+    //a final status is used as marker since the messages are handled in order
+    jobMonitor.tell(response(JobStatus.FINISHED, 3L, UUID.randomUUID()), ActorRef.noSender());
+
+    assertEquals(finishedKey, completedKeys.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    assertEquals(killedKey, completedKeys.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    completedKeys.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+    assertEquals(Arrays.asList("1:FINISHED", "2:RUNNING", "2:KILLED", "3:FINISHED"),
+            jobStorage.responses.stream()
+                    .map(response -> response.getJobId() + ":" + response.getStatus())
+                    .collect(Collectors.toList()));
+  }
+
+  private static JobStatusResponse<?> response(JobStatus status, long jobId, UUID dataFileKey) {
+    return new JobStatusResponse<>(status, jobId, 0L, dataFileKey, null);
+  }
+
+}
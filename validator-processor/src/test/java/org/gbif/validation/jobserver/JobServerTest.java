@@ -4,16 +4,28 @@ import org.gbif.validation.api.DataFile;
 import org.gbif.validation.api.model.JobStatusResponse;
 import org.gbif.validation.api.vocabulary.FileFormat;
 import org.gbif.validation.jobserver.impl.InMemoryJobStorage;
+import org.gbif.validation.jobserver.messages.DataJob;
 
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
-
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorIdentity;
+import akka.actor.Identify;
 import akka.actor.Props;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import static akka.japi.pf.ReceiveBuilder.match;
+
 /**
  * Test cases for JobServer class.
  */
@@ -71,8 +83,10 @@ public class JobServerTest {
 
   @Test
   public void killTestIT() throws InterruptedException {
-    jobServer = new JobServer<>(jobStorage, () -> Props.create(MockActor.class, 2000L), JobServerTest::silentCallback);
-    JobStatusResponse<?> initialJobResponse = jobServer.submit(createNewDataFile());
+    BlockingQueue<UUID> completedKeys = new LinkedBlockingQueue<>();
+    jobServer = new JobServer<>(jobStorage, () -> Props.create(MockActor.class, 2000L), completedKeys::add);
+    DataFile dataFile = createNewDataFile();
+    JobStatusResponse<?> initialJobResponse = jobServer.submit(dataFile);
     Thread.sleep(5); //sleep before getting the status of a running actor
     JobStatusResponse<?> jobResponse = jobServer.status(initialJobResponse.getJobId());
     Assert.assertEquals(JobStatusResponse.JobStatus.RUNNING, jobResponse.getStatus());
@@ -80,6 +94,69 @@ public class JobServerTest {
     Assert.assertEquals(JobStatusResponse.JobStatus.KILLED, jobKillResponse.getStatus());
     JobStatusResponse<?> jobSecondKillResponse = jobServer.status(jobKillResponse.getJobId());
     Assert.assertEquals(JobStatusResponse.JobStatus.KILLED, jobSecondKillResponse.getStatus());
+    //the completionCallback is called by the JobMonitor, the MockActor can still report before it is killed
+    UUID completedKey;
+    do {
+      completedKey = completedKeys.poll(5, TimeUnit.SECONDS);
+    } while (completedKey != null && !dataFile.getKey().equals(completedKey));
+    Assert.assertEquals(dataFile.getKey(), completedKey);
+  }
+
+  /**
+   * Tests that killing a queued job calls the completion callback.
+   */
+  @Test
+  public void killQueuedTestIT() {
+    List<UUID> completedKeys = new CopyOnWriteArrayList<>();
+    jobServer = new JobServer<>(jobStorage, () -> Props.create(MockActor.class, 2000L), null, 1,
+            completedKeys::add);
+    jobServer.submit(createNewDataFile());
+    DataFile queuedDataFile = createNewDataFile();
+    JobStatusResponse<?> queuedJobResponse = jobServer.submit(queuedDataFile);
+    Assert.assertEquals(JobStatusResponse.JobStatus.QUEUED, jobServer.status(queuedJobResponse.getJobId()).getStatus());
+
+    JobStatusResponse<?> jobKillResponse = jobServer.kill(queuedJobResponse.getJobId());
+    Assert.assertEquals(JobStatusResponse.JobStatus.KILLED, jobKillResponse.getStatus());
+    Assert.assertEquals(Collections.singletonList(queuedDataFile.getKey()), completedKeys);
+  }
+
+  /**
+   * Tests that the jobs can reach the default WorkScheduler.
+   */
+  @Test
+  public void defaultWorkSchedulerTestIT() throws Exception {
+    jobServer = new JobServer<>(jobStorage, () -> Props.create(WorkSchedulerLookupActor.class),
+            JobServerTest::silentCallback);
+    JobStatusResponse<?> initialJobResponse = jobServer.submit(createNewDataFile());
+    //wait for the job to store its final status
+    for (int i = 0; i < 100 && !jobStorage.getStatus(initialJobResponse.getJobId()).isPresent(); i++) {
+      Thread.sleep(50);
+    }
+    Assert.assertEquals(JobStatusResponse.JobStatus.FINISHED,
+            jobServer.status(initialJobResponse.getJobId()).getStatus());
+  }
+
+  /**
+   * Actor that finishes its job if the {@link WorkScheduler} can be found, fails otherwise.
+   */
+  static class WorkSchedulerLookupActor extends AbstractActor {
+
+    private DataJob<?> dataJob;
+
+    WorkSchedulerLookupActor() {
+      receive(
+              match(DataJob.class, dataJob -> {
+                this.dataJob = dataJob;
+                context().actorSelection("/user/" + WorkScheduler.WORK_SCHEDULER_ACTOR_NAME)
+                        .tell(new Identify(dataJob.getJobId()), self());
+              })
+                      .match(ActorIdentity.class, identity -> context().parent().tell(
+                              new JobStatusResponse<>(identity.getRef() != null ? JobStatusResponse.JobStatus.FINISHED :
+                                      JobStatusResponse.JobStatus.FAILED, dataJob.getJobId(),
+                                      dataJob.getStartTimeStamp(), UUID.randomUUID(), null), self()))
+                      .build()
+      );
+    }
   }
 
   private static DataFile createNewDataFile(){
@@ -0,0 +1,126 @@
+package org.gbif.validation.jobserver;
+
+import org.gbif.validation.jobserver.messages.ScheduleWork;
+import org.gbif.validation.jobserver.messages.WorkRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Inbox;
+import akka.actor.Props;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import static akka.japi.pf.ReceiveBuilder.matchAny;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests related to {@link WorkScheduler}.
+ */
+public class WorkSchedulerTest {
+
+  private static final FiniteDuration TIMEOUT = Duration.create(5, TimeUnit.SECONDS);
+  private static final long WORK_DURATION_MS = 50;
+
+  //state of the workers, shared since the workers are created by the WorkScheduler
+  private static final AtomicInteger RUNNING = new AtomicInteger();
+  private static final AtomicInteger MAX_RUNNING = new AtomicInteger();
+  private static final Queue<Object> PROCESSED = new ConcurrentLinkedQueue<>();
+
+  private ActorSystem system;
+
+  /**
+   * Worker that answers the work unit it receives to its sender.
+   */
+  static class EchoWorker extends AbstractActor {
+
+    EchoWorker() {
+      receive(matchAny(workUnit -> {
+        MAX_RUNNING.accumulateAndGet(RUNNING.incrementAndGet(), Math::max);
+        Thread.sleep(WORK_DURATION_MS);
+        PROCESSED.add(workUnit);
+        RUNNING.decrementAndGet();
+        sender().tell(workUnit, self());
+        context().parent().tell(WorkRequest.INSTANCE, self());
+      }).build());
+    }
+
+    @Override
+    public void preStart() {
+      context().parent().tell(WorkRequest.INSTANCE, self());
+    }
+  }
+
+  @Before
+  public void setUp() {
+    system = ActorSystem.create("WorkSchedulerTestSystem");
+    RUNNING.set(0);
+    MAX_RUNNING.set(0);
+    PROCESSED.clear();
+  }
+
+  @After
+  public void tearDown() {
+    system.shutdown();
+    system.awaitTermination();
+  }
+
+  @Test
+  public void testAllWorkIsDone() {
+    ActorRef scheduler = newWorkScheduler(2, 2);
+    Inbox job = Inbox.create(system);
+    job.send(scheduler, new ScheduleWork(Arrays.asList(1, 2, 3, 4, 5)));
+
+    assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 4, 5)), receive(job, 5));
+  }
+
+  @Test
+  public void testMaxWorkersPerJob() {
+    ActorRef scheduler = newWorkScheduler(4, 1);
+    Inbox job = Inbox.create(system);
+    job.send(scheduler, new ScheduleWork(Arrays.asList(1, 2, 3, 4)));
+
+    assertEquals(4, receive(job, 4).size());
+    assertEquals(1, MAX_RUNNING.get());
+  }
+
+  @Test
+  public void testJobsAreServedInTurn() {
+    ActorRef scheduler = newWorkScheduler(1, 1);
+    Inbox largeJob = Inbox.create(system);
+    Inbox smallJob = Inbox.create(system);
+    largeJob.send(scheduler, new ScheduleWork(Arrays.asList("a1", "a2", "a3")));
+    smallJob.send(scheduler, new ScheduleWork(Arrays.asList("b1")));
+
+    receive(largeJob, 3);
+    receive(smallJob, 1);
+    //the small job doesn't wait for the end of the large one
+    assertEquals(Arrays.asList("a1", "b1", "a2", "a3"), new ArrayList<>(PROCESSED));
+  }
+
+  private ActorRef newWorkScheduler(int maxWorkers, int maxWorkersPerJob) {
+    return system.actorOf(WorkScheduler.createProps(Props.create(EchoWorker.class), maxWorkers, maxWorkersPerJob));
+  }
+
+  private static Set<Object> receive(Inbox inbox, int numberOfMessages) {
+    Set<Object> received = new HashSet<>();
+    for (int i = 0; i < numberOfMessages; i++) {
+      received.add(inbox.receive(TIMEOUT));
+    }
+    return received;
+  }
+
+}
@@ -1,9 +1,12 @@
 package org.gbif.validation.jobserver.impl;
 
 import org.gbif.validation.api.model.JobDataOutput;
+import org.gbif.validation.api.model.JobProgress;
+import org.gbif.validation.api.model.JobStatusResponse;
 import org.gbif.validation.api.result.ValidationDataOutput;
 
 import java.io.IOException;
+import java.util.UUID;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -29,4 +32,18 @@ public class FileJobStorageTest {
 
     assertEquals(jdo.getContent(), loadedJdo.getContent());
   }
+
+  @Test
+  public void testRunningJobProgress() throws IOException {
+    FileJobStorage fs = new FileJobStorage(folder.newFolder().toPath());
+    //250 of 1000 records in 5 seconds
+    fs.put(JobStatusResponse.ofRunning(123456L, 0L, UUID.randomUUID(), null, JobProgress.of(1000, 250, 4, 1, 5000)));
+
+    JobStatusResponse<?> loadedStatus = fs.getStatus(123456L).get();
+    assertEquals(JobStatusResponse.JobStatus.RUNNING, loadedStatus.getStatus());
+    assertEquals(250, loadedStatus.getProgress().getNumberOfRecordsProcessed());
+    assertEquals(1, loadedStatus.getProgress().getNumberOfWorkUnitsCompleted());
+    assertEquals(50d, loadedStatus.getProgress().getRecordsPerSecond());
+    assertEquals(15L, loadedStatus.getProgress().getEstimatedSecondsRemaining().longValue());
+  }
 }
@@ -0,0 +1,117 @@
+package org.gbif.validation.processor;
+
+import org.gbif.utils.file.FileUtils;
+import org.gbif.validation.TestUtils;
+import org.gbif.validation.api.DataFile;
+import org.gbif.validation.api.model.JobStatusResponse;
+import org.gbif.validation.api.model.JobStatusResponse.JobStatus;
+import org.gbif.validation.api.result.ValidationResult;
+import org.gbif.validation.api.vocabulary.FileFormat;
+import org.gbif.validation.jobserver.messages.DataJob;
+import org.gbif.validation.source.DataFileFactory;
+import org.gbif.ws.util.ExtraMediaTypes;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Inbox;
+import akka.actor.Props;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import static akka.japi.pf.ReceiveBuilder.match;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests related to {@link DataFileProcessorMaster}.
+ */
+public class DataFileProcessorMasterTest {
+
+  private static final FiniteDuration TIMEOUT = Duration.create(30, TimeUnit.SECONDS);
+  private static final String TEST_FILE_LOCATION = "validator_test_file_all_issues.tsv";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ActorSystem system;
+
+  /**
+   * Parent of a {@link DataFileProcessorMaster} forwarding the {@link JobStatusResponse} it receives.
+   */
+  static class ForwardingParent extends AbstractActor {
+
+    ForwardingParent(Props masterProps, DataJob<?> dataJob, ActorRef target) {
+      context().actorOf(masterProps).tell(dataJob, self());
+      receive(match(JobStatusResponse.class, response -> target.tell(response, self())).build());
+    }
+  }
+
+  @Before
+  public void setUp() {
+    system = ActorSystem.create("DataFileProcessorMasterTestSystem");
+  }
+
+  @After
+  public void tearDown() {
+    system.shutdown();
+    system.awaitTermination();
+  }
+
+  /**
+   * There is no {@link org.gbif.validation.jobserver.WorkScheduler} in the {@link ActorSystem} so the progress is
+   * reported before any {@link org.gbif.validation.jobserver.messages.DataWorkResult} is received.
+   */
+  @Test
+  public void testProgressReportBeforeDataWorkResult() throws IOException {
+    Props masterProps = DataFileProcessorMaster.createProps(TestUtils.getEvaluatorFactory(1), 5000,
+            folder.newFolder().toString(), false);
+    DataFile dataFile = DataFileFactory.newDataFile(FileUtils.getClasspathFile(TEST_FILE_LOCATION).toPath(),
+            TEST_FILE_LOCATION, FileFormat.TABULAR, ExtraMediaTypes.TEXT_TSV, ExtraMediaTypes.TEXT_TSV);
+    Inbox job = Inbox.create(system);
+    system.actorOf(Props.create(ForwardingParent.class, masterProps,
+            new DataJob<>(1L, System.currentTimeMillis(), dataFile), job.getRef()));
+
+    JobStatusResponse<ValidationResult> firstReport = receiveProgressReport(job);
+    JobStatusResponse<ValidationResult> secondReport = receiveProgressReport(job);
+    for (JobStatusResponse<ValidationResult> report : Arrays.asList(firstReport, secondReport)) {
+      assertEquals(JobStatus.RUNNING, report.getStatus());
+      assertFalse(report.getResult().getResults().contains(null));
+      assertTrue(report.getProgress().getNumberOfRecords() > 0);
+      assertEquals(0, report.getProgress().getNumberOfRecordsProcessed());
+      assertEquals(0, report.getProgress().getNumberOfWorkUnitsCompleted());
+    }
+    //the issues are not merged again on each report
+    assertEquals(countIssues(firstReport), countIssues(secondReport));
+  }
+
+  /**
+   * Receive the next {@link JobStatusResponse} including a {@link org.gbif.validation.api.model.JobProgress}.
+   */
+  private static JobStatusResponse<ValidationResult> receiveProgressReport(Inbox inbox) {
+    JobStatusResponse<ValidationResult> response;
+    do {
+      response = (JobStatusResponse<ValidationResult>) inbox.receive(TIMEOUT);
+    } while (response.getProgress() == null);
+    return response;
+  }
+
+  private static int countIssues(JobStatusResponse<ValidationResult> report) {
+    return report.getResult().getResults().stream()
+            .filter(vre -> vre.getIssues() != null)
+            .mapToInt(vre -> vre.getIssues().size())
+            .sum();
+  }
+
+}
@@ -0,0 +1,88 @@
+package org.gbif.validation.processor;
+
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.validation.api.RowTypeKey;
+import org.gbif.validation.api.TabularDataFile;
+import org.gbif.validation.api.model.EvaluationType;
+import org.gbif.validation.api.result.ValidationResultElement;
+import org.gbif.validation.collector.CollectorGroup;
+import org.gbif.validation.collector.CollectorGroupProvider;
+import org.gbif.validation.jobserver.WorkScheduler;
+import org.gbif.validation.jobserver.messages.ScheduleWork;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Inbox;
+import akka.actor.Props;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests related to {@link DataFileRecordsActor}.
+ */
+public class DataFileRecordsActorTest {
+
+  private static final FiniteDuration TIMEOUT = Duration.create(5, TimeUnit.SECONDS);
+  private static final Term[] COLUMNS = {DwcTerm.occurrenceID, DwcTerm.scientificName};
+
+  private ActorSystem system;
+
+  @Before
+  public void setUp() {
+    system = ActorSystem.create("DataFileRecordsActorTestSystem");
+  }
+
+  @After
+  public void tearDown() {
+    system.shutdown();
+    system.awaitTermination();
+  }
+
+  /**
+   * A failure outside of the evaluation of the records is reported to the job and the worker keeps asking for work.
+   */
+  @Test
+  public void testCollectorsProviderFailure() {
+    CollectorGroupProvider failingProvider = new CollectorGroupProvider(DwcTerm.Occurrence, Arrays.asList(COLUMNS)) {
+      @Override
+      public CollectorGroup newCollectorGroup() {
+        throw new IllegalStateException("Collectors can not be created");
+      }
+    };
+    TabularDataFile dataFile = newDataFile();
+    //a single worker so the second work unit can only be processed if the worker is back in the pool
+    ActorRef scheduler = system.actorOf(WorkScheduler.createProps(Props.create(DataFileRecordsActor.class), 1, 1));
+    Inbox job = Inbox.create(system);
+    job.send(scheduler, new ScheduleWork(Arrays.asList(
+            new DataWorkUnit(dataFile, (lineNumber, record) -> null, failingProvider),
+            new DataWorkUnit(dataFile, (lineNumber, record) -> null, failingProvider))));
+
+    for (int i = 0; i < 2; i++) {
+      DataWorkResult result = (DataWorkResult) job.receive(TIMEOUT);
+      assertEquals(DataWorkResult.Result.FAILED, result.getResult());
+      assertEquals(dataFile.getRowTypeKey(), result.getRowTypeKey());
+      ValidationResultElement resultElement = CollectorGroup.mergeAndGetResult(dataFile, "occurrence.txt",
+              Collections.singletonList(result.getCollectors()));
+      assertTrue(resultElement.contains(EvaluationType.UNREADABLE_SECTION_ERROR));
+    }
+  }
+
+  private static TabularDataFile newDataFile() {
+    return new TabularDataFile(Paths.get("occurrence.txt"), "occurrence.txt", RowTypeKey.forCore(DwcTerm.Occurrence),
+            COLUMNS, null, null, null, true, StandardCharsets.UTF_8, '\t', '"', 2, 1);
+  }
+
+}
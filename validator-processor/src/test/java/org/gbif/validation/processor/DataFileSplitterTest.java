@@ -3,12 +3,16 @@ package org.gbif.validation.processor;
 import org.gbif.validation.TestUtils;
 import org.gbif.validation.api.DataFile;
 import org.gbif.validation.api.DwcDataFile;
+import org.gbif.validation.api.RecordSource;
 import org.gbif.validation.api.TabularDataFile;
 import org.gbif.validation.api.vocabulary.FileFormat;
 import org.gbif.validation.source.DataFileFactory;
+import org.gbif.validation.source.RecordSourceFactory;
 import org.gbif.validation.source.UnsupportedDataFileException;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Rule;
@@ -16,6 +20,8 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
 import static junit.framework.TestCase.fail;
 
 /**
@@ -58,4 +64,39 @@ public class DataFileSplitterTest {
     }
 
   }
+
+  @Test
+  public void testFileSplitByByteRange() throws IOException, UnsupportedDataFileException {
+    DataFile dataFile = TestUtils.getDataFile(TEST_FILE_LOCATION, "original_file.csv", FileFormat.TABULAR);
+    DwcDataFile dwcDataFile = DataFileFactory.prepareDataFile(dataFile, folder.newFolder().toPath());
+    TabularDataFile core = dwcDataFile.getCore();
+
+    List<TabularDataFile> dataFileSplits = DataFileSplitter.splitDataFileByByteRange(core, SPLIT_SIZE);
+    assertEquals(EXPECTED_NUMBER_OF_SPLIT, dataFileSplits.size());
+
+    long expectedByteOffset = 0;
+    int expectedLineOffset = 0;
+    List<String> records = new ArrayList<>();
+    for (TabularDataFile split : dataFileSplits) {
+      //all splits point to the same file
+      assertEquals(core.getFilePath(), split.getFilePath());
+      assertTrue(split.isByteRange());
+      assertEquals(expectedByteOffset, split.getFileByteOffsetStart().get().longValue());
+      assertEquals(expectedLineOffset, split.getFileLineOffset().get().intValue());
+      expectedByteOffset = split.getFileByteOffsetEnd().get();
+      expectedLineOffset += split.getNumOfLines();
+
+      try (RecordSource recordSource = RecordSourceFactory.fromTabularDataFile(split)) {
+        List<String> record;
+        while ((record = recordSource.read()) != null) {
+          records.add(record.get(0));
+        }
+      }
+    }
+    assertTrue(dataFileSplits.get(0).isHasHeaders());
+    assertFalse(dataFileSplits.get(1).isHasHeaders());
+    assertEquals(core.getFilePath().toFile().length(), expectedByteOffset);
+    assertEquals(EXPECTED_NUMBER_OF_LINES, expectedLineOffset);
+    assertEquals(Arrays.asList("1", "2", "3", "4"), records);
+  }
 }
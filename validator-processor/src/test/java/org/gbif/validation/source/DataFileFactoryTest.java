@@ -5,12 +5,19 @@ import org.gbif.utils.file.FileUtils;
 import org.gbif.validation.TestUtils;
 import org.gbif.validation.api.DataFile;
 import org.gbif.validation.api.DwcDataFile;
+import org.gbif.validation.api.TabularFileIndex;
 import org.gbif.validation.api.vocabulary.FileFormat;
+import org.gbif.validation.util.FileNormalizer;
 import org.gbif.ws.util.ExtraMediaTypes;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.UUID;
 
 import org.apache.commons.lang3.StringUtils;
@@ -21,6 +28,7 @@ import org.junit.rules.TemporaryFolder;
 import static org.gbif.validation.source.DataFileFactory.prepareDataFile;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -35,6 +43,8 @@ public class DataFileFactoryTest {
 
   private static final String TEST_OCC_XLSX_FILE_LOCATION = "workbooks/occurrence-workbook.xlsx";
 
+  private static final String CSV_CONTENT = "id,scientificName\n1,\"Puma concolor\"\n2,\"Abies alba\"\n";
+
   @Rule
   public TemporaryFolder folder = new TemporaryFolder();
 
@@ -74,6 +84,37 @@ public class DataFileFactoryTest {
     assertEquals("my-xlsx-file.xlsx", dwcDataFile.getTabularDataFiles().get(0).getSourceFileName());
   }
 
+  @Test
+  public void testIsIndexedWhileReceived() throws IOException {
+    Path csvFile = folder.newFile("occurrence.csv").toPath();
+    TabularFileIndex index = writeAndIndex(csvFile, CSV_CONTENT);
+    assertTrue(DataFileFactory.isIndexedWhileReceived(newCsvDataFile(csvFile, index)));
+
+    //no index
+    assertFalse(DataFileFactory.isIndexedWhileReceived(newCsvDataFile(csvFile, null)));
+
+    //same size but another delimiter
+    Files.write(csvFile, CSV_CONTENT.replace(',', '\t').getBytes(StandardCharsets.UTF_8));
+    assertFalse(DataFileFactory.isIndexedWhileReceived(newCsvDataFile(csvFile, index)));
+
+    //the file changed after it was indexed
+    index = writeAndIndex(csvFile, CSV_CONTENT);
+    Files.write(csvFile, "3,\"Puma concolor\"\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    assertFalse(DataFileFactory.isIndexedWhileReceived(newCsvDataFile(csvFile, index)));
+  }
+
+  private static TabularFileIndex writeAndIndex(Path file, String content) throws IOException {
+    FileNormalizer.IndexingOutputStream out = FileNormalizer.newIndexingOutputStream(Files.newOutputStream(file));
+    try (OutputStream indexingOut = out) {
+      indexingOut.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+    return out.getIndex().get();
+  }
+
+  private static DataFile newCsvDataFile(Path csvFile, TabularFileIndex index) {
+    return DataFileFactory.newDataFile(UUID.randomUUID(), csvFile, "occurrence.csv", FileFormat.TABULAR,
+            ExtraMediaTypes.TEXT_CSV, ExtraMediaTypes.TEXT_CSV, index);
+  }
 
   /**
    * Should throw UnsupportedDataFileException: Unable to detect field delimiter
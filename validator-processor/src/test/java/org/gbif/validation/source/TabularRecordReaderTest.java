@@ -0,0 +1,137 @@
+package org.gbif.validation.source;
+
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.validation.api.RowTypeKey;
+import org.gbif.validation.api.TabularDataFile;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+
+/**
+ * Unit tests for {@link TabularRecordReader}.
+ */
+public class TabularRecordReaderTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRead() throws IOException {
+    String content = "id,name,remarks\n" +
+            "1,Puma concolor,\n" +
+            "\n" +
+            "2,\"Puma, concolor\",\"multi\nline \"\"quoted\"\"\"\n" +
+            "3,,\"\"";
+    try (TabularRecordReader reader = new TabularRecordReader(new StringReader(content), ',', '"', true)) {
+      List<List<String>> records = readAll(reader);
+      assertEquals(3, records.size());
+      assertEquals(Arrays.asList("1", "Puma concolor", ""), records.get(0));
+      assertEquals(Arrays.asList("2", "Puma, concolor", "multi\nline \"quoted\""), records.get(1));
+      assertEquals(Arrays.asList("3", "", ""), records.get(2));
+    }
+  }
+
+  @Test
+  public void testReadWithoutQuote() throws IOException {
+    String content = "1\t\"Puma\tconcolor\n";
+    try (TabularRecordReader reader = new TabularRecordReader(new StringReader(content), '\t', null, false)) {
+      assertEquals(Arrays.asList("1", "\"Puma", "concolor"), reader.read());
+      assertNull(reader.read());
+    }
+  }
+
+  @Test
+  public void testViewReused() throws IOException {
+    try (TabularRecordReader reader = new TabularRecordReader(new StringReader("a,b\nc,d,e\n"), ',', '"', false)) {
+      RecordView first = reader.read();
+      assertEquals(2, first.size());
+      RecordView second = reader.read();
+      assertSame(first, second);
+      assertEquals(Arrays.asList("c", "d", "e"), second);
+    }
+  }
+
+  @Test
+  public void testEscapedQuote() throws IOException {
+    String content = "\"\"\"Puma\"\" concolor\",\"\"\"\"\n";
+    try (TabularRecordReader reader = new TabularRecordReader(new StringReader(content), ',', '"', false)) {
+      assertEquals(Arrays.asList("\"Puma\" concolor", "\""), reader.read());
+      assertNull(reader.read());
+    }
+  }
+
+  @Test
+  public void testCrLfInQuotes() throws IOException {
+    String content = "1,\"multi\r\nline\"\n2,single line\n";
+    try (TabularRecordReader reader = new TabularRecordReader(new StringReader(content), ',', '"', false)) {
+      List<List<String>> records = readAll(reader);
+      assertEquals(2, records.size());
+      assertEquals(Arrays.asList("1", "multi\r\nline"), records.get(0));
+      assertEquals(Arrays.asList("2", "single line"), records.get(1));
+    }
+  }
+
+  @Test
+  public void testUnterminatedQuote() throws IOException {
+    String content = "id,name\n1,Puma concolor\n2,\"Abies\nalba\n3,Quercus robur\n";
+    try (TabularRecordReader reader = new TabularRecordReader(new StringReader(content), ',', '"', true)) {
+      assertEquals(Arrays.asList("1", "Puma concolor"), reader.read());
+      reader.read();
+      fail("The quoted value is not closed");
+    } catch (IOException ioEx) {
+      assertTrue(ioEx.getMessage(), ioEx.getMessage().contains("line 3"));
+    }
+  }
+
+  /**
+   * A byte range ending within a quoted value is reported with the line number in the file.
+   */
+  @Test
+  public void testByteRangeEndingInQuotes() throws IOException {
+    String content = "id,name\n1,Puma concolor\n2,\"Abies\nalba\"\n";
+    Path file = folder.newFile().toPath();
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    long start = content.indexOf("1,");
+    long end = content.indexOf("alba");
+
+    try (TabularRecordSource source = new TabularRecordSource(newByteRange(file, 1, start, end))) {
+      assertEquals(Arrays.asList("1", "Puma concolor"), source.read());
+      source.read();
+      fail("The byte range ends within a quoted value");
+    } catch (IOException ioEx) {
+      assertTrue(ioEx.getMessage(), ioEx.getMessage().contains("line 3"));
+    }
+  }
+
+  private static TabularDataFile newByteRange(Path file, int fileLineOffset, long start, long end) {
+    return new TabularDataFile(file, "occurrence.csv", RowTypeKey.forCore(DwcTerm.Occurrence),
+            new Term[] {DwcTerm.occurrenceID, DwcTerm.scientificName}, null, null, fileLineOffset, start, end, false,
+            StandardCharsets.UTF_8, ',', '"', 3, 2, null);
+  }
+
+  private static List<List<String>> readAll(TabularRecordReader reader) throws IOException {
+    List<List<String>> records = new ArrayList<>();
+    List<String> record;
+    while ((record = reader.read()) != null) {
+      records.add(new ArrayList<>(record));
+    }
+    return records;
+  }
+}
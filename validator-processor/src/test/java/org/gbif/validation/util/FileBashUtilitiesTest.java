@@ -52,6 +52,14 @@ public class FileBashUtilitiesTest {
     assertEquals(5, FileBashUtilities.countLines(t2.getAbsolutePath()));
   }
 
+  @Test
+  public void testCountLinesPathWithSpaces() throws IOException {
+    File t1 = copyTestFile(SPLITTER_TEST_FILE_NONEWLINE, "count with spaces.csv");
+    assertEquals(4, FileBashUtilities.countLines(t1.getAbsolutePath()));
+    FileBashUtilities.ensureEndsWithNewline(t1.getAbsolutePath());
+    assertEquals(5, FileBashUtilities.countLines(t1.getAbsolutePath()));
+  }
+
   @Test
   public void testSplit() throws IOException {
     //won't work on Windows
@@ -1,15 +1,22 @@
 package org.gbif.validation.util;
 
 import org.gbif.utils.file.FileUtils;
+import org.gbif.validation.api.TabularFileIndex;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -31,6 +38,10 @@ public class FileNormalizerTest {
   private static final File LATIN_CRLF_TEST_FILE = FileUtils.getClasspathFile("normalizer/latin1_crlf.txt");
   private static final File UTF8_CR_TEST_FILE = FileUtils.getClasspathFile("normalizer/utf8_cr.txt");
   private static final File UTF8_LF_TEST_FILE = FileUtils.getClasspathFile("normalizer/utf8_lf.txt");
+  private static final File MULTILINE_TEST_FILE = FileUtils.getClasspathFile("splitter/multiline_file.csv");
+  private static final File NO_NEWLINE_TEST_FILE = FileUtils.getClasspathFile("splitter/original_file_no_newline.csv");
+  //number of ranges used to test the copy in parallel ranges
+  private static final int NUMBER_OF_RANGES = 3;
 
   @Test
   public void testLatinCRLF() throws IOException {
@@ -58,6 +69,58 @@ public class FileNormalizerTest {
     assertEquals(2, normalizedContent.get(Paths.get("subsubfolder/utf8_lf.txt")).intValue());
   }
 
+  @Test
+  public void testNormalizeAndIndex() throws IOException {
+    File normalizedFile = folder.newFile();
+    TabularFileIndex index = FileNormalizer.normalizeFile(MULTILINE_TEST_FILE.toPath(), normalizedFile.toPath(),
+            StandardCharsets.UTF_8, ',', '"', 2);
+
+    assertEquals(7, index.getNumberOfLines());
+    //header + 4 records, 2 of them contain a new line within a quoted cell
+    assertEquals(5, index.getNumberOfRecords());
+    assertEquals(normalizedFile.length(), index.getFileSize());
+
+    //a checkpoint every 2 records, placed at the beginning of the records 0, 2 and 4
+    String fileContent = org.apache.commons.io.FileUtils.readFileToString(normalizedFile, "UTF-8");
+    assertEquals(3, index.getNumberOfCheckpoints());
+    assertEquals(0, index.getCheckpointOffset(0));
+    assertTrue(fileContent.startsWith("2,", (int) index.getCheckpointOffset(1)));
+    assertTrue(fileContent.startsWith("4,", (int) index.getCheckpointOffset(2)));
+  }
+
+  /**
+   * Copying a file in ranges (as done for large files) shall give the same file and index as a sequential copy.
+   */
+  @Test
+  public void testNormalizeInRanges() throws IOException {
+    File sequentialFile = folder.newFile();
+    File rangesFile = folder.newFile();
+    TabularFileIndex sequentialIndex = FileNormalizer.normalizeFile(MULTILINE_TEST_FILE.toPath(),
+            sequentialFile.toPath(), StandardCharsets.UTF_8, ',', '"', 2);
+    //more than one range, regardless of the number of processors
+    assertTrue(RecordBoundaryScanner.computeRecordRanges(MULTILINE_TEST_FILE.toPath(), NUMBER_OF_RANGES, ',', '"')
+            .size() > 1);
+    TabularFileIndex rangesIndex = FileNormalizer.normalizeFile(MULTILINE_TEST_FILE.toPath(),
+            rangesFile.toPath(), StandardCharsets.UTF_8, ',', '"', 2, 0, NUMBER_OF_RANGES);
+
+    assertTrue(org.apache.commons.io.FileUtils.contentEquals(sequentialFile, rangesFile));
+    assertIndexEquals(sequentialIndex, rangesIndex);
+  }
+
+  @Test
+  public void testUtf8LFWithoutTrailingNewline() throws IOException {
+    File normalizedFile = folder.newFile();
+    TabularFileIndex index = FileNormalizer.normalizeFile(NO_NEWLINE_TEST_FILE.toPath(), normalizedFile.toPath(),
+            null, ',', '"');
+
+    assertEquals(5, index.getNumberOfLines());
+    assertEquals(5, index.getNumberOfRecords());
+    assertEquals(NO_NEWLINE_TEST_FILE.length() + 1, normalizedFile.length());
+    assertEquals(normalizedFile.length(), index.getFileSize());
+    String fileContent = org.apache.commons.io.FileUtils.readFileToString(normalizedFile, "UTF-8");
+    assertTrue(fileContent.endsWith(FileNormalizer.END_LINE));
+  }
+
   private void testNormalizer(Path testFile, Charset charset) throws IOException {
     File normalizedFile = folder.newFile();
     long numberOfLine = FileNormalizer.normalizeFile(testFile, normalizedFile.toPath(), charset);
@@ -94,4 +157,108 @@ public class FileNormalizerTest {
     assertEquals(3, normalizedContent.get(Paths.get(LATIN_CRLF_TEST_FILE.getName())).intValue());
   }
 
+  /**
+   * Files read from a ZIP file (compressed or not) shall be normalized like the extracted files.
+   */
+  @Test
+  public void testNormalizeArchive() throws IOException {
+    File zipFile = folder.newFile("archive.zip");
+    try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipFile))) {
+      addZipEntry(zip, "archive/" + LATIN_CRLF_TEST_FILE.getName(), LATIN_CRLF_TEST_FILE, ZipEntry.DEFLATED);
+      addZipEntry(zip, "archive/" + MULTILINE_TEST_FILE.getName(), MULTILINE_TEST_FILE, ZipEntry.STORED);
+      addZipEntry(zip, "archive/.DS_Store", MULTILINE_TEST_FILE, ZipEntry.STORED);
+      addZipEntry(zip, "__MACOSX/archive/._" + MULTILINE_TEST_FILE.getName(), MULTILINE_TEST_FILE, ZipEntry.STORED);
+    }
+
+    Map<Path, Charset> charsets = Collections.singletonMap(Paths.get(LATIN_CRLF_TEST_FILE.getName()),
+            StandardCharsets.ISO_8859_1);
+    Map<Path, Character> delimiters = Collections.singletonMap(Paths.get(MULTILINE_TEST_FILE.getName()), ',');
+    Map<Path, Character> quotes = Collections.singletonMap(Paths.get(MULTILINE_TEST_FILE.getName()), '"');
+    File normalizedFolder = folder.newFolder();
+    Map<Path, TabularFileIndex> normalizedContent = FileNormalizer.normalizeAndIndexArchive(zipFile.toPath(),
+            normalizedFolder.toPath(), charsets, delimiters, quotes);
+    assertEquals(2, normalizedContent.size());
+    assertEquals(2, normalizedFolder.list().length);
+
+    File expectedLatinFile = folder.newFile();
+    File expectedMultilineFile = folder.newFile();
+    TabularFileIndex expectedLatinIndex = FileNormalizer.normalizeFile(LATIN_CRLF_TEST_FILE.toPath(),
+            expectedLatinFile.toPath(), StandardCharsets.ISO_8859_1, null, null);
+    TabularFileIndex expectedMultilineIndex = FileNormalizer.normalizeFile(MULTILINE_TEST_FILE.toPath(),
+            expectedMultilineFile.toPath(), null, ',', '"');
+
+    assertEquals(expectedLatinIndex.toString(),
+            normalizedContent.get(Paths.get(LATIN_CRLF_TEST_FILE.getName())).toString());
+    assertTrue(org.apache.commons.io.FileUtils.contentEquals(expectedLatinFile,
+            new File(normalizedFolder, LATIN_CRLF_TEST_FILE.getName())));
+    assertEquals(expectedMultilineIndex.toString(),
+            normalizedContent.get(Paths.get(MULTILINE_TEST_FILE.getName())).toString());
+    assertTrue(org.apache.commons.io.FileUtils.contentEquals(expectedMultilineFile,
+            new File(normalizedFolder, MULTILINE_TEST_FILE.getName())));
+  }
+
+  @Test
+  public void testIndexWhileWriting() throws IOException {
+    testIndexWhileWriting(MULTILINE_TEST_FILE, ',');
+    //single column, without new line at the end
+    testIndexWhileWriting(NO_NEWLINE_TEST_FILE, null);
+
+    //not normalized, written as is
+    File latinFile = folder.newFile();
+    FileNormalizer.IndexingOutputStream out = FileNormalizer.newIndexingOutputStream(
+            new FileOutputStream(latinFile));
+    Files.copy(LATIN_CRLF_TEST_FILE.toPath(), out);
+    out.close();
+
+    assertFalse(out.getIndex().isPresent());
+    assertTrue(org.apache.commons.io.FileUtils.contentEquals(LATIN_CRLF_TEST_FILE, latinFile));
+  }
+
+  private void testIndexWhileWriting(File testFile, Character expectedDelimiter) throws IOException {
+    File expectedFile = folder.newFile();
+    TabularFileIndex expectedIndex = FileNormalizer.normalizeFile(testFile.toPath(), expectedFile.toPath(),
+            StandardCharsets.UTF_8, expectedDelimiter, '"');
+
+    //the content is written in small chunks, like while it is received
+    File writtenFile = folder.newFile();
+    byte[] content = Files.readAllBytes(testFile.toPath());
+    FileNormalizer.IndexingOutputStream out = FileNormalizer.newIndexingOutputStream(
+            new FileOutputStream(writtenFile));
+    for (int i = 0; i < content.length; i += 7) {
+      out.write(content, i, Math.min(7, content.length - i));
+    }
+    out.close();
+
+    assertTrue(out.getIndex().isPresent());
+    assertIndexEquals(expectedIndex, out.getIndex().get());
+    assertEquals(expectedIndex.getDelimiterChar(), out.getIndex().get().getDelimiterChar());
+    assertEquals(expectedIndex.getQuoteChar(), out.getIndex().get().getQuoteChar());
+    assertTrue(org.apache.commons.io.FileUtils.contentEquals(expectedFile, writtenFile));
+  }
+
+  private static void assertIndexEquals(TabularFileIndex expected, TabularFileIndex actual) {
+    assertEquals(expected.getFileSize(), actual.getFileSize());
+    assertEquals(expected.getNumberOfLines(), actual.getNumberOfLines());
+    assertEquals(expected.getNumberOfRecords(), actual.getNumberOfRecords());
+    assertEquals(expected.getNumberOfCheckpoints(), actual.getNumberOfCheckpoints());
+    for (int i = 0; i < expected.getNumberOfCheckpoints(); i++) {
+      assertEquals(expected.getCheckpointOffset(i), actual.getCheckpointOffset(i));
+    }
+  }
+
+  private static void addZipEntry(ZipOutputStream zip, String name, File file, int method) throws IOException {
+    byte[] content = Files.readAllBytes(file.toPath());
+    ZipEntry entry = new ZipEntry(name);
+    entry.setMethod(method);
+    if (method == ZipEntry.STORED) {
+      CRC32 crc = new CRC32();
+      crc.update(content);
+      entry.setSize(content.length);
+      entry.setCrc(crc.getValue());
+    }
+    zip.putNextEntry(entry);
+    zip.write(content);
+    zip.closeEntry();
+  }
+
 }
@@ -0,0 +1,78 @@
+package org.gbif.validation.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests related to {@link LineValuePartitions}.
+ */
+public class LineValuePartitionsTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testInMemory() throws IOException {
+    testPartitions(new LineValuePartitions(4, false, null));
+  }
+
+  @Test
+  public void testSpilled() throws IOException {
+    Path workingFolder = folder.newFolder().toPath();
+    testPartitions(new LineValuePartitions(4, true, workingFolder));
+    //spill files are removed
+    assertEquals(0, workingFolder.toFile().list().length);
+  }
+
+  @Test
+  public void testNumberOfPartitions() {
+    assertEquals(1, LineValuePartitions.numberOfPartitions(0, 10));
+    assertEquals(1, LineValuePartitions.numberOfPartitions(10, 10));
+    assertEquals(2, LineValuePartitions.numberOfPartitions(11, 10));
+  }
+
+  /**
+   * All the occurrences of a value are read back in the same partition.
+   */
+  private static void testPartitions(LineValuePartitions partitions) throws IOException {
+    List<String> values = Arrays.asList("a", "b", "c", "d", "e", "a", "b", "a");
+    for (int i = 0; i < values.size(); i++) {
+      partitions.add(values.get(i), i + 1);
+    }
+
+    Map<String, Integer> partitionOfValue = new HashMap<>();
+    Set<Long> lineNumbers = new HashSet<>();
+    List<Integer> partitionCounter = new ArrayList<>(Arrays.asList(0));
+    partitions.forEachPartition(new LineValuePartitions.PartitionConsumer() {
+      @Override
+      public void accept(String value, long lineNumber) {
+        Integer partition = partitionOfValue.putIfAbsent(value, partitionCounter.get(0));
+        assertTrue(partition == null || partition.equals(partitionCounter.get(0)));
+        lineNumbers.add(lineNumber);
+      }
+
+      @Override
+      public void endOfPartition() {
+        partitionCounter.set(0, partitionCounter.get(0) + 1);
+      }
+    });
+
+    assertEquals(4, partitionCounter.get(0).intValue());
+    assertEquals(new HashSet<>(values), partitionOfValue.keySet());
+    assertEquals(values.size(), lineNumbers.size());
+  }
+}
@@ -0,0 +1,107 @@
+package org.gbif.validation.util;
+
+import org.gbif.utils.file.FileUtils;
+import org.gbif.validation.api.TabularFileIndex;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Unit tests for {@link RecordBoundaryScanner}.
+ */
+public class RecordBoundaryScannerTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static final File MULTILINE_TEST_FILE = FileUtils.getClasspathFile("splitter/multiline_file.csv");
+  private static final File SPLITTER_TEST_FILE_NONEWLINE = FileUtils.getClasspathFile("splitter/original_file_no_newline.csv");
+
+  //header + 4 records, 2 of them contain a new line within a quoted cell
+  private static final int MULTILINE_TEST_FILE_RECORDS = 5;
+
+  @Test
+  public void testMultilineRecords() throws IOException {
+    Path filePath = MULTILINE_TEST_FILE.toPath();
+    byte[] content = Files.readAllBytes(filePath);
+
+    //whatever the number of ranges requested, boundaries shall always be placed at the end of a record
+    for (int numberOfRanges = 1; numberOfRanges <= content.length; numberOfRanges++) {
+      List<RecordBoundaryScanner.RecordRange> ranges = RecordBoundaryScanner.computeRecordRanges(filePath,
+              numberOfRanges, ',', '"');
+      assertTrue(ranges.size() <= Math.min(numberOfRanges, MULTILINE_TEST_FILE_RECORDS));
+
+      long expectedStart = 0;
+      int numberOfRecords = 0;
+      for (RecordBoundaryScanner.RecordRange range : ranges) {
+        assertEquals(expectedStart, range.getStart());
+        assertTrue(range.getEnd() > range.getStart());
+        assertEquals('\n', content[(int) range.getEnd() - 1]);
+        expectedStart = range.getEnd();
+        numberOfRecords += range.getNumberOfRecords();
+      }
+      assertEquals(content.length, expectedStart);
+      assertEquals(MULTILINE_TEST_FILE_RECORDS, numberOfRecords);
+    }
+  }
+
+  @Test
+  public void testWithoutQuoteChar() throws IOException {
+    //without quote character, each line is a record
+    List<RecordBoundaryScanner.RecordRange> ranges = RecordBoundaryScanner.computeRecordRanges(
+            MULTILINE_TEST_FILE.toPath(), 1, ',', null);
+    assertEquals(1, ranges.size());
+    assertEquals(7, ranges.get(0).getNumberOfRecords());
+  }
+
+  @Test
+  public void testNoTrailingNewline() throws IOException {
+    List<RecordBoundaryScanner.RecordRange> ranges = RecordBoundaryScanner.computeRecordRanges(
+            SPLITTER_TEST_FILE_NONEWLINE.toPath(), 2, ',', '"');
+    int numberOfRecords = ranges.stream().mapToInt(RecordBoundaryScanner.RecordRange::getNumberOfRecords).sum();
+    assertEquals(5, numberOfRecords);
+    assertEquals(SPLITTER_TEST_FILE_NONEWLINE.length(), ranges.get(ranges.size() - 1).getEnd());
+  }
+
+  @Test
+  public void testEmptyFile() throws IOException {
+    Path emptyFile = folder.newFile("empty.csv").toPath();
+    Files.write(emptyFile, new byte[0], StandardOpenOption.TRUNCATE_EXISTING);
+    List<RecordBoundaryScanner.RecordRange> ranges = RecordBoundaryScanner.computeRecordRanges(emptyFile, 3, ',', '"');
+    assertEquals(1, ranges.size());
+    assertEquals(0, ranges.get(0).getNumberOfRecords());
+  }
+
+  @Test
+  public void testRecordRangesFromIndex() throws IOException {
+    Path normalizedFile = folder.newFile("normalized.csv").toPath();
+    TabularFileIndex index = FileNormalizer.normalizeFile(MULTILINE_TEST_FILE.toPath(), normalizedFile,
+            null, ',', '"', 2);
+    byte[] content = Files.readAllBytes(normalizedFile);
+
+    //3 records per range is rounded down to 1 checkpoint (2 records)
+    List<RecordBoundaryScanner.RecordRange> ranges = RecordBoundaryScanner.computeRecordRanges(index, 3);
+    assertEquals(3, ranges.size());
+    assertEquals(2, ranges.get(0).getNumberOfRecords());
+    assertEquals(2, ranges.get(1).getNumberOfRecords());
+    assertEquals(1, ranges.get(2).getNumberOfRecords());
+    assertEquals(0, ranges.get(0).getStart());
+    assertEquals(ranges.get(0).getEnd(), ranges.get(1).getStart());
+    assertEquals(ranges.get(1).getEnd(), ranges.get(2).getStart());
+    assertEquals('\n', content[(int) ranges.get(0).getEnd() - 1]);
+    assertEquals('\n', content[(int) ranges.get(1).getEnd() - 1]);
+    assertEquals(content.length, ranges.get(2).getEnd());
+  }
+
+}
@@ -0,0 +1,187 @@
+package org.gbif.validation.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.OptionalLong;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests related to {@link ZippedArchive}.
+ */
+public class ZippedArchiveTest {
+
+  private static final byte[] OCCURRENCE = "id,scientificName\n1,Puma concolor\n2,Abies alba\n"
+          .getBytes(StandardCharsets.UTF_8);
+  private static final byte[] META = "<archive/>\n".getBytes(StandardCharsets.UTF_8);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testStoredAndDeflatedEntries() throws IOException {
+    Path zipFile = folder.newFile("archive.zip").toPath();
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+      //the single folder at the root is not part of the paths
+      putEntry(out, "dwca/occurrence.txt", OCCURRENCE, ZipEntry.STORED);
+      putEntry(out, "dwca/meta.xml", META, ZipEntry.DEFLATED);
+      putEntry(out, "__MACOSX/._meta.xml", META, ZipEntry.DEFLATED);
+    }
+
+    assertTrue(ZippedArchive.isZipFile(zipFile));
+    try (ZippedArchive archive = ZippedArchive.open(zipFile)) {
+      assertEquals(new HashSet<>(Arrays.asList(Paths.get("occurrence.txt"), Paths.get("meta.xml"))),
+              archive.getFilePaths());
+      assertEquals(OCCURRENCE.length, archive.getSize(Paths.get("occurrence.txt")));
+
+      //a stored entry can be read directly from the ZIP file
+      OptionalLong dataOffset = archive.getStoredDataOffset(Paths.get("occurrence.txt"));
+      assertTrue(dataOffset.isPresent());
+      assertArrayEquals(OCCURRENCE, readBytes(zipFile, dataOffset.getAsLong(), OCCURRENCE.length));
+      assertArrayEquals(OCCURRENCE, readEntry(archive, "occurrence.txt"));
+
+      //a deflated entry can only be read as stream
+      assertFalse(archive.getStoredDataOffset(Paths.get("meta.xml")).isPresent());
+      assertArrayEquals(META, readEntry(archive, "meta.xml"));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testMissingCentralDirectory() throws IOException {
+    Path zipFile = folder.newFile("archive.zip").toPath();
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+      putEntry(out, "occurrence.txt", OCCURRENCE, ZipEntry.STORED);
+    }
+    //keep the local file header and the data only, like an interrupted upload
+    try (FileChannel channel = FileChannel.open(zipFile, StandardOpenOption.WRITE)) {
+      channel.truncate(30 + "occurrence.txt".length() + OCCURRENCE.length);
+    }
+
+    assertTrue(ZippedArchive.isZipFile(zipFile));
+    ZippedArchive.open(zipFile).close();
+  }
+
+  /**
+   * An entry using the ZIP64 extra field for its sizes is not located but can still be read as stream.
+   */
+  @Test
+  public void testZip64Entry() throws IOException {
+    Path zipFile = folder.newFile("archive.zip").toPath();
+    Files.write(zipFile, buildZip64StoredArchive("occurrence.txt", OCCURRENCE));
+
+    try (ZippedArchive archive = ZippedArchive.open(zipFile)) {
+      assertEquals(OCCURRENCE.length, archive.getSize(Paths.get("occurrence.txt")));
+      assertFalse(archive.getStoredDataOffset(Paths.get("occurrence.txt")).isPresent());
+      assertArrayEquals(OCCURRENCE, readEntry(archive, "occurrence.txt"));
+    }
+  }
+
+  @Test
+  public void testExtractBeginning() throws IOException {
+    Path zipFile = folder.newFile("archive.zip").toPath();
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+      putEntry(out, "occurrence.txt", OCCURRENCE, ZipEntry.DEFLATED);
+    }
+
+    Path extracted = folder.newFile().toPath();
+    try (ZippedArchive archive = ZippedArchive.open(zipFile)) {
+      archive.extractBeginning(Paths.get("occurrence.txt"), extracted, 2, Long.MAX_VALUE);
+      assertEquals("id,scientificName\n1,Puma concolor\n", new String(Files.readAllBytes(extracted),
+              StandardCharsets.UTF_8));
+
+      archive.extractBeginning(Paths.get("occurrence.txt"), extracted, 2, 5);
+      assertEquals("id,sc", new String(Files.readAllBytes(extracted), StandardCharsets.UTF_8));
+    }
+  }
+
+  private static void putEntry(ZipOutputStream out, String name, byte[] content, int method) throws IOException {
+    ZipEntry entry = new ZipEntry(name);
+    entry.setMethod(method);
+    if (method == ZipEntry.STORED) {
+      entry.setSize(content.length);
+      entry.setCompressedSize(content.length);
+      entry.setCrc(crc(content));
+    }
+    out.putNextEntry(entry);
+    out.write(content);
+    out.closeEntry();
+  }
+
+  /**
+   * Builds a ZIP file with a single stored entry whose sizes are in the ZIP64 extended information extra field, as
+   * written for entries larger than 4GB.
+   */
+  private static byte[] buildZip64StoredArchive(String name, byte[] content) {
+    byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+    int extraLength = 20;
+    int localHeaderLength = 30 + nameBytes.length + extraLength;
+    int centralDirectoryLength = 46 + nameBytes.length + extraLength;
+    ByteBuffer zip = ByteBuffer.allocate(localHeaderLength + content.length + centralDirectoryLength + 22)
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+    zip.putInt(0x04034b50).putShort((short) 45).putShort((short) 0).putShort((short) ZipEntry.STORED)
+            .putShort((short) 0).putShort((short) 0x21).putInt((int) crc(content))
+            .putInt(0xFFFFFFFF).putInt(0xFFFFFFFF).putShort((short) nameBytes.length).putShort((short) extraLength)
+            .put(nameBytes);
+    putZip64ExtraField(zip, content.length);
+    zip.put(content);
+
+    int centralDirectoryOffset = zip.position();
+    zip.putInt(0x02014b50).putShort((short) 45).putShort((short) 45).putShort((short) 0)
+            .putShort((short) ZipEntry.STORED).putShort((short) 0).putShort((short) 0x21).putInt((int) crc(content))
+            .putInt(0xFFFFFFFF).putInt(0xFFFFFFFF).putShort((short) nameBytes.length).putShort((short) extraLength)
+            .putShort((short) 0).putShort((short) 0).putShort((short) 0).putInt(0).putInt(0)
+            .put(nameBytes);
+    putZip64ExtraField(zip, content.length);
+
+    zip.putInt(0x06054b50).putShort((short) 0).putShort((short) 0).putShort((short) 1).putShort((short) 1)
+            .putInt(centralDirectoryLength).putInt(centralDirectoryOffset).putShort((short) 0);
+    return zip.array();
+  }
+
+  private static void putZip64ExtraField(ByteBuffer zip, long size) {
+    //uncompressed then compressed size
+    zip.putShort((short) 0x0001).putShort((short) 16).putLong(size).putLong(size);
+  }
+
+  private static long crc(byte[] content) {
+    CRC32 crc = new CRC32();
+    crc.update(content);
+    return crc.getValue();
+  }
+
+  private static byte[] readEntry(ZippedArchive archive, String filePath) throws IOException {
+    try (InputStream in = archive.getInputStream(Paths.get(filePath))) {
+      return ByteStreams.toByteArray(in);
+    }
+  }
+
+  private static byte[] readBytes(Path file, long offset, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      channel.read(buffer, offset);
+    }
+    return buffer.array();
+  }
+}
@@ -33,6 +33,7 @@ import com.google.common.collect.Lists;
 import com.google.inject.Module;
 import com.google.inject.TypeLiteral;
 import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,6 +77,12 @@ public class ValidationWsListener extends GbifServletListener {
       configuration.setWorkingDir(properties.getProperty(ConfKeys.WORKING_DIR_CONF_KEY));
       configuration.setFileSplitSize(NumberUtils.toInt(properties.getProperty(ConfKeys.FILE_SPLIT_SIZE),
               DEFAULT_SPLIT_SIZE));
+      configuration.setMaxWorkers(NumberUtils.toInt(properties.getProperty(ConfKeys.MAX_WORKERS),
+              ValidationWsConfiguration.DEFAULT_MAX_WORKERS));
+      configuration.setMaxWorkersPerJob(NumberUtils.toInt(properties.getProperty(ConfKeys.MAX_WORKERS_PER_JOB),
+              configuration.getMaxWorkers()));
+      configuration.setMaxRunningJobs(NumberUtils.toInt(properties.getProperty(ConfKeys.MAX_RUNNING_JOBS),
+              ValidationWsConfiguration.DEFAULT_MAX_RUNNING_JOBS));
       configuration.setApiDataValidationPath(properties.getProperty(ConfKeys.VALIDATION_API_PATH_CONF_KEY));
       configuration.setJobResultStorageDir(properties.getProperty(ConfKeys.RESULT_STORAGE_DIR_CONF_KEY));
       configuration.setMaxFileTransferSizeInBytes(NumberUtils.toLong(
@@ -91,6 +98,19 @@ public class ValidationWsListener extends GbifServletListener {
       configuration.setPreserveTemporaryFiles(
               BooleanUtils.toBooleanDefaultIfNull(
                 BooleanUtils.toBoolean(properties.getProperty(ConfKeys.PRESERVE_TEMPORARY_FILES)), false));
+      configuration.setPrefetchLookups(BooleanUtils.toBoolean(properties.getProperty(ConfKeys.PREFETCH_LOOKUPS)));
+      configuration.setKeepArchivesZipped(BooleanUtils.toBoolean(properties.getProperty(ConfKeys.KEEP_ARCHIVES_ZIPPED)));
+      configuration.setNameMatchChecklist(StringUtils.trimToNull(properties.getProperty(ConfKeys.NAME_MATCH_CHECKLIST)));
+      configuration.setCountryPolygons(StringUtils.trimToNull(properties.getProperty(ConfKeys.COUNTRY_POLYGONS)));
+      configuration.setCoreIdentifiersMemoryBudget(NumberUtils.toLong(
+              properties.getProperty(ConfKeys.CORE_IDENTIFIERS_MEMORY_BUDGET),
+              ValidatorConfiguration.DEFAULT_CORE_IDENTIFIERS_MEMORY_BUDGET));
+      configuration.setSamplesMemoryBudget(NumberUtils.toLong(
+              properties.getProperty(ConfKeys.SAMPLES_MEMORY_BUDGET),
+              ValidatorConfiguration.DEFAULT_SAMPLES_MEMORY_BUDGET));
+      configuration.setProgressReportIntervalInSeconds(NumberUtils.toInt(
+              properties.getProperty(ConfKeys.PROGRESS_REPORT_INTERVAL_IN_SECONDS),
+              ValidatorConfiguration.DEFAULT_PROGRESS_REPORT_INTERVAL_IN_SECONDS));
       configuration.setGangliaHost(properties.getProperty(ConfKeys.GANGLIA_HOST));
       configuration.setGangliaPort(NumberParser.parseInteger(properties.getProperty(ConfKeys.GANGLIA_PORT)));
 
@@ -114,8 +134,10 @@ public class ValidationWsListener extends GbifServletListener {
      */
     private static JobServer<ValidationResult> getJobServerInstance(ValidationWsConfiguration configuration,
                                                                     UploadedFileManager uploadedFileManager) {
+      ActorPropsSupplier actorPropsSupplier = buildActorPropsMapping(configuration);
       return new JobServer<>(new FileJobStorage(Paths.get(configuration.getJobResultStorageDir())),
-                             buildActorPropsMapping(configuration), uploadedFileManager::cleanByKey);
+                             actorPropsSupplier, actorPropsSupplier.getWorkSchedulerProps(),
+                             configuration.getMaxRunningJobs(), uploadedFileManager::cleanByKey);
     }
 
     @Override
@@ -125,7 +147,7 @@ public class ValidationWsListener extends GbifServletListener {
       UploadedFileManager uploadedFileManager;
       try {
         uploadedFileManager = new UploadedFileManager(configuration.getWorkingDir(),
-                configuration.getMaxFileTransferSizeInBytes());
+                configuration.getMaxFileTransferSizeInBytes(), configuration.isKeepArchivesZipped());
         bind(UploadedFileManager.class).toInstance(uploadedFileManager);
       } catch (IOException e) {
         LOG.error("Can't instantiate uploadedFileManager", e);
@@ -158,6 +180,12 @@ public class ValidationWsListener extends GbifServletListener {
               .setNormalizerConfiguration(getNormalizerConfiguration())
               .setExtensionListURL(configuration.getExtensionDiscoveryUrl())
               .setPreserveTemporaryFiles(configuration.isPreserveTemporaryFiles())
+              .setPrefetchLookups(configuration.isPrefetchLookups())
+              .setNameMatchChecklist(configuration.getNameMatchChecklist().map(Paths::get).orElse(null))
+              .setCountryPolygons(configuration.getCountryPolygons().map(Paths::get).orElse(null))
+              .setCoreIdentifiersMemoryBudget(configuration.getCoreIdentifiersMemoryBudget())
+              .setSamplesMemoryBudget(configuration.getSamplesMemoryBudget())
+              .setProgressReportIntervalInSeconds(configuration.getProgressReportIntervalInSeconds())
               .setGangliaHost(configuration.getGangliaHost().orElse(null))
               .setGangliaPort(configuration.getGangliaPort().orElse(null))
               .build();
@@ -165,7 +193,9 @@ public class ValidationWsListener extends GbifServletListener {
       return new ActorPropsSupplier(new EvaluatorFactory(config),
               configuration.getFileSplitSize(),
               configuration.getWorkingDir(),
-              config.isPreservedTemporaryFiles());
+              config.isPreservedTemporaryFiles(),
+              configuration.getMaxWorkers(),
+              configuration.getMaxWorkersPerJob());
     }
 
     /**
@@ -12,9 +12,20 @@ public final class ConfKeys {
   public static final String FILE_SPLIT_SIZE = "fileSplitSize";
   public static final String RESULT_STORAGE_DIR_CONF_KEY = "jobResultStorageDir";
 
+  public static final String MAX_WORKERS = "maxWorkers";
+  public static final String MAX_WORKERS_PER_JOB = "maxWorkersPerJob";
+  public static final String MAX_RUNNING_JOBS = "maxRunningJobs";
+
   public static final String PRESERVE_TEMPORARY_FILES = "preserveTemporaryFiles";
+  public static final String PREFETCH_LOOKUPS = "prefetchLookups";
+  public static final String NAME_MATCH_CHECKLIST = "nameMatchChecklist";
+  public static final String COUNTRY_POLYGONS = "countryPolygons";
+  public static final String CORE_IDENTIFIERS_MEMORY_BUDGET = "coreIdentifiersMemoryBudget";
+  public static final String SAMPLES_MEMORY_BUDGET = "samplesMemoryBudget";
+  public static final String PROGRESS_REPORT_INTERVAL_IN_SECONDS = "progressReportIntervalInSeconds";
 
   public static final String MAX_FILE_TRANSFER_SIZE_IN_BYTES = "maxFileTransferSizeInBytes";
+  public static final String KEEP_ARCHIVES_ZIPPED = "keepArchivesZipped";
 
   public static final String GANGLIA_HOST = "gangliaHost";
   public static final String GANGLIA_PORT = "gangliaPort";
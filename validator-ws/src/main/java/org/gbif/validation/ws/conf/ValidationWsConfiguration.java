@@ -1,5 +1,7 @@
 package org.gbif.validation.ws.conf;
 
+import org.gbif.validation.conf.ValidatorConfiguration;
+
 import java.net.URL;
 import java.util.Optional;
 
@@ -11,6 +13,8 @@ public class ValidationWsConfiguration {
   //name of the parameter used when POSTing a file
   public static final String FILE_POST_PARAM_NAME = "file";
   public static final long DEFAULT_MAX_FILE_TRANSFER_SIZE  = 1024*1024*100; //100 MB
+  public static final int DEFAULT_MAX_WORKERS = Runtime.getRuntime().availableProcessors();
+  public static final int DEFAULT_MAX_RUNNING_JOBS = Runtime.getRuntime().availableProcessors();
 
   /**
    * Url to the GBIF Rest API.
@@ -19,8 +23,39 @@ public class ValidationWsConfiguration {
   private URL extensionDiscoveryUrl;
   private boolean preserveTemporaryFiles;
 
+  /**
+   * Should the distinct names and coordinates of a file be resolved before the interpretation of the records.
+   */
+  private boolean prefetchLookups;
+
+  /**
+   * Optional local backends of the lookups, the GBIF API is used when not provided.
+   */
+  private String nameMatchChecklist;
+  private String countryPolygons;
+
+  /**
+   * Number of bytes the identifiers of a core can use in memory, per job.
+   */
+  private long coreIdentifiersMemoryBudget = ValidatorConfiguration.DEFAULT_CORE_IDENTIFIERS_MEMORY_BUDGET;
+
+  /**
+   * Number of bytes the issue and verbatim record samples can use in memory, per job.
+   */
+  private long samplesMemoryBudget = ValidatorConfiguration.DEFAULT_SAMPLES_MEMORY_BUDGET;
+
+  /**
+   * Interval at which running jobs publish their partial results and progress, 0 to disable.
+   */
+  private int progressReportIntervalInSeconds = ValidatorConfiguration.DEFAULT_PROGRESS_REPORT_INTERVAL_IN_SECONDS;
+
   private long maxFileTransferSizeInBytes = DEFAULT_MAX_FILE_TRANSFER_SIZE;
 
+  /**
+   * Should DarwinCore Archives be kept as ZIP files and read without being extracted.
+   */
+  private boolean keepArchivesZipped;
+
   private String gangliaHost;
   private Integer gangliaPort;
 
@@ -29,6 +64,21 @@ public class ValidationWsConfiguration {
    */
   private Integer fileSplitSize;
 
+  /**
+   * Total number of workers, shared by all jobs, evaluating records.
+   */
+  private int maxWorkers = DEFAULT_MAX_WORKERS;
+
+  /**
+   * Maximum number of workers a single job can use at the same time.
+   */
+  private int maxWorkersPerJob = DEFAULT_MAX_WORKERS;
+
+  /**
+   * Maximum number of jobs running at the same time, other jobs are queued.
+   */
+  private int maxRunningJobs = DEFAULT_MAX_RUNNING_JOBS;
+
   /**
    * Directory used to copy data files to be validated.
    */
@@ -76,6 +126,30 @@ public class ValidationWsConfiguration {
     this.fileSplitSize = fileSplitSize;
   }
 
+  public int getMaxWorkers() {
+    return maxWorkers;
+  }
+
+  public void setMaxWorkers(int maxWorkers) {
+    this.maxWorkers = maxWorkers;
+  }
+
+  public int getMaxWorkersPerJob() {
+    return maxWorkersPerJob;
+  }
+
+  public void setMaxWorkersPerJob(int maxWorkersPerJob) {
+    this.maxWorkersPerJob = maxWorkersPerJob;
+  }
+
+  public int getMaxRunningJobs() {
+    return maxRunningJobs;
+  }
+
+  public void setMaxRunningJobs(int maxRunningJobs) {
+    this.maxRunningJobs = maxRunningJobs;
+  }
+
   public String getWorkingDir() {
     return workingDir;
   }
@@ -100,6 +174,54 @@ public class ValidationWsConfiguration {
     this.preserveTemporaryFiles = preserveTemporaryFiles;
   }
 
+  public boolean isPrefetchLookups() {
+    return prefetchLookups;
+  }
+
+  public void setPrefetchLookups(boolean prefetchLookups) {
+    this.prefetchLookups = prefetchLookups;
+  }
+
+  public Optional<String> getNameMatchChecklist() {
+    return Optional.ofNullable(nameMatchChecklist);
+  }
+
+  public void setNameMatchChecklist(String nameMatchChecklist) {
+    this.nameMatchChecklist = nameMatchChecklist;
+  }
+
+  public Optional<String> getCountryPolygons() {
+    return Optional.ofNullable(countryPolygons);
+  }
+
+  public void setCountryPolygons(String countryPolygons) {
+    this.countryPolygons = countryPolygons;
+  }
+
+  public long getCoreIdentifiersMemoryBudget() {
+    return coreIdentifiersMemoryBudget;
+  }
+
+  public void setCoreIdentifiersMemoryBudget(long coreIdentifiersMemoryBudget) {
+    this.coreIdentifiersMemoryBudget = coreIdentifiersMemoryBudget;
+  }
+
+  public long getSamplesMemoryBudget() {
+    return samplesMemoryBudget;
+  }
+
+  public void setSamplesMemoryBudget(long samplesMemoryBudget) {
+    this.samplesMemoryBudget = samplesMemoryBudget;
+  }
+
+  public int getProgressReportIntervalInSeconds() {
+    return progressReportIntervalInSeconds;
+  }
+
+  public void setProgressReportIntervalInSeconds(int progressReportIntervalInSeconds) {
+    this.progressReportIntervalInSeconds = progressReportIntervalInSeconds;
+  }
+
   /**
    * Maximum file size, in bytes, that is allowed for file upload/download.
    *
@@ -113,6 +235,14 @@ public class ValidationWsConfiguration {
     this.maxFileTransferSizeInBytes = maxFileTransferSizeInBytes;
   }
 
+  public boolean isKeepArchivesZipped() {
+    return keepArchivesZipped;
+  }
+
+  public void setKeepArchivesZipped(boolean keepArchivesZipped) {
+    this.keepArchivesZipped = keepArchivesZipped;
+  }
+
   public Optional<String> getGangliaHost() {
     return Optional.ofNullable(gangliaHost);
   }
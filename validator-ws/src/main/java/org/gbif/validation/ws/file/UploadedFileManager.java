@@ -4,9 +4,13 @@ import org.gbif.common.parsers.date.TemporalAccessorUtils;
 import org.gbif.detect.MediaTypeAndFormatDetector;
 import org.gbif.exception.UnsupportedMediaTypeException;
 import org.gbif.validation.api.DataFile;
+import org.gbif.validation.api.TabularFileIndex;
 import org.gbif.validation.api.model.ValidationErrorCode;
+import org.gbif.validation.api.vocabulary.FileFormat;
 import org.gbif.validation.source.DataFileFactory;
 import org.gbif.validation.util.Cleanable;
+import org.gbif.validation.util.FileNormalizer;
+import org.gbif.validation.util.ZippedArchive;
 import org.gbif.validation.ws.conf.ValidationWsConfiguration;
 
 import java.io.BufferedInputStream;
@@ -15,6 +19,7 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.file.Files;
@@ -22,7 +27,6 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -38,10 +42,10 @@ import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.compress.archivers.ArchiveInputStream;
 import org.apache.commons.compress.archivers.ArchiveStreamFactory;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
-import org.apache.commons.fileupload.FileItem;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
 import org.apache.commons.fileupload.FileUploadBase;
 import org.apache.commons.fileupload.FileUploadException;
-import org.apache.commons.fileupload.disk.DiskFileItemFactory;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
 import org.apache.commons.fileupload.util.LimitedInputStream;
 import org.apache.commons.io.FileUtils;
@@ -54,13 +58,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static org.gbif.detect.MediaTypeAndFormatDetector.detectMediaType;
+import static org.gbif.validation.conf.SupportedMediaTypes.TABULAR_CONTENT_TYPES;
 import static org.gbif.validation.conf.SupportedMediaTypes.ZIP_CONTENT_TYPE;
 import static org.gbif.validation.ws.utils.WebErrorUtils.errorResponse;
 
 
 /**
  * Class responsible to manage files uploaded for validation.
- * This class will unzip the file is required.
+ * This class will unzip the file is required, DarwinCore Archives can also be kept as ZIP files.
+ * Uploaded files are written to their destination while they are received, tabular files are also indexed at the same
+ * time so they don't need to be normalized again if they are already normalized.
  *
  */
 public class UploadedFileManager implements Cleanable<UUID> {
@@ -68,20 +75,20 @@ public class UploadedFileManager implements Cleanable<UUID> {
   private static final Logger LOG = LoggerFactory.getLogger(UploadedFileManager.class);
 
   //Files with name in the list will be ignored from a zip file
-  protected static final List<String> FILE_EXCLUSION_LIST = Collections.singletonList(".DS_Store");
+  protected static final List<String> FILE_EXCLUSION_LIST = ZippedArchive.FILE_EXCLUSION_LIST;
   //Folders with name in the list (from the root, not recursively) will be ignored from a zip file
-  protected static final List<String> FOLDER_EXCLUSION_LIST = Collections.singletonList("__MACOSX");
+  protected static final List<String> FOLDER_EXCLUSION_LIST = ZippedArchive.FOLDER_EXCLUSION_LIST;
 
   private static final Pattern FILENAME_PATTERN = Pattern.compile("filename[ ]*=[ ]*[\\S]+",Pattern.CASE_INSENSITIVE);
   private static final Pattern QUOTE_PATTERN = Pattern.compile("\"");
 
   private static final int FILE_DOWNLOAD_TIMEOUT_MS = 10000;
-  private static final int MAX_SIZE_BEFORE_DISK_IN_BYTES = DiskFileItemFactory.DEFAULT_SIZE_THRESHOLD;
   private static final String DOWNLOAD_TMP_EXT = ".bin";
   private static final String FILEUPLOAD_TMP_FOLDER = "fileupload";
 
   private final Path workingDirectory;
   private final long maxFileTransferSizeInBytes;
+  private final boolean keepArchivesZipped;
   private final ServletFileUpload servletBasedFileUpload;
 
   /**
@@ -124,6 +131,26 @@ public class UploadedFileManager implements Cleanable<UUID> {
     }
   }
 
+  /**
+   * Copy a zipped {@link InputStream} as is if it contains a DarwinCore Archive, its files will be read directly from
+   * the ZIP file (see {@link ZippedArchive}). Other zipped content (e.g. a single zipped file) is extracted.
+   * Warning, this will close the zippedInputStream {@link InputStream}.
+   *
+   * @return path of the ZIP file or of the extracted content
+   */
+  private static Path keepZippedArchive(Path destinationFolder, InputStream zippedInputStream, String filename,
+                                        String detectedMediaType) throws ArchiveException, IOException {
+    Path zipFilePath = copyInputStream(destinationFolder, zippedInputStream, filename);
+    if (ZippedArchive.isZipFile(zipFilePath) &&
+            MediaTypeAndFormatDetector.evaluateMediaTypeAndFormat(zipFilePath, detectedMediaType)
+                    .filter(mtf -> FileFormat.DWCA == mtf.getFileFormat()).isPresent()) {
+      return zipFilePath;
+    }
+    unzip(Files.newInputStream(zipFilePath), destinationFolder);
+    Files.delete(zipFilePath);
+    return determineDataFilePath(destinationFolder);
+  }
+
   /**
    * Try to extract the filename from a String extract from the HTTP headers.
    * VISIBLE-FOR-TESTING
@@ -151,13 +178,40 @@ public class UploadedFileManager implements Cleanable<UUID> {
    */
   private static Path copyInputStream(Path destinationFolder, InputStream inputStream, String filename)
     throws IOException {
-    String fileExt = FilenameUtils.getExtension(filename);
-    Path uploadedResourcePath = destinationFolder.resolve(UUID.randomUUID() + "." + fileExt);
+    Path uploadedResourcePath = newFilePath(destinationFolder, filename);
     Files.copy(inputStream, uploadedResourcePath);
     inputStream.close();
     return uploadedResourcePath;
   }
 
+  /**
+   * Copy the provided {@link InputStream} of a tabular file into destinationFile and index its content at the same
+   * time. See {@link FileNormalizer.IndexingOutputStream}.
+   * Warning, this will close the inputStream {@link InputStream}.
+   *
+   * @param inputStream
+   * @param destinationFile
+   * @return the index of the content or empty if the content is not normalized
+   * @throws IOException
+   */
+  private static Optional<TabularFileIndex> copyAndIndexInputStream(InputStream inputStream, Path destinationFile)
+    throws IOException {
+    FileNormalizer.IndexingOutputStream out = FileNormalizer.newIndexingOutputStream(
+            Files.newOutputStream(destinationFile));
+    try (InputStream in = inputStream; OutputStream indexingOut = out) {
+      IOUtils.copy(in, indexingOut);
+    }
+    return out.getIndex();
+  }
+
+  /**
+   * Path within destinationFolder using a random UUID and the file extension extracted from filename.
+   */
+  private static Path newFilePath(Path destinationFolder, String filename) {
+    String fileExt = FilenameUtils.getExtension(filename);
+    return destinationFolder.resolve(UUID.randomUUID() + "." + fileExt);
+  }
+
   /**
    * if the provided file name is empty/null, this functions tries to gets it from the urlConnection.
    */
@@ -188,39 +242,54 @@ public class UploadedFileManager implements Cleanable<UUID> {
    * @throws IOException
    */
   public UploadedFileManager(String workingDirectory, long maxFileTransferSizeInBytes) throws IOException {
+    this(workingDirectory, maxFileTransferSizeInBytes, false);
+  }
+
+  /**
+   *
+   * @param workingDirectory
+   * @param maxFileTransferSizeInBytes
+   * @param keepArchivesZipped should DarwinCore Archives be kept as ZIP files instead of being extracted
+   * @throws IOException
+   */
+  public UploadedFileManager(String workingDirectory, long maxFileTransferSizeInBytes, boolean keepArchivesZipped)
+          throws IOException {
     this.workingDirectory = Paths.get(workingDirectory, FILEUPLOAD_TMP_FOLDER);
     this.maxFileTransferSizeInBytes = maxFileTransferSizeInBytes;
+    this.keepArchivesZipped = keepArchivesZipped;
 
     File workingDirectoryFile = this.workingDirectory.toFile();
     if(!workingDirectoryFile.exists()) {
       Files.createDirectories(this.workingDirectory);
     }
 
-    DiskFileItemFactory diskFileItemFactory = new DiskFileItemFactory(MAX_SIZE_BEFORE_DISK_IN_BYTES,
-                                                                      workingDirectoryFile);
-    servletBasedFileUpload = new ServletFileUpload(diskFileItemFactory);
+    //the streaming API is used, uploaded content is not stored in temporary files
+    servletBasedFileUpload = new ServletFileUpload();
     servletBasedFileUpload.setFileSizeMax(maxFileTransferSizeInBytes);
   }
 
   /**
    * Handles the upload of data file from request parameters.
+   * The file is read from the request while it is received and written directly to its destination.
    */
   public Optional<DataFile> uploadDataFile(HttpServletRequest request) throws FileSizeException, UnsupportedMediaTypeException {
     Optional<String> uploadedFileName = Optional.empty();
     try {
-      List<FileItem> uploadedContent = servletBasedFileUpload.parseRequest(request);
-      Optional<FileItem> uploadFileInputStream = uploadedContent.stream()
-        .filter(fileItem -> !fileItem.isFormField()
-                            && ValidationWsConfiguration.FILE_POST_PARAM_NAME.equals(fileItem.getFieldName()))
-        .findFirst();
-      if (uploadFileInputStream.isPresent()) {
-        FileItem uploadFileInputStreamVal = uploadFileInputStream.get();
-        uploadedFileName = Optional.ofNullable(uploadFileInputStreamVal.getName());
-        return handleFileTransfer(uploadFileInputStreamVal);
+      FileItemIterator uploadedContent = servletBasedFileUpload.getItemIterator(request);
+      while (uploadedContent.hasNext()) {
+        FileItemStream fileItem = uploadedContent.next();
+        if (!fileItem.isFormField() && ValidationWsConfiguration.FILE_POST_PARAM_NAME.equals(fileItem.getFieldName())) {
+          uploadedFileName = Optional.ofNullable(fileItem.getName());
+          return handleFileTransfer(fileItem);
+        }
       }
     } catch (FileUploadException fileUploadEx) {
       LOG.error("FileUpload issue", fileUploadEx);
       throw new FileSizeException(fileUploadEx);
+    } catch (FileUploadBase.FileUploadIOException fileUploadIOEx) {
+      //the size limit is checked while the content is read
+      LOG.error("FileUpload issue", fileUploadIOEx);
+      throw new FileSizeException(fileUploadIOEx);
     } catch (IOException ioEx) {
       LOG.error("Can't handle uploaded file", ioEx);
       throw errorResponse(uploadedFileName.orElse(""), Response.Status.BAD_REQUEST, ValidationErrorCode.IO_ERROR);
@@ -257,17 +326,28 @@ public class UploadedFileManager implements Cleanable<UUID> {
     final String detectedMediaType = detectMediaType(inputStreamWithMarkSupport, filename);
 
     Path dataFilePath;
+    Optional<TabularFileIndex> index = Optional.empty();
     try {
       //check if we have something to unzip
       if (ZIP_CONTENT_TYPE.contains(detectedMediaType)) {
         try {
-          unzip(inputStreamWithMarkSupport, destinationFolder);
-          dataFilePath = determineDataFilePath(destinationFolder);
+          if (keepArchivesZipped) {
+            dataFilePath = keepZippedArchive(destinationFolder, inputStreamWithMarkSupport, filename,
+                    detectedMediaType);
+          } else {
+            unzip(inputStreamWithMarkSupport, destinationFolder);
+            dataFilePath = determineDataFilePath(destinationFolder);
+          }
         } catch (ArchiveException arEx) {
           LOG.error("Issue while unzipping data from {}.", filename, arEx);
           throw new RuntimeException(arEx);
         }
       }
+      else if (TABULAR_CONTENT_TYPES.contains(detectedMediaType)) {
+        dataFilePath = newFilePath(destinationFolder, filename);
+        index = copyAndIndexInputStream(inputStreamWithMarkSupport, dataFilePath);
+        LOG.info("Received {}, indexed while received: {}", filename, index);
+      }
       else {
         dataFilePath = copyInputStream(destinationFolder, inputStreamWithMarkSupport, filename);
       }
@@ -280,9 +360,10 @@ public class UploadedFileManager implements Cleanable<UUID> {
         throw new UnsupportedMediaTypeException("Unsupported file type: " + detectedMediaType);
       }
 
+      TabularFileIndex dataFileIndex = index.orElse(null);
       return mediaTypeAndFormat
               .map(mtf -> DataFileFactory.newDataFile(key, dataFilePath, filename, mtf.getFileFormat(),
-                      detectedMediaType, mtf.getMediaType()));
+                      detectedMediaType, mtf.getMediaType(), dataFileIndex));
     } catch (IOException ioEx) {
       LOG.warn("Deleting temporary content of {} after IOException.", filename);
       FileUtils.deleteDirectory(destinationFolder.toFile());
@@ -292,10 +373,10 @@ public class UploadedFileManager implements Cleanable<UUID> {
   }
 
   /**
-   * Handles the file transfer from a FileItem.
+   * Handles the file transfer from a FileItemStream.
    */
-  private Optional<DataFile> handleFileTransfer(FileItem fileItem) throws IOException, UnsupportedMediaTypeException {
-    return handleFileTransfer(fileItem.getName(), fileItem.getInputStream());
+  private Optional<DataFile> handleFileTransfer(FileItemStream fileItem) throws IOException, UnsupportedMediaTypeException {
+    return handleFileTransfer(fileItem.getName(), fileItem.openStream());
   }
 
   /**
@@ -4,12 +4,20 @@ package org.gbif.validation.ws.file;
 import org.gbif.exception.UnsupportedMediaTypeException;
 import org.gbif.utils.file.FileUtils;
 import org.gbif.validation.api.DataFile;
+import org.gbif.validation.api.vocabulary.FileFormat;
+import org.gbif.validation.ws.conf.ValidationWsConfiguration;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Optional;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.compress.archivers.ArchiveException;
 import org.junit.Rule;
@@ -17,14 +25,22 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Unit tests for UploadedFileManager
  */
 public class UploadedFileManagerTest {
 
+  private static final String BOUNDARY = "----UploadedFileManagerTestBoundary";
+  private static final byte[] CSV_CONTENT = "id,scientificName\n1,\"Puma concolor\"\n2,\"Abies alba\"\n"
+          .getBytes(StandardCharsets.UTF_8);
+
   @Rule
   public TemporaryFolder folder = new TemporaryFolder();
 
@@ -40,6 +56,34 @@ public class UploadedFileManagerTest {
     assertEquals(3, df.get().getFilePath().toFile().listFiles().length);
   }
 
+  /**
+   * The file is read from the request while it is received and indexed at the same time.
+   */
+  @Test
+  public void testUploadDataFile() throws IOException, UnsupportedMediaTypeException {
+    UploadedFileManager uploadedFileManager = new UploadedFileManager(folder.newFolder().getAbsolutePath(), 1024L);
+    Optional<DataFile> dataFile = uploadedFileManager.uploadDataFile(newMultipartRequest("occurrence.csv",
+            CSV_CONTENT));
+
+    assertTrue(dataFile.isPresent());
+    assertEquals("occurrence.csv", dataFile.get().getSourceFileName());
+    assertEquals(FileFormat.TABULAR, dataFile.get().getFileFormat());
+    assertArrayEquals(CSV_CONTENT, Files.readAllBytes(dataFile.get().getFilePath()));
+    assertTrue(dataFile.get().getIndex().isPresent());
+    assertEquals(CSV_CONTENT.length, dataFile.get().getIndex().get().getFileSize());
+    assertEquals(',', dataFile.get().getIndex().get().getDelimiterChar().charValue());
+  }
+
+  /**
+   * The size limit is checked while the content is read, the FileUploadIOException is reported as FileSizeException.
+   */
+  @Test(expected = FileSizeException.class)
+  public void testUploadDataFileTooLarge() throws IOException, UnsupportedMediaTypeException {
+    UploadedFileManager uploadedFileManager = new UploadedFileManager(folder.newFolder().getAbsolutePath(),
+            CSV_CONTENT.length - 1);
+    uploadedFileManager.uploadDataFile(newMultipartRequest("occurrence.csv", CSV_CONTENT));
+  }
+
   @Test
   public void testUnzipWithFolders() {
     try {
@@ -79,6 +123,70 @@ public class UploadedFileManagerTest {
     }
   }
 
+  /**
+   * Mock of a multipart request with a form field followed by the file.
+   */
+  private static HttpServletRequest newMultipartRequest(String filename, byte[] content) throws IOException {
+    String beforeContent = "--" + BOUNDARY + "\r\n" +
+            "Content-Disposition: form-data; name=\"comment\"\r\n\r\n" +
+            "not a file\r\n" +
+            "--" + BOUNDARY + "\r\n" +
+            "Content-Disposition: form-data; name=\"" + ValidationWsConfiguration.FILE_POST_PARAM_NAME +
+            "\"; filename=\"" + filename + "\"\r\n" +
+            "Content-Type: text/csv\r\n\r\n";
+    String afterContent = "\r\n--" + BOUNDARY + "--\r\n";
+
+    byte[] body = new byte[beforeContent.length() + content.length + afterContent.length()];
+    System.arraycopy(beforeContent.getBytes(StandardCharsets.US_ASCII), 0, body, 0, beforeContent.length());
+    System.arraycopy(content, 0, body, beforeContent.length(), content.length);
+    System.arraycopy(afterContent.getBytes(StandardCharsets.US_ASCII), 0, body,
+            beforeContent.length() + content.length, afterContent.length());
+
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getMethod()).thenReturn("POST");
+    when(request.getContentType()).thenReturn("multipart/form-data; boundary=" + BOUNDARY);
+    when(request.getContentLength()).thenReturn(body.length);
+    when(request.getInputStream()).thenReturn(new ByteArrayServletInputStream(body));
+    return request;
+  }
+
+  /**
+   * {@link ServletInputStream} reading from a byte array.
+   */
+  private static class ByteArrayServletInputStream extends ServletInputStream {
+
+    private final ByteArrayInputStream in;
+
+    ByteArrayServletInputStream(byte[] content) {
+      in = new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public int read() {
+      return in.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      return in.read(b, off, len);
+    }
+
+    @Override
+    public boolean isFinished() {
+      return in.available() == 0;
+    }
+
+    @Override
+    public boolean isReady() {
+      return true;
+    }
+
+    @Override
+    public void setReadListener(ReadListener readListener) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
   private void assertZipFolderContent(File extractFolder) {
     File[] unzippedFiles = extractFolder.listFiles(pathname -> !pathname.isDirectory());
     File[] unzippedFolder = extractFolder.listFiles(pathname -> pathname.isDirectory());